@@ -16,6 +16,7 @@ public class AlertResponse {
     private Double latitude;
     private Double longitude;
     private Float speedKmh;
+    private Integer occurrenceCount;
 
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", timezone = "UTC")
     private Instant triggeredAt;
@@ -93,6 +94,9 @@ public class AlertResponse {
     public String getResolutionNotes() { return resolutionNotes; }
     public void setResolutionNotes(String resolutionNotes) { this.resolutionNotes = resolutionNotes; }
 
+    public Integer getOccurrenceCount() { return occurrenceCount; }
+    public void setOccurrenceCount(Integer occurrenceCount) { this.occurrenceCount = occurrenceCount; }
+
     public Map<String, Object> getMetadata() { return metadata; }
     public void setMetadata(Map<String, Object> metadata) { this.metadata = metadata; }
 
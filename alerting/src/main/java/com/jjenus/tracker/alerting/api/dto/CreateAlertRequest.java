@@ -26,6 +26,7 @@ public class CreateAlertRequest {
     private Double latitude;
     private Double longitude;
     private Float speedKmh;
+    private String ruleKey;
     private Map<String, Object> metadata;
 
     // Getters and Setters
@@ -53,6 +54,9 @@ public class CreateAlertRequest {
     public Float getSpeedKmh() { return speedKmh; }
     public void setSpeedKmh(Float speedKmh) { this.speedKmh = speedKmh; }
 
+    public String getRuleKey() { return ruleKey; }
+    public void setRuleKey(String ruleKey) { this.ruleKey = ruleKey; }
+
     public Map<String, Object> getMetadata() { return metadata; }
     public void setMetadata(Map<String, Object> metadata) { this.metadata = metadata; }
 }
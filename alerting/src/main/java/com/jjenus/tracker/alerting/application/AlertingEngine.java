@@ -1,9 +1,10 @@
 package com.jjenus.tracker.alerting.application;
 
 import com.jjenus.tracker.alerting.application.service.AlertRuleEvaluationService;
+import com.jjenus.tracker.alerting.domain.AlertCooldownTable;
+import com.jjenus.tracker.alerting.domain.AlertSuppressedEvent;
 import com.jjenus.tracker.alerting.domain.IAlertRule;
 import com.jjenus.tracker.alerting.domain.AlertDetectedEvent;
-import com.jjenus.tracker.alerting.domain.entity.AlertRule;
 import com.jjenus.tracker.alerting.infrastructure.cache.VehicleRuleCacheService;
 import com.jjenus.tracker.shared.domain.LocationPoint;
 import com.jjenus.tracker.shared.exception.ValidationException;
@@ -11,24 +12,38 @@ import com.jjenus.tracker.shared.pubsub.EventPublisher;
 import com.jjenus.tracker.alerting.exception.AlertException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
 import java.util.List;
 
+/**
+ * Evaluates each fix against the vehicle's compiled rules. The hot path reads the
+ * in-process {@link CompiledRuleTable} only and allocates nothing unless a rule fires.
+ * A rule firing again inside its cooldown is not published; the repeats are counted in
+ * the {@link AlertCooldownTable} and periodically added to the alert already raised.
+ */
 @Component
 public class AlertingEngine {
     private final VehicleRuleCacheService vehicleRuleCacheService;
+    private final CompiledRuleTable ruleTable;
     private final EventPublisher eventPublisher;
     private final AlertRuleEvaluationService evaluationService;
+    private final AlertCooldownTable cooldowns;
     private final Logger logger = LoggerFactory.getLogger(AlertingEngine.class);
 
     public AlertingEngine(
             EventPublisher eventPublisher,
             AlertRuleEvaluationService evaluationService,
-            VehicleRuleCacheService vehicleRuleCacheService) {
+            VehicleRuleCacheService vehicleRuleCacheService,
+            CompiledRuleTable ruleTable,
+            AlertCooldownTable cooldowns) {
         this.vehicleRuleCacheService = vehicleRuleCacheService;
+        this.ruleTable = ruleTable;
         this.eventPublisher = eventPublisher;
         this.evaluationService = evaluationService;
+        this.cooldowns = cooldowns;
     }
 
     public void processVehicleUpdate(String vehicleId, LocationPoint newLocation) {
@@ -39,32 +54,19 @@ public class AlertingEngine {
             );
         }
 
-        // QUICK CHECK 1: Using cached index
-        if (!vehicleRuleCacheService.hasRulesCached(vehicleId)) {
-            logger.debug("Vehicle {} has no active rules (cached index), skipping", vehicleId);
-            return;
-        }
-
-        // QUICK CHECK 2: Full cache check
-        if (!vehicleRuleCacheService.hasActiveRules(vehicleId)) {
-            return;
-        }
-
-        // Get pre-sorted rules from Redis cache
-        List<AlertRule> vehicleRules = vehicleRuleCacheService.getActiveRulesForVehicle(vehicleId);
+        List<IAlertRule> vehicleRules = ruleTable.rulesFor(vehicleId);
 
-        if (vehicleRules.isEmpty()) {
-            return;
-        }
-
-        logger.debug("Processing {} rules for vehicle {}", vehicleRules.size(), vehicleId);
-
-        for (AlertRule rule : vehicleRules) {
+        // Indexed loop, no iterator per fix
+        for (int i = 0; i < vehicleRules.size(); i++) {
+            IAlertRule rule = vehicleRules.get(i);
             try {
-                IAlertRule domainRule = convertToDomainRule(rule);
-                AlertDetectedEvent alert = evaluationService.evaluateRule(domainRule, vehicleId, newLocation);
+                AlertDetectedEvent alert = evaluationService.evaluateRule(rule, vehicleId, newLocation);
 
                 if (alert != null) {
+                    long cooldown = ruleTable.cooldownMillis(rule.getRuleKey());
+                    if (!cooldowns.tryRaise(rule.getRuleKey(), vehicleId, cooldown, System.currentTimeMillis())) {
+                        continue;
+                    }
                     logger.info("Alert triggered: {} for vehicle {}",
                             alert.getRuleKey(), vehicleId);
                     eventPublisher.publish(alert);
@@ -77,41 +79,36 @@ public class AlertingEngine {
         }
     }
 
-    private IAlertRule convertToDomainRule(AlertRule entityRule) {
-        return new IAlertRule() {
-            @Override
-            public AlertDetectedEvent evaluate(String vehicleId, LocationPoint newLocation) {
-                return evaluationService.evaluateRule(this, vehicleId, newLocation);
+    /**
+     * Publishes the occurrences suppressed since the last run, then forgets cooldowns that ran out.
+     */
+    @Scheduled(fixedDelayString = "${tracking.alerting.cooldown.flush-interval-ms:30000}")
+    public void publishSuppressedOccurrences() {
+        cooldowns.drainSuppressed((ruleKey, vehicleId, count, lastOccurredMillis) -> {
+            try {
+                eventPublisher.publish(new AlertSuppressedEvent(
+                        ruleKey, vehicleId, count, Instant.ofEpochMilli(lastOccurredMillis)));
+            } catch (Exception e) {
+                logger.error("Failed to publish {} suppressed occurrences of rule {} for vehicle {}",
+                        count, ruleKey, vehicleId, e);
             }
-
-            @Override
-            public String getRuleKey() { return entityRule.getRuleKey(); }
-
-            @Override
-            public String getRuleName() { return entityRule.getRuleName(); }
-
-            @Override
-            public boolean isEnabled() { return Boolean.TRUE.equals(entityRule.isEnabled()); }
-
-            @Override
-            public void setEnabled(boolean enabled) { entityRule.setIsEnabled(enabled); }
-
-            @Override
-            public int getPriority() { return entityRule.getPriority() != null ? entityRule.getPriority() : 5; }
-        };
+        });
+        cooldowns.evictExpired(System.currentTimeMillis());
     }
 
     // Cache management methods
     public void invalidateVehicleCache(String vehicleId) {
         vehicleRuleCacheService.invalidateVehicleRules(vehicleId);
+        ruleTable.invalidate(vehicleId);
     }
 
     public void invalidateAllCache() {
         vehicleRuleCacheService.invalidateAllVehicleRules();
+        ruleTable.invalidateAll();
     }
 
     public void refreshVehicleRules(String vehicleId) {
-        vehicleRuleCacheService.invalidateVehicleRules(vehicleId);
-        vehicleRuleCacheService.getActiveRulesForVehicle(vehicleId); // Re-cache
+        invalidateVehicleCache(vehicleId);
+        ruleTable.rulesFor(vehicleId); // Re-compile
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,105 @@
+package com.jjenus.tracker.alerting.application;
+
+import com.jjenus.tracker.alerting.domain.IAlertRule;
+import com.jjenus.tracker.alerting.domain.entity.AlertRule;
+import com.jjenus.tracker.alerting.domain.factory.AlertRuleFactory;
+import com.jjenus.tracker.alerting.infrastructure.cache.VehicleRuleCacheService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Alert rules per vehicle, compiled once through {@link AlertRuleFactory} into typed
+ * evaluators sorted by priority, and kept in process until a rule or geofence change
+ * invalidates the vehicle. Evaluating a fix only reads this table; Redis and the
+ * database are touched when a vehicle is compiled, not per fix.
+ */
+@Component
+public class CompiledRuleTable {
+    private static final Logger logger = LoggerFactory.getLogger(CompiledRuleTable.class);
+
+    private final VehicleRuleCacheService vehicleRuleCacheService;
+    private final AlertRuleFactory ruleFactory;
+    private final Map<String, List<IAlertRule>> rulesByVehicle = new ConcurrentHashMap<>();
+    // Cooldown window of every compiled rule, from the rule's cooldownMinutes
+    private final Map<String, Long> cooldownByRule = new ConcurrentHashMap<>();
+    // Bumped by every invalidation, so a compile that raced one is not kept
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public CompiledRuleTable(VehicleRuleCacheService vehicleRuleCacheService, AlertRuleFactory ruleFactory) {
+        this.vehicleRuleCacheService = vehicleRuleCacheService;
+        this.ruleFactory = ruleFactory;
+    }
+
+    /**
+     * Compiled rules of the vehicle, highest priority first; empty when it has none.
+     */
+    public List<IAlertRule> rulesFor(String vehicleId) {
+        List<IAlertRule> rules = rulesByVehicle.get(vehicleId);
+        if (rules != null) {
+            return rules;
+        }
+        long seen = invalidations.get();
+        List<IAlertRule> compiled = compile(vehicleId);
+        if (invalidations.get() != seen) {
+            return compiled;
+        }
+        List<IAlertRule> raced = rulesByVehicle.putIfAbsent(vehicleId, compiled);
+        return raced != null ? raced : compiled;
+    }
+
+    /**
+     * Cooldown window of a compiled rule in millis; 0 when it has none.
+     */
+    public long cooldownMillis(String ruleKey) {
+        Long cooldown = cooldownByRule.get(ruleKey);
+        return cooldown != null ? cooldown : 0;
+    }
+
+    public void invalidate(String vehicleId) {
+        invalidations.incrementAndGet();
+        rulesByVehicle.remove(vehicleId);
+    }
+
+    public void invalidate(Collection<String> vehicleIds) {
+        invalidations.incrementAndGet();
+        vehicleIds.forEach(rulesByVehicle::remove);
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        rulesByVehicle.clear();
+        cooldownByRule.clear();
+    }
+
+    public int getCompiledVehicleCount() {
+        return rulesByVehicle.size();
+    }
+
+    private List<IAlertRule> compile(String vehicleId) {
+        List<AlertRule> entities = vehicleRuleCacheService.getActiveRulesForVehicle(vehicleId);
+        if (entities.isEmpty()) {
+            return List.of();
+        }
+        List<IAlertRule> compiled = new ArrayList<>(entities.size());
+        for (AlertRule entity : entities) {
+            IAlertRule rule = ruleFactory.createDomainRule(entity, vehicleId);
+            if (rule != null) {
+                compiled.add(rule);
+                Integer cooldownMinutes = entity.getCooldownMinutes();
+                cooldownByRule.put(entity.getRuleKey(), cooldownMinutes != null ? cooldownMinutes * 60_000L : 0);
+            }
+        }
+        compiled.sort(Comparator.comparingInt(IAlertRule::getPriority).reversed());
+        logger.debug("Compiled {} of {} rules for vehicle {}", compiled.size(), entities.size(), vehicleId);
+        return List.copyOf(compiled);
+    }
+}
@@ -0,0 +1,129 @@
+package com.jjenus.tracker.alerting.application;
+
+import com.jjenus.tracker.alerting.domain.AlertRulesChangedEvent;
+import com.jjenus.tracker.alerting.domain.CompiledGeofence;
+import com.jjenus.tracker.alerting.domain.GeofenceIndex;
+import com.jjenus.tracker.alerting.domain.entity.Geofence;
+import com.jjenus.tracker.alerting.infrastructure.repository.GeofenceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the compiled geometry and the {@link GeofenceIndex} of all active geofences. It is
+ * loaded once at start-up; after that only modified geofences are re-read and a new
+ * index is swapped in, so lookups never wait for the database. The vehicles of each
+ * modified geofence are then announced locally so their compiled rules pick up the new
+ * geometry.
+ */
+@Component
+public class GeofenceIndexService {
+    private static final Logger logger = LoggerFactory.getLogger(GeofenceIndexService.class);
+
+    private final GeofenceRepository geofenceRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final double cellDegrees;
+    private final Map<Long, CompiledGeofence> fences = new ConcurrentHashMap<>();
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private volatile GeofenceIndex index;
+
+    public GeofenceIndexService(
+            GeofenceRepository geofenceRepository,
+            ApplicationEventPublisher applicationEventPublisher,
+            @Value("${tracking.alerting.geofence-index.cell-degrees:0.01}") double cellDegrees) {
+        this.geofenceRepository = geofenceRepository;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.cellDegrees = cellDegrees;
+        this.index = GeofenceIndex.empty(cellDegrees);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadAll() {
+        long start = System.currentTimeMillis();
+        fences.clear();
+        for (Geofence geofence : geofenceRepository.findAllActiveWithPoints()) {
+            CompiledGeofence fence = compile(geofence);
+            if (fence != null) {
+                fences.put(fence.getGeofenceId(), fence);
+            }
+        }
+        index = GeofenceIndex.build(fences.values(), cellDegrees);
+        logger.info("Indexed {} geofences in {} ms", index.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Queues the geofence to be re-read on the next refresh.
+     */
+    public void markModified(Long geofenceId) {
+        pending.add(geofenceId);
+    }
+
+    @Scheduled(fixedDelayString = "${tracking.alerting.geofence-index.refresh-interval-ms:1000}")
+    @Transactional(readOnly = true)
+    public void refresh() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Set<String> affected = new HashSet<>();
+        for (Long geofenceId : pending) {
+            pending.remove(geofenceId);
+            CompiledGeofence fence = geofenceRepository.findById(geofenceId)
+                    .map(GeofenceIndexService::compile)
+                    .orElse(null);
+            CompiledGeofence previous = fence != null
+                    ? fences.put(geofenceId, fence)
+                    : fences.remove(geofenceId);
+            if (previous != null) {
+                affected.addAll(previous.getVehicleIds());
+            }
+            if (fence != null) {
+                affected.addAll(fence.getVehicleIds());
+            }
+        }
+        index = GeofenceIndex.build(fences.values(), cellDegrees);
+        logger.debug("Rebuilt geofence index with {} geofences, {} vehicles affected",
+                index.size(), affected.size());
+        if (!affected.isEmpty()) {
+            applicationEventPublisher.publishEvent(new AlertRulesChangedEvent(affected));
+        }
+    }
+
+    public long[] containing(double latitude, double longitude) {
+        return index.containing(latitude, longitude);
+    }
+
+    public long[] containingForVehicle(String vehicleId, double latitude, double longitude) {
+        return index.containingForVehicle(vehicleId, latitude, longitude);
+    }
+
+    public long[] fencesFor(String vehicleId) {
+        return index.fencesFor(vehicleId);
+    }
+
+    /**
+     * Compiled geometry of an active geofence, or null when it is not indexed.
+     */
+    public CompiledGeofence geometry(long geofenceId) {
+        return fences.get(geofenceId);
+    }
+
+    public int getIndexedCount() {
+        return index.size();
+    }
+
+    private static CompiledGeofence compile(Geofence geofence) {
+        return Boolean.TRUE.equals(geofence.getIsActive()) ? CompiledGeofence.of(geofence) : null;
+    }
+}
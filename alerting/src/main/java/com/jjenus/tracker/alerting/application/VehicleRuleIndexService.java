@@ -0,0 +1,117 @@
+package com.jjenus.tracker.alerting.application;
+
+import com.jjenus.tracker.alerting.domain.AlertRulesChangedEvent;
+import com.jjenus.tracker.alerting.domain.VehicleRuleIndex;
+import com.jjenus.tracker.alerting.domain.entity.AlertRule;
+import com.jjenus.tracker.alerting.infrastructure.repository.AlertRuleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the {@link VehicleRuleIndex} of all enabled rules. It is loaded once at start-up;
+ * after that only modified rules are re-read and patched in, and the vehicles they
+ * affect are announced locally so their compiled rules are rebuilt from the new index.
+ * When superseded rule versions pile up, a compacted copy of the index is swapped in.
+ */
+@Component
+public class VehicleRuleIndexService {
+    private static final Logger logger = LoggerFactory.getLogger(VehicleRuleIndexService.class);
+
+    private final AlertRuleRepository ruleRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private volatile VehicleRuleIndex index = new VehicleRuleIndex();
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private volatile boolean loaded;
+
+    public VehicleRuleIndexService(AlertRuleRepository ruleRepository,
+                                   ApplicationEventPublisher applicationEventPublisher) {
+        this.ruleRepository = ruleRepository;
+        this.applicationEventPublisher = applicationEventPublisher;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadAll() {
+        long start = System.currentTimeMillis();
+        index.rebuild(ruleRepository.findAllActiveWithVehicles());
+        loaded = true;
+        logger.info("Indexed {} rules for {} vehicles in {} ms",
+                index.ruleCount(), index.vehicleIds().size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Queues the rule to be re-read on the next refresh.
+     */
+    public void markModified(Long ruleId) {
+        pending.add(ruleId);
+    }
+
+    @Scheduled(fixedDelayString = "${tracking.alerting.rule-index.refresh-interval-ms:1000}")
+    @Transactional(readOnly = true)
+    public void refresh() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Set<String> affected = new HashSet<>();
+        for (Long ruleId : pending) {
+            pending.remove(ruleId);
+            affected.addAll(ruleRepository.findByIdWithVehicles(ruleId)
+                    .map(index::put)
+                    .orElseGet(() -> index.remove(ruleId)));
+        }
+        logger.debug("Re-indexed rules, {} vehicles affected", affected.size());
+        if (index.needsCompaction()) {
+            int dead = index.deadSlots();
+            index = index.compacted();
+            logger.info("Compacted rule index, dropped {} dead slots", dead);
+        }
+        if (!affected.isEmpty()) {
+            applicationEventPublisher.publishEvent(new AlertRulesChangedEvent(affected));
+        }
+    }
+
+    /**
+     * True once the index has been loaded and can answer for every vehicle.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public List<AlertRule> rulesFor(String vehicleId) {
+        return index.rulesFor(vehicleId);
+    }
+
+    public boolean hasRules(String vehicleId) {
+        return index.hasRules(vehicleId);
+    }
+
+    public Set<String> vehicleIds() {
+        return index.vehicleIds();
+    }
+
+    /**
+     * Whether the rule applies to the vehicle, from the index once loaded and the rule's
+     * own vehicle set before that.
+     */
+    public boolean appliesTo(AlertRule rule, String vehicleId) {
+        if (loaded && rule.getRuleId() != null && index.isIndexed(rule.getRuleId())) {
+            return index.appliesTo(rule.getRuleId(), vehicleId);
+        }
+        return rule.appliesToVehicle(vehicleId);
+    }
+
+    public int getIndexedCount() {
+        return index.ruleCount();
+    }
+}
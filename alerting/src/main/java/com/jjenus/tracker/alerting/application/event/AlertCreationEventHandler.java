@@ -3,6 +3,7 @@ package com.jjenus.tracker.alerting.application.event;
 import com.jjenus.tracker.alerting.api.dto.AlertResponse;
 import com.jjenus.tracker.alerting.application.service.AlertService;
 import com.jjenus.tracker.alerting.domain.AlertDetectedEvent;
+import com.jjenus.tracker.alerting.domain.AlertSuppressedEvent;
 import com.jjenus.tracker.alerting.domain.enums.AlertType;
 import com.jjenus.tracker.shared.events.AlertRaisedEvent;
 import com.jjenus.tracker.shared.pubsub.EventPublisher;
@@ -80,6 +81,20 @@ public class AlertCreationEventHandler {
         }
     }
 
+    @JmsListener(
+            destination = "tracking.events.alertsuppressedevent",
+            containerFactory = "topicJmsListenerContainerFactory"
+    )
+    public void handleAlertSuppressed(@Payload AlertSuppressedEvent event) {
+        try {
+            alertService.recordSuppressedOccurrences(event.getVehicleId(), event.getRuleKey(),
+                    event.getCount(), event.getLastOccurredAt());
+        } catch (Exception e) {
+            logger.error("Failed to record suppressed occurrences of rule {} for vehicle {}",
+                    event.getRuleKey(), event.getVehicleId(), e);
+        }
+    }
+
     // Additional event handlers for other alert-related events
     @JmsListener(
             destination = "tracking.events.vehicleupdatedevent",
@@ -1,10 +1,18 @@
 package com.jjenus.tracker.alerting.application.event;
 
+import com.jjenus.tracker.alerting.application.CompiledRuleTable;
+import com.jjenus.tracker.alerting.application.GeofenceIndexService;
+import com.jjenus.tracker.alerting.application.VehicleRuleIndexService;
+import com.jjenus.tracker.alerting.domain.AlertRuleModifiedEvent;
+import com.jjenus.tracker.alerting.domain.AlertRulesChangedEvent;
+import com.jjenus.tracker.alerting.domain.GeofenceModifiedEvent;
 import com.jjenus.tracker.alerting.infrastructure.cache.GeofenceCacheService;
 import com.jjenus.tracker.alerting.infrastructure.cache.VehicleRuleCacheService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.event.EventListener;
+import org.springframework.jms.annotation.JmsListener;
+import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
 import java.util.Set;
@@ -16,12 +24,51 @@ public class CacheInvalidationEventListener {
 
     private final VehicleRuleCacheService vehicleRuleCacheService;
     private final GeofenceCacheService geofenceCacheService;
+    private final CompiledRuleTable ruleTable;
+    private final GeofenceIndexService geofenceIndex;
+    private final VehicleRuleIndexService ruleIndex;
 
     public CacheInvalidationEventListener(
             VehicleRuleCacheService vehicleRuleCacheService,
-            GeofenceCacheService geofenceCacheService) {
+            GeofenceCacheService geofenceCacheService,
+            CompiledRuleTable ruleTable,
+            GeofenceIndexService geofenceIndex,
+            VehicleRuleIndexService ruleIndex) {
         this.vehicleRuleCacheService = vehicleRuleCacheService;
         this.geofenceCacheService = geofenceCacheService;
+        this.ruleTable = ruleTable;
+        this.geofenceIndex = geofenceIndex;
+        this.ruleIndex = ruleIndex;
+    }
+
+    /**
+     * Delivered to every node, the one that made the change included; also published
+     * locally by the rule index once it has re-read modified rules.
+     */
+    @JmsListener(destination = "tracking.events.alertruleschangedevent",
+            containerFactory = "topicJmsListenerContainerFactory"
+    )
+    @EventListener
+    public void handleRulesChanged(@Payload AlertRulesChangedEvent event) {
+        if (event.isAllVehicles()) {
+            ruleTable.invalidateAll();
+        } else {
+            ruleTable.invalidate(event.getVehicleIds());
+        }
+    }
+
+    @JmsListener(destination = "tracking.events.alertrulemodifiedevent",
+            containerFactory = "topicJmsListenerContainerFactory"
+    )
+    public void handleRuleModified(@Payload AlertRuleModifiedEvent event) {
+        ruleIndex.markModified(event.getRuleId());
+    }
+
+    @JmsListener(destination = "tracking.events.geofencemodifiedevent",
+            containerFactory = "topicJmsListenerContainerFactory"
+    )
+    public void handleGeofenceModified(@Payload GeofenceModifiedEvent event) {
+        geofenceIndex.markModified(event.getGeofenceId());
     }
 
     @EventListener
@@ -35,6 +82,7 @@ public class CacheInvalidationEventListener {
         if (event.getAffectedVehicleIds() != null) {
             geofenceCacheService.invalidateVehicleGeofenceCaches(event.getAffectedVehicleIds());
             event.getAffectedVehicleIds().forEach(vehicleRuleCacheService::invalidateVehicleRules);
+            ruleTable.invalidate(event.getAffectedVehicleIds());
         }
     }
 
@@ -4,14 +4,18 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jjenus.tracker.alerting.api.dto.*;
+import com.jjenus.tracker.alerting.domain.AlertRuleModifiedEvent;
 import com.jjenus.tracker.alerting.domain.entity.AlertRule;
 import com.jjenus.tracker.alerting.domain.entity.Geofence;
 import com.jjenus.tracker.alerting.domain.enums.AlertRuleType;
 import com.jjenus.tracker.alerting.exception.AlertException;
 import com.jjenus.tracker.alerting.infrastructure.cache.AlertRuleCacheService;
+import com.jjenus.tracker.alerting.infrastructure.cache.CacheGenerationService;
 import com.jjenus.tracker.alerting.infrastructure.cache.RedisKeyGenerator;
 import com.jjenus.tracker.alerting.infrastructure.cache.VehicleRuleCacheService;
 import com.jjenus.tracker.alerting.infrastructure.repository.AlertRuleRepository;
+import com.jjenus.tracker.shared.pubsub.AfterCommit;
+import com.jjenus.tracker.shared.pubsub.EventPublisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.CacheEvict;
@@ -43,16 +47,31 @@ public class AlertRuleService {
     private final AlertRuleCacheService ruleCacheService;
     private final VehicleRuleCacheService vehicleRuleCacheService;
     private final ObjectMapper objectMapper;
+    private final EventPublisher eventPublisher;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisKeyGenerator keyGenerator;
+    private final CacheGenerationService cacheGenerations;
+    private final GeofenceRuleValidator geofenceRuleValidator;
 
     public AlertRuleService(
             AlertRuleRepository ruleRepository,
             AlertRuleCacheService ruleCacheService,
             VehicleRuleCacheService vehicleRuleCacheService,
-            ObjectMapper objectMapper) {
+            ObjectMapper objectMapper,
+            EventPublisher eventPublisher,
+            RedisTemplate<String, Object> redisTemplate,
+            RedisKeyGenerator keyGenerator,
+            CacheGenerationService cacheGenerations,
+            GeofenceRuleValidator geofenceRuleValidator) {
         this.ruleRepository = ruleRepository;
         this.ruleCacheService = ruleCacheService;
         this.vehicleRuleCacheService = vehicleRuleCacheService;
         this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.redisTemplate = redisTemplate;
+        this.keyGenerator = keyGenerator;
+        this.cacheGenerations = cacheGenerations;
+        this.geofenceRuleValidator = geofenceRuleValidator;
     }
 
     // ========== TEMPLATE METHODS ==========
@@ -185,15 +204,16 @@ public class AlertRuleService {
     @Transactional(readOnly = true)
     @Cacheable(value = "alertRulesPaged", key = "'search_' + #searchRequest.hashCode()")
     public PagedResponse<AlertRuleResponse> getAllRulesPaged(SearchRequest searchRequest) {
-        String cacheKey = keyGenerator.getPaginatedRulesKey(
-                searchRequest.getPage(),
-                searchRequest.getSize(),
-                searchRequest.getSortBy(),
-                searchRequest.getSortDirection().name(),
-                searchRequest.getSearch(),
-                searchRequest.getRuleType() != null ? searchRequest.getRuleType().name() : null,
-                searchRequest.getEnabled()
-        );
+        String cacheKey = keyGenerator.versioned(RedisKeyGenerator.PAGINATED_RULES_NAMESPACE,
+                keyGenerator.getPaginatedRulesKey(
+                        searchRequest.getPage(),
+                        searchRequest.getSize(),
+                        searchRequest.getSortBy(),
+                        searchRequest.getSortDirection().name(),
+                        searchRequest.getSearch(),
+                        searchRequest.getRuleType() != null ? searchRequest.getRuleType().name() : null,
+                        searchRequest.getEnabled()
+                ));
 
         try {
             // Try cache first
@@ -320,14 +340,15 @@ public class AlertRuleService {
 
             // Update cache
             ruleCacheService.cacheRule(updated);
-
-            // Invalidate vehicle caches if vehicle associations changed
-            if (!oldVehicleIds.equals(rule.getVehicleIds())) {
-                Set<String> allAffectedVehicles = new HashSet<>(oldVehicleIds);
-                allAffectedVehicles.addAll(rule.getVehicleIds());
-                allAffectedVehicles.forEach(vehicleRuleCacheService::invalidateVehicleRules);
+            if (!ruleKey.equals(updated.getRuleKey())) {
+                ruleCacheService.evictRule(ruleKey);
             }
 
+            // Cached and compiled copies of the rule are stale for old and new vehicles alike
+            Set<String> allAffectedVehicles = new HashSet<>(oldVehicleIds);
+            allAffectedVehicles.addAll(rule.getVehicleIds());
+            ruleChanged(updated.getRuleId(), allAffectedVehicles);
+
             // Invalidate pagination cache
             invalidatePaginationCache();
 
@@ -363,7 +384,7 @@ public class AlertRuleService {
             ruleCacheService.cacheRule(rule);
 
             // Invalidate vehicle caches
-            rule.getVehicleIds().forEach(vehicleRuleCacheService::invalidateVehicleRules);
+            ruleChanged(rule.getRuleId(), rule.getVehicleIds());
 
             // Invalidate pagination cache
             invalidatePaginationCache();
@@ -398,7 +419,7 @@ public class AlertRuleService {
             ruleCacheService.evictRule(ruleKey);
 
             // Invalidate vehicle caches
-            rule.getVehicleIds().forEach(vehicleRuleCacheService::invalidateVehicleRules);
+            ruleChanged(rule.getRuleId(), rule.getVehicleIds());
 
             // Invalidate pagination cache
             invalidatePaginationCache();
@@ -432,7 +453,7 @@ public class AlertRuleService {
         ruleCacheService.evictRule(ruleKey);
 
         // Invalidate vehicle caches
-        affectedVehicles.forEach(vehicleRuleCacheService::invalidateVehicleRules);
+        ruleChanged(rule.getRuleId(), affectedVehicles);
 
         // Invalidate pagination cache
         invalidatePaginationCache();
@@ -447,13 +468,22 @@ public class AlertRuleService {
         return PageRequest.of(searchRequest.getPage(), searchRequest.getSize(), sort);
     }
 
+    private void ruleChanged(Long ruleId, Set<String> vehicleIds) {
+        Set<String> affected = new HashSet<>(vehicleIds);
+        // The rule index on every node, this one included, re-reads the rule and then
+        // invalidates the compiled rules of the vehicles it affects; both must wait for
+        // the commit or they re-read the old rule
+        AfterCommit.run(() -> {
+            affected.forEach(vehicleRuleCacheService::invalidateVehicleRules);
+            eventPublisher.publish(new AlertRuleModifiedEvent(ruleId));
+        });
+    }
+
     private void invalidatePaginationCache() {
         try {
-            Set<String> keys = redisTemplate.keys(keyGenerator.getPaginatedRulesPattern());
-            if (keys != null && !keys.isEmpty()) {
-                redisTemplate.delete(keys);
-                logger.debug("Invalidated pagination cache for rules");
-            }
+            // Orphans every cached page; they expire by their TTL
+            cacheGenerations.bump(RedisKeyGenerator.PAGINATED_RULES_NAMESPACE);
+            logger.debug("Invalidated pagination cache for rules");
         } catch (Exception e) {
             logger.warn("Failed to invalidate pagination cache", e);
         }
@@ -474,7 +504,7 @@ public class AlertRuleService {
         ruleCacheService.cacheRule(saved);
 
         // Invalidate affected vehicle caches
-        saved.getVehicleIds().forEach(vehicleRuleCacheService::invalidateVehicleRules);
+        ruleChanged(saved.getRuleId(), saved.getVehicleIds());
 
         // Invalidate pagination cache
         invalidatePaginationCache();
@@ -801,7 +831,7 @@ public class AlertRuleService {
         Map<String, List<AlertRuleResponse>> result = new HashMap<>();
 
         for (String vehicleId : vehicleIds) {
-            List<AlertRule> vehicleRules = ruleRepository.findActiveRulesForVehicle(vehicleId);
+            List<AlertRule> vehicleRules = vehicleRuleCacheService.getActiveRulesForVehicle(vehicleId);
             result.put(vehicleId, vehicleRules.stream()
                     .map(this::toResponse)
                     .collect(Collectors.toList()));
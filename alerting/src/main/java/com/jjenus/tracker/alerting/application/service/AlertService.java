@@ -59,6 +59,7 @@ public class AlertService {
         alert.setAlertType(request.getAlertType());
         alert.setSeverity(request.getSeverity());
         alert.setMessage(request.getMessage());
+        alert.setRuleKey(request.getRuleKey());
 
         if (request.getLatitude() != null && request.getLongitude() != null) {
             alert.setLocation(String.format("%s,%s",
@@ -74,6 +75,7 @@ public class AlertService {
         }
 
         alert.setTriggeredAt(Instant.now());
+        alert.setLastOccurredAt(alert.getTriggeredAt());
         alert.setAcknowledged(false);
         alert.setResolved(false);
 
@@ -260,6 +262,7 @@ public class AlertService {
         response.setResolvedBy(alert.getResolvedBy());
         response.setResolvedAt(alert.getResolvedAt());
         response.setResolutionNotes(alert.getResolutionNotes());
+        response.setOccurrenceCount(alert.getOccurrenceCount());
         response.setMetadata(alert.getMetadata());
         response.setCreatedAt(alert.getCreatedAt());
         response.setUpdatedAt(alert.getUpdatedAt());
@@ -291,6 +294,11 @@ public class AlertService {
         return counts;
     }
 
+    @Transactional(readOnly = true)
+    public Map<String, Long> getAlertStatistics(Instant startDate, Instant endDate) {
+        return alertQueryService.getAlertStatistics(startDate, endDate);
+    }
+
     @Transactional(readOnly = true)
     @Cacheable(value = "alerts", key = "'recent_' + #vehicleId + '_' + #limit")
     public List<AlertResponse> getRecentAlerts(String vehicleId, int limit) {
@@ -306,7 +314,7 @@ public class AlertService {
 
     @Transactional
     @CacheEvict(value = {"alerts", "alertsPaged", "alertStats"}, allEntries = true)
-    public void processAutomatedAlert(String vehicleId, String trackerId,
+    public AlertResponse processAutomatedAlert(String vehicleId, String trackerId,
                                       AlertType alertType, AlertSeverity severity,
                                       String message, Map<String, Object> metadata) {
 
@@ -317,13 +325,36 @@ public class AlertService {
         request.setSeverity(severity);
         request.setMessage(message);
         request.setMetadata(metadata);
+        if (metadata != null && metadata.get("ruleKey") != null) {
+            request.setRuleKey(metadata.get("ruleKey").toString());
+        }
 
-        createAlert(request);
+        AlertResponse response = createAlert(request);
 
         // Notify relevant systems about critical alerts
         if (severity == AlertSeverity.CRITICAL) {
             notifyCriticalAlert(vehicleId, alertType, message);
         }
+        return response;
+    }
+
+    /**
+     * Adds occurrences suppressed by the rule's cooldown to the open alert the rule raised
+     * for the vehicle; returns false when there is no such alert (e.g. already resolved).
+     */
+    @Transactional
+    @CacheEvict(value = {"alerts", "alertsPaged"}, allEntries = true)
+    public boolean recordSuppressedOccurrences(String vehicleId, String ruleKey, int count,
+                                               Instant lastOccurredAt) {
+        List<TrackerAlert> open = alertRepository.findOpenRuleAlerts(
+                vehicleId, ruleKey, lastOccurredAt, PageRequest.of(0, 1));
+        if (open.isEmpty()) {
+            logger.debug("No open alert of rule {} for vehicle {}, dropping {} suppressed occurrences",
+                    ruleKey, vehicleId, count);
+            return false;
+        }
+        alertRepository.addOccurrences(open.get(0).getAlertId(), count, lastOccurredAt);
+        return true;
     }
 
     private void notifyCriticalAlert(String vehicleId, AlertType alertType, String message) {
@@ -5,11 +5,17 @@ import com.jjenus.tracker.alerting.api.dto.GeofencePointDto;
 import com.jjenus.tracker.alerting.api.dto.GeofenceResponse;
 import com.jjenus.tracker.alerting.api.dto.PagedResponse;
 import com.jjenus.tracker.alerting.api.dto.SearchRequest;
+import com.jjenus.tracker.alerting.application.GeofenceIndexService;
+import com.jjenus.tracker.alerting.domain.AlertRulesChangedEvent;
+import com.jjenus.tracker.alerting.domain.GeofenceModifiedEvent;
 import com.jjenus.tracker.alerting.domain.entity.Geofence;
 import com.jjenus.tracker.alerting.domain.entity.GeofencePoint;
+import com.jjenus.tracker.alerting.infrastructure.cache.CacheGenerationService;
 import com.jjenus.tracker.alerting.infrastructure.cache.GeofenceCacheService;
 import com.jjenus.tracker.alerting.infrastructure.cache.RedisKeyGenerator;
 import com.jjenus.tracker.alerting.infrastructure.repository.GeofenceRepository;
+import com.jjenus.tracker.shared.pubsub.AfterCommit;
+import com.jjenus.tracker.shared.pubsub.EventPublisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -20,6 +26,7 @@ import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
@@ -35,16 +42,25 @@ public class GeofenceService {
     private final GeofenceCacheService geofenceCacheService;
     private final RedisTemplate<String, Object> redisTemplate;
     private final RedisKeyGenerator keyGenerator;
+    private final EventPublisher eventPublisher;
+    private final GeofenceIndexService geofenceIndex;
+    private final CacheGenerationService cacheGenerations;
 
     public GeofenceService(
             GeofenceRepository geofenceRepository,
             GeofenceCacheService geofenceCacheService,
             RedisTemplate<String, Object> redisTemplate,
-            RedisKeyGenerator keyGenerator) {
+            RedisKeyGenerator keyGenerator,
+            EventPublisher eventPublisher,
+            GeofenceIndexService geofenceIndex,
+            CacheGenerationService cacheGenerations) {
         this.geofenceRepository = geofenceRepository;
         this.geofenceCacheService = geofenceCacheService;
         this.redisTemplate = redisTemplate;
         this.keyGenerator = keyGenerator;
+        this.eventPublisher = eventPublisher;
+        this.geofenceIndex = geofenceIndex;
+        this.cacheGenerations = cacheGenerations;
     }
 
     @Transactional
@@ -53,6 +69,8 @@ public class GeofenceService {
 
         // Cache the geofence
         geofenceCacheService.cacheGeofence(saved);
+        Long geofenceId = saved.getGeofenceId();
+        AfterCommit.run(() -> eventPublisher.publish(new GeofenceModifiedEvent(geofenceId)));
 
         // Invalidate pagination cache
         invalidatePaginationCache();
@@ -82,15 +100,16 @@ public class GeofenceService {
 
     @Transactional(readOnly = true)
     public PagedResponse<GeofenceResponse> getVehicleGeofencesPaged(String vehicleId, SearchRequest searchRequest) {
-        String cacheKey = keyGenerator.getPaginatedGeofencesKey(
-                searchRequest.getPage(),
-                searchRequest.getSize(),
-                searchRequest.getSortBy(),
-                searchRequest.getSortDirection().name(),
-                searchRequest.getSearch(),
-                vehicleId,
-                null // Don't filter by active status
-        );
+        String cacheKey = keyGenerator.versioned(RedisKeyGenerator.PAGINATED_GEOFENCES_NAMESPACE,
+                keyGenerator.getPaginatedGeofencesKey(
+                        searchRequest.getPage(),
+                        searchRequest.getSize(),
+                        searchRequest.getSortBy(),
+                        searchRequest.getSortDirection().name(),
+                        searchRequest.getSearch(),
+                        vehicleId,
+                        null // Don't filter by active status
+                ));
 
         try {
             // Try cache first
@@ -127,15 +146,16 @@ public class GeofenceService {
 
     @Transactional(readOnly = true)
     public PagedResponse<GeofenceResponse> getActiveGeofencesPaged(String vehicleId, SearchRequest searchRequest) {
-        String cacheKey = keyGenerator.getPaginatedGeofencesKey(
-                searchRequest.getPage(),
-                searchRequest.getSize(),
-                searchRequest.getSortBy(),
-                searchRequest.getSortDirection().name(),
-                searchRequest.getSearch(),
-                vehicleId,
-                true // Filter by active=true
-        );
+        String cacheKey = keyGenerator.versioned(RedisKeyGenerator.PAGINATED_GEOFENCES_NAMESPACE,
+                keyGenerator.getPaginatedGeofencesKey(
+                        searchRequest.getPage(),
+                        searchRequest.getSize(),
+                        searchRequest.getSortBy(),
+                        searchRequest.getSortDirection().name(),
+                        searchRequest.getSearch(),
+                        vehicleId,
+                        true // Filter by active=true
+                ));
 
         try {
             // Try cache first
@@ -167,15 +187,16 @@ public class GeofenceService {
 
     @Transactional(readOnly = true)
     public PagedResponse<GeofenceResponse> searchGeofences(SearchRequest searchRequest) {
-        String cacheKey = keyGenerator.getPaginatedGeofencesKey(
-                searchRequest.getPage(),
-                searchRequest.getSize(),
-                searchRequest.getSortBy(),
-                searchRequest.getSortDirection().name(),
-                searchRequest.getSearch(),
-                searchRequest.getVehicleId(),
-                searchRequest.getActive()
-        );
+        String cacheKey = keyGenerator.versioned(RedisKeyGenerator.PAGINATED_GEOFENCES_NAMESPACE,
+                keyGenerator.getPaginatedGeofencesKey(
+                        searchRequest.getPage(),
+                        searchRequest.getSize(),
+                        searchRequest.getSortBy(),
+                        searchRequest.getSortDirection().name(),
+                        searchRequest.getSearch(),
+                        searchRequest.getVehicleId(),
+                        searchRequest.getActive()
+                ));
 
         try {
             // Try cache first
@@ -268,6 +289,13 @@ public class GeofenceService {
         Set<String> allAffected = oldVehicleIds;
         allAffected.addAll(newVehicleIds);
         geofenceCacheService.invalidateVehicleGeofenceCaches(allAffected);
+        // Geofence rules of these vehicles were compiled against the old geometry;
+        // announce the change once it is committed so nodes re-read the new one
+        Set<String> vehicleIds = new HashSet<>(allAffected);
+        AfterCommit.run(() -> {
+            eventPublisher.publish(new AlertRulesChangedEvent(vehicleIds));
+            eventPublisher.publish(new GeofenceModifiedEvent(geofenceId));
+        });
 
         // Invalidate pagination cache
         invalidatePaginationCache();
@@ -288,6 +316,11 @@ public class GeofenceService {
         // Invalidate caches
         geofenceCacheService.invalidateGeofence(geofenceId);
         geofenceCacheService.invalidateVehicleGeofenceCaches(affectedVehicles);
+        Set<String> vehicleIds = new HashSet<>(affectedVehicles);
+        AfterCommit.run(() -> {
+            eventPublisher.publish(new AlertRulesChangedEvent(vehicleIds));
+            eventPublisher.publish(new GeofenceModifiedEvent(geofenceId));
+        });
 
         // Invalidate pagination cache
         invalidatePaginationCache();
@@ -304,14 +337,13 @@ public class GeofenceService {
     }
 
     public void checkGeofenceViolations(String vehicleId, Double latitude, Double longitude) {
-        List<Geofence> nearbyGeofences = findNearbyGeofencesForVehicle(vehicleId, latitude, longitude);
+        // Answered from the in-memory index, which covers polygons as well as circles
+        long[] inside = geofenceIndex.containingForVehicle(vehicleId, latitude, longitude);
 
-        for (Geofence geofence : nearbyGeofences) {
-            boolean isInside = geofence.isPointInside(latitude, longitude);
-            logger.debug("Vehicle {} is {} geofence {} at [{}, {}]",
+        for (long geofenceId : inside) {
+            logger.debug("Vehicle {} is inside geofence {} at [{}, {}]",
                     vehicleId,
-                    isInside ? "inside" : "outside",
-                    geofence.getName(),
+                    geofenceId,
                     latitude, longitude);
         }
     }
@@ -332,11 +364,9 @@ public class GeofenceService {
 
     private void invalidatePaginationCache() {
         try {
-            Set<String> keys = redisTemplate.keys(keyGenerator.getPaginatedGeofencesPattern());
-            if (keys != null && !keys.isEmpty()) {
-                redisTemplate.delete(keys);
-                logger.debug("Invalidated pagination cache for geofences");
-            }
+            // Orphans every cached page; they expire by their TTL
+            cacheGenerations.bump(RedisKeyGenerator.PAGINATED_GEOFENCES_NAMESPACE);
+            logger.debug("Invalidated pagination cache for geofences");
         } catch (Exception e) {
             logger.warn("Failed to invalidate pagination cache", e);
         }
@@ -0,0 +1,146 @@
+package com.jjenus.tracker.alerting.domain;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * When each rule last raised an alert for a vehicle. A rule firing again inside its
+ * cooldown window is suppressed and only counted; the counts are drained periodically
+ * and added to the alert that was raised, so a sustained condition produces one alert
+ * and an occurrence count rather than an alert per fix.
+ */
+public class AlertCooldownTable {
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    // Counts of alerts whose window closed before the counts were drained
+    private final Queue<Suppressed> closed = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Records the rule firing; true when the alert should be raised, false when it is
+     * suppressed by the window of the previous one. A window of 0 never suppresses.
+     */
+    public boolean tryRaise(String ruleKey, String vehicleId, long windowMillis, long nowMillis) {
+        if (windowMillis <= 0) {
+            return true;
+        }
+        Key key = new Key(ruleKey, vehicleId);
+        while (true) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                Entry loaded = new Entry(loadLastRaised(ruleKey, vehicleId), windowMillis);
+                Entry raced = entries.putIfAbsent(key, loaded);
+                entry = raced != null ? raced : loaded;
+            }
+            synchronized (entry) {
+                if (entry.evicted) {
+                    // Removed by evictExpired after we looked it up; use its replacement
+                    continue;
+                }
+                entry.windowMillis = windowMillis;
+                if (entry.lastRaisedMillis != 0 && nowMillis - entry.lastRaisedMillis < windowMillis) {
+                    entry.suppressed++;
+                    entry.lastSuppressedMillis = nowMillis;
+                    return false;
+                }
+                if (entry.suppressed > 0) {
+                    closed.add(new Suppressed(ruleKey, vehicleId, entry.suppressed, entry.lastSuppressedMillis));
+                    entry.suppressed = 0;
+                }
+                entry.lastRaisedMillis = nowMillis;
+            }
+            break;
+        }
+        raised(ruleKey, vehicleId, nowMillis, windowMillis);
+        return true;
+    }
+
+    /**
+     * Hands every pending suppressed count to {@code sink} and resets it.
+     */
+    public void drainSuppressed(SuppressedSink sink) {
+        Suppressed done;
+        while ((done = closed.poll()) != null) {
+            sink.accept(done.ruleKey(), done.vehicleId(), done.count(), done.lastOccurredMillis());
+        }
+        entries.forEach((key, entry) -> {
+            int count;
+            long lastOccurred;
+            synchronized (entry) {
+                if (entry.suppressed == 0) {
+                    return;
+                }
+                count = entry.suppressed;
+                lastOccurred = entry.lastSuppressedMillis;
+                entry.suppressed = 0;
+            }
+            sink.accept(key.ruleKey(), key.vehicleId(), count, lastOccurred);
+        });
+    }
+
+    /**
+     * Drops entries whose window has passed and that have nothing left to drain; returns how many.
+     */
+    public int evictExpired(long nowMillis) {
+        int evicted = 0;
+        for (Map.Entry<Key, Entry> mapping : entries.entrySet()) {
+            Entry entry = mapping.getValue();
+            synchronized (entry) {
+                if (entry.suppressed == 0 && nowMillis - entry.lastRaisedMillis >= entry.windowMillis
+                        && entries.remove(mapping.getKey(), entry)) {
+                    entry.evicted = true;
+                    evicted++;
+                }
+            }
+        }
+        return evicted;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * When the rule last raised an alert for the vehicle elsewhere (another node, before a
+     * restart), in epoch millis; 0 when unknown, which is the default.
+     */
+    protected long loadLastRaised(String ruleKey, String vehicleId) {
+        return 0;
+    }
+
+    /**
+     * Called after an alert was let through; does nothing by default.
+     */
+    protected void raised(String ruleKey, String vehicleId, long raisedMillis, long windowMillis) {
+    }
+
+    @FunctionalInterface
+    public interface SuppressedSink {
+        void accept(String ruleKey, String vehicleId, int count, long lastOccurredMillis);
+    }
+
+    private record Key(String ruleKey, String vehicleId) {
+        private Key {
+            Objects.requireNonNull(ruleKey);
+            Objects.requireNonNull(vehicleId);
+        }
+    }
+
+    private record Suppressed(String ruleKey, String vehicleId, int count, long lastOccurredMillis) {
+    }
+
+    private static final class Entry {
+        private long lastRaisedMillis;
+        private long windowMillis;
+        private int suppressed;
+        private long lastSuppressedMillis;
+        // Set once removed from the table, so a caller that looked it up before retries
+        private boolean evicted;
+
+        private Entry(long lastRaisedMillis, long windowMillis) {
+            this.lastRaisedMillis = lastRaisedMillis;
+            this.windowMillis = windowMillis;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.jjenus.tracker.alerting.domain;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.jjenus.tracker.shared.pubsub.DomainEvent;
+
+/**
+ * An alert rule was created, updated, enabled, disabled or deleted, so every node
+ * re-reads it into its vehicle rule index.
+ */
+public class AlertRuleModifiedEvent extends DomainEvent {
+    private final Long ruleId;
+
+    @JsonCreator
+    public AlertRuleModifiedEvent(@JsonProperty("ruleId") Long ruleId) {
+        this.ruleId = ruleId;
+    }
+
+    public Long getRuleId() { return ruleId; }
+}
@@ -0,0 +1,27 @@
+package com.jjenus.tracker.alerting.domain;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.jjenus.tracker.shared.pubsub.DomainEvent;
+
+import java.util.Set;
+
+/**
+ * Rules or geofences of the given vehicles changed, so their compiled rules are
+ * stale; a null {@code vehicleIds} means every vehicle.
+ */
+public class AlertRulesChangedEvent extends DomainEvent {
+    private final Set<String> vehicleIds;
+
+    @JsonCreator
+    public AlertRulesChangedEvent(@JsonProperty("vehicleIds") Set<String> vehicleIds) {
+        this.vehicleIds = vehicleIds;
+    }
+
+    public static AlertRulesChangedEvent allVehicles() {
+        return new AlertRulesChangedEvent(null);
+    }
+
+    public Set<String> getVehicleIds() { return vehicleIds; }
+    public boolean isAllVehicles() { return vehicleIds == null; }
+}
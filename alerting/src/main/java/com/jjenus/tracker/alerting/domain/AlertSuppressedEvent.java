@@ -0,0 +1,34 @@
+package com.jjenus.tracker.alerting.domain;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.jjenus.tracker.shared.pubsub.DomainEvent;
+
+import java.time.Instant;
+
+/**
+ * A rule fired {@code count} more times for a vehicle inside the cooldown of the alert
+ * it raised; the occurrences are added to that alert instead of raising new ones.
+ */
+public class AlertSuppressedEvent extends DomainEvent {
+    private final String ruleKey;
+    private final String vehicleId;
+    private final int count;
+    private final Instant lastOccurredAt;
+
+    @JsonCreator
+    public AlertSuppressedEvent(@JsonProperty("ruleKey") String ruleKey,
+                                @JsonProperty("vehicleId") String vehicleId,
+                                @JsonProperty("count") int count,
+                                @JsonProperty("lastOccurredAt") Instant lastOccurredAt) {
+        this.ruleKey = ruleKey;
+        this.vehicleId = vehicleId;
+        this.count = count;
+        this.lastOccurredAt = lastOccurredAt;
+    }
+
+    public String getRuleKey() { return ruleKey; }
+    public String getVehicleId() { return vehicleId; }
+    public int getCount() { return count; }
+    public Instant getLastOccurredAt() { return lastOccurredAt; }
+}
@@ -0,0 +1,214 @@
+package com.jjenus.tracker.alerting.domain;
+
+import com.jjenus.tracker.alerting.domain.entity.Geofence;
+import com.jjenus.tracker.alerting.domain.entity.GeofencePoint;
+import com.jjenus.tracker.alerting.domain.enums.GeofenceShapeType;
+import com.jjenus.tracker.shared.domain.LocationPoint;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Geofence geometry prepared once for repeated point tests.
+ * <p>
+ * Every test starts with the bounding box. Circles then compare squared distances on a
+ * local projection using the centre's precomputed cosine. Convex polygons check that
+ * the point is on the inner side of every edge and stop at the first one it is not.
+ * Other polygons use ray casting with each edge's slope precomputed, so the loop does
+ * not divide.
+ */
+public final class CompiledGeofence {
+    private static final double EARTH_RADIUS_METERS = 6_371_000;
+    static final double METERS_PER_DEGREE = Math.toRadians(EARTH_RADIUS_METERS);
+
+    private final long geofenceId;
+    private final Set<String> vehicleIds;
+    final double minLat;
+    final double maxLat;
+    final double minLon;
+    final double maxLon;
+    // Polygon vertices and, per vertex, the edge to the next one; null for a circle
+    private final double[] lats;
+    private final double[] lons;
+    private final double[] edgeLat;
+    private final double[] edgeLon;
+    // Longitude change per degree of latitude along the edge from the previous vertex
+    private final double[] inverseSlopes;
+    // +1 or -1 (the polygon's orientation) when convex, 0 when not
+    private final int convexSign;
+    private final double centerLat;
+    private final double centerLon;
+    private final double radiusSquared;
+    private final double cosCenterLat;
+
+    private CompiledGeofence(long geofenceId, Set<String> vehicleIds, double[] lats, double[] lons) {
+        int n = lats.length;
+        this.geofenceId = geofenceId;
+        this.vehicleIds = vehicleIds;
+        this.lats = lats;
+        this.lons = lons;
+        this.edgeLat = new double[n];
+        this.edgeLon = new double[n];
+        this.inverseSlopes = new double[n];
+        double minLat = Double.POSITIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY;
+        double minLon = Double.POSITIVE_INFINITY;
+        double maxLon = Double.NEGATIVE_INFINITY;
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+            int next = (i + 1) % n;
+            edgeLat[i] = lats[next] - lats[i];
+            edgeLon[i] = lons[next] - lons[i];
+            inverseSlopes[i] = (lons[j] - lons[i]) / (lats[j] - lats[i]);
+            minLat = Math.min(minLat, lats[i]);
+            maxLat = Math.max(maxLat, lats[i]);
+            minLon = Math.min(minLon, lons[i]);
+            maxLon = Math.max(maxLon, lons[i]);
+        }
+        this.minLat = minLat;
+        this.maxLat = maxLat;
+        this.minLon = minLon;
+        this.maxLon = maxLon;
+        this.convexSign = convexSign(edgeLat, edgeLon);
+        this.centerLat = 0;
+        this.centerLon = 0;
+        this.radiusSquared = 0;
+        this.cosCenterLat = 0;
+    }
+
+    private CompiledGeofence(long geofenceId, Set<String> vehicleIds, double centerLat, double centerLon,
+                             double radiusMeters) {
+        this.geofenceId = geofenceId;
+        this.vehicleIds = vehicleIds;
+        this.lats = null;
+        this.lons = null;
+        this.edgeLat = null;
+        this.edgeLon = null;
+        this.inverseSlopes = null;
+        this.convexSign = 0;
+        this.centerLat = centerLat;
+        this.centerLon = centerLon;
+        this.radiusSquared = radiusMeters * radiusMeters;
+        this.cosCenterLat = Math.cos(Math.toRadians(centerLat));
+        double latSpan = radiusMeters / METERS_PER_DEGREE;
+        double lonSpan = latSpan / Math.max(cosCenterLat, 1e-6);
+        this.minLat = centerLat - latSpan;
+        this.maxLat = centerLat + latSpan;
+        this.minLon = centerLon - lonSpan;
+        this.maxLon = centerLon + lonSpan;
+    }
+
+    /**
+     * The geometry of a geofence, or null when it is incomplete (a polygon with fewer
+     * than 3 points, a circle without centre or radius).
+     */
+    public static CompiledGeofence of(Geofence geofence) {
+        long geofenceId = geofence.getGeofenceId() != null ? geofence.getGeofenceId() : 0;
+        Set<String> vehicleIds = geofence.getVehicleIds() != null ? Set.copyOf(geofence.getVehicleIds()) : Set.of();
+        if (geofence.getShapeType() == GeofenceShapeType.CIRCLE) {
+            if (geofence.getCenterLatitude() == null || geofence.getCenterLongitude() == null
+                    || geofence.getRadiusMeters() == null) {
+                return null;
+            }
+            return new CompiledGeofence(geofenceId, vehicleIds, geofence.getCenterLatitude(),
+                    geofence.getCenterLongitude(), geofence.getRadiusMeters());
+        }
+        if (geofence.getShapeType() == GeofenceShapeType.POLYGON) {
+            List<GeofencePoint> points = geofence.getPoints();
+            if (points == null || points.size() < 3) {
+                return null;
+            }
+            double[] lats = new double[points.size()];
+            double[] lons = new double[points.size()];
+            for (int i = 0; i < lats.length; i++) {
+                lats[i] = points.get(i).getLatitude();
+                lons[i] = points.get(i).getLongitude();
+            }
+            return new CompiledGeofence(geofenceId, vehicleIds, lats, lons);
+        }
+        return null;
+    }
+
+    /**
+     * A polygon through the given points, or null when there are fewer than 3.
+     */
+    public static CompiledGeofence polygon(List<LocationPoint> boundaryPoints) {
+        if (boundaryPoints == null || boundaryPoints.size() < 3) {
+            return null;
+        }
+        double[] lats = new double[boundaryPoints.size()];
+        double[] lons = new double[boundaryPoints.size()];
+        for (int i = 0; i < lats.length; i++) {
+            lats[i] = boundaryPoints.get(i).latitude();
+            lons[i] = boundaryPoints.get(i).longitude();
+        }
+        return new CompiledGeofence(0, Set.of(), lats, lons);
+    }
+
+    public static CompiledGeofence circle(double centerLat, double centerLon, double radiusMeters) {
+        return new CompiledGeofence(0, Set.of(), centerLat, centerLon, radiusMeters);
+    }
+
+    public boolean contains(double latitude, double longitude) {
+        return latitude >= minLat && latitude <= maxLat && longitude >= minLon && longitude <= maxLon
+                && containsInBox(latitude, longitude);
+    }
+
+    /**
+     * Exact test for a point already known to be inside the bounding box.
+     */
+    boolean containsInBox(double latitude, double longitude) {
+        if (lats == null) {
+            double dy = (latitude - centerLat) * METERS_PER_DEGREE;
+            double dx = (longitude - centerLon) * METERS_PER_DEGREE * cosCenterLat;
+            return dx * dx + dy * dy <= radiusSquared;
+        }
+        if (convexSign != 0) {
+            for (int i = 0; i < lats.length; i++) {
+                double cross = edgeLon[i] * (latitude - lats[i]) - edgeLat[i] * (longitude - lons[i]);
+                if (cross * convexSign < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        boolean inside = false;
+        for (int i = 0, j = lats.length - 1; i < lats.length; j = i++) {
+            if ((lats[i] > latitude) != (lats[j] > latitude)
+                    && longitude < inverseSlopes[i] * (latitude - lats[i]) + lons[i]) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    public long getGeofenceId() { return geofenceId; }
+    public Set<String> getVehicleIds() { return vehicleIds; }
+    public boolean isCircle() { return lats == null; }
+    public boolean isConvex() { return convexSign != 0; }
+    public int getVertexCount() { return lats != null ? lats.length : 0; }
+
+    /**
+     * The orientation of a convex polygon (+1 counter-clockwise, -1 clockwise in lon/lat),
+     * or 0 when it is not convex. Turning the same way at every vertex is not enough on its
+     * own (a pentagram does that), so the turns must also add up to one full circle.
+     */
+    private static int convexSign(double[] edgeLat, double[] edgeLon) {
+        int n = edgeLat.length;
+        int sign = 0;
+        double turning = 0;
+        for (int i = 0; i < n; i++) {
+            int next = (i + 1) % n;
+            double cross = edgeLon[i] * edgeLat[next] - edgeLat[i] * edgeLon[next];
+            double dot = edgeLon[i] * edgeLon[next] + edgeLat[i] * edgeLat[next];
+            if (cross != 0) {
+                int turn = cross > 0 ? 1 : -1;
+                if (sign != 0 && turn != sign) {
+                    return 0;
+                }
+                sign = turn;
+            }
+            turning += Math.atan2(cross, dot);
+        }
+        return Math.abs(Math.abs(turning) - 2 * Math.PI) < 1e-6 ? sign : 0;
+    }
+}
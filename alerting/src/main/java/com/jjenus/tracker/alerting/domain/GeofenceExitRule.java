@@ -3,7 +3,6 @@ package com.jjenus.tracker.alerting.domain;
 import com.jjenus.tracker.alerting.domain.enums.AlertSeverity;
 import com.jjenus.tracker.alerting.domain.enums.AlertType;
 import com.jjenus.tracker.shared.domain.LocationPoint;
-import java.awt.geom.Path2D;
 import java.util.List;
 
 public class GeofenceExitRule implements IAlertRule {
@@ -11,19 +10,27 @@ public class GeofenceExitRule implements IAlertRule {
     private final String ruleName;
     private final String geofenceId;
     private final List<LocationPoint> boundaryPoints;
+    private final CompiledGeofence geometry;
     private boolean enabled;
     private final int priority;
-    private boolean wasInside;
+    // 1 while the vehicle is inside the geofence; no state counts as outside
+    private final RuleStateStore stateStore;
     
     public GeofenceExitRule(String ruleKey, String geofenceId, 
                            List<LocationPoint> boundaryPoints) {
+        this(ruleKey, geofenceId, boundaryPoints, new InMemoryRuleStateStore());
+    }
+    
+    public GeofenceExitRule(String ruleKey, String geofenceId, 
+                           List<LocationPoint> boundaryPoints, RuleStateStore stateStore) {
         this.ruleKey = ruleKey;
         this.ruleName = "Geofence Exit Rule";
         this.geofenceId = geofenceId;
         this.boundaryPoints = boundaryPoints;
+        this.geometry = CompiledGeofence.polygon(boundaryPoints);
         this.enabled = true;
         this.priority = 3;
-        this.wasInside = false;
+        this.stateStore = stateStore;
     }
     
     @Override
@@ -31,6 +38,7 @@ public class GeofenceExitRule implements IAlertRule {
         if (!enabled) return null;
         
         boolean isInside = isPointInPolygon(newLocation);
+        boolean wasInside = stateStore.put(ruleKey, vehicleId, isInside ? 1 : 0) == 1;
         AlertDetectedEvent alert = null;
         
         if (wasInside && !isInside) {
@@ -49,24 +57,11 @@ public class GeofenceExitRule implements IAlertRule {
             );
         }
         
-        wasInside = isInside;
         return alert;
     }
     
     private boolean isPointInPolygon(LocationPoint point) {
-        if (boundaryPoints.size() < 3) return false;
-        
-        Path2D polygon = new Path2D.Double();
-        polygon.moveTo(boundaryPoints.get(0).longitude(), 
-                      boundaryPoints.get(0).latitude());
-        
-        for (int i = 1; i < boundaryPoints.size(); i++) {
-            polygon.lineTo(boundaryPoints.get(i).longitude(), 
-                          boundaryPoints.get(i).latitude());
-        }
-        polygon.closePath();
-        
-        return polygon.contains(point.longitude(), point.latitude());
+        return geometry != null && geometry.contains(point.latitude(), point.longitude());
     }
     
     @Override
@@ -0,0 +1,225 @@
+package com.jjenus.tracker.alerting.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable grid index over active geofences.
+ * <p>
+ * Every fence is registered in the lat/lon cells its bounding box overlaps, so a
+ * point is only tested against the fences of its own cell: bounding box first, then
+ * the {@link CompiledGeofence} itself. Fences covering too many cells are kept in a short list checked
+ * against every point instead. Fences crossing the antimeridian are not supported.
+ */
+public final class GeofenceIndex {
+    // A fence spanning more cells than this is checked for every point rather than registered per cell
+    private static final int MAX_CELLS_PER_FENCE = 4096;
+    private static final long[] NONE = new long[0];
+    private static final int[] NO_FENCES = new int[0];
+
+    private final double cellDegrees;
+    private final CompiledGeofence[] fences;
+    // Bounding boxes by fence position, four doubles each, so rejecting a candidate stays in one array
+    private final double[] boxes;
+    private final CellMap cells;
+    private final int[] oversized;
+    private final Map<String, int[]> fencesByVehicle;
+
+    private GeofenceIndex(double cellDegrees, CompiledGeofence[] fences, CellMap cells, int[] oversized,
+                          Map<String, int[]> fencesByVehicle) {
+        this.cellDegrees = cellDegrees;
+        this.fences = fences;
+        this.boxes = new double[fences.length * 4];
+        for (int f = 0; f < fences.length; f++) {
+            boxes[4 * f] = fences[f].minLat;
+            boxes[4 * f + 1] = fences[f].maxLat;
+            boxes[4 * f + 2] = fences[f].minLon;
+            boxes[4 * f + 3] = fences[f].maxLon;
+        }
+        this.cells = cells;
+        this.oversized = oversized;
+        this.fencesByVehicle = fencesByVehicle;
+    }
+
+    public static GeofenceIndex empty(double cellDegrees) {
+        return build(List.of(), cellDegrees);
+    }
+
+    public static GeofenceIndex build(Collection<CompiledGeofence> fences, double cellDegrees) {
+        CompiledGeofence[] byPosition = fences.toArray(new CompiledGeofence[0]);
+        Map<Long, List<Integer>> cellFences = new HashMap<>();
+        List<Integer> oversized = new ArrayList<>();
+        Map<String, List<Integer>> vehicleFences = new HashMap<>();
+
+        for (int f = 0; f < byPosition.length; f++) {
+            CompiledGeofence fence = byPosition[f];
+            long minLatCell = cell(fence.minLat, cellDegrees);
+            long maxLatCell = cell(fence.maxLat, cellDegrees);
+            long minLonCell = cell(fence.minLon, cellDegrees);
+            long maxLonCell = cell(fence.maxLon, cellDegrees);
+            if ((maxLatCell - minLatCell + 1) * (maxLonCell - minLonCell + 1) > MAX_CELLS_PER_FENCE) {
+                oversized.add(f);
+            } else {
+                for (long latCell = minLatCell; latCell <= maxLatCell; latCell++) {
+                    for (long lonCell = minLonCell; lonCell <= maxLonCell; lonCell++) {
+                        cellFences.computeIfAbsent(cellKey(latCell, lonCell), key -> new ArrayList<>(2)).add(f);
+                    }
+                }
+            }
+            for (String vehicleId : fence.getVehicleIds()) {
+                vehicleFences.computeIfAbsent(vehicleId, key -> new ArrayList<>(2)).add(f);
+            }
+        }
+
+        CellMap cells = new CellMap(cellFences.size());
+        cellFences.forEach((key, list) -> cells.put(key, toArray(list)));
+        Map<String, int[]> fencesByVehicle = new HashMap<>(vehicleFences.size() * 2);
+        vehicleFences.forEach((vehicleId, list) -> fencesByVehicle.put(vehicleId, toArray(list)));
+        return new GeofenceIndex(cellDegrees, byPosition, cells, toArray(oversized), fencesByVehicle);
+    }
+
+    /**
+     * Ids of all fences containing the point.
+     */
+    public long[] containing(double latitude, double longitude) {
+        int[] candidates = candidates(latitude, longitude);
+        long[] found = NONE;
+        int count = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            int[] positions = pass == 0 ? candidates : oversized;
+            for (int position : positions) {
+                if (!inBox(position, latitude, longitude)) {
+                    continue;
+                }
+                CompiledGeofence fence = fences[position];
+                if (fence.containsInBox(latitude, longitude)) {
+                    if (count == found.length) {
+                        found = Arrays.copyOf(found, Math.max(4, count * 2));
+                    }
+                    found[count++] = fence.getGeofenceId();
+                }
+            }
+        }
+        return count == found.length ? found : Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Ids of the fences assigned to the vehicle that contain the point. Walks whichever
+     * is shorter, the vehicle's fences or the fences of the point's cell.
+     */
+    public long[] containingForVehicle(String vehicleId, double latitude, double longitude) {
+        int[] assigned = fencesByVehicle.getOrDefault(vehicleId, NO_FENCES);
+        if (assigned.length == 0) {
+            return NONE;
+        }
+        int[] candidates = candidates(latitude, longitude);
+        boolean walkAssigned = assigned.length <= candidates.length + oversized.length;
+        long[] found = NONE;
+        int count = 0;
+        for (int pass = 0; pass < (walkAssigned ? 1 : 2); pass++) {
+            int[] positions = walkAssigned ? assigned : pass == 0 ? candidates : oversized;
+            for (int position : positions) {
+                if (!inBox(position, latitude, longitude)
+                        || !walkAssigned && Arrays.binarySearch(assigned, position) < 0) {
+                    continue;
+                }
+                CompiledGeofence fence = fences[position];
+                if (fence.containsInBox(latitude, longitude)) {
+                    if (count == found.length) {
+                        found = Arrays.copyOf(found, Math.max(4, count * 2));
+                    }
+                    found[count++] = fence.getGeofenceId();
+                }
+            }
+        }
+        return count == found.length ? found : Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Ids of the fences assigned to the vehicle.
+     */
+    public long[] fencesFor(String vehicleId) {
+        int[] assigned = fencesByVehicle.getOrDefault(vehicleId, NO_FENCES);
+        long[] ids = new long[assigned.length];
+        for (int i = 0; i < assigned.length; i++) {
+            ids[i] = fences[assigned[i]].getGeofenceId();
+        }
+        return ids;
+    }
+
+    public int size() {
+        return fences.length;
+    }
+
+    private boolean inBox(int position, double latitude, double longitude) {
+        int box = 4 * position;
+        return latitude >= boxes[box] && latitude <= boxes[box + 1]
+                && longitude >= boxes[box + 2] && longitude <= boxes[box + 3];
+    }
+
+    private int[] candidates(double latitude, double longitude) {
+        int[] candidates = cells.get(cellKey(cell(latitude, cellDegrees), cell(longitude, cellDegrees)));
+        return candidates != null ? candidates : NO_FENCES;
+    }
+
+    private static long cell(double degrees, double cellDegrees) {
+        return (long) Math.floor(degrees / cellDegrees);
+    }
+
+    private static long cellKey(long latCell, long lonCell) {
+        return (latCell << 32) ^ (lonCell & 0xFFFFFFFFL);
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * Open-addressing map from cell key to fence positions, so a lookup does not box the key.
+     */
+    private static final class CellMap {
+        private final long[] keys;
+        private final int[][] values;
+        private final int mask;
+
+        private CellMap(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+            keys = new long[capacity];
+            values = new int[capacity][];
+            mask = capacity - 1;
+        }
+
+        private void put(long key, int[] value) {
+            int slot = slot(key);
+            while (values[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+        }
+
+        private int[] get(long key) {
+            int slot = slot(key);
+            while (values[slot] != null) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        private int slot(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
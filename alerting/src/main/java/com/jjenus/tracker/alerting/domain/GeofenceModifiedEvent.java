@@ -0,0 +1,20 @@
+package com.jjenus.tracker.alerting.domain;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.jjenus.tracker.shared.pubsub.DomainEvent;
+
+/**
+ * A geofence was created, updated or deleted, so every node re-reads it into its
+ * geofence index.
+ */
+public class GeofenceModifiedEvent extends DomainEvent {
+    private final Long geofenceId;
+
+    @JsonCreator
+    public GeofenceModifiedEvent(@JsonProperty("geofenceId") Long geofenceId) {
+        this.geofenceId = geofenceId;
+    }
+
+    public Long getGeofenceId() { return geofenceId; }
+}
@@ -1,8 +1,8 @@
 package com.jjenus.tracker.alerting.domain;
 
 import com.jjenus.tracker.alerting.domain.enums.AlertSeverity;
+import com.jjenus.tracker.alerting.domain.enums.AlertType;
 import com.jjenus.tracker.shared.domain.LocationPoint;
-import java.awt.geom.Path2D;
 import java.util.List;
 
 public class GeofenceRule implements IAlertRule {
@@ -14,60 +14,87 @@ public class GeofenceRule implements IAlertRule {
     private final String ruleName;
     private final String geofenceId;
     private final List<LocationPoint> boundaryPoints;
+    // Null when the boundary has fewer than 3 points
+    private final CompiledGeofence geometry;
     private final Action action;
     private boolean enabled;
     private final int priority;
-    private boolean wasInside = false;
+    // 1 while the vehicle is inside the geofence; no state counts as outside
+    private final RuleStateStore stateStore;
 
     public GeofenceRule(String ruleKey, String ruleName, String geofenceId,
                         List<LocationPoint> boundaryPoints, Action action, int priority) {
+        this(ruleKey, ruleName, geofenceId, boundaryPoints, action, priority, new InMemoryRuleStateStore());
+    }
+
+    public GeofenceRule(String ruleKey, String ruleName, String geofenceId,
+                        List<LocationPoint> boundaryPoints, Action action, int priority,
+                        RuleStateStore stateStore) {
+        this(ruleKey, ruleName, geofenceId, boundaryPoints, CompiledGeofence.polygon(boundaryPoints),
+                action, priority, stateStore);
+    }
+
+    /**
+     * A rule over geometry compiled elsewhere, typically the geofence index's copy.
+     */
+    public GeofenceRule(String ruleKey, String ruleName, String geofenceId,
+                        CompiledGeofence geometry, Action action, int priority,
+                        RuleStateStore stateStore) {
+        this(ruleKey, ruleName, geofenceId, List.of(), geometry, action, priority, stateStore);
+    }
+
+    private GeofenceRule(String ruleKey, String ruleName, String geofenceId,
+                         List<LocationPoint> boundaryPoints, CompiledGeofence geometry,
+                         Action action, int priority, RuleStateStore stateStore) {
         this.ruleKey = ruleKey;
         this.ruleName = ruleName;
         this.geofenceId = geofenceId;
         this.boundaryPoints = boundaryPoints;
+        this.geometry = geometry;
         this.action = action;
         this.enabled = true;
         this.priority = priority;
+        this.stateStore = stateStore;
     }
 
     @Override
     public AlertDetectedEvent evaluate(String vehicleId, LocationPoint newLocation) {
-        if (!enabled || boundaryPoints == null || boundaryPoints.size() < 3) {
+        if (!enabled || geometry == null) {
             return null;
         }
 
         boolean isInside = isPointInPolygon(newLocation);
+        boolean wasInside = stateStore.put(ruleKey, vehicleId, isInside ? 1 : 0) == 1;
         AlertDetectedEvent alert = null;
 
         // Check based on action type
         switch (action) {
             case ENTRY:
                 if (!wasInside && isInside) {
-                    alert = createAlert(vehicleId, newLocation, "entered", AlertSeverity.INFO);
+                    alert = createAlert(vehicleId, newLocation, "entered", AlertType.GEOFENCE_ENTRY, AlertSeverity.INFO);
                 }
                 break;
 
             case EXIT:
                 if (wasInside && !isInside) {
-                    alert = createAlert(vehicleId, newLocation, "exited", AlertSeverity.WARNING);
+                    alert = createAlert(vehicleId, newLocation, "exited", AlertType.GEOFENCE_EXIT, AlertSeverity.WARNING);
                 }
                 break;
 
             case BOTH:
                 if (!wasInside && isInside) {
-                    alert = createAlert(vehicleId, newLocation, "entered", AlertSeverity.INFO);
+                    alert = createAlert(vehicleId, newLocation, "entered", AlertType.GEOFENCE_ENTRY, AlertSeverity.INFO);
                 } else if (wasInside && !isInside) {
-                    alert = createAlert(vehicleId, newLocation, "exited", AlertSeverity.WARNING);
+                    alert = createAlert(vehicleId, newLocation, "exited", AlertType.GEOFENCE_EXIT, AlertSeverity.WARNING);
                 }
                 break;
         }
 
-        wasInside = isInside;
         return alert;
     }
 
     private AlertDetectedEvent createAlert(String vehicleId, LocationPoint location,
-                                           String actionStr, AlertSeverity severity) {
+                                           String actionStr, AlertType alertType, AlertSeverity severity) {
         String message = String.format(
                 "Vehicle %s %s geofence %s at %s",
                 vehicleId,
@@ -78,7 +105,7 @@ public class GeofenceRule implements IAlertRule {
 
         return new AlertDetectedEvent(
                 ruleKey,
-                this.ruleName,
+                alertType,
                 vehicleId,
                 message,
                 severity,
@@ -91,21 +118,7 @@ public class GeofenceRule implements IAlertRule {
     }
 
     private boolean isPointInPolygon(LocationPoint point) {
-        try {
-            Path2D polygon = new Path2D.Double();
-            polygon.moveTo(boundaryPoints.get(0).longitude(),
-                    boundaryPoints.get(0).latitude());
-
-            for (int i = 1; i < boundaryPoints.size(); i++) {
-                polygon.lineTo(boundaryPoints.get(i).longitude(),
-                        boundaryPoints.get(i).latitude());
-            }
-            polygon.closePath();
-
-            return polygon.contains(point.longitude(), point.latitude());
-        } catch (Exception e) {
-            return false;
-        }
+        return geometry.contains(point.latitude(), point.longitude());
     }
 
     @Override
@@ -127,4 +140,5 @@ public class GeofenceRule implements IAlertRule {
     public String getGeofenceId() { return geofenceId; }
     public Action getAction() { return action; }
     public List<LocationPoint> getBoundaryPoints() { return boundaryPoints; }
+    public CompiledGeofence getGeometry() { return geometry; }
 }
\ No newline at end of file
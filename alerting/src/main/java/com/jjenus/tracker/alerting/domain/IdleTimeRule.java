@@ -4,45 +4,61 @@ import com.jjenus.tracker.alerting.domain.enums.AlertSeverity;
 import com.jjenus.tracker.alerting.domain.enums.AlertType;
 import com.jjenus.tracker.shared.domain.LocationPoint;
 import java.time.Duration;
-import java.time.Instant;
 
 public class IdleTimeRule implements IAlertRule {
+    private static final long MOVING = 0L;
+
     private final String ruleKey;
     private final String ruleName;
     private final Duration maxIdleTime;
     private boolean enabled;
     private final int priority;
-
-    private final java.util.Map<String, Instant> lastMovementTimes = new java.util.HashMap<>();
+    // Epoch millis since which the vehicle has been stationary, or MOVING; written only when
+    // the vehicle starts or stops, not on every fix
+    private final RuleStateStore stateStore;
 
     public IdleTimeRule(String ruleKey, String ruleName, Duration maxIdleTime) {
+        this(ruleKey, ruleName, maxIdleTime, new InMemoryRuleStateStore());
+    }
+
+    public IdleTimeRule(String ruleKey, String ruleName, Duration maxIdleTime, RuleStateStore stateStore) {
         this.ruleKey = ruleKey;
         this.ruleName = ruleName;
         this.maxIdleTime = maxIdleTime;
         this.enabled = true;
         this.priority = 1;
+        this.stateStore = stateStore;
     }
 
     @Override
     public AlertDetectedEvent evaluate(String vehicleId, LocationPoint newLocation) {
         if (!enabled) return null;
 
-        Instant now = Instant.now();
-        Instant lastMovement = lastMovementTimes.get(vehicleId);
+        long now = System.currentTimeMillis();
+
+        long idleSince = stateStore.get(ruleKey, vehicleId);
 
-        // Update last movement time if vehicle is moving
         if (newLocation.speedKmh() > 1.0) {
-            lastMovementTimes.put(vehicleId, now);
+            if (idleSince != MOVING) {
+                stateStore.put(ruleKey, vehicleId, MOVING);
+            }
             return null;
         }
 
-        // If we have no last movement time, set it and return
-        if (lastMovement == null) {
-            lastMovementTimes.put(vehicleId, now);
+        if (idleSince == RuleStateStore.NO_STATE) {
+            // Not in memory yet: keep state saved before, else the idle clock starts now
+            idleSince = stateStore.putIfAbsent(ruleKey, vehicleId, now);
+            if (idleSince == RuleStateStore.NO_STATE) {
+                return null;
+            }
+        }
+        if (idleSince == MOVING) {
+            // Vehicle just stopped: start the idle clock
+            stateStore.put(ruleKey, vehicleId, now);
             return null;
         }
 
-        Duration idleDuration = Duration.between(lastMovement, now);
+        Duration idleDuration = Duration.ofMillis(now - idleSince);
 
         if (idleDuration.compareTo(maxIdleTime) > 0) {
             String message = String.format(
@@ -0,0 +1,192 @@
+package com.jjenus.tracker.alerting.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * {@link RuleStateStore} held in process. State is grouped per vehicle in a pair of
+ * small arrays (a vehicle has a handful of stateful rules), each vehicle guarded by
+ * its own lock, and dropped once the vehicle has not been evaluated for a while.
+ */
+public class InMemoryRuleStateStore implements RuleStateStore {
+    private final Map<String, VehicleState> vehicles = new ConcurrentHashMap<>();
+
+    @Override
+    public long get(String ruleKey, String vehicleId) {
+        VehicleState state = vehicles.get(vehicleId);
+        if (state == null) {
+            return NO_STATE;
+        }
+        synchronized (state) {
+            state.touch();
+            return state.get(ruleKey);
+        }
+    }
+
+    @Override
+    public long put(String ruleKey, String vehicleId, long value) {
+        VehicleState state = stateOf(vehicleId);
+        synchronized (state) {
+            state.touch();
+            return state.put(ruleKey, value);
+        }
+    }
+
+    @Override
+    public long putIfAbsent(String ruleKey, String vehicleId, long value) {
+        VehicleState state = stateOf(vehicleId);
+        synchronized (state) {
+            state.touch();
+            long previous = state.get(ruleKey);
+            if (previous == NO_STATE) {
+                state.put(ruleKey, value);
+            }
+            return previous;
+        }
+    }
+
+    /**
+     * Hands vehicles changed since their last snapshot to {@code sink}, at most
+     * {@code batchSize} at a time, and marks them clean. If the sink throws, that batch is
+     * marked changed again and the exception propagates; later vehicles stay changed too.
+     */
+    public void drainChanged(int batchSize, Consumer<Map<String, Map<String, Long>>> sink) {
+        Map<String, Map<String, Long>> batch = new HashMap<>();
+        List<VehicleState> drained = new ArrayList<>();
+        for (Map.Entry<String, VehicleState> entry : vehicles.entrySet()) {
+            VehicleState state = entry.getValue();
+            synchronized (state) {
+                if (!state.dirty) {
+                    continue;
+                }
+                batch.put(entry.getKey(), state.toMap());
+                state.dirty = false;
+            }
+            drained.add(state);
+            if (batch.size() >= batchSize) {
+                handOver(batch, drained, sink);
+            }
+        }
+        if (!batch.isEmpty()) {
+            handOver(batch, drained, sink);
+        }
+    }
+
+    private static void handOver(Map<String, Map<String, Long>> batch, List<VehicleState> drained,
+                                 Consumer<Map<String, Map<String, Long>>> sink) {
+        try {
+            sink.accept(Map.copyOf(batch));
+        } catch (RuntimeException e) {
+            for (VehicleState state : drained) {
+                synchronized (state) {
+                    state.dirty = true;
+                }
+            }
+            throw e;
+        } finally {
+            batch.clear();
+            drained.clear();
+        }
+    }
+
+    /**
+     * Drops vehicles not evaluated since {@code cutoffMillis}; returns how many.
+     */
+    public int evictIdleSince(long cutoffMillis) {
+        int before = vehicles.size();
+        vehicles.values().removeIf(state -> {
+            synchronized (state) {
+                return state.lastAccessMillis < cutoffMillis;
+            }
+        });
+        return before - vehicles.size();
+    }
+
+    public int getVehicleCount() {
+        return vehicles.size();
+    }
+
+    /**
+     * State previously saved for a vehicle seen for the first time; none by default.
+     */
+    protected Map<String, Long> load(String vehicleId) {
+        return Map.of();
+    }
+
+    private VehicleState stateOf(String vehicleId) {
+        VehicleState state = vehicles.get(vehicleId);
+        if (state != null) {
+            return state;
+        }
+        VehicleState loaded = new VehicleState(load(vehicleId));
+        VehicleState raced = vehicles.putIfAbsent(vehicleId, loaded);
+        return raced != null ? raced : loaded;
+    }
+
+    private static final class VehicleState {
+        private String[] ruleKeys;
+        private long[] values;
+        private int size;
+        private long lastAccessMillis;
+        private boolean dirty;
+
+        private VehicleState(Map<String, Long> initial) {
+            ruleKeys = new String[Math.max(2, initial.size())];
+            values = new long[ruleKeys.length];
+            initial.forEach(this::put);
+            dirty = false;
+            touch();
+        }
+
+        private void touch() {
+            lastAccessMillis = System.currentTimeMillis();
+        }
+
+        private long get(String ruleKey) {
+            int index = indexOf(ruleKey);
+            return index >= 0 ? values[index] : NO_STATE;
+        }
+
+        private long put(String ruleKey, long value) {
+            int index = indexOf(ruleKey);
+            if (index < 0) {
+                if (size == ruleKeys.length) {
+                    ruleKeys = Arrays.copyOf(ruleKeys, size * 2);
+                    values = Arrays.copyOf(values, size * 2);
+                }
+                ruleKeys[size] = ruleKey;
+                values[size++] = value;
+                dirty = true;
+                return NO_STATE;
+            }
+            long previous = values[index];
+            if (previous != value) {
+                values[index] = value;
+                dirty = true;
+            }
+            return previous;
+        }
+
+        private int indexOf(String ruleKey) {
+            for (int i = 0; i < size; i++) {
+                if (ruleKeys[i].equals(ruleKey)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private Map<String, Long> toMap() {
+            Map<String, Long> map = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                map.put(ruleKeys[i], values[i]);
+            }
+            return map;
+        }
+    }
+}
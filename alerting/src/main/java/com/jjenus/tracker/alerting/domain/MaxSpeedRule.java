@@ -44,7 +44,7 @@ public class MaxSpeedRule implements IAlertRule {
                     formatCoordinates(newLocation.latitude(), newLocation.longitude())
             );
 
-            AlertSeverity severity = speed > thresholdSpeed * 1.5 ?
+            AlertSeverity severity = speed >= thresholdSpeed * 1.5 ?
                     AlertSeverity.CRITICAL : AlertSeverity.WARNING;
 
             return new AlertDetectedEvent(
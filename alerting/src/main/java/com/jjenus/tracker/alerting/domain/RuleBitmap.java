@@ -0,0 +1,230 @@
+package com.jjenus.tracker.alerting.domain;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable compressed set of rule ordinals, laid out like a Roaring bitmap: ordinals are
+ * grouped by their high 16 bits, and each group holds its low 16 bits either as a sorted
+ * {@code char[]} (up to {@value #ARRAY_LIMIT} values) or as a 65536-bit {@code long[]}.
+ * Updates return a new bitmap that shares every group they do not touch.
+ */
+public final class RuleBitmap {
+    static final int ARRAY_LIMIT = 4096;
+    private static final int BITMAP_WORDS = 1024;
+    private static final RuleBitmap EMPTY = new RuleBitmap(new char[0], new Object[0], 0);
+
+    private final char[] keys;
+    // char[] or long[] per key
+    private final Object[] containers;
+    private final int cardinality;
+
+    private RuleBitmap(char[] keys, Object[] containers, int cardinality) {
+        this.keys = keys;
+        this.containers = containers;
+        this.cardinality = cardinality;
+    }
+
+    public static RuleBitmap empty() {
+        return EMPTY;
+    }
+
+    public static RuleBitmap of(int... ordinals) {
+        int[] sorted = ordinals.clone();
+        Arrays.sort(sorted);
+        char[] keys = new char[sorted.length];
+        Object[] containers = new Object[sorted.length];
+        int groups = 0;
+        int cardinality = 0;
+        int start = 0;
+        while (start < sorted.length) {
+            checkOrdinal(sorted[start]);
+            char high = high(sorted[start]);
+            char[] lows = new char[sorted.length - start];
+            int size = 0;
+            int end = start;
+            for (; end < sorted.length && high(sorted[end]) == high; end++) {
+                if (size == 0 || lows[size - 1] != low(sorted[end])) {
+                    lows[size++] = low(sorted[end]);
+                }
+            }
+            char[] array = Arrays.copyOf(lows, size);
+            keys[groups] = high;
+            containers[groups++] = size <= ARRAY_LIMIT ? array : toWords(array);
+            cardinality += size;
+            start = end;
+        }
+        return new RuleBitmap(Arrays.copyOf(keys, groups), Arrays.copyOf(containers, groups), cardinality);
+    }
+
+    public boolean contains(int ordinal) {
+        int index = Arrays.binarySearch(keys, high(ordinal));
+        if (index < 0) {
+            return false;
+        }
+        Object container = containers[index];
+        char low = low(ordinal);
+        if (container instanceof char[] array) {
+            return Arrays.binarySearch(array, low) >= 0;
+        }
+        long[] words = (long[]) container;
+        return (words[low >>> 6] & (1L << low)) != 0;
+    }
+
+    public RuleBitmap with(int ordinal) {
+        checkOrdinal(ordinal);
+        char high = high(ordinal);
+        char low = low(ordinal);
+        int index = Arrays.binarySearch(keys, high);
+        if (index < 0) {
+            int insert = -index - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Object[] newContainers = new Object[keys.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insert);
+            System.arraycopy(containers, 0, newContainers, 0, insert);
+            newKeys[insert] = high;
+            newContainers[insert] = new char[]{low};
+            System.arraycopy(keys, insert, newKeys, insert + 1, keys.length - insert);
+            System.arraycopy(containers, insert, newContainers, insert + 1, keys.length - insert);
+            return new RuleBitmap(newKeys, newContainers, cardinality + 1);
+        }
+        Object container = containers[index];
+        Object updated;
+        if (container instanceof char[] array) {
+            int position = Arrays.binarySearch(array, low);
+            if (position >= 0) {
+                return this;
+            }
+            int insert = -position - 1;
+            if (array.length < ARRAY_LIMIT) {
+                char[] grown = new char[array.length + 1];
+                System.arraycopy(array, 0, grown, 0, insert);
+                grown[insert] = low;
+                System.arraycopy(array, insert, grown, insert + 1, array.length - insert);
+                updated = grown;
+            } else {
+                long[] words = toWords(array);
+                words[low >>> 6] |= 1L << low;
+                updated = words;
+            }
+        } else {
+            long[] words = (long[]) container;
+            if ((words[low >>> 6] & (1L << low)) != 0) {
+                return this;
+            }
+            long[] copy = words.clone();
+            copy[low >>> 6] |= 1L << low;
+            updated = copy;
+        }
+        return replace(index, updated, cardinality + 1);
+    }
+
+    public RuleBitmap without(int ordinal) {
+        if (!contains(ordinal)) {
+            return this;
+        }
+        char low = low(ordinal);
+        int index = Arrays.binarySearch(keys, high(ordinal));
+        Object container = containers[index];
+        if (container instanceof char[] array) {
+            if (array.length == 1) {
+                char[] newKeys = new char[keys.length - 1];
+                Object[] newContainers = new Object[keys.length - 1];
+                System.arraycopy(keys, 0, newKeys, 0, index);
+                System.arraycopy(containers, 0, newContainers, 0, index);
+                System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+                System.arraycopy(containers, index + 1, newContainers, index, keys.length - index - 1);
+                return new RuleBitmap(newKeys, newContainers, cardinality - 1);
+            }
+            int position = Arrays.binarySearch(array, low);
+            char[] shrunk = new char[array.length - 1];
+            System.arraycopy(array, 0, shrunk, 0, position);
+            System.arraycopy(array, position + 1, shrunk, position, array.length - position - 1);
+            return replace(index, shrunk, cardinality - 1);
+        }
+        long[] copy = ((long[]) container).clone();
+        copy[low >>> 6] &= ~(1L << low);
+        return replace(index, bitCount(copy) <= ARRAY_LIMIT ? toArray(copy) : copy, cardinality - 1);
+    }
+
+    /**
+     * Calls {@code action} with every ordinal in ascending order.
+     */
+    public void forEach(IntConsumer action) {
+        for (int k = 0; k < keys.length; k++) {
+            int base = keys[k] << 16;
+            Object container = containers[k];
+            if (container instanceof char[] array) {
+                for (char low : array) {
+                    action.accept(base | low);
+                }
+            } else {
+                long[] words = (long[]) container;
+                for (int w = 0; w < words.length; w++) {
+                    long word = words[w];
+                    while (word != 0) {
+                        action.accept(base | (w << 6) | Long.numberOfTrailingZeros(word));
+                        word &= word - 1;
+                    }
+                }
+            }
+        }
+    }
+
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    private RuleBitmap replace(int index, Object container, int newCardinality) {
+        Object[] newContainers = containers.clone();
+        newContainers[index] = container;
+        return new RuleBitmap(keys, newContainers, newCardinality);
+    }
+
+    private static long[] toWords(char[] array) {
+        long[] words = new long[BITMAP_WORDS];
+        for (char low : array) {
+            words[low >>> 6] |= 1L << low;
+        }
+        return words;
+    }
+
+    private static char[] toArray(long[] words) {
+        char[] array = new char[bitCount(words)];
+        int size = 0;
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            while (word != 0) {
+                array[size++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return array;
+    }
+
+    private static int bitCount(long[] words) {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    private static void checkOrdinal(int ordinal) {
+        if (ordinal < 0) {
+            throw new IllegalArgumentException("Rule ordinal must not be negative: " + ordinal);
+        }
+    }
+
+    private static char high(int ordinal) {
+        return (char) (ordinal >>> 16);
+    }
+
+    private static char low(int ordinal) {
+        return (char) ordinal;
+    }
+}
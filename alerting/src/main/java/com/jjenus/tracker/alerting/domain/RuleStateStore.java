@@ -0,0 +1,24 @@
+package com.jjenus.tracker.alerting.domain;
+
+/**
+ * Detection state of stateful rules, one {@code long} per rule and vehicle, kept outside
+ * the rule objects so it survives rules being recompiled and can be read from any thread.
+ */
+public interface RuleStateStore {
+    long NO_STATE = Long.MIN_VALUE;
+
+    /**
+     * The stored value, or {@link #NO_STATE}.
+     */
+    long get(String ruleKey, String vehicleId);
+
+    /**
+     * Stores the value and returns the previous one, or {@link #NO_STATE}.
+     */
+    long put(String ruleKey, String vehicleId, long value);
+
+    /**
+     * Stores the value only if there is none yet; returns the value that was there, or {@link #NO_STATE}.
+     */
+    long putIfAbsent(String ruleKey, String vehicleId, long value);
+}
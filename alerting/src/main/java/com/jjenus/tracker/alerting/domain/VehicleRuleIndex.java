@@ -0,0 +1,214 @@
+package com.jjenus.tracker.alerting.domain;
+
+import com.jjenus.tracker.alerting.domain.entity.AlertRule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Inverted index from vehicle to the enabled rules that apply to it. Every indexed rule
+ * gets an ordinal, and every vehicle a {@link RuleBitmap} of the ordinals of its rules,
+ * so finding a vehicle's rules costs one map lookup plus one step per matching rule.
+ * <p>
+ * Updates are serialised and replace only the bitmaps of the vehicles they touch; reads
+ * take no lock. Ordinals of removed rules are not reused, so a reader holding an older
+ * bitmap never resolves an ordinal to a different rule. Once dead slots outnumber live
+ * rules, {@link #needsCompaction} says so and {@link #compacted} returns a fresh copy to
+ * swap in.
+ */
+public class VehicleRuleIndex {
+    private static final Comparator<AlertRule> BY_PRIORITY_DESC =
+            Comparator.comparingInt(AlertRule::getPriority).reversed();
+    private static final int MIN_DEAD_SLOTS_TO_COMPACT = 1024;
+
+    private final Map<String, RuleBitmap> rulesByVehicle = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> ordinalByRuleId = new ConcurrentHashMap<>();
+    // Written under this; readers see new slots through the volatile write
+    private volatile AlertRule[] rules = new AlertRule[16];
+    private Set<String>[] vehiclesByOrdinal = newVehicleSets(16);
+    private int nextOrdinal;
+
+    /**
+     * Replaces the whole index with the given rules; meant for start-up, as readers see
+     * no rules while it runs.
+     */
+    public synchronized void rebuild(Collection<AlertRule> enabledRules) {
+        rulesByVehicle.clear();
+        ordinalByRuleId.clear();
+        int capacity = Math.max(16, enabledRules.size());
+        AlertRule[] newRules = new AlertRule[capacity];
+        vehiclesByOrdinal = newVehicleSets(capacity);
+        nextOrdinal = 0;
+        Map<String, List<Integer>> ordinalsByVehicle = new HashMap<>();
+        for (AlertRule rule : enabledRules) {
+            if (!isIndexable(rule)) {
+                continue;
+            }
+            int ordinal = nextOrdinal++;
+            newRules[ordinal] = rule;
+            vehiclesByOrdinal[ordinal] = Set.copyOf(rule.getVehicleIds());
+            ordinalByRuleId.put(rule.getRuleId(), ordinal);
+            for (String vehicleId : vehiclesByOrdinal[ordinal]) {
+                ordinalsByVehicle.computeIfAbsent(vehicleId, key -> new ArrayList<>()).add(ordinal);
+            }
+        }
+        rules = newRules;
+        ordinalsByVehicle.forEach((vehicleId, ordinals) ->
+                rulesByVehicle.put(vehicleId, RuleBitmap.of(ordinals.stream().mapToInt(Integer::intValue).toArray())));
+    }
+
+    /**
+     * Indexes the current version of a rule, or drops it when it is disabled. Returns the
+     * vehicles whose rules changed: those of the previous version and of this one.
+     */
+    public synchronized Set<String> put(AlertRule rule) {
+        if (!isIndexable(rule)) {
+            return rule.getRuleId() != null ? remove(rule.getRuleId()) : Set.of();
+        }
+        Set<String> affected = new HashSet<>(unindex(rule.getRuleId()));
+        int ordinal = nextOrdinal++;
+        if (ordinal == rules.length) {
+            rules = Arrays.copyOf(rules, ordinal * 2);
+            vehiclesByOrdinal = Arrays.copyOf(vehiclesByOrdinal, ordinal * 2);
+        }
+        Set<String> vehicleIds = Set.copyOf(rule.getVehicleIds());
+        vehiclesByOrdinal[ordinal] = vehicleIds;
+        ordinalByRuleId.put(rule.getRuleId(), ordinal);
+        // Publish the rule before any bitmap can point at its ordinal
+        AlertRule[] published = rules;
+        published[ordinal] = rule;
+        rules = published;
+        for (String vehicleId : vehicleIds) {
+            rulesByVehicle.compute(vehicleId, (key, bitmap) ->
+                    (bitmap != null ? bitmap : RuleBitmap.empty()).with(ordinal));
+        }
+        affected.addAll(vehicleIds);
+        return affected;
+    }
+
+    /**
+     * Drops a rule; returns the vehicles it applied to.
+     */
+    public synchronized Set<String> remove(long ruleId) {
+        return unindex(ruleId);
+    }
+
+    /**
+     * Enabled rules of the vehicle, highest priority first.
+     */
+    public List<AlertRule> rulesFor(String vehicleId) {
+        RuleBitmap bitmap = rulesByVehicle.get(vehicleId);
+        if (bitmap == null || bitmap.isEmpty()) {
+            return List.of();
+        }
+        AlertRule[] snapshot = rules;
+        List<AlertRule> matched = new ArrayList<>(bitmap.cardinality());
+        bitmap.forEach(ordinal -> matched.add(snapshot[ordinal]));
+        matched.sort(BY_PRIORITY_DESC);
+        return matched;
+    }
+
+    public boolean hasRules(String vehicleId) {
+        RuleBitmap bitmap = rulesByVehicle.get(vehicleId);
+        return bitmap != null && !bitmap.isEmpty();
+    }
+
+    /**
+     * Whether the rule is indexed and applies to the vehicle.
+     */
+    public boolean appliesTo(long ruleId, String vehicleId) {
+        Integer ordinal = ordinalByRuleId.get(ruleId);
+        if (ordinal == null) {
+            return false;
+        }
+        RuleBitmap bitmap = rulesByVehicle.get(vehicleId);
+        return bitmap != null && bitmap.contains(ordinal);
+    }
+
+    public boolean isIndexed(long ruleId) {
+        return ordinalByRuleId.containsKey(ruleId);
+    }
+
+    public Set<String> vehicleIds() {
+        return Set.copyOf(rulesByVehicle.keySet());
+    }
+
+    public int ruleCount() {
+        return ordinalByRuleId.size();
+    }
+
+    /**
+     * Slots still holding removed or superseded versions of rules.
+     */
+    public synchronized int deadSlots() {
+        return nextOrdinal - ordinalByRuleId.size();
+    }
+
+    public synchronized boolean needsCompaction() {
+        int dead = deadSlots();
+        return dead >= MIN_DEAD_SLOTS_TO_COMPACT && dead > ordinalByRuleId.size();
+    }
+
+    /**
+     * A new index of the live rules with dense ordinals. This one is left untouched, so
+     * readers still using it stay consistent until they pick up the copy.
+     */
+    public synchronized VehicleRuleIndex compacted() {
+        VehicleRuleIndex copy = new VehicleRuleIndex();
+        int capacity = Math.max(16, ordinalByRuleId.size());
+        AlertRule[] newRules = new AlertRule[capacity];
+        copy.vehiclesByOrdinal = newVehicleSets(capacity);
+        Map<String, List<Integer>> ordinalsByVehicle = new HashMap<>();
+        for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+            Set<String> vehicleIds = vehiclesByOrdinal[ordinal];
+            if (vehicleIds == null) {
+                continue;
+            }
+            int newOrdinal = copy.nextOrdinal++;
+            newRules[newOrdinal] = rules[ordinal];
+            copy.vehiclesByOrdinal[newOrdinal] = vehicleIds;
+            copy.ordinalByRuleId.put(rules[ordinal].getRuleId(), newOrdinal);
+            for (String vehicleId : vehicleIds) {
+                ordinalsByVehicle.computeIfAbsent(vehicleId, key -> new ArrayList<>()).add(newOrdinal);
+            }
+        }
+        copy.rules = newRules;
+        ordinalsByVehicle.forEach((vehicleId, ordinals) ->
+                copy.rulesByVehicle.put(vehicleId, RuleBitmap.of(ordinals.stream().mapToInt(Integer::intValue).toArray())));
+        return copy;
+    }
+
+    private Set<String> unindex(Long ruleId) {
+        Integer ordinal = ruleId != null ? ordinalByRuleId.remove(ruleId) : null;
+        if (ordinal == null) {
+            return Set.of();
+        }
+        Set<String> vehicleIds = vehiclesByOrdinal[ordinal];
+        vehiclesByOrdinal[ordinal] = null;
+        for (String vehicleId : vehicleIds) {
+            rulesByVehicle.computeIfPresent(vehicleId, (key, bitmap) -> {
+                RuleBitmap remaining = bitmap.without(ordinal);
+                return remaining.isEmpty() ? null : remaining;
+            });
+        }
+        // The rule stays in its slot for readers still holding an older bitmap
+        return vehicleIds;
+    }
+
+    private static boolean isIndexable(AlertRule rule) {
+        return rule.getRuleId() != null && Boolean.TRUE.equals(rule.isEnabled()) && rule.getVehicleIds() != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<String>[] newVehicleSets(int capacity) {
+        return (Set<String>[]) new Set[capacity];
+    }
+}
@@ -1,5 +1,6 @@
 package com.jjenus.tracker.alerting.domain.entity;
 
+import com.jjenus.tracker.alerting.domain.CompiledGeofence;
 import com.jjenus.tracker.alerting.domain.enums.GeofenceShapeType;
 import jakarta.persistence.*;
 import java.time.Instant;
@@ -59,6 +60,9 @@ public class Geofence {
     @Column(name = "updated_at")
     private Instant updatedAt = Instant.now();
 
+    @Transient
+    private CompiledGeofence compiledGeometry;
+
     @PreUpdate
     protected void onUpdate() {
         this.updatedAt = Instant.now();
@@ -72,49 +76,23 @@ public class Geofence {
         point.setLongitude(longitude);
         point.setPointOrder(order);
         points.add(point);
+        compiledGeometry = null;
     }
 
     public boolean isPointInside(Double latitude, Double longitude) {
-        if (shapeType == GeofenceShapeType.CIRCLE) {
-            return isPointInCircle(latitude, longitude);
-        } else if (shapeType == GeofenceShapeType.POLYGON) {
-            return isPointInPolygon(latitude, longitude);
-        }
-        return false;
-    }
-
-    private boolean isPointInCircle(Double latitude, Double longitude) {
-        if (centerLatitude == null || centerLongitude == null || radiusMeters == null) {
-            return false;
-        }
-
-        double distance = calculateDistance(centerLatitude, centerLongitude, latitude, longitude);
-        return distance <= radiusMeters;
+        CompiledGeofence geometry = compiledGeometry();
+        return geometry != null && geometry.contains(latitude, longitude);
     }
 
-    private boolean isPointInPolygon(Double latitude, Double longitude) {
-        if (points.size() < 3) {
-            return false;
-        }
-
-        // Implement ray casting algorithm for polygon
-        boolean inside = false;
-        for (int i = 0, j = points.size() - 1; i < points.size(); j = i++) {
-            Double xi = points.get(i).getLatitude();
-            Double yi = points.get(i).getLongitude();
-            Double xj = points.get(j).getLatitude();
-            Double yj = points.get(j).getLongitude();
-
-            boolean intersect = ((yi > longitude) != (yj > longitude))
-                    && (latitude < (xj - xi) * (longitude - yi) / (yj - yi) + xi);
-            if (intersect) inside = !inside;
+    /**
+     * Geometry compiled on first use and dropped when the shape is changed through
+     * this entity's setters; null when the shape is incomplete.
+     */
+    public CompiledGeofence compiledGeometry() {
+        if (compiledGeometry == null) {
+            compiledGeometry = CompiledGeofence.of(this);
         }
-        return inside;
-    }
-
-    private double calculateDistance(Double lat1, Double lon1, Double lat2, Double lon2) {
-        // Simplified distance calculation
-        return Math.sqrt(Math.pow(lat2 - lat1, 2) + Math.pow(lon2 - lon1, 2)) * 111000; // Approx meters
+        return compiledGeometry;
     }
 
     // Vehicle management methods
@@ -146,7 +124,7 @@ public class Geofence {
     public void setDescription(String description) { this.description = description; }
 
     public GeofenceShapeType getShapeType() { return shapeType; }
-    public void setShapeType(GeofenceShapeType shapeType) { this.shapeType = shapeType; }
+    public void setShapeType(GeofenceShapeType shapeType) { this.shapeType = shapeType; this.compiledGeometry = null; }
 
     public Boolean getIsActive() { return isActive; }
     public void setIsActive(Boolean isActive) { this.isActive = isActive; }
@@ -155,7 +133,7 @@ public class Geofence {
     public void setVehicleIds(Set<String> vehicleIds) { this.vehicleIds = vehicleIds; }
 
     public List<GeofencePoint> getPoints() { return points; }
-    public void setPoints(List<GeofencePoint> points) { this.points = points; }
+    public void setPoints(List<GeofencePoint> points) { this.points = points; this.compiledGeometry = null; }
 
     public Instant getCreatedAt() { return createdAt; }
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
@@ -165,13 +143,13 @@ public class Geofence {
 
     // Additional getters/setters
     public Double getCenterLatitude() { return centerLatitude; }
-    public void setCenterLatitude(Double centerLatitude) { this.centerLatitude = centerLatitude; }
+    public void setCenterLatitude(Double centerLatitude) { this.centerLatitude = centerLatitude; this.compiledGeometry = null; }
 
     public Double getCenterLongitude() { return centerLongitude; }
-    public void setCenterLongitude(Double centerLongitude) { this.centerLongitude = centerLongitude; }
+    public void setCenterLongitude(Double centerLongitude) { this.centerLongitude = centerLongitude; this.compiledGeometry = null; }
 
     public Integer getRadiusMeters() { return radiusMeters; }
-    public void setRadiusMeters(Integer radiusMeters) { this.radiusMeters = radiusMeters; }
+    public void setRadiusMeters(Integer radiusMeters) { this.radiusMeters = radiusMeters; this.compiledGeometry = null; }
 
     public String getCreatedBy() { return createdBy; }
     public void setCreatedBy(String createdBy) { this.createdBy = createdBy; }
@@ -35,6 +35,16 @@ public class TrackerAlert {
     
     @Column(name = "message", columnDefinition = "TEXT")
     private String message;
+
+    @Column(name = "rule_key", length = 100)
+    private String ruleKey;
+
+    // Times the rule fired for this alert, including repeats suppressed by its cooldown
+    @Column(name = "occurrence_count")
+    private Integer occurrenceCount = 1;
+
+    @Column(name = "last_occurred_at")
+    private Instant lastOccurredAt;
     
     @JoinColumn(name = "location_id")
     private String locationId;
@@ -148,6 +158,15 @@ public class TrackerAlert {
     public String getMessage() { return message; }
     public void setMessage(String message) { this.message = message; }
     
+    public String getRuleKey() { return ruleKey; }
+    public void setRuleKey(String ruleKey) { this.ruleKey = ruleKey; }
+
+    public Integer getOccurrenceCount() { return occurrenceCount; }
+    public void setOccurrenceCount(Integer occurrenceCount) { this.occurrenceCount = occurrenceCount; }
+
+    public Instant getLastOccurredAt() { return lastOccurredAt; }
+    public void setLastOccurredAt(Instant lastOccurredAt) { this.lastOccurredAt = lastOccurredAt; }
+
     public String getLocationId() { return locationId; }
     public void setLocation(String location) { this.locationId = locationId; }
     
@@ -1,17 +1,17 @@
 package com.jjenus.tracker.alerting.domain.factory;
 
+import com.jjenus.tracker.alerting.application.GeofenceIndexService;
+import com.jjenus.tracker.alerting.application.VehicleRuleIndexService;
 import com.jjenus.tracker.alerting.application.service.GeofenceService;
 import com.jjenus.tracker.alerting.domain.*;
 import com.jjenus.tracker.alerting.domain.entity.AlertRule;
 import com.jjenus.tracker.alerting.domain.entity.Geofence;
 import com.jjenus.tracker.alerting.domain.enums.AlertRuleType;
-import com.jjenus.tracker.shared.domain.LocationPoint;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
-import java.util.List;
 import java.util.Map;
 
 @Component
@@ -20,9 +20,16 @@ public class AlertRuleFactory {
     private static final Logger logger = LoggerFactory.getLogger(AlertRuleFactory.class);
 
     private final GeofenceService geofenceService;
+    private final GeofenceIndexService geofenceIndex;
+    private final RuleStateStore ruleStateStore;
+    private final VehicleRuleIndexService ruleIndex;
 
-    public AlertRuleFactory(GeofenceService geofenceService) {
+    public AlertRuleFactory(GeofenceService geofenceService, GeofenceIndexService geofenceIndex,
+                            RuleStateStore ruleStateStore, VehicleRuleIndexService ruleIndex) {
         this.geofenceService = geofenceService;
+        this.geofenceIndex = geofenceIndex;
+        this.ruleStateStore = ruleStateStore;
+        this.ruleIndex = ruleIndex;
     }
 
     /**
@@ -34,7 +41,7 @@ public class AlertRuleFactory {
         }
 
         // Check if rule applies to this specific vehicle
-        if (!entity.appliesToVehicle(vehicleId)) {
+        if (!ruleIndex.appliesTo(entity, vehicleId)) {
             return null;
         }
 
@@ -62,7 +69,7 @@ public class AlertRuleFactory {
     private IdleTimeRule createIdleTimeRule(AlertRule entity, Map<String, Object> params) {
         int maxIdleMinutes = getIntParam(params, "maxIdleMinutes", 30);
         Duration maxIdleTime = Duration.ofMinutes(maxIdleMinutes);
-        return new IdleTimeRule(entity.getRuleKey(), entity.getRuleName(), maxIdleTime);
+        return new IdleTimeRule(entity.getRuleKey(), entity.getRuleName(), maxIdleTime, ruleStateStore);
     }
 
     private GeofenceRule createGeofenceRule(AlertRule entity, Map<String, Object> params, String vehicleId) {
@@ -82,8 +89,11 @@ public class AlertRuleFactory {
             return null;
         }
 
-        // Convert boundary points
-        List<LocationPoint> boundaryPoints = extractBoundaryPoints(geofence);
+        // Share the index's compiled geometry; compile our own if the index has not caught up yet
+        CompiledGeofence geometry = geofenceIndex.geometry(geofence.getGeofenceId());
+        if (geometry == null) {
+            geometry = geofence.compiledGeometry();
+        }
 
         GeofenceRule.Action action;
         try {
@@ -96,9 +106,10 @@ public class AlertRuleFactory {
                 entity.getRuleKey(),
                 entity.getRuleName(),
                 geofenceId,
-                boundaryPoints,
+                geometry,
                 action,
-                entity.getPriority()
+                entity.getPriority(),
+                ruleStateStore
         );
     }
 
@@ -112,56 +123,6 @@ public class AlertRuleFactory {
         }
     }
 
-    private List<LocationPoint> extractBoundaryPoints(Geofence geofence) {
-        if (geofence.getShapeType() == null) {
-            return List.of();
-        }
-
-        // For circle geofences, create a polygon approximation
-        if (geofence.getShapeType().name().equals("CIRCLE") &&
-                geofence.getCenterLatitude() != null &&
-                geofence.getCenterLongitude() != null &&
-                geofence.getRadiusMeters() != null) {
-
-            return createCircleBoundaryPoints(
-                    geofence.getCenterLatitude(),
-                    geofence.getCenterLongitude(),
-                    geofence.getRadiusMeters()
-            );
-        }
-
-        // For polygon geofences, use the stored points
-        return geofence.getPoints().stream()
-                .map(point -> new LocationPoint(
-                        point.getLatitude(),
-                        point.getLongitude(),
-                        0.0f, // Speed not relevant for geofence points
-                        java.time.Instant.now()
-                ))
-                .toList();
-    }
-
-    private List<LocationPoint> createCircleBoundaryPoints(Double lat, Double lon, Integer radius) {
-        // Create 12-point polygon approximation of circle
-        List<LocationPoint> points = new java.util.ArrayList<>();
-        int pointsCount = 12;
-
-        for (int i = 0; i < pointsCount; i++) {
-            double angle = 2 * Math.PI * i / pointsCount;
-            double latOffset = (radius / 111000.0) * Math.sin(angle);
-            double lonOffset = (radius / (111000.0 * Math.cos(Math.toRadians(lat)))) * Math.cos(angle);
-
-            points.add(new LocationPoint(
-                    lat + latOffset,
-                    lon + lonOffset,
-                    0.0f,
-                    java.time.Instant.now()
-            ));
-        }
-
-        return points;
-    }
-
     private IAlertRule createGenericRule(AlertRule entity, Map<String, Object> params) {
         return new GenericAlertRule(entity, params);
     }
@@ -9,33 +9,48 @@ import org.springframework.stereotype.Service;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 @Service
 public class AlertCacheService {
 
     private static final Logger logger = LoggerFactory.getLogger(AlertCacheService.class);
+    static final String ALERT_NEAR_CACHE = "alerts";
+    static final String VEHICLE_ALERT_NEAR_CACHE = "vehicleAlerts";
+    static final String STATISTICS_NEAR_CACHE = "alertStats";
 
     private final RedisTemplate<String, Object> redisTemplate;
     private final RedisKeyGenerator keyGenerator;
+    private final NearCacheManager nearCaches;
+    private final NearCache<TrackerAlert> nearAlerts;
+    private final NearCache<List<TrackerAlert>> nearVehicleAlerts;
+    private final NearCache<Object> nearStatistics;
+    private final CacheGenerationService generations;
 
     public AlertCacheService(
             RedisTemplate<String, Object> redisTemplate,
-            RedisKeyGenerator keyGenerator) {
+            RedisKeyGenerator keyGenerator,
+            NearCacheManager nearCaches,
+            CacheGenerationService generations) {
         this.redisTemplate = redisTemplate;
         this.keyGenerator = keyGenerator;
+        this.nearCaches = nearCaches;
+        this.nearAlerts = nearCaches.getCache(ALERT_NEAR_CACHE);
+        this.nearVehicleAlerts = nearCaches.getCache(VEHICLE_ALERT_NEAR_CACHE);
+        this.nearStatistics = nearCaches.getCache(STATISTICS_NEAR_CACHE);
+        this.generations = generations;
     }
 
     // Cache individual alerts
     public void cacheAlert(TrackerAlert alert) {
         try {
-            String cacheKey = keyGenerator.getAlertDetailKey(alert.getAlertId());
+            String cacheKey = alertKey(keyGenerator.getAlertDetailKey(alert.getAlertId()));
             redisTemplate.opsForValue().set(
                     cacheKey,
                     alert,
                     1, // 1 hour TTL for individual alerts
                     TimeUnit.HOURS
             );
+            nearCaches.invalidate(ALERT_NEAR_CACHE, String.valueOf(alert.getAlertId()));
         } catch (Exception e) {
             logger.error("Failed to cache alert: {}", alert.getAlertId(), e);
         }
@@ -43,8 +58,8 @@ public class AlertCacheService {
 
     public Optional<TrackerAlert> getAlertById(Long alertId) {
         try {
-            String cacheKey = keyGenerator.getAlertDetailKey(alertId);
-            TrackerAlert alert = (TrackerAlert) redisTemplate.opsForValue().get(cacheKey);
+            TrackerAlert alert = nearAlerts.get(String.valueOf(alertId), key -> (TrackerAlert) redisTemplate
+                    .opsForValue().get(alertKey(keyGenerator.getAlertDetailKey(alertId))));
             return Optional.ofNullable(alert);
         } catch (Exception e) {
             logger.error("Failed to get alert from cache: {}", alertId, e);
@@ -55,8 +70,9 @@ public class AlertCacheService {
     // Cache active alerts for vehicle
     public void cacheActiveVehicleAlerts(String vehicleId, List<TrackerAlert> alerts) {
         try {
-            String cacheKey = keyGenerator.getActiveVehicleAlertsKey(vehicleId);
+            String cacheKey = alertKey(keyGenerator.getActiveVehicleAlertsKey(vehicleId));
             redisTemplate.delete(cacheKey);
+            nearCaches.invalidate(VEHICLE_ALERT_NEAR_CACHE, vehicleId);
 
             if (!alerts.isEmpty()) {
                 redisTemplate.opsForList().rightPushAll(cacheKey, alerts.toArray());
@@ -69,15 +85,17 @@ public class AlertCacheService {
 
     public List<TrackerAlert> getActiveVehicleAlerts(String vehicleId) {
         try {
-            String cacheKey = keyGenerator.getActiveVehicleAlertsKey(vehicleId);
-            List<Object> cached = redisTemplate.opsForList().range(cacheKey, 0, -1);
-
-            if (cached != null && !cached.isEmpty()) {
-                return cached.stream()
-                        .map(obj -> (TrackerAlert) obj)
-                        .collect(Collectors.toList());
-            }
-            return null; // Cache miss
+            return nearVehicleAlerts.get(vehicleId, key -> {
+                String cacheKey = alertKey(keyGenerator.getActiveVehicleAlertsKey(vehicleId));
+                List<Object> cached = redisTemplate.opsForList().range(cacheKey, 0, -1);
+
+                if (cached != null && !cached.isEmpty()) {
+                    return cached.stream()
+                            .map(obj -> (TrackerAlert) obj)
+                            .toList();
+                }
+                return null; // Cache miss
+            });
         } catch (Exception e) {
             logger.error("Failed to get active alerts from cache: {}", vehicleId, e);
             return null;
@@ -88,11 +106,12 @@ public class AlertCacheService {
     public void cacheAlertStatistics(String key, Object statistics) {
         try {
             redisTemplate.opsForValue().set(
-                    keyGenerator.getAlertStatisticsKey(key),
+                    statisticsKey(key),
                     statistics,
                     5, // 5 minutes TTL for statistics
                     TimeUnit.MINUTES
             );
+            nearCaches.invalidate(STATISTICS_NEAR_CACHE, key);
         } catch (Exception e) {
             logger.error("Failed to cache alert statistics: {}", key, e);
         }
@@ -100,8 +119,8 @@ public class AlertCacheService {
 
     public Optional<Object> getAlertStatistics(String key) {
         try {
-            Object stats = redisTemplate.opsForValue()
-                    .get(keyGenerator.getAlertStatisticsKey(key));
+            Object stats = nearStatistics.get(key, statsKey -> redisTemplate.opsForValue()
+                    .get(statisticsKey(statsKey)));
             return Optional.ofNullable(stats);
         } catch (Exception e) {
             logger.error("Failed to get alert statistics from cache: {}", key, e);
@@ -112,8 +131,9 @@ public class AlertCacheService {
     // Invalidation methods
     public void invalidateAlert(Long alertId) {
         try {
-            String detailKey = keyGenerator.getAlertDetailKey(alertId);
+            String detailKey = alertKey(keyGenerator.getAlertDetailKey(alertId));
             redisTemplate.delete(detailKey);
+            nearCaches.invalidate(ALERT_NEAR_CACHE, String.valueOf(alertId));
 
             // Also invalidate any lists that might contain this alert
             // This is simpler than trying to remove from lists
@@ -124,9 +144,10 @@ public class AlertCacheService {
 
     public void invalidateVehicleAlerts(String vehicleId) {
         try {
-            String activeKey = keyGenerator.getActiveVehicleAlertsKey(vehicleId);
-            String recentKey = keyGenerator.getRecentVehicleAlertsKey(vehicleId);
-            redisTemplate.delete(activeKey, recentKey);
+            String activeKey = alertKey(keyGenerator.getActiveVehicleAlertsKey(vehicleId));
+            String recentKey = alertKey(keyGenerator.getRecentVehicleAlertsKey(vehicleId));
+            redisTemplate.delete(List.of(activeKey, recentKey));
+            nearCaches.invalidate(VEHICLE_ALERT_NEAR_CACHE, vehicleId);
         } catch (Exception e) {
             logger.error("Failed to invalidate vehicle alert cache: {}", vehicleId, e);
         }
@@ -134,11 +155,9 @@ public class AlertCacheService {
 
     public void invalidateStatistics() {
         try {
-            String pattern = keyGenerator.getAlertStatisticsPattern();
-            var keys = redisTemplate.keys(pattern);
-            if (keys != null && !keys.isEmpty()) {
-                redisTemplate.delete(keys);
-            }
+            // Orphans every cached statistic; they expire by their TTL
+            generations.bump(RedisKeyGenerator.ALERT_STATISTICS_NAMESPACE);
+            nearCaches.invalidateAll(STATISTICS_NEAR_CACHE);
         } catch (Exception e) {
             logger.error("Failed to invalidate statistics cache", e);
         }
@@ -147,13 +166,22 @@ public class AlertCacheService {
     // Clear all alert cache
     public void clearAll() {
         try {
-            String pattern = keyGenerator.getAllAlertKeysPattern();
-            var keys = redisTemplate.keys(pattern);
-            if (keys != null && !keys.isEmpty()) {
-                redisTemplate.delete(keys);
-            }
+            generations.bump(RedisKeyGenerator.ALERTS_NAMESPACE);
+            generations.bump(RedisKeyGenerator.ALERT_STATISTICS_NAMESPACE);
+            nearCaches.invalidateAll(ALERT_NEAR_CACHE);
+            nearCaches.invalidateAll(VEHICLE_ALERT_NEAR_CACHE);
+            nearCaches.invalidateAll(STATISTICS_NEAR_CACHE);
         } catch (Exception e) {
             logger.error("Failed to clear alert cache", e);
         }
     }
+
+    private String alertKey(String key) {
+        return keyGenerator.versioned(RedisKeyGenerator.ALERTS_NAMESPACE, key);
+    }
+
+    private String statisticsKey(String key) {
+        return keyGenerator.versioned(RedisKeyGenerator.ALERT_STATISTICS_NAMESPACE,
+                keyGenerator.getAlertStatisticsKey(key));
+    }
 }
@@ -0,0 +1,61 @@
+package com.jjenus.tracker.alerting.infrastructure.cache;
+
+import com.jjenus.tracker.alerting.domain.AlertCooldownTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Alert cooldowns of this node. With persistence on, every raised alert also writes its
+ * time to Redis with the window as TTL, and a rule/vehicle pair seen for the first time
+ * reads it back, so other nodes and restarts honour a window that is still running.
+ */
+@Service
+public class AlertCooldownCacheService extends AlertCooldownTable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertCooldownCacheService.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisKeyGenerator keyGenerator;
+    private final boolean persist;
+
+    public AlertCooldownCacheService(
+            RedisTemplate<String, Object> redisTemplate,
+            RedisKeyGenerator keyGenerator,
+            @Value("${tracking.alerting.cooldown.persist:false}") boolean persist) {
+        this.redisTemplate = redisTemplate;
+        this.keyGenerator = keyGenerator;
+        this.persist = persist;
+    }
+
+    @Override
+    protected long loadLastRaised(String ruleKey, String vehicleId) {
+        if (!persist) {
+            return 0;
+        }
+        try {
+            Object stored = redisTemplate.opsForValue().get(keyGenerator.getAlertCooldownKey(ruleKey, vehicleId));
+            return stored instanceof Number number ? number.longValue() : 0;
+        } catch (Exception e) {
+            logger.error("Failed to load cooldown of rule {} for vehicle {}", ruleKey, vehicleId, e);
+            return 0;
+        }
+    }
+
+    @Override
+    protected void raised(String ruleKey, String vehicleId, long raisedMillis, long windowMillis) {
+        if (!persist) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().set(keyGenerator.getAlertCooldownKey(ruleKey, vehicleId),
+                    raisedMillis, windowMillis, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            logger.error("Failed to save cooldown of rule {} for vehicle {}", ruleKey, vehicleId, e);
+        }
+    }
+}
@@ -13,27 +13,39 @@ import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 @Service
 public class AlertRuleCacheService {
 
     private static final Logger logger = LoggerFactory.getLogger(AlertRuleCacheService.class);
+    static final String RULE_NEAR_CACHE = "alertRules";
+    static final String ACTIVE_RULES_NEAR_CACHE = "activeRules";
+    private static final String ALL = "all";
 
     private final RedisTemplate<String, Object> redisTemplate;
     private final AlertRuleRepository ruleRepository;
     private final RedisKeyGenerator keyGenerator;
     private final ObjectMapper objectMapper;
+    private final NearCacheManager nearCaches;
+    private final NearCache<AlertRule> nearRules;
+    private final NearCache<List<AlertRule>> nearActiveRules;
+    private final CacheGenerationService generations;
 
     public AlertRuleCacheService(
             RedisTemplate<String, Object> redisTemplate,
             AlertRuleRepository ruleRepository,
             RedisKeyGenerator keyGenerator,
-            ObjectMapper objectMapper) {
+            ObjectMapper objectMapper,
+            NearCacheManager nearCaches,
+            CacheGenerationService generations) {
         this.redisTemplate = redisTemplate;
         this.ruleRepository = ruleRepository;
         this.keyGenerator = keyGenerator;
         this.objectMapper = objectMapper;
+        this.nearCaches = nearCaches;
+        this.nearRules = nearCaches.getCache(RULE_NEAR_CACHE);
+        this.nearActiveRules = nearCaches.getCache(ACTIVE_RULES_NEAR_CACHE);
+        this.generations = generations;
     }
 
     /**
@@ -44,7 +56,7 @@ public class AlertRuleCacheService {
             List<AlertRule> activeRules = ruleRepository.findActiveRulesOrderedByPriority();
 
             // Clear existing cache
-            redisTemplate.delete(keyGenerator.getAllActiveRulesKey());
+            redisTemplate.delete(activeRulesKey());
 
             // Store each rule
             for (AlertRule rule : activeRules) {
@@ -63,28 +75,12 @@ public class AlertRuleCacheService {
      */
     public List<AlertRule> getAllActiveRules() {
         try {
-            // Get all rule keys from the active rules set
-            Set<Object> ruleKeys = redisTemplate.opsForSet()
-                    .members(keyGenerator.getAllActiveRulesKey());
+            List<AlertRule> rules = nearActiveRules.get(ALL, key -> readActiveRules());
 
-            if (ruleKeys == null || ruleKeys.isEmpty()) {
+            if (rules == null) {
                 return loadAllActiveRulesAndReturn();
             }
-
-            // Fetch all rules in bulk using pipelining
-            return redisTemplate.executePipelined((RedisCallback<?>) connection -> {
-                        for (Object ruleKeyObj : ruleKeys) {
-                            String ruleKey = (String) ruleKeyObj;
-                            connection.stringCommands().get(
-                                    keyGenerator.getRuleDetailKey(ruleKey).getBytes()
-                            );
-                        }
-                        return null;
-                    }).stream()
-                    .filter(Objects::nonNull)
-                    .map(data -> objectMapper.convertValue(data, AlertRule.class))
-                    .sorted(Comparator.comparingInt(AlertRule::getPriority).reversed())
-                    .collect(Collectors.toList());
+            return rules;
 
         } catch (Exception e) {
             logger.error("Failed to get active rules from cache, falling back to DB", e);
@@ -92,6 +88,36 @@ public class AlertRuleCacheService {
         }
     }
 
+    /**
+     * Active rules held in Redis, highest priority first, or null when there are none
+     */
+    private List<AlertRule> readActiveRules() {
+        // Get all rule keys from the active rules set
+        Set<Object> ruleKeys = redisTemplate.opsForSet()
+                .members(activeRulesKey());
+
+        if (ruleKeys == null || ruleKeys.isEmpty()) {
+            return null;
+        }
+
+        // Resolved up front: the template must not be used inside the pipeline
+        List<String> detailKeys = ruleKeys.stream()
+                .map(ruleKey -> ruleDetailKey((String) ruleKey))
+                .toList();
+
+        // Fetch all rules in bulk using pipelining
+        return redisTemplate.executePipelined((RedisCallback<?>) connection -> {
+                    for (String detailKey : detailKeys) {
+                        connection.stringCommands().get(detailKey.getBytes());
+                    }
+                    return null;
+                }).stream()
+                .filter(Objects::nonNull)
+                .map(data -> objectMapper.convertValue(data, AlertRule.class))
+                .sorted(Comparator.comparingInt(AlertRule::getPriority).reversed())
+                .toList();
+    }
+
     /**
      * Cache a single rule
      */
@@ -101,7 +127,7 @@ public class AlertRuleCacheService {
 
             // Store rule details with TTL
             redisTemplate.opsForValue().set(
-                    keyGenerator.getRuleDetailKey(ruleKey),
+                    ruleDetailKey(ruleKey),
                     rule,
                     RedisKeyGenerator.RULE_DETAIL_TTL,
                     TimeUnit.SECONDS
@@ -110,17 +136,20 @@ public class AlertRuleCacheService {
             // Add to active rules set if enabled
             if (Boolean.TRUE.equals(rule.isEnabled())) {
                 redisTemplate.opsForSet().add(
-                        keyGenerator.getAllActiveRulesKey(),
+                        activeRulesKey(),
                         ruleKey
                 );
                 // Set TTL on the set
                 redisTemplate.expire(
-                        keyGenerator.getAllActiveRulesKey(),
+                        activeRulesKey(),
                         RedisKeyGenerator.RULE_DETAIL_TTL,
                         TimeUnit.SECONDS
                 );
             }
 
+            nearCaches.invalidate(RULE_NEAR_CACHE, ruleKey);
+            nearCaches.invalidate(ACTIVE_RULES_NEAR_CACHE, ALL);
+
             logger.debug("Cached rule: {}", ruleKey);
 
         } catch (Exception e) {
@@ -135,12 +164,14 @@ public class AlertRuleCacheService {
         try {
             // Remove from active rules set
             redisTemplate.opsForSet().remove(
-                    keyGenerator.getAllActiveRulesKey(),
+                    activeRulesKey(),
                     ruleKey
             );
 
             // Remove rule details
-            redisTemplate.delete(keyGenerator.getRuleDetailKey(ruleKey));
+            redisTemplate.delete(ruleDetailKey(ruleKey));
+            nearCaches.invalidate(RULE_NEAR_CACHE, ruleKey);
+            nearCaches.invalidate(ACTIVE_RULES_NEAR_CACHE, ALL);
 
             logger.debug("Evicted rule from cache: {}", ruleKey);
 
@@ -154,16 +185,21 @@ public class AlertRuleCacheService {
      */
     public Optional<AlertRule> getRuleByKey(String ruleKey) {
         try {
-            AlertRule rule = (AlertRule) redisTemplate.opsForValue()
-                    .get(keyGenerator.getRuleDetailKey(ruleKey));
-
+            AlertRule rule = nearRules.get(ruleKey, key -> {
+                AlertRule cached = (AlertRule) redisTemplate.opsForValue()
+                        .get(ruleDetailKey(key));
+
+                if (cached != null) {
+                    // Refresh TTL
+                    redisTemplate.expire(
+                            ruleDetailKey(key),
+                            RedisKeyGenerator.RULE_DETAIL_TTL,
+                            TimeUnit.SECONDS
+                    );
+                }
+                return cached;
+            });
             if (rule != null) {
-                // Refresh TTL
-                redisTemplate.expire(
-                        keyGenerator.getRuleDetailKey(ruleKey),
-                        RedisKeyGenerator.RULE_DETAIL_TTL,
-                        TimeUnit.SECONDS
-                );
                 return Optional.of(rule);
             }
 
@@ -178,12 +214,13 @@ public class AlertRuleCacheService {
      */
     public void clearAllCache() {
         try {
-            // Get all cache keys matching the pattern
-            Set<String> keys = redisTemplate.keys("alerting:*");
-            if (keys != null && !keys.isEmpty()) {
-                redisTemplate.delete(keys);
-                logger.info("Cleared all alert rule cache entries");
-            }
+            // Orphans every cached rule and vehicle rule list; they expire by their TTL
+            generations.bump(RedisKeyGenerator.ALERT_RULES_NAMESPACE);
+            generations.bump(RedisKeyGenerator.VEHICLE_RULES_NAMESPACE);
+            nearCaches.invalidateAll(RULE_NEAR_CACHE);
+            nearCaches.invalidateAll(ACTIVE_RULES_NEAR_CACHE);
+            nearCaches.invalidateAll(VehicleRuleCacheService.NEAR_CACHE);
+            logger.info("Cleared all alert rule cache entries");
         } catch (Exception e) {
             logger.error("Failed to clear cache", e);
         }
@@ -194,4 +231,14 @@ public class AlertRuleCacheService {
         loadAllActiveRules(); // Re-populate cache
         return rules;
     }
-}
\ No newline at end of file
+
+    private String ruleDetailKey(String ruleKey) {
+        return keyGenerator.versioned(RedisKeyGenerator.ALERT_RULES_NAMESPACE,
+                keyGenerator.getRuleDetailKey(ruleKey));
+    }
+
+    private String activeRulesKey() {
+        return keyGenerator.versioned(RedisKeyGenerator.ALERT_RULES_NAMESPACE,
+                keyGenerator.getAllActiveRulesKey());
+    }
+}
@@ -0,0 +1,72 @@
+package com.jjenus.tracker.alerting.infrastructure.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Generation counters of the cache namespaces, kept in Redis and embedded in their keys
+ * by {@link RedisKeyGenerator#versioned}. Clearing a namespace is one INCR: keys of the
+ * old generation are no longer read and expire by their own TTL.
+ * <p>
+ * Each node holds the counters in a near cache, so a bump reaches the other nodes
+ * through its invalidation broadcast.
+ */
+@Service
+public class CacheGenerationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheGenerationService.class);
+    static final String NEAR_CACHE = "cacheGenerations";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final NearCacheManager nearCaches;
+    private final NearCache<Long> nearGenerations;
+    // Last generation read per namespace, used while Redis cannot be reached
+    private final Map<String, Long> lastKnown = new ConcurrentHashMap<>();
+
+    public CacheGenerationService(
+            RedisTemplate<String, Object> redisTemplate,
+            NearCacheManager nearCaches) {
+        this.redisTemplate = redisTemplate;
+        this.nearCaches = nearCaches;
+        this.nearGenerations = nearCaches.getCache(NEAR_CACHE);
+    }
+
+    /**
+     * Current generation of the namespace; 0 until it is first bumped.
+     */
+    public long current(String namespace) {
+        try {
+            return nearGenerations.get(namespace, this::readGeneration);
+        } catch (Exception e) {
+            logger.warn("Failed to read cache generation of {}", namespace, e);
+            return lastKnown.getOrDefault(namespace, 0L);
+        }
+    }
+
+    /**
+     * Moves the namespace to a new generation on every node; returns it.
+     */
+    public long bump(String namespace) {
+        Long generation = redisTemplate.opsForValue().increment(getGenerationKey(namespace));
+        nearCaches.invalidate(NEAR_CACHE, namespace);
+        logger.info("Cache namespace {} moved to generation {}", namespace, generation);
+        return generation != null ? generation : current(namespace);
+    }
+
+    private Long readGeneration(String namespace) {
+        Object value = redisTemplate.opsForValue().get(getGenerationKey(namespace));
+        long generation = value instanceof Number number ? number.longValue() : 0L;
+        lastKnown.put(namespace, generation);
+        return generation;
+    }
+
+    private static String getGenerationKey(String namespace) {
+        // The counter must not expire, or a namespace could fall back to a stale generation
+        return RedisKeyGenerator.CACHE_GENERATION_KEY_PREFIX + namespace;
+    }
+}
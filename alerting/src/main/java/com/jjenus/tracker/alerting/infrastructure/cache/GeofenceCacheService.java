@@ -11,32 +11,44 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 @Service
 public class GeofenceCacheService {
 
     private static final Logger logger = LoggerFactory.getLogger(GeofenceCacheService.class);
+    static final String GEOFENCE_NEAR_CACHE = "geofences";
+    static final String VEHICLE_GEOFENCE_NEAR_CACHE = "vehicleGeofences";
 
     private final RedisTemplate<String, Object> redisTemplate;
     private final RedisKeyGenerator keyGenerator;
+    private final NearCacheManager nearCaches;
+    private final NearCache<Geofence> nearGeofences;
+    private final NearCache<List<Geofence>> nearVehicleGeofences;
+    private final CacheGenerationService generations;
 
     public GeofenceCacheService(
             RedisTemplate<String, Object> redisTemplate,
-            RedisKeyGenerator keyGenerator) {
+            RedisKeyGenerator keyGenerator,
+            NearCacheManager nearCaches,
+            CacheGenerationService generations) {
         this.redisTemplate = redisTemplate;
         this.keyGenerator = keyGenerator;
+        this.nearCaches = nearCaches;
+        this.nearGeofences = nearCaches.getCache(GEOFENCE_NEAR_CACHE);
+        this.nearVehicleGeofences = nearCaches.getCache(VEHICLE_GEOFENCE_NEAR_CACHE);
+        this.generations = generations;
     }
 
     public void cacheGeofence(Geofence geofence) {
         try {
-            String detailKey = keyGenerator.getGeofenceDetailKey(geofence.getGeofenceId());
+            String detailKey = geofenceDetailKey(geofence.getGeofenceId());
             redisTemplate.opsForValue().set(
                     detailKey,
                     geofence,
                     RedisKeyGenerator.GEOFENCE_CACHE_TTL,
                     TimeUnit.SECONDS
             );
+            nearCaches.invalidate(GEOFENCE_NEAR_CACHE, String.valueOf(geofence.getGeofenceId()));
 
             // Invalidate vehicle caches
             invalidateVehicleGeofenceCaches(geofence.getVehicleIds());
@@ -48,17 +60,18 @@ public class GeofenceCacheService {
 
     public Optional<Geofence> getGeofenceById(Long geofenceId) {
         try {
-            String cacheKey = keyGenerator.getGeofenceDetailKey(geofenceId);
-            Geofence geofence = (Geofence) redisTemplate.opsForValue().get(cacheKey);
-
-            if (geofence != null) {
-                // Refresh TTL on access
-                redisTemplate.expire(cacheKey,
-                        RedisKeyGenerator.GEOFENCE_CACHE_TTL,
-                        TimeUnit.SECONDS);
-            }
-
-            return Optional.ofNullable(geofence);
+            return Optional.ofNullable(nearGeofences.get(String.valueOf(geofenceId), key -> {
+                String cacheKey = geofenceDetailKey(geofenceId);
+                Geofence geofence = (Geofence) redisTemplate.opsForValue().get(cacheKey);
+
+                if (geofence != null) {
+                    // Refresh TTL on access
+                    redisTemplate.expire(cacheKey,
+                            RedisKeyGenerator.GEOFENCE_CACHE_TTL,
+                            TimeUnit.SECONDS);
+                }
+                return geofence;
+            }));
 
         } catch (Exception e) {
             logger.error("Failed to get geofence from cache: {}", geofenceId, e);
@@ -68,10 +81,11 @@ public class GeofenceCacheService {
 
     public void cacheVehicleGeofences(String vehicleId, List<Geofence> geofences) {
         try {
-            String cacheKey = keyGenerator.getVehicleGeofencesKey(vehicleId);
+            String cacheKey = vehicleGeofencesKey(vehicleId);
 
             // Delete existing cache
             redisTemplate.delete(cacheKey);
+            nearCaches.invalidate(VEHICLE_GEOFENCE_NEAR_CACHE, vehicleId);
 
             if (!geofences.isEmpty()) {
                 // Store as list
@@ -88,16 +102,18 @@ public class GeofenceCacheService {
 
     public List<Geofence> getVehicleGeofences(String vehicleId) {
         try {
-            String cacheKey = keyGenerator.getVehicleGeofencesKey(vehicleId);
-            List<Object> cached = redisTemplate.opsForList().range(cacheKey, 0, -1);
+            return nearVehicleGeofences.get(vehicleId, key -> {
+                String cacheKey = vehicleGeofencesKey(vehicleId);
+                List<Object> cached = redisTemplate.opsForList().range(cacheKey, 0, -1);
 
-            if (cached != null && !cached.isEmpty()) {
-                return cached.stream()
-                        .map(obj -> (Geofence) obj)
-                        .collect(Collectors.toList());
-            }
+                if (cached != null && !cached.isEmpty()) {
+                    return cached.stream()
+                            .map(obj -> (Geofence) obj)
+                            .toList();
+                }
 
-            return null; // Indicate cache miss
+                return null; // Indicate cache miss
+            });
 
         } catch (Exception e) {
             logger.error("Failed to get vehicle geofences from cache: {}", vehicleId, e);
@@ -107,8 +123,9 @@ public class GeofenceCacheService {
 
     public void invalidateGeofence(Long geofenceId) {
         try {
-            String detailKey = keyGenerator.getGeofenceDetailKey(geofenceId);
+            String detailKey = geofenceDetailKey(geofenceId);
             redisTemplate.delete(detailKey);
+            nearCaches.invalidate(GEOFENCE_NEAR_CACHE, String.valueOf(geofenceId));
         } catch (Exception e) {
             logger.error("Failed to invalidate geofence cache: {}", geofenceId, e);
         }
@@ -116,11 +133,13 @@ public class GeofenceCacheService {
 
     public void invalidateVehicleGeofenceCache(String vehicleId) {
         try {
-            String allKey = keyGenerator.getVehicleGeofencesKey(vehicleId);
-            String activeKey = keyGenerator.getActiveVehicleGeofencesKey(vehicleId);
+            String allKey = vehicleGeofencesKey(vehicleId);
+            String activeKey = keyGenerator.versioned(RedisKeyGenerator.GEOFENCES_NAMESPACE,
+                    keyGenerator.getActiveVehicleGeofencesKey(vehicleId));
             List<String> keysToDelete = Arrays.asList(allKey, activeKey);
 
             redisTemplate.delete(keysToDelete);
+            nearCaches.invalidate(VEHICLE_GEOFENCE_NEAR_CACHE, vehicleId);
         } catch (Exception e) {
             logger.error("Failed to invalidate vehicle geofence cache: {}", vehicleId, e);
         }
@@ -138,12 +157,22 @@ public class GeofenceCacheService {
 
     public void clearAll() {
         try {
-            Set<String> keys = redisTemplate.keys("geofence:*");
-            if (keys != null && !keys.isEmpty()) {
-                redisTemplate.delete(keys);
-            }
+            // Orphans every cached geofence and vehicle geofence list; they expire by their TTL
+            generations.bump(RedisKeyGenerator.GEOFENCES_NAMESPACE);
+            nearCaches.invalidateAll(GEOFENCE_NEAR_CACHE);
+            nearCaches.invalidateAll(VEHICLE_GEOFENCE_NEAR_CACHE);
         } catch (Exception e) {
             logger.error("Failed to clear geofence cache", e);
         }
     }
-}
\ No newline at end of file
+
+    private String geofenceDetailKey(Long geofenceId) {
+        return keyGenerator.versioned(RedisKeyGenerator.GEOFENCES_NAMESPACE,
+                keyGenerator.getGeofenceDetailKey(geofenceId));
+    }
+
+    private String vehicleGeofencesKey(String vehicleId) {
+        return keyGenerator.versioned(RedisKeyGenerator.GEOFENCES_NAMESPACE,
+                keyGenerator.getVehicleGeofencesKey(vehicleId));
+    }
+}
@@ -0,0 +1,157 @@
+package com.jjenus.tracker.alerting.infrastructure.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Small in-process cache in front of Redis, bounded by entry count and time to live; a
+ * maximum of 0 entries turns it off.
+ * When full, it samples a few entries from a random part of the table and evicts the least recently read one, the
+ * same approximate LRU Redis itself uses, so reads never take a lock.
+ * <p>
+ * Values are shared between callers and must be treated as read-only.
+ */
+public class NearCache<V> {
+    private static final int EVICTION_SAMPLES = 8;
+
+    private final String name;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final Map<String, Entry<V>> entries = new ConcurrentHashMap<>();
+    // Bumped by every invalidation, so a load that raced one is not kept
+    private final AtomicLong invalidations = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public NearCache(String name, int maxEntries, long ttlMillis) {
+        this(name, maxEntries, ttlMillis, System::currentTimeMillis);
+    }
+
+    NearCache(String name, int maxEntries, long ttlMillis, LongSupplier clock) {
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * The cached value, or the loader's (typically a Redis read) when there is none. A null
+     * from the loader is returned but not cached.
+     */
+    public V get(String key, Function<String, V> loader) {
+        long now = clock.getAsLong();
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.expiresAt > now) {
+            entry.lastReadAt = now;
+            hits.increment();
+            return entry.value;
+        }
+        misses.increment();
+        long seen = invalidations.get();
+        V value = loader.apply(key);
+        if (value != null && maxEntries > 0 && invalidations.get() == seen) {
+            if (entry == null && entries.size() >= maxEntries) {
+                evictOne(now);
+            }
+            entries.put(key, new Entry<>(value, now + ttlMillis, now));
+        }
+        return value;
+    }
+
+    public void invalidate(String key) {
+        invalidations.incrementAndGet();
+        entries.remove(key);
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        entries.clear();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public NearCacheStats getStats() {
+        return new NearCacheStats(name, hits.sum(), misses.sum(), evictions.sum(), entries.size());
+    }
+
+    private void evictOne(long now) {
+        List<Map.Entry<String, Entry<V>>> samples = new ArrayList<>(EVICTION_SAMPLES);
+        Spliterator<Map.Entry<String, Entry<V>>> region = randomRegion();
+        while (samples.size() < EVICTION_SAMPLES && region.tryAdvance(samples::add)) {
+            // collecting
+        }
+        String victim = null;
+        long oldestRead = Long.MAX_VALUE;
+        for (Map.Entry<String, Entry<V>> candidate : samples) {
+            if (candidate.getValue().expiresAt <= now) {
+                victim = candidate.getKey();
+                break;
+            }
+            if (candidate.getValue().lastReadAt < oldestRead) {
+                oldestRead = candidate.getValue().lastReadAt;
+                victim = candidate.getKey();
+            }
+        }
+        if (victim != null && entries.remove(victim) != null) {
+            evictions.increment();
+        }
+    }
+
+    /**
+     * A randomly chosen stretch of the map holding a few entries, found by splitting its
+     * spliterator and keeping a random half each time, so sampling does not always look at
+     * the same first entries of the table.
+     */
+    private Spliterator<Map.Entry<String, Entry<V>>> randomRegion() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Spliterator<Map.Entry<String, Entry<V>>> region = entries.entrySet().spliterator();
+        while (region.estimateSize() > EVICTION_SAMPLES * 2L) {
+            Spliterator<Map.Entry<String, Entry<V>>> prefix = region.trySplit();
+            if (prefix == null) {
+                break;
+            }
+            if (random.nextBoolean()) {
+                region = prefix;
+            }
+        }
+        return region;
+    }
+
+    /**
+     * Counters since start-up; the hit ratio is the share of reads not sent to Redis.
+     */
+    public record NearCacheStats(String name, long hits, long misses, long evictions, int size) {
+        public double hitRatio() {
+            long reads = hits + misses;
+            return reads == 0 ? 0 : (double) hits / reads;
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+        private volatile long lastReadAt;
+
+        private Entry(V value, long expiresAt, long lastReadAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.lastReadAt = lastReadAt;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.jjenus.tracker.alerting.infrastructure.cache;
+
+import com.jjenus.tracker.alerting.infrastructure.cache.NearCache.NearCacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Owns the named {@link NearCache}s and keeps them coherent across nodes: an invalidation
+ * drops the local entry at once and is broadcast on a Redis channel, so every other node
+ * drops its copy too. A lost message leaves a stale copy for at most the near-cache TTL.
+ */
+@Component
+public class NearCacheManager implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(NearCacheManager.class);
+    private static final String SEPARATOR = "|";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final String channel;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, NearCache<?>> caches = new ConcurrentHashMap<>();
+    private final List<Consumer<NearCache<?>>> creationListeners = new CopyOnWriteArrayList<>();
+
+    public NearCacheManager(
+            RedisTemplate<String, Object> redisTemplate,
+            @Value("${tracking.alerting.near-cache.channel:alerting:near-cache:invalidate}") String channel,
+            @Value("${tracking.alerting.near-cache.max-entries:10000}") int maxEntries,
+            @Value("${tracking.alerting.near-cache.ttl-ms:30000}") long ttlMillis) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * The near cache of that name, created on first use.
+     */
+    @SuppressWarnings("unchecked")
+    public <V> NearCache<V> getCache(String name) {
+        NearCache<?> cache = caches.get(name);
+        if (cache != null) {
+            return (NearCache<V>) cache;
+        }
+        NearCache<V> created = new NearCache<>(name, maxEntries, ttlMillis);
+        NearCache<?> raced = caches.putIfAbsent(name, created);
+        if (raced != null) {
+            return (NearCache<V>) raced;
+        }
+        creationListeners.forEach(listener -> listener.accept(created));
+        return created;
+    }
+
+    /**
+     * Calls {@code listener} for every cache, now for the existing ones and later for each
+     * one created; used to register metrics per cache.
+     */
+    public void forEachCache(Consumer<NearCache<?>> listener) {
+        creationListeners.add(listener);
+        caches.values().forEach(listener);
+    }
+
+    public void invalidate(String cacheName, String key) {
+        invalidateLocally(cacheName, key);
+        broadcast(nodeId + SEPARATOR + cacheName + SEPARATOR + key);
+    }
+
+    public void invalidateAll(String cacheName) {
+        invalidateLocally(cacheName, null);
+        broadcast(nodeId + SEPARATOR + cacheName);
+    }
+
+    /**
+     * Applies an invalidation broadcast by another node.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+        if (!(body instanceof String text)) {
+            return;
+        }
+        // node|cache or node|cache|key; keys may themselves contain the separator
+        String[] parts = text.split("\\|", 3);
+        if (parts.length < 2 || nodeId.equals(parts[0])) {
+            return;
+        }
+        invalidateLocally(parts[1], parts.length == 3 ? parts[2] : null);
+    }
+
+    /**
+     * Hit and miss counts per cache name.
+     */
+    public Map<String, NearCacheStats> getStats() {
+        Map<String, NearCacheStats> stats = new TreeMap<>();
+        caches.forEach((name, cache) -> stats.put(name, cache.getStats()));
+        return stats;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    private void invalidateLocally(String cacheName, String key) {
+        NearCache<?> cache = caches.get(cacheName);
+        if (cache == null) {
+            return;
+        }
+        if (key == null) {
+            cache.invalidateAll();
+        } else {
+            cache.invalidate(key);
+        }
+    }
+
+    private void broadcast(String message) {
+        try {
+            redisTemplate.convertAndSend(channel, message);
+        } catch (Exception e) {
+            logger.warn("Failed to broadcast near-cache invalidation {}", message, e);
+        }
+    }
+}
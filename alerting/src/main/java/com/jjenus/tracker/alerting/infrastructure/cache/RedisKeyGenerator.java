@@ -5,7 +5,83 @@ import org.springframework.stereotype.Component;
 @Component
 public class RedisKeyGenerator {
 
-    // ... existing code ...
+    private static final String KEY_PREFIX = "tracker:";
+    private static final String ANY = "all";
+
+    private final CacheGenerationService generations;
+
+    public RedisKeyGenerator(CacheGenerationService generations) {
+        this.generations = generations;
+    }
+
+    // ========== CACHE TTLs (seconds) ==========
+    public static final long RULE_DETAIL_TTL = 3600;
+    public static final long VEHICLE_RULE_CACHE_TTL = 1800;
+    public static final long INDEX_CACHE_TTL = 600;
+    public static final long GEOFENCE_CACHE_TTL = 3600;
+    public static final long VEHICLE_GEOFENCE_CACHE_TTL = 1800;
+    public static final long PAGINATION_CACHE_TTL = 300;
+
+    // ========== RULE CACHE KEYS ==========
+    private static final String RULE_PREFIX = "rule:";
+    public static final String RULE_DETAIL_KEY_PREFIX = RULE_PREFIX + "detail:";
+    public static final String ACTIVE_RULES_KEY = RULE_PREFIX + "active";
+    public static final String VEHICLE_RULES_KEY_PREFIX = RULE_PREFIX + "vehicle:";
+    public static final String VEHICLES_WITH_RULES_KEY = RULE_PREFIX + "index:vehicles";
+    public static final String PAGINATED_RULES_KEY_PREFIX = RULE_PREFIX + "page:";
+
+    // ========== RULE CACHE METHODS ==========
+    public String getRuleDetailKey(String ruleKey) {
+        return buildKey(RULE_DETAIL_KEY_PREFIX + ruleKey);
+    }
+
+    public String getAllActiveRulesKey() {
+        return buildKey(ACTIVE_RULES_KEY);
+    }
+
+    public String getVehicleRulesKey(String vehicleId) {
+        return buildKey(VEHICLE_RULES_KEY_PREFIX + vehicleId);
+    }
+
+    public String getVehiclesWithRulesKey() {
+        return buildKey(VEHICLES_WITH_RULES_KEY);
+    }
+
+    public String getPaginatedRulesKey(Integer page, Integer size, String sortBy, String sortDirection,
+                                       String search, String ruleType, Boolean enabled) {
+        return buildKey(PAGINATED_RULES_KEY_PREFIX
+                + pageKey(page, size, sortBy, sortDirection, search)
+                + ":type:" + orAny(ruleType)
+                + ":enabled:" + orAny(enabled));
+    }
+
+    // ========== GEOFENCE CACHE KEYS ==========
+    private static final String GEOFENCE_PREFIX = "geofence:";
+    public static final String GEOFENCE_DETAIL_KEY_PREFIX = GEOFENCE_PREFIX + "detail:";
+    public static final String VEHICLE_GEOFENCES_KEY_PREFIX = GEOFENCE_PREFIX + "vehicle:";
+    public static final String ACTIVE_VEHICLE_GEOFENCES_KEY_PREFIX = GEOFENCE_PREFIX + "vehicle:active:";
+    public static final String PAGINATED_GEOFENCES_KEY_PREFIX = GEOFENCE_PREFIX + "page:";
+
+    // ========== GEOFENCE CACHE METHODS ==========
+    public String getGeofenceDetailKey(Long geofenceId) {
+        return buildKey(GEOFENCE_DETAIL_KEY_PREFIX + geofenceId);
+    }
+
+    public String getVehicleGeofencesKey(String vehicleId) {
+        return buildKey(VEHICLE_GEOFENCES_KEY_PREFIX + vehicleId);
+    }
+
+    public String getActiveVehicleGeofencesKey(String vehicleId) {
+        return buildKey(ACTIVE_VEHICLE_GEOFENCES_KEY_PREFIX + vehicleId);
+    }
+
+    public String getPaginatedGeofencesKey(Integer page, Integer size, String sortBy, String sortDirection,
+                                           String search, String vehicleId, Boolean active) {
+        return buildKey(PAGINATED_GEOFENCES_KEY_PREFIX
+                + pageKey(page, size, sortBy, sortDirection, search)
+                + ":vehicle:" + orAny(vehicleId)
+                + ":active:" + orAny(active));
+    }
 
     // ========== ALERT CACHE KEYS ==========
     private static final String ALERT_PREFIX = "alert:";
@@ -31,13 +107,52 @@ public class RedisKeyGenerator {
         return buildKey(ALERT_STATISTICS_KEY_PREFIX + key);
     }
 
-    public String getAlertStatisticsPattern() {
-        return buildKey(ALERT_STATISTICS_KEY_PREFIX + "*");
+
+    // ========== RULE STATE KEYS ==========
+    public static final String RULE_STATE_KEY_PREFIX = ALERT_PREFIX + "rule-state:";
+
+    public String getRuleStateKey(String vehicleId) {
+        return buildKey(RULE_STATE_KEY_PREFIX + vehicleId);
     }
 
-    public String getAllAlertKeysPattern() {
-        return buildKey(ALERT_PREFIX + "*");
+    // ========== ALERT COOLDOWN KEYS ==========
+    public static final String ALERT_COOLDOWN_KEY_PREFIX = ALERT_PREFIX + "cooldown:";
+
+    public String getAlertCooldownKey(String ruleKey, String vehicleId) {
+        return buildKey(ALERT_COOLDOWN_KEY_PREFIX + ruleKey + ":" + vehicleId);
     }
 
-    // ... rest of existing code ...
+    // ========== CACHE NAMESPACES ==========
+    public static final String CACHE_GENERATION_KEY_PREFIX = "cache:generation:";
+    public static final String ALERT_RULES_NAMESPACE = "alert-rules";
+    public static final String VEHICLE_RULES_NAMESPACE = "vehicle-rules";
+    public static final String PAGINATED_RULES_NAMESPACE = "paginated-rules";
+    public static final String GEOFENCES_NAMESPACE = "geofences";
+    public static final String PAGINATED_GEOFENCES_NAMESPACE = "paginated-geofences";
+    public static final String ALERTS_NAMESPACE = "alerts";
+    public static final String ALERT_STATISTICS_NAMESPACE = "alert-statistics";
+
+    /**
+     * The key within the current generation of its namespace. Generation 0 leaves the key
+     * as it is, so entries written before the namespace was first cleared stay readable.
+     */
+    public String versioned(String namespace, String key) {
+        long generation = generations.current(namespace);
+        return generation == 0 ? key : key + ":g" + generation;
+    }
+
+    // ========== HELPERS ==========
+    private String buildKey(String key) {
+        return KEY_PREFIX + key;
+    }
+
+    private static String pageKey(Integer page, Integer size, String sortBy, String sortDirection, String search) {
+        return orAny(page) + ":" + orAny(size)
+                + ":sort:" + orAny(sortBy) + ":" + orAny(sortDirection)
+                + ":q:" + (search == null || search.isBlank() ? ANY : search.trim().toLowerCase());
+    }
+
+    private static String orAny(Object value) {
+        return value != null ? value.toString() : ANY;
+    }
 }
@@ -0,0 +1,95 @@
+package com.jjenus.tracker.alerting.infrastructure.cache;
+
+import com.jjenus.tracker.alerting.domain.InMemoryRuleStateStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rule state shared by all rules of this node. With persistence on, changed vehicles
+ * are snapshotted to a Redis hash per vehicle, so another node or a restart picks up
+ * the state (e.g. whether a vehicle is inside a geofence) instead of re-warming it.
+ */
+@Service
+public class RuleStateCacheService extends InMemoryRuleStateStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(RuleStateCacheService.class);
+
+    private static final int SAVE_BATCH_SIZE = 500;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisKeyGenerator keyGenerator;
+    private final boolean persist;
+    private final long ttlMs;
+
+    public RuleStateCacheService(
+            RedisTemplate<String, Object> redisTemplate,
+            RedisKeyGenerator keyGenerator,
+            @Value("${tracking.alerting.rule-state.persist:false}") boolean persist,
+            @Value("${tracking.alerting.rule-state.ttl-ms:86400000}") long ttlMs) {
+        this.redisTemplate = redisTemplate;
+        this.keyGenerator = keyGenerator;
+        this.persist = persist;
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Writes changed vehicles to Redis, one pipeline per batch, then forgets vehicles idle for longer than the TTL.
+     */
+    @Scheduled(fixedDelayString = "${tracking.alerting.rule-state.snapshot-interval-ms:30000}")
+    public void snapshotAndEvict() {
+        if (persist) {
+            try {
+                drainChanged(SAVE_BATCH_SIZE, this::save);
+            } catch (Exception e) {
+                logger.error("Failed to save rule state, will retry on the next snapshot", e);
+            }
+        }
+        int evicted = evictIdleSince(System.currentTimeMillis() - ttlMs);
+        if (evicted > 0) {
+            logger.debug("Evicted rule state of {} idle vehicles", evicted);
+        }
+    }
+
+    @Override
+    protected Map<String, Long> load(String vehicleId) {
+        if (!persist) {
+            return Map.of();
+        }
+        try {
+            Map<Object, Object> stored = redisTemplate.opsForHash().entries(keyGenerator.getRuleStateKey(vehicleId));
+            Map<String, Long> state = new HashMap<>(stored.size() * 2);
+            stored.forEach((ruleKey, value) -> state.put(ruleKey.toString(), ((Number) value).longValue()));
+            return state;
+        } catch (Exception e) {
+            logger.error("Failed to load rule state for vehicle {}", vehicleId, e);
+            return Map.of();
+        }
+    }
+
+    private void save(Map<String, Map<String, Long>> states) {
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                states.forEach((vehicleId, state) -> {
+                    String key = keyGenerator.getRuleStateKey(vehicleId);
+                    ops.opsForHash().putAll(key, state);
+                    ops.expire(key, ttlMs, TimeUnit.MILLISECONDS);
+                });
+                return null;
+            }
+        });
+    }
+}
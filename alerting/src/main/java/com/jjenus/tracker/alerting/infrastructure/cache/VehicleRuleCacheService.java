@@ -1,5 +1,6 @@
 package com.jjenus.tracker.alerting.infrastructure.cache;
 
+import com.jjenus.tracker.alerting.application.VehicleRuleIndexService;
 import com.jjenus.tracker.alerting.domain.entity.AlertRule;
 import com.jjenus.tracker.alerting.infrastructure.repository.AlertRuleRepository;
 import org.slf4j.Logger;
@@ -15,34 +16,46 @@ import java.util.stream.Collectors;
 public class VehicleRuleCacheService {
 
     private static final Logger logger = LoggerFactory.getLogger(VehicleRuleCacheService.class);
+    static final String NEAR_CACHE = "vehicleRules";
 
     private final RedisTemplate<String, Object> redisTemplate;
     private final AlertRuleRepository ruleRepository;
     private final RedisKeyGenerator keyGenerator;
+    private final VehicleRuleIndexService ruleIndex;
+    private final NearCacheManager nearCaches;
+    private final NearCache<List<AlertRule>> nearRules;
+    private final CacheGenerationService generations;
 
     public VehicleRuleCacheService(
             RedisTemplate<String, Object> redisTemplate,
             AlertRuleRepository ruleRepository,
-            RedisKeyGenerator keyGenerator) {
+            RedisKeyGenerator keyGenerator,
+            VehicleRuleIndexService ruleIndex,
+            NearCacheManager nearCaches,
+            CacheGenerationService generations) {
         this.redisTemplate = redisTemplate;
         this.ruleRepository = ruleRepository;
         this.keyGenerator = keyGenerator;
+        this.ruleIndex = ruleIndex;
+        this.nearCaches = nearCaches;
+        this.nearRules = nearCaches.getCache(NEAR_CACHE);
+        this.generations = generations;
     }
 
     /**
-     * Get active rules for a specific vehicle
+     * Get active rules for a specific vehicle, highest priority first. Answered from the
+     * in-process rule index once it is loaded; the near cache, Redis and the database before that.
      */
     public List<AlertRule> getActiveRulesForVehicle(String vehicleId) {
+        if (ruleIndex.isLoaded()) {
+            return ruleIndex.rulesFor(vehicleId);
+        }
         try {
-            String cacheKey = keyGenerator.getVehicleRulesKey(vehicleId);
-
             // Check cache first
-            List<Object> cachedRules = redisTemplate.opsForList().range(cacheKey, 0, -1);
+            List<AlertRule> cachedRules = nearRules.get(vehicleId, this::readCachedRules);
 
-            if (cachedRules != null && !cachedRules.isEmpty()) {
-                return cachedRules.stream()
-                        .map(obj -> (AlertRule) obj)
-                        .collect(Collectors.toList());
+            if (cachedRules != null) {
+                return cachedRules;
             }
 
             // Cache miss - load from DB and cache
@@ -54,6 +67,21 @@ public class VehicleRuleCacheService {
         }
     }
 
+    /**
+     * Rules of the vehicle held in Redis, or null when there are none
+     */
+    private List<AlertRule> readCachedRules(String vehicleId) {
+        String cacheKey = rulesKey(vehicleId);
+        List<Object> cachedRules = redisTemplate.opsForList().range(cacheKey, 0, -1);
+
+        if (cachedRules == null || cachedRules.isEmpty()) {
+            return null;
+        }
+        return cachedRules.stream()
+                .map(obj -> (AlertRule) obj)
+                .toList();
+    }
+
     /**
      * Load and cache rules for vehicle
      */
@@ -90,10 +118,11 @@ public class VehicleRuleCacheService {
      */
     private void cacheRules(String vehicleId, List<AlertRule> rules) {
         try {
-            String cacheKey = keyGenerator.getVehicleRulesKey(vehicleId);
+            String cacheKey = rulesKey(vehicleId);
 
             // Delete existing
             redisTemplate.delete(cacheKey);
+            nearCaches.invalidate(NEAR_CACHE, vehicleId);
 
             if (!rules.isEmpty()) {
                 // Push all rules to list
@@ -115,7 +144,7 @@ public class VehicleRuleCacheService {
      */
     private void cacheEmptyResult(String vehicleId) {
         try {
-            String cacheKey = keyGenerator.getVehicleRulesKey(vehicleId);
+            String cacheKey = rulesKey(vehicleId);
 
             // Store special marker for empty result with short TTL
             redisTemplate.opsForValue().set(cacheKey, "EMPTY", 5, TimeUnit.MINUTES);
@@ -131,8 +160,11 @@ public class VehicleRuleCacheService {
      * Check if vehicle has any active rules (quick cache check)
      */
     public boolean hasActiveRules(String vehicleId) {
+        if (ruleIndex.isLoaded()) {
+            return ruleIndex.hasRules(vehicleId);
+        }
         try {
-            String cacheKey = keyGenerator.getVehicleRulesKey(vehicleId);
+            String cacheKey = rulesKey(vehicleId);
             Object cached = redisTemplate.opsForValue().get(cacheKey);
 
             if (cached != null) {
@@ -155,6 +187,9 @@ public class VehicleRuleCacheService {
      * Get all vehicles that have active rules (for bulk operations)
      */
     public Set<String> getVehiclesWithActiveRules() {
+        if (ruleIndex.isLoaded()) {
+            return ruleIndex.vehicleIds();
+        }
         try {
             // This could be cached separately for faster lookups
             Set<String> vehiclesWithRules = ruleRepository.findVehiclesWithActiveRules();
@@ -180,6 +215,9 @@ public class VehicleRuleCacheService {
      * Quick check if vehicle has rules (using cached index)
      */
     public boolean hasRulesCached(String vehicleId) {
+        if (ruleIndex.isLoaded()) {
+            return ruleIndex.hasRules(vehicleId);
+        }
         try {
             String key = keyGenerator.getVehiclesWithRulesKey();
             Boolean hasRule = redisTemplate.opsForSet().isMember(key, vehicleId);
@@ -195,8 +233,9 @@ public class VehicleRuleCacheService {
      */
     public void invalidateVehicleRules(String vehicleId) {
         try {
-            String cacheKey = keyGenerator.getVehicleRulesKey(vehicleId);
+            String cacheKey = rulesKey(vehicleId);
             redisTemplate.delete(cacheKey);
+            nearCaches.invalidate(NEAR_CACHE, vehicleId);
 
             // Also remove from vehicles-with-rules index
             String indexKey = keyGenerator.getVehiclesWithRulesKey();
@@ -213,10 +252,9 @@ public class VehicleRuleCacheService {
      */
     public void invalidateAllVehicleRules() {
         try {
-            Set<String> keys = redisTemplate.keys(keyGenerator.getVehicleRulesKey("*"));
-            if (keys != null && !keys.isEmpty()) {
-                redisTemplate.delete(keys);
-            }
+            // Orphans every vehicle's cached rules; they expire by their TTL
+            generations.bump(RedisKeyGenerator.VEHICLE_RULES_NAMESPACE);
+            nearCaches.invalidateAll(NEAR_CACHE);
 
             // Clear vehicles index
             String indexKey = keyGenerator.getVehiclesWithRulesKey();
@@ -252,4 +290,9 @@ public class VehicleRuleCacheService {
         // Could be from configuration, analytics, or recent activity
         return new HashSet<>(); // Implement based on your needs
     }
-}
\ No newline at end of file
+
+    private String rulesKey(String vehicleId) {
+        return keyGenerator.versioned(RedisKeyGenerator.VEHICLE_RULES_NAMESPACE,
+                keyGenerator.getVehicleRulesKey(vehicleId));
+    }
+}
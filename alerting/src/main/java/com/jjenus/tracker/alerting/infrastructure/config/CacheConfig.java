@@ -1,6 +1,7 @@
 package com.jjenus.tracker.alerting.infrastructure.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jjenus.tracker.alerting.infrastructure.cache.NearCacheManager;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
@@ -8,6 +9,8 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
@@ -53,4 +56,17 @@ public class CacheConfig {
                 .withInitialCacheConfigurations(cacheConfigs)
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Delivers near-cache invalidations broadcast by other nodes.
+     */
+    @Bean
+    public RedisMessageListenerContainer nearCacheInvalidationContainer(
+            RedisConnectionFactory connectionFactory,
+            NearCacheManager nearCacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(nearCacheManager, new ChannelTopic(nearCacheManager.getChannel()));
+        return container;
+    }
+}
@@ -47,6 +47,13 @@ public interface AlertRuleRepository extends JpaRepository<AlertRule, Long> {
             "AND (:vehicleId MEMBER OF ar.vehicleIds OR :vehicleId IS NULL)")
     Page<AlertRule> findActiveRulesForVehicle(@Param("vehicleId") String vehicleId, Pageable pageable);
 
+    // Rules with their vehicle sets loaded, for the in-process vehicle rule index
+    @Query("SELECT DISTINCT ar FROM AlertRule ar LEFT JOIN FETCH ar.vehicleIds WHERE ar.isEnabled = true")
+    List<AlertRule> findAllActiveWithVehicles();
+
+    @Query("SELECT ar FROM AlertRule ar LEFT JOIN FETCH ar.vehicleIds WHERE ar.ruleId = :ruleId")
+    Optional<AlertRule> findByIdWithVehicles(@Param("ruleId") Long ruleId);
+
     // Find all vehicles that have rules
     @Query("SELECT DISTINCT vid FROM AlertRule ar JOIN ar.vehicleIds vid WHERE ar.isEnabled = true")
     Set<String> findVehiclesWithActiveRules();
@@ -57,6 +57,10 @@ public interface GeofenceRepository extends JpaRepository<Geofence, Long> {
             @Param("latitude") Double latitude,
             @Param("longitude") Double longitude);
 
+    // All active geofences with their points, for the in-memory geofence index
+    @Query("SELECT DISTINCT g FROM Geofence g LEFT JOIN FETCH g.points WHERE g.isActive = true")
+    List<Geofence> findAllActiveWithPoints();
+
     // Find all vehicles that have geofences
     @Query("SELECT DISTINCT vid FROM Geofence g JOIN g.vehicleIds vid WHERE g.isActive = true")
     Set<String> findVehiclesWithGeofences();
@@ -5,6 +5,7 @@ import com.jjenus.tracker.alerting.domain.enums.AlertSeverity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -47,6 +48,28 @@ public interface TrackerAlertRepository extends JpaRepository<TrackerAlert, Long
            "ORDER BY ta.triggeredAt DESC")
     List<TrackerAlert> findActiveVehicleAlerts(@Param("vehicleId") String vehicleId);
 
+    // Open alerts a rule raised for a vehicle up to a point in time, newest first
+    @Query("SELECT ta FROM TrackerAlert ta WHERE ta.vehicleId = :vehicleId " +
+           "AND ta.ruleKey = :ruleKey " +
+           "AND ta.resolved = false " +
+           "AND ta.triggeredAt <= :before " +
+           "ORDER BY ta.triggeredAt DESC")
+    List<TrackerAlert> findOpenRuleAlerts(
+        @Param("vehicleId") String vehicleId,
+        @Param("ruleKey") String ruleKey,
+        @Param("before") Instant before,
+        Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE TrackerAlert ta SET " +
+           "ta.occurrenceCount = COALESCE(ta.occurrenceCount, 1) + :count, " +
+           "ta.lastOccurredAt = :lastOccurredAt " +
+           "WHERE ta.alertId = :alertId")
+    int addOccurrences(
+        @Param("alertId") Long alertId,
+        @Param("count") int count,
+        @Param("lastOccurredAt") Instant lastOccurredAt);
+
     // Statistics queries
     @Query("SELECT COUNT(ta) FROM TrackerAlert ta WHERE ta.acknowledged = false " +
            "AND ta.severity = :severity")
@@ -1,25 +1,34 @@
 package com.jjenus.tracker.alerting.application;
 
 import com.jjenus.tracker.alerting.application.service.AlertRuleEvaluationService;
+import com.jjenus.tracker.alerting.domain.AlertCooldownTable;
 import com.jjenus.tracker.alerting.domain.AlertDetectedEvent;
-import com.jjenus.tracker.alerting.domain.AlertRuleTestBuilder;
+import com.jjenus.tracker.alerting.domain.AlertSuppressedEvent;
 import com.jjenus.tracker.alerting.domain.IAlertRule;
-import com.jjenus.tracker.alerting.domain.entity.AlertRule;
+import com.jjenus.tracker.alerting.domain.IdleTimeRule;
+import com.jjenus.tracker.alerting.domain.MaxSpeedRule;
+import com.jjenus.tracker.alerting.domain.enums.AlertSeverity;
+import com.jjenus.tracker.alerting.domain.enums.AlertType;
 import com.jjenus.tracker.alerting.infrastructure.cache.VehicleRuleCacheService;
 import com.jjenus.tracker.shared.domain.LocationPoint;
 import com.jjenus.tracker.shared.exception.ValidationException;
+import com.jjenus.tracker.shared.pubsub.DomainEvent;
 import com.jjenus.tracker.shared.pubsub.EventPublisher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,11 +43,15 @@ class AlertingEngineTest {
     @Mock
     private AlertRuleEvaluationService evaluationService;
 
+    @Mock
+    private CompiledRuleTable ruleTable;
+
     private AlertingEngine alertingEngine;
 
     @BeforeEach
     void setUp() {
-        alertingEngine = new AlertingEngine(eventPublisher, evaluationService, vehicleRuleCacheService);
+        alertingEngine = new AlertingEngine(eventPublisher, evaluationService, vehicleRuleCacheService, ruleTable,
+                new AlertCooldownTable());
     }
 
     @Test
@@ -61,77 +74,50 @@ class AlertingEngineTest {
     }
 
     @Test
-    void processVehicleUpdate_noCachedRules_skipsProcessing() {
+    void processVehicleUpdate_noCompiledRules_skipsEvaluation() {
         // given
         String vehicleId = "vehicle-001";
         LocationPoint location = new LocationPoint(40.7128, -74.0060, 60.0f, Instant.now());
 
-        when(vehicleRuleCacheService.hasRulesCached(vehicleId)).thenReturn(false);
+        when(ruleTable.rulesFor(vehicleId)).thenReturn(List.of());
 
         // when
         alertingEngine.processVehicleUpdate(vehicleId, location);
 
         // then
-        verify(vehicleRuleCacheService).hasRulesCached(vehicleId);
-        verify(vehicleRuleCacheService, never()).getActiveRulesForVehicle(vehicleId);
         verify(evaluationService, never()).evaluateRule(any(), any(), any());
+        verifyNoInteractions(vehicleRuleCacheService, eventPublisher);
     }
 
     @Test
-    void processVehicleUpdate_noActiveRules_skipsProcessing() {
-        // given
-        String vehicleId = "vehicle-001";
-        LocationPoint location = new LocationPoint(40.7128, -74.0060, 60.0f, Instant.now());
-
-        when(vehicleRuleCacheService.hasRulesCached(vehicleId)).thenReturn(true);
-        when(vehicleRuleCacheService.hasActiveRules(vehicleId)).thenReturn(false);
-
-        // when
-        alertingEngine.processVehicleUpdate(vehicleId, location);
-
-        // then
-        verify(vehicleRuleCacheService).hasActiveRules(vehicleId);
-        verify(vehicleRuleCacheService, never()).getActiveRulesForVehicle(vehicleId);
-    }
-
-    @Test
-    void processVehicleUpdate_activeRules_processed() {
+    void processVehicleUpdate_compiledRules_evaluatedWithoutCacheLookups() {
         // given
         String vehicleId = "vehicle-001";
         LocationPoint location = new LocationPoint(40.7128, -74.0060, 60.0f, Instant.now());
 
-        AlertRule rule1 = AlertRuleTestBuilder.overspeedRule()
-            .ruleKey("speed-rule")
-            .vehicleId(vehicleId)
-            .build();
-
-        AlertRule rule2 = AlertRuleTestBuilder.idleTimeoutRule()
-            .ruleKey("idle-rule")
-            .vehicleId(vehicleId)
-            .build();
+        IAlertRule speedRule = new MaxSpeedRule("speed-rule", "Overspeed", 50.0f);
+        IAlertRule idleRule = new IdleTimeRule("idle-rule", "Idle", Duration.ofMinutes(30));
 
         AlertDetectedEvent alert = new AlertDetectedEvent(
             "speed-rule",
+            AlertType.OVERSPEED,
             vehicleId,
             "Speed exceeded",
-            com.jjenus.tracker.alerting.domain.enums.AlertSeverity.WARNING,
+            AlertSeverity.WARNING,
             location
         );
 
-        when(vehicleRuleCacheService.hasRulesCached(vehicleId)).thenReturn(true);
-        when(vehicleRuleCacheService.hasActiveRules(vehicleId)).thenReturn(true);
-        when(vehicleRuleCacheService.getActiveRulesForVehicle(vehicleId))
-            .thenReturn(List.of(rule1, rule2));
-        when(evaluationService.evaluateRule(any(IAlertRule.class), eq(vehicleId), eq(location)))
-            .thenReturn(alert);
+        when(ruleTable.rulesFor(vehicleId)).thenReturn(List.of(speedRule, idleRule));
+        when(evaluationService.evaluateRule(speedRule, vehicleId, location)).thenReturn(alert);
+        when(evaluationService.evaluateRule(idleRule, vehicleId, location)).thenReturn(null);
 
         // when
         alertingEngine.processVehicleUpdate(vehicleId, location);
 
         // then
-        verify(vehicleRuleCacheService).getActiveRulesForVehicle(vehicleId);
         verify(evaluationService, times(2)).evaluateRule(any(), eq(vehicleId), eq(location));
         verify(eventPublisher).publish(alert);
+        verifyNoInteractions(vehicleRuleCacheService);
     }
 
     @Test
@@ -140,28 +126,19 @@ class AlertingEngineTest {
         String vehicleId = "vehicle-001";
         LocationPoint location = new LocationPoint(40.7128, -74.0060, 60.0f, Instant.now());
 
-        AlertRule rule1 = AlertRuleTestBuilder.overspeedRule()
-            .ruleKey("bad-rule")
-            .vehicleId(vehicleId)
-            .build();
-
-        AlertRule rule2 = AlertRuleTestBuilder.idleTimeoutRule()
-            .ruleKey("good-rule")
-            .vehicleId(vehicleId)
-            .build();
+        IAlertRule badRule = new MaxSpeedRule("bad-rule", "Overspeed", 50.0f);
+        IAlertRule goodRule = new IdleTimeRule("good-rule", "Idle", Duration.ofMinutes(30));
 
         AlertDetectedEvent alert = new AlertDetectedEvent(
             "good-rule",
+            AlertType.IDLE_TIMEOUT,
             vehicleId,
             "Alert triggered",
-            com.jjenus.tracker.alerting.domain.enums.AlertSeverity.INFO,
+            AlertSeverity.INFO,
             location
         );
 
-        when(vehicleRuleCacheService.hasRulesCached(vehicleId)).thenReturn(true);
-        when(vehicleRuleCacheService.hasActiveRules(vehicleId)).thenReturn(true);
-        when(vehicleRuleCacheService.getActiveRulesForVehicle(vehicleId))
-            .thenReturn(List.of(rule1, rule2));
+        when(ruleTable.rulesFor(vehicleId)).thenReturn(List.of(badRule, goodRule));
         when(evaluationService.evaluateRule(any(IAlertRule.class), eq(vehicleId), eq(location)))
             .thenThrow(new RuntimeException("Evaluation error"))
             .thenReturn(alert);
@@ -174,6 +151,34 @@ class AlertingEngineTest {
         verify(eventPublisher).publish(alert);
     }
 
+    @Test
+    void processVehicleUpdate_repeatInsideCooldown_suppressedAndCountedOntoAlert() {
+        // given
+        String vehicleId = "vehicle-001";
+        LocationPoint location = new LocationPoint(40.7128, -74.0060, 90.0f, Instant.now());
+        IAlertRule speedRule = new MaxSpeedRule("speed-rule", "Overspeed", 50.0f);
+
+        when(ruleTable.rulesFor(vehicleId)).thenReturn(List.of(speedRule));
+        when(ruleTable.cooldownMillis("speed-rule")).thenReturn(300_000L);
+        when(evaluationService.evaluateRule(speedRule, vehicleId, location))
+            .thenAnswer(invocation -> speedRule.evaluate(vehicleId, location));
+
+        // when
+        for (int fix = 0; fix < 3; fix++) {
+            alertingEngine.processVehicleUpdate(vehicleId, location);
+        }
+        alertingEngine.publishSuppressedOccurrences();
+
+        // then
+        ArgumentCaptor<DomainEvent> published = ArgumentCaptor.forClass(DomainEvent.class);
+        verify(eventPublisher, times(2)).publish(published.capture());
+        assertThat(published.getAllValues().get(0)).isInstanceOf(AlertDetectedEvent.class);
+        AlertSuppressedEvent suppressed = (AlertSuppressedEvent) published.getAllValues().get(1);
+        assertThat(suppressed.getRuleKey()).isEqualTo("speed-rule");
+        assertThat(suppressed.getVehicleId()).isEqualTo(vehicleId);
+        assertThat(suppressed.getCount()).isEqualTo(2);
+    }
+
     @Test
     void invalidateVehicleCache_callsCacheService() {
         // given
@@ -184,6 +189,7 @@ class AlertingEngineTest {
 
         // then
         verify(vehicleRuleCacheService).invalidateVehicleRules(vehicleId);
+        verify(ruleTable).invalidate(vehicleId);
     }
 
     @Test
@@ -193,20 +199,21 @@ class AlertingEngineTest {
 
         // then
         verify(vehicleRuleCacheService).invalidateAllVehicleRules();
+        verify(ruleTable).invalidateAll();
     }
 
     @Test
-    void refreshVehicleRules_callsCacheService() {
+    void refreshVehicleRules_invalidatesAndRecompiles() {
         // given
         String vehicleId = "vehicle-001";
-        when(vehicleRuleCacheService.getActiveRulesForVehicle(vehicleId))
-            .thenReturn(List.of());
+        when(ruleTable.rulesFor(vehicleId)).thenReturn(List.of());
 
         // when
         alertingEngine.refreshVehicleRules(vehicleId);
 
         // then
         verify(vehicleRuleCacheService).invalidateVehicleRules(vehicleId);
-        verify(vehicleRuleCacheService).getActiveRulesForVehicle(vehicleId);
+        verify(ruleTable).invalidate(vehicleId);
+        verify(ruleTable).rulesFor(vehicleId);
     }
 }
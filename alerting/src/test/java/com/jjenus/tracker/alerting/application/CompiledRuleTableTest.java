@@ -0,0 +1,108 @@
+package com.jjenus.tracker.alerting.application;
+
+import com.jjenus.tracker.alerting.domain.AlertRuleTestBuilder;
+import com.jjenus.tracker.alerting.domain.IAlertRule;
+import com.jjenus.tracker.alerting.domain.entity.AlertRule;
+import com.jjenus.tracker.alerting.domain.factory.AlertRuleFactory;
+import com.jjenus.tracker.alerting.infrastructure.cache.VehicleRuleCacheService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CompiledRuleTableTest {
+
+    private static final String VEHICLE_ID = "vehicle-001";
+
+    @Mock
+    private VehicleRuleCacheService vehicleRuleCacheService;
+
+    @Mock
+    private AlertRuleFactory ruleFactory;
+
+    private CompiledRuleTable ruleTable;
+
+    @BeforeEach
+    void setUp() {
+        ruleTable = new CompiledRuleTable(vehicleRuleCacheService, ruleFactory);
+    }
+
+    @Test
+    void rulesFor_calledTwice_compilesOnce() {
+        // given
+        AlertRule entity = AlertRuleTestBuilder.overspeedRule().build();
+        IAlertRule rule = mock(IAlertRule.class);
+        when(vehicleRuleCacheService.getActiveRulesForVehicle(VEHICLE_ID)).thenReturn(List.of(entity));
+        when(ruleFactory.createDomainRule(entity, VEHICLE_ID)).thenReturn(rule);
+
+        // when
+        List<IAlertRule> first = ruleTable.rulesFor(VEHICLE_ID);
+        List<IAlertRule> second = ruleTable.rulesFor(VEHICLE_ID);
+
+        // then
+        assertThat(first).containsExactly(rule);
+        assertThat(second).isSameAs(first);
+        verify(vehicleRuleCacheService, times(1)).getActiveRulesForVehicle(VEHICLE_ID);
+        assertThat(ruleTable.getCompiledVehicleCount()).isEqualTo(1);
+    }
+
+    @Test
+    void rulesFor_mixedPriorities_sortsHighestFirstAndDropsUnbuildable() {
+        // given
+        AlertRule low = AlertRuleTestBuilder.defaultRule().ruleKey("low").build();
+        AlertRule high = AlertRuleTestBuilder.defaultRule().ruleKey("high").build();
+        AlertRule broken = AlertRuleTestBuilder.defaultRule().ruleKey("broken").build();
+        IAlertRule lowRule = mock(IAlertRule.class);
+        IAlertRule highRule = mock(IAlertRule.class);
+        when(lowRule.getPriority()).thenReturn(1);
+        when(highRule.getPriority()).thenReturn(10);
+        when(vehicleRuleCacheService.getActiveRulesForVehicle(VEHICLE_ID)).thenReturn(List.of(low, broken, high));
+        when(ruleFactory.createDomainRule(low, VEHICLE_ID)).thenReturn(lowRule);
+        when(ruleFactory.createDomainRule(high, VEHICLE_ID)).thenReturn(highRule);
+        when(ruleFactory.createDomainRule(broken, VEHICLE_ID)).thenReturn(null);
+
+        // when
+        List<IAlertRule> rules = ruleTable.rulesFor(VEHICLE_ID);
+
+        // then
+        assertThat(rules).containsExactly(highRule, lowRule);
+    }
+
+    @Test
+    void invalidate_compiledVehicle_recompilesOnNextLookup() {
+        // given
+        when(vehicleRuleCacheService.getActiveRulesForVehicle(VEHICLE_ID)).thenReturn(List.of());
+        ruleTable.rulesFor(VEHICLE_ID);
+
+        // when
+        ruleTable.invalidate(VEHICLE_ID);
+        List<IAlertRule> rules = ruleTable.rulesFor(VEHICLE_ID);
+
+        // then
+        assertThat(rules).isEmpty();
+        verify(vehicleRuleCacheService, times(2)).getActiveRulesForVehicle(VEHICLE_ID);
+    }
+
+    @Test
+    void invalidateAll_compiledVehicles_clearsTable() {
+        // given
+        when(vehicleRuleCacheService.getActiveRulesForVehicle(VEHICLE_ID)).thenReturn(List.of());
+        ruleTable.rulesFor(VEHICLE_ID);
+
+        // when
+        ruleTable.invalidateAll();
+
+        // then
+        assertThat(ruleTable.getCompiledVehicleCount()).isZero();
+    }
+}
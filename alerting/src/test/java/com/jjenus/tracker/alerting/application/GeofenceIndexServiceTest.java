@@ -0,0 +1,94 @@
+package com.jjenus.tracker.alerting.application;
+
+import com.jjenus.tracker.alerting.domain.AlertRulesChangedEvent;
+import com.jjenus.tracker.alerting.domain.GeofenceTestBuilder;
+import com.jjenus.tracker.alerting.domain.entity.Geofence;
+import com.jjenus.tracker.alerting.infrastructure.repository.GeofenceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GeofenceIndexServiceTest {
+
+    private static final Long GEOFENCE_ID = 7L;
+
+    @Mock
+    private GeofenceRepository geofenceRepository;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    private GeofenceIndexService indexService;
+
+    @BeforeEach
+    void setUp() {
+        indexService = new GeofenceIndexService(geofenceRepository, applicationEventPublisher, 0.01);
+    }
+
+    @Test
+    void refresh_modifiedGeofence_swapsGeometryAndAnnouncesOldAndNewVehicles() {
+        // given
+        Geofence original = GeofenceTestBuilder.circularGeofence()
+                .geofenceId(GEOFENCE_ID).vehicleId("vehicle-001").build();
+        when(geofenceRepository.findAllActiveWithPoints()).thenReturn(List.of(original));
+        indexService.loadAll();
+
+        Geofence moved = GeofenceTestBuilder.circularGeofence()
+                .geofenceId(GEOFENCE_ID).centerLatitude(51.5074).centerLongitude(-0.1278)
+                .vehicleId("vehicle-002").build();
+        when(geofenceRepository.findById(GEOFENCE_ID)).thenReturn(Optional.of(moved));
+
+        // when
+        indexService.markModified(GEOFENCE_ID);
+        indexService.refresh();
+
+        // then
+        assertThat(indexService.geometry(GEOFENCE_ID).contains(51.5074, -0.1278)).isTrue();
+        ArgumentCaptor<AlertRulesChangedEvent> event = ArgumentCaptor.forClass(AlertRulesChangedEvent.class);
+        verify(applicationEventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getVehicleIds()).containsExactlyInAnyOrder("vehicle-001", "vehicle-002");
+    }
+
+    @Test
+    void refresh_deletedGeofence_announcesItsVehicles() {
+        // given
+        Geofence original = GeofenceTestBuilder.circularGeofence()
+                .geofenceId(GEOFENCE_ID).vehicleId("vehicle-001").build();
+        when(geofenceRepository.findAllActiveWithPoints()).thenReturn(List.of(original));
+        indexService.loadAll();
+        when(geofenceRepository.findById(GEOFENCE_ID)).thenReturn(Optional.empty());
+
+        // when
+        indexService.markModified(GEOFENCE_ID);
+        indexService.refresh();
+
+        // then
+        assertThat(indexService.geometry(GEOFENCE_ID)).isNull();
+        ArgumentCaptor<AlertRulesChangedEvent> event = ArgumentCaptor.forClass(AlertRulesChangedEvent.class);
+        verify(applicationEventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getVehicleIds()).containsExactly("vehicle-001");
+    }
+
+    @Test
+    void refresh_nothingPending_publishesNothing() {
+        // when
+        indexService.refresh();
+
+        // then
+        verify(applicationEventPublisher, never()).publishEvent(any(Object.class));
+    }
+}
@@ -1,6 +1,7 @@
 package com.jjenus.tracker.alerting.application.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jjenus.tracker.alerting.api.dto.*;
 import com.jjenus.tracker.alerting.domain.AlertRuleTestBuilder;
@@ -10,9 +11,11 @@ import com.jjenus.tracker.alerting.domain.entity.Geofence;
 import com.jjenus.tracker.alerting.domain.enums.AlertRuleType;
 import com.jjenus.tracker.alerting.exception.AlertException;
 import com.jjenus.tracker.alerting.infrastructure.cache.AlertRuleCacheService;
+import com.jjenus.tracker.alerting.infrastructure.cache.CacheGenerationService;
 import com.jjenus.tracker.alerting.infrastructure.cache.RedisKeyGenerator;
 import com.jjenus.tracker.alerting.infrastructure.cache.VehicleRuleCacheService;
 import com.jjenus.tracker.alerting.infrastructure.repository.AlertRuleRepository;
+import com.jjenus.tracker.shared.pubsub.EventPublisher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -55,6 +58,12 @@ class AlertRuleServiceTest {
     @Mock
     private RedisKeyGenerator keyGenerator;
 
+    @Mock
+    private EventPublisher eventPublisher;
+
+    @Mock
+    private CacheGenerationService cacheGenerations;
+
     @InjectMocks
     private AlertRuleService alertRuleService;
 
@@ -87,7 +96,7 @@ class AlertRuleServiceTest {
 
         when(ruleRepository.existsByRuleKey("new-rule")).thenReturn(false);
         when(ruleRepository.save(any(AlertRule.class))).thenReturn(testRule);
-        when(objectMapper.readValue(anyString(), (Class<Object>) any())).thenReturn(Map.of("speedLimit", 80.0f));
+        when(objectMapper.readValue(anyString(), any(TypeReference.class))).thenReturn(Map.of("speedLimit", 80.0f));
 
         // when
         AlertRuleResponse result = alertRuleService.createRule(request);
@@ -396,17 +405,18 @@ class AlertRuleServiceTest {
         request1.setRuleKey("rule-1");
         request1.setRuleName("Rule 1");
         request1.setRuleType("SPEED");
-        request1.setParameters("{}");
+        request1.setParameters("{\"speedLimit\":80}");
 
         CreateAlertRuleRequest request2 = new CreateAlertRuleRequest();
         request2.setRuleKey("rule-2");
         request2.setRuleName("Rule 2");
         request2.setRuleType("TIME");
-        request2.setParameters("{}");
+        request2.setParameters("{\"maxIdleMinutes\":30}");
 
         when(ruleRepository.existsByRuleKey(anyString())).thenReturn(false);
         when(ruleRepository.save(any(AlertRule.class))).thenReturn(testRule);
-        when(objectMapper.readValue(anyString(), (Class<Object>) any())).thenReturn(Collections.emptyMap());
+        when(objectMapper.readValue(anyString(), any(TypeReference.class)))
+                .thenReturn(Map.of("speedLimit", 80.0f), Map.of("maxIdleMinutes", 30));
 
         // when
         List<AlertRuleResponse> results = alertRuleService.batchCreateRules(List.of(request1, request2));
@@ -420,9 +430,11 @@ class AlertRuleServiceTest {
     void batchEnableRules_multipleRules_enablesThem() {
         // given
         Set<String> ruleKeys = Set.of("rule-1", "rule-2");
-        testRule.setIsEnabled(false);
+        AlertRule rule1 = AlertRuleTestBuilder.defaultRule().ruleKey("rule-1").enabled(false).build();
+        AlertRule rule2 = AlertRuleTestBuilder.defaultRule().ruleKey("rule-2").enabled(false).build();
 
-        when(ruleRepository.findByRuleKey(anyString())).thenReturn(Optional.of(testRule));
+        when(ruleRepository.findByRuleKey("rule-1")).thenReturn(Optional.of(rule1));
+        when(ruleRepository.findByRuleKey("rule-2")).thenReturn(Optional.of(rule2));
 
         // when
         alertRuleService.batchEnableRules(new HashSet<>(ruleKeys));
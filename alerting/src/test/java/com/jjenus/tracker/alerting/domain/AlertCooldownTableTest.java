@@ -0,0 +1,125 @@
+package com.jjenus.tracker.alerting.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AlertCooldownTableTest {
+
+    private static final long WINDOW = 60_000;
+
+    @Test
+    void tryRaise_repeatInsideWindow_suppressed() {
+        // given
+        AlertCooldownTable table = new AlertCooldownTable();
+
+        // when
+        boolean first = table.tryRaise("rule-1", "vehicle-001", WINDOW, 1_000);
+        boolean repeat = table.tryRaise("rule-1", "vehicle-001", WINDOW, 2_000);
+        boolean otherVehicle = table.tryRaise("rule-1", "vehicle-002", WINDOW, 2_000);
+        boolean afterWindow = table.tryRaise("rule-1", "vehicle-001", WINDOW, 1_000 + WINDOW);
+
+        // then
+        assertThat(first).isTrue();
+        assertThat(repeat).isFalse();
+        assertThat(otherVehicle).isTrue();
+        assertThat(afterWindow).isTrue();
+    }
+
+    @Test
+    void tryRaise_noWindow_neverSuppresses() {
+        // given
+        AlertCooldownTable table = new AlertCooldownTable();
+
+        // when
+        boolean first = table.tryRaise("rule-1", "vehicle-001", 0, 1_000);
+        boolean repeat = table.tryRaise("rule-1", "vehicle-001", 0, 1_001);
+
+        // then
+        assertThat(first).isTrue();
+        assertThat(repeat).isTrue();
+        assertThat(table.size()).isZero();
+    }
+
+    @Test
+    void drainSuppressed_countsPerRaisedAlert() {
+        // given
+        AlertCooldownTable table = new AlertCooldownTable();
+        table.tryRaise("rule-1", "vehicle-001", WINDOW, 1_000);
+        table.tryRaise("rule-1", "vehicle-001", WINDOW, 10_000);
+        table.tryRaise("rule-1", "vehicle-001", WINDOW, 20_000);
+        table.tryRaise("rule-1", "vehicle-001", WINDOW, 1_000 + WINDOW); // raises the next alert
+        table.tryRaise("rule-1", "vehicle-001", WINDOW, WINDOW + 5_000);
+        List<String> drained = new ArrayList<>();
+
+        // when
+        table.drainSuppressed((ruleKey, vehicleId, count, lastOccurredMillis) ->
+                drained.add(ruleKey + "/" + vehicleId + "/" + count + "/" + lastOccurredMillis));
+        table.drainSuppressed((ruleKey, vehicleId, count, lastOccurredMillis) ->
+                drained.add("again"));
+
+        // then
+        assertThat(drained).containsExactly(
+                "rule-1/vehicle-001/2/20000",
+                "rule-1/vehicle-001/1/" + (WINDOW + 5_000));
+    }
+
+    @Test
+    void evictExpired_keepsRunningWindowsAndUndrainedCounts() {
+        // given
+        AlertCooldownTable table = new AlertCooldownTable();
+        table.tryRaise("rule-1", "vehicle-001", WINDOW, 1_000);
+        table.tryRaise("rule-1", "vehicle-002", WINDOW, 1_000);
+        table.tryRaise("rule-1", "vehicle-002", WINDOW, 2_000);
+        table.tryRaise("rule-1", "vehicle-003", WINDOW, 30_000);
+
+        // when
+        int evicted = table.evictExpired(1_000 + WINDOW);
+
+        // then
+        assertThat(evicted).isEqualTo(1);
+        assertThat(table.size()).isEqualTo(2);
+    }
+
+    @Test
+    void tryRaise_windowStillRunningElsewhere_suppressesFirstRepeat() {
+        // given
+        AlertCooldownTable table = new AlertCooldownTable() {
+            @Override
+            protected long loadLastRaised(String ruleKey, String vehicleId) {
+                return 50_000;
+            }
+        };
+
+        // when
+        boolean raised = table.tryRaise("rule-1", "vehicle-001", WINDOW, 60_000);
+
+        // then
+        assertThat(raised).isFalse();
+    }
+
+    @Test
+    void evictExpired_windowLoadedFromElsewhere_keptUntilItCloses() {
+        // given
+        AlertCooldownTable table = new AlertCooldownTable() {
+            @Override
+            protected long loadLastRaised(String ruleKey, String vehicleId) {
+                return 50_000;
+            }
+        };
+        table.tryRaise("rule-1", "vehicle-001", WINDOW, 60_000);
+        table.drainSuppressed((ruleKey, vehicleId, count, lastOccurredMillis) -> { });
+
+        // when
+        int kept = table.evictExpired(60_000);
+        int evicted = table.evictExpired(50_000 + WINDOW);
+
+        // then
+        assertThat(kept).isZero();
+        assertThat(evicted).isEqualTo(1);
+        assertThat(table.size()).isZero();
+    }
+}
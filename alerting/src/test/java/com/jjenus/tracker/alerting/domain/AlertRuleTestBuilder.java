@@ -81,6 +81,11 @@ public class AlertRuleTestBuilder {
         return this;
     }
 
+    public AlertRuleTestBuilder parameters(Map<String, Object> parameters) {
+        this.parameters = parameters;
+        return this;
+    }
+
     public AlertRuleTestBuilder vehicleId(String vehicleId) {
         this.vehicleIds.add(vehicleId);
         return this;
@@ -0,0 +1,92 @@
+package com.jjenus.tracker.alerting.domain;
+
+import com.jjenus.tracker.shared.domain.LocationPoint;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompiledGeofenceTest {
+
+    @Test
+    void polygon_rectangle_isConvexAndContainsInnerPoints() {
+        // given
+        CompiledGeofence geometry = CompiledGeofence.polygon(points(
+            40.7120, -74.0070,
+            40.7120, -74.0050,
+            40.7110, -74.0050,
+            40.7110, -74.0070));
+
+        // when / then
+        assertThat(geometry.isConvex()).isTrue();
+        assertThat(geometry.contains(40.7115, -74.0060)).isTrue();
+        assertThat(geometry.contains(40.7125, -74.0060)).isFalse();
+        assertThat(geometry.contains(40.7115, -74.0040)).isFalse();
+    }
+
+    @Test
+    void polygon_lShape_excludesTheNotch() {
+        // given
+        CompiledGeofence geometry = CompiledGeofence.polygon(points(
+            0, 0,
+            0, 2,
+            1, 2,
+            1, 1,
+            2, 1,
+            2, 0));
+
+        // when / then
+        assertThat(geometry.isConvex()).isFalse();
+        assertThat(geometry.contains(0.5, 1.5)).isTrue();
+        assertThat(geometry.contains(1.5, 0.5)).isTrue();
+        assertThat(geometry.contains(1.5, 1.5)).isFalse();
+    }
+
+    @Test
+    void polygon_pentagram_isNotTreatedAsConvex() {
+        // given
+        List<LocationPoint> star = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            double angle = Math.PI / 2 + i * 4 * Math.PI / 5;
+            star.add(new LocationPoint(Math.sin(angle), Math.cos(angle), 0.0f, Instant.now()));
+        }
+
+        // when
+        CompiledGeofence geometry = CompiledGeofence.polygon(star);
+
+        // then
+        assertThat(geometry.isConvex()).isFalse();
+        // the tip of a point of the star is inside, the notch between two points is not
+        assertThat(geometry.contains(0.9, 0.0)).isTrue();
+        assertThat(geometry.contains(0.5, 0.6)).isFalse();
+    }
+
+    @Test
+    void circle_usesTrueDistanceAtHighLatitude() {
+        // given
+        CompiledGeofence geometry = CompiledGeofence.circle(60.0, 10.0, 1000);
+
+        // when / then
+        // 0.017 degrees of longitude is about 945 m at 60 degrees north, 1.9 km at the equator
+        assertThat(geometry.contains(60.0, 10.017)).isTrue();
+        assertThat(geometry.contains(60.0, 10.019)).isFalse();
+        assertThat(geometry.contains(60.0089, 10.0)).isTrue();
+    }
+
+    @Test
+    void polygon_tooFewPoints_returnsNull() {
+        // when / then
+        assertThat(CompiledGeofence.polygon(points(0, 0, 1, 1))).isNull();
+    }
+
+    private static List<LocationPoint> points(double... latLons) {
+        List<LocationPoint> points = new ArrayList<>();
+        for (int i = 0; i < latLons.length; i += 2) {
+            points.add(new LocationPoint(latLons[i], latLons[i + 1], 0.0f, Instant.now()));
+        }
+        return points;
+    }
+}
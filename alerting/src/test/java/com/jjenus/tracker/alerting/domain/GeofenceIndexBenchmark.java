@@ -0,0 +1,80 @@
+package com.jjenus.tracker.alerting.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point lookups against the grid index versus testing every fence, as the rules did before the index.
+ * <p>
+ * Run {@link #main} from the IDE, or after {@code mvn -pl alerting -am install -DskipTests} with
+ * {@code mvn -pl alerting exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ * "-Dexec.args=-cp %classpath org.openjdk.jmh.Main GeofenceIndexBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeofenceIndexBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({"1000", "100000"})
+    public int fenceCount;
+
+    private List<CompiledGeofence> fences;
+    private GeofenceIndex index;
+    private double[] queryLats;
+    private double[] queryLons;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fences = GeofenceIndexTest.randomCircles(fenceCount, 11);
+        index = GeofenceIndex.build(fences, GeofenceIndexTest.CELL_DEGREES);
+        double[][] points = GeofenceIndexTest.randomPoints(QUERIES, 13);
+        queryLats = points[0];
+        queryLons = points[1];
+    }
+
+    @Benchmark
+    public long[] index() {
+        int q = next++ & (QUERIES - 1);
+        return index.containing(queryLats[q], queryLons[q]);
+    }
+
+    @Benchmark
+    public int linearScan() {
+        int q = next++ & (QUERIES - 1);
+        int found = 0;
+        for (CompiledGeofence fence : fences) {
+            if (fence.contains(queryLats[q], queryLons[q])) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(GeofenceIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
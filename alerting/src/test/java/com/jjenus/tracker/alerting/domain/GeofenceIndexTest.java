@@ -0,0 +1,172 @@
+package com.jjenus.tracker.alerting.domain;
+
+import com.jjenus.tracker.alerting.domain.entity.Geofence;
+import com.jjenus.tracker.alerting.domain.enums.GeofenceShapeType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeofenceIndexTest {
+
+    static final double CELL_DEGREES = 0.01;
+
+    @Test
+    void containing_pointInsidePolygonAndCircle_returnsBoth() {
+        // given
+        GeofenceIndex index = index(
+            GeofenceTestBuilder.polygonGeofence().geofenceId(1L).vehicleId("vehicle-001").build(),
+            GeofenceTestBuilder.circularGeofence().geofenceId(2L).radiusMeters(500).build());
+
+        // when
+        long[] inside = index.containing(40.7125, -74.0055);
+        long[] outsidePolygon = index.containing(40.7100, -74.0060);
+        long[] outsideBoth = index.containing(40.7300, -74.0060);
+
+        // then
+        assertThat(inside).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(outsidePolygon).containsExactly(2L);
+        assertThat(outsideBoth).isEmpty();
+    }
+
+    @Test
+    void containing_circle_usesTrueRadiusNotBoundingBox() {
+        // given
+        GeofenceIndex index = index(
+            GeofenceTestBuilder.circularGeofence().geofenceId(1L).radiusMeters(1000).build());
+
+        // when
+        // about 1.06 km north-east of the centre: inside the bounding box, outside the circle
+        long[] corner = index.containing(40.7128 + 0.0068, -74.0060 + 0.0090);
+        long[] edge = index.containing(40.7128 + 0.0089, -74.0060);
+
+        // then
+        assertThat(corner).isEmpty();
+        assertThat(edge).containsExactly(1L);
+    }
+
+    @Test
+    void containingForVehicle_onlyAssignedFences_areReturned() {
+        // given
+        GeofenceIndex index = index(
+            GeofenceTestBuilder.polygonGeofence().geofenceId(1L).vehicleId("vehicle-001").build(),
+            GeofenceTestBuilder.circularGeofence().geofenceId(2L).vehicleId("vehicle-002").build());
+
+        // when
+        long[] forFirst = index.containingForVehicle("vehicle-001", 40.7125, -74.0055);
+        long[] forSecond = index.containingForVehicle("vehicle-002", 40.7125, -74.0055);
+        long[] forUnknown = index.containingForVehicle("vehicle-003", 40.7125, -74.0055);
+
+        // then
+        assertThat(forFirst).containsExactly(1L);
+        assertThat(forSecond).containsExactly(2L);
+        assertThat(forUnknown).isEmpty();
+        assertThat(index.fencesFor("vehicle-001")).containsExactly(1L);
+    }
+
+    @Test
+    void containing_fenceLargerThanCellLimit_isStillFound() {
+        // given
+        GeofenceIndex index = index(
+            GeofenceTestBuilder.circularGeofence().geofenceId(1L).radiusMeters(200_000).build());
+
+        // when
+        long[] inside = index.containing(41.5, -74.5);
+
+        // then
+        assertThat(inside).containsExactly(1L);
+    }
+
+    @Test
+    void build_incompleteGeofences_areSkipped() {
+        // given
+        Geofence noRadius = GeofenceTestBuilder.circularGeofence().geofenceId(1L).radiusMeters(null).build();
+        Geofence noPoints = GeofenceTestBuilder.defaultGeofence().geofenceId(2L)
+            .shapeType(GeofenceShapeType.POLYGON).build();
+
+        // when
+        GeofenceIndex index = index(noRadius, noPoints);
+
+        // then
+        assertThat(index.size()).isZero();
+        assertThat(index.containing(40.7128, -74.0060)).isEmpty();
+    }
+
+    @Test
+    void containing_100kFences_matchesTestingEveryFence() {
+        // given
+        List<CompiledGeofence> fences = randomCircles(100_000, 11);
+        double[][] points = randomPoints(300, 13);
+
+        // when
+        GeofenceIndex index = GeofenceIndex.build(fences, CELL_DEGREES);
+
+        // then
+        assertThat(index.size()).isEqualTo(100_000);
+        int hits = 0;
+        for (int q = 0; q < points[0].length; q++) {
+            double lat = points[0][q];
+            double lon = points[1][q];
+            long[] expected = fences.stream()
+                .filter(fence -> fence.contains(lat, lon))
+                .mapToLong(CompiledGeofence::getGeofenceId)
+                .sorted()
+                .toArray();
+            long[] found = index.containing(lat, lon);
+            Arrays.sort(found);
+            assertThat(found).as("point %d", q).containsExactly(expected);
+            int vehicle = q % 100;
+            long[] forVehicle = index.containingForVehicle("vehicle-" + vehicle, lat, lon);
+            assertThat(forVehicle).as("point %d", q)
+                .containsExactlyInAnyOrder(Arrays.stream(expected).filter(id -> id % 100 == vehicle).toArray());
+            hits += expected.length;
+        }
+        assertThat(hits).isPositive();
+    }
+
+    /**
+     * Circles of 100 m to 2 km spread over a 2 by 2 degree area; fence i is assigned to vehicle-(i % 100).
+     */
+    static List<CompiledGeofence> randomCircles(int count, long seed) {
+        Random random = new Random(seed);
+        List<CompiledGeofence> fences = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Geofence geofence = GeofenceTestBuilder.circularGeofence()
+                .geofenceId((long) i)
+                .centerLatitude(39.0 + random.nextDouble() * 2)
+                .centerLongitude(-75.0 + random.nextDouble() * 2)
+                .radiusMeters(100 + random.nextInt(1900))
+                .vehicleId("vehicle-" + i % 100)
+                .build();
+            fences.add(CompiledGeofence.of(geofence));
+        }
+        return fences;
+    }
+
+    /**
+     * Latitudes and longitudes of random points in the area of {@link #randomCircles}.
+     */
+    static double[][] randomPoints(int count, long seed) {
+        Random random = new Random(seed);
+        double[][] points = new double[2][count];
+        for (int i = 0; i < count; i++) {
+            points[0][i] = 39.0 + random.nextDouble() * 2;
+            points[1][i] = -75.0 + random.nextDouble() * 2;
+        }
+        return points;
+    }
+
+    private static GeofenceIndex index(Geofence... geofences) {
+        List<CompiledGeofence> fences = Stream.of(geofences)
+            .map(CompiledGeofence::of)
+            .filter(Objects::nonNull)
+            .toList();
+        return GeofenceIndex.build(fences, CELL_DEGREES);
+    }
+}
@@ -197,4 +197,32 @@ class GeofenceRuleTest {
         // when & then
         assertThat(rule.getPriority()).isEqualTo(5);
     }
+
+    @Test
+    void evaluate_ruleRebuiltWithSharedStore_keepsInsideStatePerVehicle() {
+        // given
+        List<LocationPoint> boundary = List.of(
+            new LocationPoint(40.7120, -74.0070, 0.0f, Instant.now()),
+            new LocationPoint(40.7120, -74.0050, 0.0f, Instant.now()),
+            new LocationPoint(40.7110, -74.0050, 0.0f, Instant.now()),
+            new LocationPoint(40.7110, -74.0070, 0.0f, Instant.now())
+        );
+        RuleStateStore stateStore = new InMemoryRuleStateStore();
+        LocationPoint inside = new LocationPoint(40.7115, -74.0060, 10.0f, Instant.now());
+        LocationPoint outside = new LocationPoint(40.7130, -74.0080, 10.0f, Instant.now());
+
+        new GeofenceRule("geofence-rule", "Geofence Exit Alert", "geofence-1",
+            boundary, GeofenceRule.Action.EXIT, 2, stateStore).evaluate("vehicle-001", inside);
+        GeofenceRule rebuilt = new GeofenceRule("geofence-rule", "Geofence Exit Alert", "geofence-1",
+            boundary, GeofenceRule.Action.EXIT, 2, stateStore);
+
+        // when
+        var exited = rebuilt.evaluate("vehicle-001", outside);
+        var neverInside = rebuilt.evaluate("vehicle-002", outside);
+
+        // then
+        assertThat(exited).isNotNull();
+        assertThat(exited.getMessage()).contains("exited");
+        assertThat(neverInside).isNull();
+    }
 }
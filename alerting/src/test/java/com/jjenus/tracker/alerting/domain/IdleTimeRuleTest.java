@@ -9,6 +9,12 @@ import java.time.Duration;
 import java.time.Instant;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class IdleTimeRuleTest {
@@ -89,6 +95,23 @@ class IdleTimeRuleTest {
         assertThat(result).isNull();
     }
 
+    @Test
+    void evaluate_vehicleKeepsMoving_storesStateOnce() {
+        // given
+        RuleStateStore stateStore = mock(RuleStateStore.class);
+        when(stateStore.get("idle-rule", "vehicle-001")).thenReturn(RuleStateStore.NO_STATE, 0L, 0L);
+        IdleTimeRule rule = new IdleTimeRule("idle-rule", "Idle Alert", Duration.ofMinutes(30), stateStore);
+        LocationPoint moving = LocationPointTestBuilder.defaultLocation().speedKmh(50.0f).build();
+
+        // when
+        rule.evaluate("vehicle-001", moving);
+        rule.evaluate("vehicle-001", moving);
+        rule.evaluate("vehicle-001", moving);
+
+        // then
+        verify(stateStore, times(1)).put(eq("idle-rule"), eq("vehicle-001"), anyLong());
+    }
+
     @Test
     void evaluate_disabledRule_returnsNull() {
         // given
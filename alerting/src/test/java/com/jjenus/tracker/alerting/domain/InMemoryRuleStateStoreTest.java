@@ -0,0 +1,117 @@
+package com.jjenus.tracker.alerting.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InMemoryRuleStateStoreTest {
+
+    @Test
+    void put_newAndExistingKeys_returnsPreviousValue() {
+        // given
+        InMemoryRuleStateStore store = new InMemoryRuleStateStore();
+
+        // when
+        long first = store.put("rule-1", "vehicle-001", 1);
+        long second = store.put("rule-1", "vehicle-001", 0);
+        store.put("rule-2", "vehicle-001", 42);
+        store.put("rule-3", "vehicle-001", 7);
+
+        // then
+        assertThat(first).isEqualTo(RuleStateStore.NO_STATE);
+        assertThat(second).isEqualTo(1);
+        assertThat(store.get("rule-1", "vehicle-001")).isZero();
+        assertThat(store.get("rule-2", "vehicle-001")).isEqualTo(42);
+        assertThat(store.get("rule-3", "vehicle-001")).isEqualTo(7);
+        assertThat(store.get("rule-1", "vehicle-002")).isEqualTo(RuleStateStore.NO_STATE);
+    }
+
+    @Test
+    void putIfAbsent_existingValue_keepsIt() {
+        // given
+        InMemoryRuleStateStore store = new InMemoryRuleStateStore();
+        store.put("rule-1", "vehicle-001", 5);
+
+        // when
+        long existing = store.putIfAbsent("rule-1", "vehicle-001", 9);
+
+        // then
+        assertThat(existing).isEqualTo(5);
+        assertThat(store.get("rule-1", "vehicle-001")).isEqualTo(5);
+    }
+
+    @Test
+    void drainChanged_onlyChangedVehicles_handedOverOnce() {
+        // given
+        InMemoryRuleStateStore store = new InMemoryRuleStateStore();
+        store.put("rule-1", "vehicle-001", 1);
+        store.put("rule-1", "vehicle-002", 1);
+        Map<String, Map<String, Long>> drained = new HashMap<>();
+        store.drainChanged(100, drained::putAll);
+        drained.clear();
+
+        // when
+        store.put("rule-1", "vehicle-001", 1);
+        store.put("rule-1", "vehicle-002", 0);
+        store.drainChanged(100, drained::putAll);
+
+        // then
+        assertThat(drained).containsOnlyKeys("vehicle-002");
+        assertThat(drained.get("vehicle-002")).containsEntry("rule-1", 0L);
+    }
+
+    @Test
+    void drainChanged_sinkFails_vehiclesStayChanged() {
+        // given
+        InMemoryRuleStateStore store = new InMemoryRuleStateStore();
+        store.put("rule-1", "vehicle-001", 1);
+        store.put("rule-1", "vehicle-002", 1);
+        Map<String, Map<String, Long>> drained = new HashMap<>();
+
+        // when
+        assertThatThrownBy(() -> store.drainChanged(1, batch -> {
+            throw new IllegalStateException("redis down");
+        })).isInstanceOf(IllegalStateException.class);
+        store.drainChanged(1, drained::putAll);
+
+        // then
+        assertThat(drained).containsOnlyKeys("vehicle-001", "vehicle-002");
+    }
+
+    @Test
+    void evictIdleSince_idleVehicles_areDropped() {
+        // given
+        InMemoryRuleStateStore store = new InMemoryRuleStateStore();
+        store.put("rule-1", "vehicle-001", 1);
+
+        // when
+        int kept = store.evictIdleSince(0);
+        int evicted = store.evictIdleSince(Long.MAX_VALUE);
+
+        // then
+        assertThat(kept).isZero();
+        assertThat(evicted).isEqualTo(1);
+        assertThat(store.get("rule-1", "vehicle-001")).isEqualTo(RuleStateStore.NO_STATE);
+    }
+
+    @Test
+    void put_vehicleWithSavedState_startsFromLoadedValues() {
+        // given
+        InMemoryRuleStateStore store = new InMemoryRuleStateStore() {
+            @Override
+            protected Map<String, Long> load(String vehicleId) {
+                return Map.of("rule-1", 1L);
+            }
+        };
+
+        // when
+        long previous = store.put("rule-1", "vehicle-001", 0);
+
+        // then
+        assertThat(previous).isEqualTo(1);
+    }
+}
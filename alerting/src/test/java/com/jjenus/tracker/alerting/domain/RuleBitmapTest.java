@@ -0,0 +1,77 @@
+package com.jjenus.tracker.alerting.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RuleBitmapTest {
+
+    @Test
+    void with_ordinalsAcrossGroups_containsExactlyThose() {
+        // given
+        RuleBitmap bitmap = RuleBitmap.of(70_000, 3, 1, 3, 65_536);
+
+        // when
+        List<Integer> ordinals = new ArrayList<>();
+        bitmap.forEach(ordinals::add);
+
+        // then
+        assertThat(ordinals).containsExactly(1, 3, 65_536, 70_000);
+        assertThat(bitmap.cardinality()).isEqualTo(4);
+        assertThat(bitmap.contains(2)).isFalse();
+        assertThat(bitmap.contains(65_536)).isTrue();
+    }
+
+    @Test
+    void with_doesNotModifyOriginal() {
+        // given
+        RuleBitmap original = RuleBitmap.of(1, 2);
+
+        // when
+        RuleBitmap added = original.with(3);
+        RuleBitmap removed = original.without(1);
+
+        // then
+        assertThat(original.contains(3)).isFalse();
+        assertThat(original.contains(1)).isTrue();
+        assertThat(added.cardinality()).isEqualTo(3);
+        assertThat(removed.cardinality()).isEqualTo(1);
+    }
+
+    @Test
+    void with_denseGroup_switchesToBitsAndBack() {
+        // given
+        RuleBitmap bitmap = RuleBitmap.empty();
+        for (int ordinal = 0; ordinal <= RuleBitmap.ARRAY_LIMIT; ordinal++) {
+            bitmap = bitmap.with(ordinal * 2);
+        }
+
+        // when
+        RuleBitmap shrunk = bitmap.without(0).without(2);
+        List<Integer> ordinals = new ArrayList<>();
+        shrunk.forEach(ordinals::add);
+
+        // then
+        assertThat(bitmap.cardinality()).isEqualTo(RuleBitmap.ARRAY_LIMIT + 1);
+        assertThat(bitmap.contains(RuleBitmap.ARRAY_LIMIT * 2)).isTrue();
+        assertThat(bitmap.contains(1)).isFalse();
+        assertThat(shrunk.cardinality()).isEqualTo(RuleBitmap.ARRAY_LIMIT - 1);
+        assertThat(ordinals).hasSize(RuleBitmap.ARRAY_LIMIT - 1).startsWith(4, 6);
+    }
+
+    @Test
+    void without_lastOrdinalOfGroup_dropsGroup() {
+        // given
+        RuleBitmap bitmap = RuleBitmap.of(5, 100_000);
+
+        // when
+        RuleBitmap removed = bitmap.without(100_000).without(5);
+
+        // then
+        assertThat(removed.isEmpty()).isTrue();
+        assertThat(removed.contains(5)).isFalse();
+    }
+}
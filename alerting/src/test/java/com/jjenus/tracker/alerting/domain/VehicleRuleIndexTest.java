@@ -0,0 +1,111 @@
+package com.jjenus.tracker.alerting.domain;
+
+import com.jjenus.tracker.alerting.domain.entity.AlertRule;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VehicleRuleIndexTest {
+
+    @Test
+    void rulesFor_vehicle_returnsItsRulesByPriority() {
+        // given
+        VehicleRuleIndex index = new VehicleRuleIndex();
+        index.rebuild(List.of(
+                rule(1L, "low", 1, "vehicle-001", "vehicle-002"),
+                rule(2L, "high", 9, "vehicle-001"),
+                rule(3L, "other", 5, "vehicle-003")));
+
+        // when
+        List<AlertRule> rules = index.rulesFor("vehicle-001");
+
+        // then
+        assertThat(rules).extracting(AlertRule::getRuleKey).containsExactly("high", "low");
+        assertThat(index.rulesFor("vehicle-002")).extracting(AlertRule::getRuleKey).containsExactly("low");
+        assertThat(index.rulesFor("vehicle-004")).isEmpty();
+        assertThat(index.vehicleIds()).containsExactlyInAnyOrder("vehicle-001", "vehicle-002", "vehicle-003");
+    }
+
+    @Test
+    void put_changedVehicles_movesRuleAndReturnsOldAndNewVehicles() {
+        // given
+        VehicleRuleIndex index = new VehicleRuleIndex();
+        index.rebuild(List.of(rule(1L, "speed", 5, "vehicle-001", "vehicle-002")));
+
+        // when
+        Set<String> affected = index.put(rule(1L, "speed", 5, "vehicle-002", "vehicle-003"));
+
+        // then
+        assertThat(affected).containsExactlyInAnyOrder("vehicle-001", "vehicle-002", "vehicle-003");
+        assertThat(index.hasRules("vehicle-001")).isFalse();
+        assertThat(index.appliesTo(1L, "vehicle-003")).isTrue();
+        assertThat(index.rulesFor("vehicle-002")).hasSize(1);
+        assertThat(index.ruleCount()).isEqualTo(1);
+    }
+
+    @Test
+    void put_disabledRule_removesIt() {
+        // given
+        VehicleRuleIndex index = new VehicleRuleIndex();
+        index.rebuild(List.of(rule(1L, "speed", 5, "vehicle-001")));
+        AlertRule disabled = rule(1L, "speed", 5, "vehicle-001");
+        disabled.setIsEnabled(false);
+
+        // when
+        Set<String> affected = index.put(disabled);
+
+        // then
+        assertThat(affected).containsExactly("vehicle-001");
+        assertThat(index.rulesFor("vehicle-001")).isEmpty();
+        assertThat(index.isIndexed(1L)).isFalse();
+    }
+
+    @Test
+    void remove_unknownRule_affectsNothing() {
+        // given
+        VehicleRuleIndex index = new VehicleRuleIndex();
+
+        // when
+        Set<String> affected = index.remove(42L);
+
+        // then
+        assertThat(affected).isEmpty();
+    }
+
+    @Test
+    void compacted_afterManyUpdates_dropsDeadSlotsAndKeepsLiveRules() {
+        // given
+        VehicleRuleIndex index = new VehicleRuleIndex();
+        index.rebuild(List.of(rule(1L, "speed", 5, "vehicle-001"), rule(2L, "idle", 3, "vehicle-002")));
+        for (int i = 0; i < 2000; i++) {
+            index.put(rule(1L, "speed", 5, "vehicle-001", "vehicle-003"));
+        }
+
+        // when
+        boolean needed = index.needsCompaction();
+        VehicleRuleIndex compacted = index.compacted();
+
+        // then
+        assertThat(needed).isTrue();
+        assertThat(compacted.deadSlots()).isZero();
+        assertThat(compacted.needsCompaction()).isFalse();
+        assertThat(compacted.ruleCount()).isEqualTo(2);
+        assertThat(compacted.rulesFor("vehicle-003")).extracting(AlertRule::getRuleKey).containsExactly("speed");
+        assertThat(compacted.rulesFor("vehicle-002")).extracting(AlertRule::getRuleKey).containsExactly("idle");
+        assertThat(compacted.appliesTo(1L, "vehicle-001")).isTrue();
+        assertThat(index.rulesFor("vehicle-003")).hasSize(1);
+    }
+
+    private static AlertRule rule(Long ruleId, String ruleKey, int priority, String... vehicleIds) {
+        AlertRule rule = AlertRuleTestBuilder.defaultRule()
+                .ruleKey(ruleKey)
+                .priority(priority)
+                .vehicleIds(Set.of(vehicleIds))
+                .build();
+        rule.setRuleId(ruleId);
+        return rule;
+    }
+}
@@ -4,7 +4,10 @@ import com.jjenus.tracker.alerting.domain.*;
 import com.jjenus.tracker.alerting.domain.entity.AlertRule;
 import com.jjenus.tracker.alerting.domain.entity.Geofence;
 import com.jjenus.tracker.alerting.domain.enums.AlertRuleType;
+import com.jjenus.tracker.alerting.application.GeofenceIndexService;
+import com.jjenus.tracker.alerting.application.VehicleRuleIndexService;
 import com.jjenus.tracker.alerting.application.service.GeofenceService;
+import com.jjenus.tracker.alerting.infrastructure.repository.AlertRuleRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,7 +15,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -24,11 +29,47 @@ class AlertRuleFactoryTest {
     @Mock
     private GeofenceService geofenceService;
 
+    @Mock
+    private GeofenceIndexService geofenceIndex;
+
+    @Mock
+    private AlertRuleRepository ruleRepository;
+
+    private VehicleRuleIndexService ruleIndex;
+
     private AlertRuleFactory alertRuleFactory;
 
     @BeforeEach
     void setUp() {
-        alertRuleFactory = new AlertRuleFactory(geofenceService);
+        ruleIndex = new VehicleRuleIndexService(ruleRepository, event -> { });
+        alertRuleFactory = new AlertRuleFactory(geofenceService, geofenceIndex, new InMemoryRuleStateStore(), ruleIndex);
+    }
+
+    @Test
+    void createDomainRule_indexLoaded_applicabilityFromIndex() {
+        // given
+        AlertRule indexed = AlertRuleTestBuilder.defaultRule()
+            .ruleType(AlertRuleType.SPEED)
+            .vehicleIds(Set.of("vehicle-002"))
+            .build();
+        indexed.setRuleId(1L);
+        when(ruleRepository.findAllActiveWithVehicles()).thenReturn(List.of(indexed));
+        ruleIndex.loadAll();
+
+        // A copy still listing the vehicle the rule no longer applies to
+        AlertRule stale = AlertRuleTestBuilder.defaultRule()
+            .ruleType(AlertRuleType.SPEED)
+            .vehicleIds(Set.of("vehicle-001", "vehicle-002"))
+            .build();
+        stale.setRuleId(1L);
+
+        // when
+        IAlertRule forRemoved = alertRuleFactory.createDomainRule(stale, "vehicle-001");
+        IAlertRule forIndexed = alertRuleFactory.createDomainRule(stale, "vehicle-002");
+
+        // then
+        assertThat(forRemoved).isNull();
+        assertThat(forIndexed).isInstanceOf(MaxSpeedRule.class);
     }
 
     @Test
@@ -90,6 +131,7 @@ class AlertRuleFactoryTest {
         assertThat(result).isInstanceOf(GeofenceRule.class);
         GeofenceRule geofenceRule = (GeofenceRule) result;
         assertThat(geofenceRule.getGeofenceId()).isEqualTo("1");
+        assertThat(geofenceRule.getGeometry().isCircle()).isTrue();
     }
 
     @Test
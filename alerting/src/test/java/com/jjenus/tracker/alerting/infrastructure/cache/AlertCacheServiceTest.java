@@ -0,0 +1,124 @@
+package com.jjenus.tracker.alerting.infrastructure.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AlertCacheServiceTest {
+
+    private static final int CACHED_KEYS = 1_000_000;
+
+    // Stands in for Redis; a mock would record every one of the million calls
+    private final Map<String, Object> redis = new HashMap<>();
+    private final AtomicInteger increments = new AtomicInteger();
+    private final AtomicInteger deletes = new AtomicInteger();
+
+    private AlertCacheService alertCacheService;
+
+    @BeforeEach
+    void setUp() {
+        RedisTemplate<String, Object> redisTemplate = new FakeRedisTemplate();
+        NearCacheManager nearCaches = new NearCacheManager(redisTemplate, "near-cache", 100, 60_000);
+        CacheGenerationService generations = new CacheGenerationService(redisTemplate, nearCaches);
+        alertCacheService = new AlertCacheService(
+            redisTemplate, new RedisKeyGenerator(generations), nearCaches, generations
+        );
+    }
+
+    @Test
+    void invalidateStatistics_millionCachedKeys_oneIncrWithoutKeyScan() {
+        // given
+        for (int i = 0; i < CACHED_KEYS; i++) {
+            alertCacheService.cacheAlertStatistics("stats-" + i, "value");
+        }
+        assertThat(alertCacheService.getAlertStatistics("stats-0")).contains("value");
+
+        // when
+        alertCacheService.invalidateStatistics();
+
+        // then
+        int stillReadable = 0;
+        for (int i = 0; i < CACHED_KEYS; i++) {
+            if (alertCacheService.getAlertStatistics("stats-" + i).isPresent()) {
+                stillReadable++;
+            }
+        }
+        assertThat(stillReadable).isZero();
+        assertThat(increments).hasValue(1);
+        assertThat(deletes).hasValue(0);
+    }
+
+    @Test
+    void cacheAlertStatistics_afterInvalidation_readableInNewGeneration() {
+        // given
+        alertCacheService.cacheAlertStatistics("daily", "old");
+        alertCacheService.invalidateStatistics();
+
+        // when
+        alertCacheService.cacheAlertStatistics("daily", "new");
+
+        // then
+        assertThat(alertCacheService.getAlertStatistics("daily")).contains("new");
+        assertThat(redis).hasSize(3); // old entry, new entry and the generation counter
+    }
+
+    private class FakeRedisTemplate extends RedisTemplate<String, Object> {
+        private final ValueOperations<String, Object> valueOperations = fakeValueOperations();
+
+        @Override
+        public ValueOperations<String, Object> opsForValue() {
+            return valueOperations;
+        }
+
+        @Override
+        public Long convertAndSend(String channel, Object message) {
+            return 0L;
+        }
+
+        @Override
+        public Set<String> keys(String pattern) {
+            throw new AssertionError("KEYS scans the whole keyspace: " + pattern);
+        }
+
+        @Override
+        public Boolean delete(String key) {
+            deletes.incrementAndGet();
+            return redis.remove(key) != null;
+        }
+
+        @Override
+        public Long delete(Collection<String> keys) {
+            deletes.incrementAndGet();
+            return keys.stream().filter(key -> redis.remove(key) != null).count();
+        }
+
+        @SuppressWarnings("unchecked")
+        private ValueOperations<String, Object> fakeValueOperations() {
+            return (ValueOperations<String, Object>) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[]{ValueOperations.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "get" -> redis.get((String) args[0]);
+                    case "set" -> {
+                        redis.put((String) args[0], args[1]);
+                        yield null;
+                    }
+                    case "increment" -> {
+                        increments.incrementAndGet();
+                        yield redis.merge((String) args[0], 1L, (current, one) -> (Long) current + 1);
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.jjenus.tracker.alerting.infrastructure.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CacheGenerationServiceTest {
+
+    private static final String CHANNEL = "near-cache";
+    private static final String NAMESPACE = RedisKeyGenerator.ALERTS_NAMESPACE;
+    private static final String GENERATION_KEY = RedisKeyGenerator.CACHE_GENERATION_KEY_PREFIX + NAMESPACE;
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    private final GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer();
+
+    private NearCacheManager nodeA;
+    private NearCacheManager nodeB;
+    private CacheGenerationService generationsA;
+    private CacheGenerationService generationsB;
+
+    @BeforeEach
+    void setUp() {
+        nodeA = new NearCacheManager(redisTemplate, CHANNEL, 100, 60_000);
+        nodeB = new NearCacheManager(redisTemplate, CHANNEL, 100, 60_000);
+        generationsA = new CacheGenerationService(redisTemplate, nodeA);
+        generationsB = new CacheGenerationService(redisTemplate, nodeB);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void bump_onOneNode_otherNodeMovesOnBroadcast() {
+        // given
+        when(valueOperations.get(GENERATION_KEY)).thenReturn(null, 1L);
+        when(valueOperations.increment(GENERATION_KEY)).thenReturn(1L);
+        doReturn(serializer).when(redisTemplate).getValueSerializer();
+        long before = generationsB.current(NAMESPACE);
+
+        // when
+        long bumped = generationsA.bump(NAMESPACE);
+        long beforeBroadcast = generationsB.current(NAMESPACE);
+        ArgumentCaptor<Object> sent = ArgumentCaptor.forClass(Object.class);
+        verify(redisTemplate).convertAndSend(eq(CHANNEL), sent.capture());
+        nodeB.onMessage(new DefaultMessage(CHANNEL.getBytes(), serializer.serialize(sent.getValue())), null);
+
+        // then
+        assertThat(before).isZero();
+        assertThat(bumped).isEqualTo(1);
+        assertThat(beforeBroadcast).isZero();
+        assertThat(generationsB.current(NAMESPACE)).isEqualTo(1);
+    }
+
+    @Test
+    void current_redisUnavailable_lastKnownGeneration() {
+        // given
+        when(valueOperations.get(GENERATION_KEY)).thenReturn(3L)
+                .thenThrow(new IllegalStateException("Redis down"));
+        generationsA.current(NAMESPACE);
+        nodeA.getCache(CacheGenerationService.NEAR_CACHE).invalidateAll();
+
+        // when
+        long generation = generationsA.current(NAMESPACE);
+
+        // then
+        assertThat(generation).isEqualTo(3);
+    }
+}
@@ -0,0 +1,91 @@
+package com.jjenus.tracker.alerting.infrastructure.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class NearCacheManagerTest {
+
+    private static final String CHANNEL = "near-cache";
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private final GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer();
+
+    private NearCacheManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = new NearCacheManager(redisTemplate, CHANNEL, 100, 60_000);
+    }
+
+    @Test
+    void onMessage_fromOtherNode_invalidatesLocalCopy() {
+        // given
+        NearCache<String> cache = manager.getCache("alertRules");
+        cache.get("rule-1", key -> "value");
+        cache.get("rule-2", key -> "value");
+        doReturn(serializer).when(redisTemplate).getValueSerializer();
+
+        // when
+        manager.onMessage(message("other-node|alertRules|rule-1"), null);
+
+        // then
+        assertThat(cache.get("rule-1", key -> "reloaded")).isEqualTo("reloaded");
+        assertThat(cache.get("rule-2", key -> "reloaded")).isEqualTo("value");
+    }
+
+    @Test
+    void invalidateAll_ownBroadcastEchoedBack_appliedOnce() {
+        // given
+        NearCache<String> cache = manager.getCache("alertRules");
+        cache.get("rule-1", key -> "value");
+        doReturn(serializer).when(redisTemplate).getValueSerializer();
+
+        // when
+        manager.invalidateAll("alertRules");
+        ArgumentCaptor<Object> sent = ArgumentCaptor.forClass(Object.class);
+        verify(redisTemplate).convertAndSend(eq(CHANNEL), sent.capture());
+        cache.get("rule-1", key -> "reloaded");
+        manager.onMessage(message((String) sent.getValue()), null);
+
+        // then
+        assertThat(cache.get("rule-1", key -> "again")).isEqualTo("reloaded");
+        assertThat(manager.getStats()).containsKey("alertRules");
+    }
+
+    private DefaultMessage message(String body) {
+        return new DefaultMessage(CHANNEL.getBytes(), serializer.serialize(body));
+    }
+
+    @Test
+    void forEachCache_existingAndLaterCaches_allReported() {
+        // given
+        manager.getCache("alerts");
+        List<String> seen = new ArrayList<>();
+
+        // when
+        manager.forEachCache(cache -> seen.add(cache.getName()));
+        manager.getCache("geofences");
+        manager.getCache("alerts");
+
+        // then
+        assertThat(seen).containsExactly("alerts", "geofences");
+    }
+}
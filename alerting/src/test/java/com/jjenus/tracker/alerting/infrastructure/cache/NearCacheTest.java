@@ -0,0 +1,100 @@
+package com.jjenus.tracker.alerting.infrastructure.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NearCacheTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000);
+
+    @Test
+    void get_repeatedRead_servedWithoutLoader() {
+        // given
+        NearCache<String> cache = new NearCache<>("rules", 10, 30_000, clock::get);
+        AtomicInteger loads = new AtomicInteger();
+
+        // when
+        cache.get("rule-1", key -> "value-" + loads.incrementAndGet());
+        String second = cache.get("rule-1", key -> "value-" + loads.incrementAndGet());
+
+        // then
+        assertThat(second).isEqualTo("value-1");
+        assertThat(loads).hasValue(1);
+        assertThat(cache.getStats().hits()).isEqualTo(1);
+        assertThat(cache.getStats().misses()).isEqualTo(1);
+        assertThat(cache.getStats().hitRatio()).isEqualTo(0.5);
+    }
+
+    @Test
+    void get_afterTtlOrInvalidation_reloads() {
+        // given
+        NearCache<String> cache = new NearCache<>("rules", 10, 30_000, clock::get);
+        cache.get("rule-1", key -> "old");
+
+        // when
+        clock.addAndGet(30_000);
+        String expired = cache.get("rule-1", key -> "reloaded");
+        cache.invalidate("rule-1");
+        String invalidated = cache.get("rule-1", key -> "new");
+
+        // then
+        assertThat(expired).isEqualTo("reloaded");
+        assertThat(invalidated).isEqualTo("new");
+    }
+
+    @Test
+    void get_full_evictsLeastRecentlyRead() {
+        // given
+        NearCache<String> cache = new NearCache<>("rules", 2, 30_000, clock::get);
+        cache.get("rule-1", key -> "one");
+        clock.incrementAndGet();
+        cache.get("rule-2", key -> "two");
+        clock.incrementAndGet();
+        cache.get("rule-1", key -> "unused");
+
+        // when
+        clock.incrementAndGet();
+        cache.get("rule-3", key -> "three");
+
+        // then
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("rule-1", key -> "reloaded")).isEqualTo("one");
+        assertThat(cache.get("rule-2", key -> "reloaded")).isEqualTo("reloaded");
+        assertThat(cache.getStats().evictions()).isEqualTo(2);
+    }
+
+    @Test
+    void get_invalidatedWhileLoading_loadedValueNotKept() {
+        // given
+        NearCache<String> cache = new NearCache<>("rules", 10, 30_000, clock::get);
+
+        // when
+        String loaded = cache.get("rule-1", key -> {
+            cache.invalidate(key);
+            return "stale";
+        });
+
+        // then
+        assertThat(loaded).isEqualTo("stale");
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void get_nullOrDisabled_notCached() {
+        // given
+        NearCache<String> cache = new NearCache<>("rules", 10, 30_000, clock::get);
+        NearCache<String> disabled = new NearCache<>("rules", 0, 30_000, clock::get);
+
+        // when
+        cache.get("rule-1", key -> null);
+        disabled.get("rule-1", key -> "value");
+
+        // then
+        assertThat(cache.size()).isZero();
+        assertThat(disabled.size()).isZero();
+    }
+}
@@ -1,5 +1,6 @@
 package com.jjenus.tracker.alerting.infrastructure.cache;
 
+import com.jjenus.tracker.alerting.application.VehicleRuleIndexService;
 import com.jjenus.tracker.alerting.domain.AlertRuleTestBuilder;
 import com.jjenus.tracker.alerting.domain.entity.AlertRule;
 import com.jjenus.tracker.alerting.infrastructure.repository.AlertRuleRepository;
@@ -33,6 +34,12 @@ class VehicleRuleCacheServiceTest {
     @Mock
     private RedisKeyGenerator keyGenerator;
 
+    @Mock
+    private VehicleRuleIndexService ruleIndex;
+
+    @Mock
+    private CacheGenerationService generations;
+
     @Mock
     private ListOperations<String, Object> listOperations;
 
@@ -46,8 +53,12 @@ class VehicleRuleCacheServiceTest {
     @BeforeEach
     void setUp() {
         vehicleRuleCacheService = new VehicleRuleCacheService(
-            redisTemplate, ruleRepository, keyGenerator
+            redisTemplate, ruleRepository, keyGenerator, ruleIndex,
+            new NearCacheManager(redisTemplate, "near-cache", 100, 60_000), generations
         );
+        // Keys of the first generation are the plain keys
+        lenient().when(keyGenerator.versioned(anyString(), anyString()))
+            .thenAnswer(invocation -> invocation.getArgument(1));
         testRule = AlertRuleTestBuilder.defaultRule()
             .ruleKey("test-rule")
             .vehicleId("vehicle-001")
@@ -70,6 +81,27 @@ class VehicleRuleCacheServiceTest {
         assertThat(result.get(0).getRuleKey()).isEqualTo("test-rule");
     }
 
+    @Test
+    void getActiveRulesForVehicle_repeatedRead_servedFromNearCacheUntilInvalidated() {
+        // given
+        when(redisTemplate.opsForList()).thenReturn(listOperations);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(keyGenerator.getVehicleRulesKey("vehicle-001")).thenReturn("cache-key");
+        when(keyGenerator.getVehiclesWithRulesKey()).thenReturn("index-key");
+        when(listOperations.range("cache-key", 0, -1)).thenReturn(List.of(testRule));
+
+        // when
+        vehicleRuleCacheService.getActiveRulesForVehicle("vehicle-001");
+        vehicleRuleCacheService.getActiveRulesForVehicle("vehicle-001");
+        vehicleRuleCacheService.invalidateVehicleRules("vehicle-001");
+        List<AlertRule> result = vehicleRuleCacheService.getActiveRulesForVehicle("vehicle-001");
+
+        // then
+        assertThat(result).extracting(AlertRule::getRuleKey).containsExactly("test-rule");
+        verify(listOperations, times(2)).range("cache-key", 0, -1);
+        verify(redisTemplate).convertAndSend(eq("near-cache"), contains("|vehicleRules|vehicle-001"));
+    }
+
     @Test
     void getActiveRulesForVehicle_cacheMiss_loadsFromDb() {
         // given
@@ -77,7 +109,6 @@ class VehicleRuleCacheServiceTest {
         when(keyGenerator.getVehicleRulesKey("vehicle-001")).thenReturn("cache-key");
         when(listOperations.range("cache-key", 0, -1)).thenReturn(Collections.emptyList());
         when(ruleRepository.findActiveRulesForVehicle("vehicle-001")).thenReturn(List.of(testRule));
-        when(redisTemplate.opsForValue()).thenReturn(mock(org.springframework.data.redis.core.ValueOperations.class));
 
         // when
         List<AlertRule> result = vehicleRuleCacheService.getActiveRulesForVehicle("vehicle-001");
@@ -134,6 +165,7 @@ class VehicleRuleCacheServiceTest {
     @Test
     void invalidateVehicleRules_clearsCacheAndIndex() {
         // given
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
         when(keyGenerator.getVehicleRulesKey("vehicle-001")).thenReturn("rules-key");
         when(keyGenerator.getVehiclesWithRulesKey()).thenReturn("index-key");
 
@@ -145,6 +177,20 @@ class VehicleRuleCacheServiceTest {
         verify(setOperations).remove("index-key", "vehicle-001");
     }
 
+    @Test
+    void invalidateAllVehicleRules_bumpsGenerationWithoutKeyScan() {
+        // given
+        when(keyGenerator.getVehiclesWithRulesKey()).thenReturn("index-key");
+
+        // when
+        vehicleRuleCacheService.invalidateAllVehicleRules();
+
+        // then
+        verify(generations).bump(RedisKeyGenerator.VEHICLE_RULES_NAMESPACE);
+        verify(redisTemplate).delete("index-key");
+        verify(redisTemplate, never()).keys(anyString());
+    }
+
     @Test
     void getVehiclesWithActiveRules_loadsFromRepository() {
         // given
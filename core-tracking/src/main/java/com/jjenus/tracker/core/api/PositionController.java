@@ -0,0 +1,101 @@
+package com.jjenus.tracker.core.api;
+
+import com.jjenus.tracker.core.api.dto.LocationHistoryResponse;
+import com.jjenus.tracker.core.api.dto.PositionArrayResponse;
+import com.jjenus.tracker.core.application.service.LatestPositionCache;
+import com.jjenus.tracker.core.application.service.VehicleService;
+import com.jjenus.tracker.core.domain.RouteSimplifier;
+import com.jjenus.tracker.shared.domain.LocationPoint;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequestMapping("/positions")
+@Tag(name = "Positions", description = "Last known positions for map rendering")
+public class PositionController {
+    private static final int MAX_BULK_IDS = 10_000;
+    private static final Duration MAX_HISTORY_RANGE = Duration.ofDays(31);
+
+    private final LatestPositionCache latestPositionCache;
+    private final VehicleService vehicleService;
+
+    public PositionController(LatestPositionCache latestPositionCache, VehicleService vehicleService) {
+        this.latestPositionCache = latestPositionCache;
+        this.vehicleService = vehicleService;
+    }
+
+    @GetMapping("/vehicles")
+    @Operation(summary = "Get last known positions of vehicles, all when no ids are given")
+    public ResponseEntity<PositionArrayResponse> getVehiclePositions(
+            @Parameter(description = "Comma separated vehicle IDs")
+            @RequestParam(required = false) List<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return ResponseEntity.ok(PositionArrayResponse.byVehicle(latestPositionCache.getAllVehicles()));
+        }
+        return queryVehiclePositions(ids);
+    }
+
+    @PostMapping("/vehicles/query")
+    @Operation(summary = "Get last known positions of many vehicles")
+    public ResponseEntity<PositionArrayResponse> queryVehiclePositions(@RequestBody List<String> vehicleIds) {
+        if (vehicleIds.size() > MAX_BULK_IDS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(PositionArrayResponse.byVehicle(latestPositionCache.getByVehicles(vehicleIds)));
+    }
+
+    @PostMapping("/devices/query")
+    @Operation(summary = "Get last known positions of many devices")
+    public ResponseEntity<PositionArrayResponse> queryDevicePositions(@RequestBody List<String> deviceIds) {
+        if (deviceIds.size() > MAX_BULK_IDS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(PositionArrayResponse.byDevice(latestPositionCache.getByDevices(deviceIds)));
+    }
+
+    @GetMapping("/devices/{deviceId}")
+    @Operation(summary = "Get last known position of a device")
+    public ResponseEntity<LatestPositionCache.Position> getDevicePosition(@PathVariable String deviceId) {
+        // Falls back to the stored history for devices not heard from since start-up
+        return latestPositionCache.getByDevice(deviceId)
+                .or(() -> vehicleService.getLatestLocation(deviceId)
+                        .map(location -> new LatestPositionCache.Position(deviceId, null, location.latitude(),
+                                location.longitude(), location.speedKmh(), location.timestamp().toEpochMilli())))
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/trackers/{trackerId}/history")
+    @Operation(summary = "Get the fixes of a tracker in a time range, at most 31 days, optionally simplified")
+    public ResponseEntity<LocationHistoryResponse> getTrackerHistory(
+            @PathVariable String trackerId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant end,
+            @Parameter(description = "0 for every fix up to the coarsest route tier")
+            @RequestParam(defaultValue = "0") int level,
+            @Parameter(description = "Douglas-Peucker tolerance in metres, overrides level")
+            @RequestParam(required = false) Double toleranceMeters) {
+        if (end.isBefore(start) || Duration.between(start, end).compareTo(MAX_HISTORY_RANGE) > 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (toleranceMeters != null ? toleranceMeters < 0 : level < 0 || level > RouteSimplifier.maxLevel()) {
+            return ResponseEntity.badRequest().build();
+        }
+        // A day of fixes runs to tens of thousands of points; map views ask for a coarser level
+        double tolerance = toleranceMeters != null ? toleranceMeters : RouteSimplifier.toleranceMeters(level);
+        List<LocationPoint> history = vehicleService.getLocationHistory(trackerId, start, end);
+        if (tolerance > 0) {
+            history = RouteSimplifier.simplify(history, tolerance);
+        }
+        return ResponseEntity.ok(LocationHistoryResponse.of(trackerId, toleranceMeters != null ? -1 : level,
+                tolerance, history));
+    }
+}
@@ -0,0 +1,41 @@
+package com.jjenus.tracker.core.api;
+
+import com.jjenus.tracker.core.application.service.VehicleService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/trackers")
+@Tag(name = "Trackers", description = "Tracker to vehicle assignment")
+public class TrackerAssignmentController {
+
+    private final VehicleService vehicleService;
+
+    public TrackerAssignmentController(VehicleService vehicleService) {
+        this.vehicleService = vehicleService;
+    }
+
+    @PutMapping("/{deviceId}/vehicle/{vehicleId}")
+    @Operation(summary = "Assign a tracker to a vehicle; every node picks it up once committed")
+    public ResponseEntity<Void> assign(@PathVariable String deviceId, @PathVariable String vehicleId) {
+        try {
+            vehicleService.assignTracker(deviceId, vehicleId);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{deviceId}/vehicle")
+    @Operation(summary = "Unassign a tracker from its vehicle")
+    public ResponseEntity<Void> unassign(@PathVariable String deviceId) {
+        try {
+            vehicleService.unassignTracker(deviceId);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
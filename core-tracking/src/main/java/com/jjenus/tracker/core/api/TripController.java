@@ -0,0 +1,47 @@
+package com.jjenus.tracker.core.api;
+
+import com.jjenus.tracker.core.api.dto.RouteArrayResponse;
+import com.jjenus.tracker.core.application.service.VehicleService;
+import com.jjenus.tracker.core.domain.RouteSimplifier;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/trips")
+@Tag(name = "Trips", description = "Trip routes for replay")
+public class TripController {
+
+    private final VehicleService vehicleService;
+
+    public TripController(VehicleService vehicleService) {
+        this.vehicleService = vehicleService;
+    }
+
+    @GetMapping("/{tripId}/route")
+    @Operation(summary = "Get a trip route at a level of detail, or simplified to a tolerance")
+    public ResponseEntity<RouteArrayResponse> getRoute(
+            @PathVariable String tripId,
+            @Parameter(description = "0 for every point up to the coarsest precomputed tier")
+            @RequestParam(defaultValue = "0") int level,
+            @Parameter(description = "Douglas-Peucker tolerance in metres, overrides level")
+            @RequestParam(required = false) Double toleranceMeters) {
+        if (toleranceMeters != null) {
+            if (toleranceMeters < 0) {
+                return ResponseEntity.badRequest().build();
+            }
+            return vehicleService.getSimplifiedTripRoute(tripId, toleranceMeters)
+                    .map(points -> ResponseEntity.ok(RouteArrayResponse.of(tripId, -1, toleranceMeters, points)))
+                    .orElse(ResponseEntity.notFound().build());
+        }
+        if (level < 0 || level > RouteSimplifier.maxLevel()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return vehicleService.getTripRoute(tripId, level)
+                .map(points -> ResponseEntity.ok(
+                        RouteArrayResponse.of(tripId, level, RouteSimplifier.toleranceMeters(level), points)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,24 @@
+package com.jjenus.tracker.core.api.dto;
+
+import com.jjenus.tracker.shared.domain.LocationPoint;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A tracker's fixes as rows of [latitude, longitude, speedKmh, timestamp millis], oldest first,
+ * with the level of detail (-1 for an explicit tolerance) and tolerance they were simplified to.
+ */
+public record LocationHistoryResponse(String trackerId, int level, double toleranceMeters,
+                                      List<String> fields, List<Object[]> rows) {
+    private static final List<String> FIELDS = List.of("lat", "lon", "speed", "ts");
+
+    public static LocationHistoryResponse of(String trackerId, int level, double toleranceMeters,
+                                             List<LocationPoint> points) {
+        List<Object[]> rows = new ArrayList<>(points.size());
+        for (LocationPoint point : points) {
+            rows.add(new Object[]{point.latitude(), point.longitude(), point.speedKmh(), point.timestamp().toEpochMilli()});
+        }
+        return new LocationHistoryResponse(trackerId, level, toleranceMeters, FIELDS, rows);
+    }
+}
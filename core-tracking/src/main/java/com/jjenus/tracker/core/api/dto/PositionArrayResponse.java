@@ -0,0 +1,35 @@
+package com.jjenus.tracker.core.api.dto;
+
+import com.jjenus.tracker.core.application.service.LatestPositionCache.Position;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Positions as rows of [id, latitude, longitude, speedKmh, timestamp millis], so a map
+ * client gets thousands of markers without repeating field names per entry.
+ */
+public record PositionArrayResponse(List<String> fields, List<Object[]> rows) {
+    private static final List<String> FIELDS = List.of("id", "lat", "lon", "speed", "ts");
+
+    public static PositionArrayResponse byVehicle(Collection<Position> positions) {
+        List<Object[]> rows = new ArrayList<>(positions.size());
+        for (Position position : positions) {
+            rows.add(row(position.vehicleId(), position));
+        }
+        return new PositionArrayResponse(FIELDS, rows);
+    }
+
+    public static PositionArrayResponse byDevice(Collection<Position> positions) {
+        List<Object[]> rows = new ArrayList<>(positions.size());
+        for (Position position : positions) {
+            rows.add(row(position.deviceId(), position));
+        }
+        return new PositionArrayResponse(FIELDS, rows);
+    }
+
+    private static Object[] row(String id, Position position) {
+        return new Object[]{id, position.latitude(), position.longitude(), position.speedKmh(), position.timestampMillis()};
+    }
+}
@@ -0,0 +1,23 @@
+package com.jjenus.tracker.core.api.dto;
+
+import com.jjenus.tracker.shared.domain.LocationPoint;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A trip route as rows of [latitude, longitude, speedKmh, timestamp millis], with the
+ * level of detail (-1 for an explicit tolerance) and tolerance it was simplified to.
+ */
+public record RouteArrayResponse(String tripId, int level, double toleranceMeters,
+                                 List<String> fields, List<Object[]> rows) {
+    private static final List<String> FIELDS = List.of("lat", "lon", "speed", "ts");
+
+    public static RouteArrayResponse of(String tripId, int level, double toleranceMeters, List<LocationPoint> points) {
+        List<Object[]> rows = new ArrayList<>(points.size());
+        for (LocationPoint point : points) {
+            rows.add(new Object[]{point.latitude(), point.longitude(), point.speedKmh(), point.timestamp().toEpochMilli()});
+        }
+        return new RouteArrayResponse(tripId, level, toleranceMeters, FIELDS, rows);
+    }
+}
@@ -1,7 +1,12 @@
 package com.jjenus.tracker.core.application;
 
+import com.jjenus.tracker.core.application.service.LatestPositionCache;
+import com.jjenus.tracker.core.application.service.TripDetector;
 import com.jjenus.tracker.core.application.service.VehicleService;
+import com.jjenus.tracker.core.application.service.VehicleStateStore;
+import com.jjenus.tracker.core.infrastructure.LocationBatchWriter;
 import com.jjenus.tracker.shared.events.LocationDataEvent;
+import com.jjenus.tracker.shared.events.TrackerAssignmentChangedEvent;
 import com.jjenus.tracker.shared.events.VehicleUpdatedEvent;
 import com.jjenus.tracker.shared.pubsub.EventPublisher;
 import jakarta.jms.JMSException;
@@ -12,17 +17,26 @@ import org.slf4j.LoggerFactory;
 import org.springframework.jms.annotation.JmsListener;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 @Component
 public class VehicleEventHandler {
     private static final Logger logger = LoggerFactory.getLogger(VehicleEventHandler.class);
 
     private final VehicleService vehicleService;
+    private final VehicleStateStore vehicleStateStore;
+    private final LocationBatchWriter locationBatchWriter;
+    private final LatestPositionCache latestPositionCache;
+    private final TripDetector tripDetector;
     private final EventPublisher eventPublisher;
 
-    public VehicleEventHandler(VehicleService vehicleService, EventPublisher eventPublisher) {
+    public VehicleEventHandler(VehicleService vehicleService, VehicleStateStore vehicleStateStore,
+                               LocationBatchWriter locationBatchWriter, LatestPositionCache latestPositionCache,
+                               TripDetector tripDetector, EventPublisher eventPublisher) {
         this.vehicleService = vehicleService;
+        this.vehicleStateStore = vehicleStateStore;
+        this.locationBatchWriter = locationBatchWriter;
+        this.latestPositionCache = latestPositionCache;
+        this.tripDetector = tripDetector;
         this.eventPublisher = eventPublisher;
     }
 
@@ -30,7 +44,6 @@ public class VehicleEventHandler {
             containerFactory = "topicJmsListenerContainerFactory",
             concurrency = "1"
     )
-    @Transactional
     public void handleLocationUpdate(@Payload LocationDataEvent event) {
         try {
             logger.info("Received location update for device {}", event.getDeviceId());
@@ -40,6 +53,10 @@ public class VehicleEventHandler {
 
             // Update vehicle location
 //            vehicleService.updateVehicleLocation(vehicleId, event.getLocation());
+            vehicleStateStore.recordFix(vehicleId, event.getLocation());
+            latestPositionCache.update(event.getDeviceId(), vehicleId, event.getLocation());
+            locationBatchWriter.enqueue(event.getDeviceId(), event.getLocation());
+            tripDetector.onFix(vehicleId, event.getLocation());
 
             // Publish vehicle update event for alerting
             VehicleUpdatedEvent vehicleUpdatedEvent = new VehicleUpdatedEvent(vehicleId, event.getLocation(), event.getMetaData());
@@ -53,4 +70,11 @@ public class VehicleEventHandler {
             throw e;
         }
     }
+
+    @JmsListener(destination = "tracking.events.trackerassignmentchangedevent",
+            containerFactory = "topicJmsListenerContainerFactory"
+    )
+    public void handleAssignmentChanged(@Payload TrackerAssignmentChangedEvent event) {
+        vehicleStateStore.applyAssignment(event.getDeviceId(), event.getVehicleId());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,204 @@
+package com.jjenus.tracker.core.application.service;
+
+import com.jjenus.tracker.shared.domain.LocationPoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Last known position per device and per vehicle, updated from the location handler.
+ * Lookups are map reads; bulk lookups take thousands of ids in one call.
+ * <p>
+ * With redis-mirror on, changed positions are copied to two Redis hashes (by device
+ * and by vehicle) every mirror-interval-ms, and ids this node has never seen are
+ * answered from there, so any node can serve the whole fleet.
+ */
+@Component
+public class LatestPositionCache {
+    private static final Logger logger = LoggerFactory.getLogger(LatestPositionCache.class);
+
+    static final String DEVICE_POSITIONS_KEY = "tracker:positions:devices";
+    static final String VEHICLE_POSITIONS_KEY = "tracker:positions:vehicles";
+
+    private final Map<String, Position> byDevice = new ConcurrentHashMap<>();
+    private final Map<String, Position> byVehicle = new ConcurrentHashMap<>();
+    private final Set<String> dirtyDevices = ConcurrentHashMap.newKeySet();
+    private final StringRedisTemplate redisTemplate;
+
+    @Autowired
+    public LatestPositionCache(ObjectProvider<StringRedisTemplate> redisTemplate,
+                               @Value("${tracking.positions.redis-mirror:false}") boolean redisMirror) {
+        this(redisMirror ? redisTemplate.getObject() : null);
+    }
+
+    LatestPositionCache(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Records the fix unless a newer one is already known for the device.
+     */
+    public void update(String deviceId, String vehicleId, LocationPoint location) {
+        if (deviceId == null || vehicleId == null || location == null || location.timestamp() == null) {
+            return;
+        }
+        Position fresh = new Position(deviceId, vehicleId, location.latitude(), location.longitude(),
+                location.speedKmh(), location.timestamp().toEpochMilli());
+        if (byDevice.merge(deviceId, fresh, LatestPositionCache::newer) == fresh) {
+            byVehicle.merge(vehicleId, fresh, LatestPositionCache::newer);
+            if (redisTemplate != null) {
+                dirtyDevices.add(deviceId);
+            }
+        }
+    }
+
+    public Optional<Position> getByDevice(String deviceId) {
+        return getByDevices(List.of(deviceId)).stream().findFirst();
+    }
+
+    public Optional<Position> getByVehicle(String vehicleId) {
+        return getByVehicles(List.of(vehicleId)).stream().findFirst();
+    }
+
+    /**
+     * Positions of the given devices, in request order; unknown ids are left out.
+     */
+    public List<Position> getByDevices(Collection<String> deviceIds) {
+        return lookup(deviceIds, byDevice, DEVICE_POSITIONS_KEY);
+    }
+
+    public List<Position> getByVehicles(Collection<String> vehicleIds) {
+        return lookup(vehicleIds, byVehicle, VEHICLE_POSITIONS_KEY);
+    }
+
+    public Collection<Position> getAllVehicles() {
+        return byVehicle.values();
+    }
+
+    public int size() {
+        return byDevice.size();
+    }
+
+    @Scheduled(fixedDelayString = "${tracking.positions.mirror-interval-ms:1000}")
+    public void mirror() {
+        if (redisTemplate == null || dirtyDevices.isEmpty()) {
+            return;
+        }
+        Map<String, String> devices = new HashMap<>();
+        Map<String, String> vehicles = new HashMap<>();
+        for (String deviceId : dirtyDevices) {
+            dirtyDevices.remove(deviceId);
+            Position position = byDevice.get(deviceId);
+            if (position != null) {
+                String value = position.encode();
+                devices.put(deviceId, value);
+                vehicles.put(position.vehicleId(), value);
+            }
+        }
+        try {
+            HashOperations<String, String, String> hashOps = redisTemplate.opsForHash();
+            hashOps.putAll(DEVICE_POSITIONS_KEY, devices);
+            hashOps.putAll(VEHICLE_POSITIONS_KEY, vehicles);
+        } catch (Exception e) {
+            logger.warn("Failed to mirror {} positions to Redis, will retry", devices.size(), e);
+            dirtyDevices.addAll(devices.keySet());
+        }
+    }
+
+    private List<Position> lookup(Collection<String> ids, Map<String, Position> local, String redisKey) {
+        // One slot per requested id, so local and Redis hits come back in request order
+        Position[] slots = new Position[ids.size()];
+        List<String> missing = redisTemplate != null ? new ArrayList<>() : null;
+        List<Integer> missingSlots = redisTemplate != null ? new ArrayList<>() : null;
+        int slot = 0;
+        for (String id : ids) {
+            Position position = local.get(id);
+            if (position != null) {
+                slots[slot] = position;
+            } else if (missing != null) {
+                missing.add(id);
+                missingSlots.add(slot);
+            }
+            slot++;
+        }
+        if (missing != null && !missing.isEmpty()) {
+            // Other nodes' devices; not cached here since this node would never see them change
+            try {
+                HashOperations<String, String, String> hashOps = redisTemplate.opsForHash();
+                List<String> values = hashOps.multiGet(redisKey, missing);
+                for (int i = 0; i < values.size(); i++) {
+                    String value = values.get(i);
+                    slots[missingSlots.get(i)] = value != null ? Position.decode(value) : null;
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to read {} positions from Redis", missing.size(), e);
+            }
+        }
+        List<Position> found = new ArrayList<>(slots.length);
+        for (Position position : slots) {
+            if (position != null) {
+                found.add(position);
+            }
+        }
+        return found;
+    }
+
+    private static Position newer(Position current, Position candidate) {
+        return candidate.timestampMillis() >= current.timestampMillis() ? candidate : current;
+    }
+
+    public record Position(
+        String deviceId,
+        String vehicleId,
+        double latitude,
+        double longitude,
+        float speedKmh,
+        long timestampMillis
+    ) {
+        /**
+         * Numbers first, then the id lengths and the ids back to back, so ids may contain
+         * any character; a vehicle id length of -1 stands for none.
+         */
+        String encode() {
+            return String.valueOf(latitude) + '|' + longitude + '|' + speedKmh + '|' + timestampMillis + '|'
+                    + deviceId.length() + '|' + (vehicleId != null ? vehicleId.length() : -1) + '|'
+                    + deviceId + (vehicleId != null ? vehicleId : "");
+        }
+
+        /**
+         * The position encoded by {@link #encode()}, or null when the value is not in that form.
+         */
+        static Position decode(String value) {
+            try {
+                String[] parts = value.split("\\|", 7);
+                int deviceIdLength = Integer.parseInt(parts[4]);
+                int vehicleIdLength = Integer.parseInt(parts[5]);
+                String ids = parts[6];
+                if (ids.length() != deviceIdLength + Math.max(0, vehicleIdLength)) {
+                    return null;
+                }
+                return new Position(ids.substring(0, deviceIdLength),
+                        vehicleIdLength >= 0 ? ids.substring(deviceIdLength) : null,
+                        Double.parseDouble(parts[0]), Double.parseDouble(parts[1]),
+                        Float.parseFloat(parts[2]), Long.parseLong(parts[3]));
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+    }
+}
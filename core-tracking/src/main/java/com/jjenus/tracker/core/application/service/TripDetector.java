@@ -0,0 +1,378 @@
+package com.jjenus.tracker.core.application.service;
+
+import com.jjenus.tracker.core.domain.TripEndedEvent;
+import com.jjenus.tracker.core.domain.TripStartedEvent;
+import com.jjenus.tracker.core.domain.TripSummary;
+import com.jjenus.tracker.core.domain.enums.TripEndReason;
+import com.jjenus.tracker.shared.domain.LocationPoint;
+import com.jjenus.tracker.shared.pubsub.EventPublisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Incremental trip detection over the location stream, one small state machine per
+ * vehicle. A trip starts at the first fix at or above start-speed-kmh and ends once
+ * the vehicle has been stopped for stop-after-ms, or when no fix arrives for that
+ * long. Distance (haversine), max speed and idle time are accumulated fix by fix;
+ * distance and idle time of the final stop are not counted.
+ * <p>
+ * Fixes are held for reorder-window-ms in a small per-vehicle buffer and released in
+ * timestamp order; duplicates and fixes older than what was already processed are
+ * dropped. The route is sampled into at most max-route-points points, halving the
+ * sample rate whenever it fills up, so memory per vehicle is bounded however long
+ * the trip. Only finished trips are persisted, as a summary plus that route.
+ */
+@Component
+public class TripDetector {
+    private static final Logger logger = LoggerFactory.getLogger(TripDetector.class);
+
+    private static final int REORDER_CAPACITY = 8;
+    // Segments implying more than this are GPS jumps and add no distance
+    private static final double MAX_PLAUSIBLE_SPEED_KMH = 300;
+    private static final long EVICT_AFTER_MS = Duration.ofHours(1).toMillis();
+
+    private final VehicleService vehicleService;
+    private final VehicleStateStore vehicleStateStore;
+    private final EventPublisher eventPublisher;
+    private final Clock clock;
+    private final float startSpeedKmh;
+    private final long stopAfterMs;
+    private final long reorderWindowMs;
+    private final int maxRoutePoints;
+    private final long routeSampleMs;
+
+    private final Map<String, VehicleTrip> vehicles = new ConcurrentHashMap<>();
+    private final LongAdder droppedFixes = new LongAdder();
+
+    @Autowired
+    public TripDetector(VehicleService vehicleService,
+                        VehicleStateStore vehicleStateStore,
+                        EventPublisher eventPublisher,
+                        @Value("${tracking.trips.start-speed-kmh:5}") float startSpeedKmh,
+                        @Value("${tracking.trips.stop-after-ms:300000}") long stopAfterMs,
+                        @Value("${tracking.trips.reorder-window-ms:5000}") long reorderWindowMs,
+                        @Value("${tracking.trips.max-route-points:128}") int maxRoutePoints,
+                        @Value("${tracking.trips.route-sample-ms:10000}") long routeSampleMs) {
+        this(vehicleService, vehicleStateStore, eventPublisher, Clock.systemUTC(),
+                startSpeedKmh, stopAfterMs, reorderWindowMs, maxRoutePoints, routeSampleMs);
+    }
+
+    TripDetector(VehicleService vehicleService, VehicleStateStore vehicleStateStore,
+                 EventPublisher eventPublisher, Clock clock,
+                 float startSpeedKmh, long stopAfterMs, long reorderWindowMs,
+                 int maxRoutePoints, long routeSampleMs) {
+        if (maxRoutePoints < 2) {
+            throw new IllegalArgumentException("A route needs at least 2 points, got " + maxRoutePoints);
+        }
+        this.vehicleService = vehicleService;
+        this.vehicleStateStore = vehicleStateStore;
+        this.eventPublisher = eventPublisher;
+        this.clock = clock;
+        this.startSpeedKmh = startSpeedKmh;
+        this.stopAfterMs = stopAfterMs;
+        this.reorderWindowMs = reorderWindowMs;
+        this.maxRoutePoints = maxRoutePoints;
+        this.routeSampleMs = routeSampleMs;
+    }
+
+    public void onFix(String vehicleId, LocationPoint fix) {
+        if (fix == null || !fix.isValid()) {
+            return;
+        }
+        List<Object> out = new ArrayList<>(1);
+        while (true) {
+            VehicleTrip trip = vehicles.computeIfAbsent(vehicleId, VehicleTrip::new);
+            synchronized (trip) {
+                if (trip.evicted) {
+                    continue;
+                }
+                trip.lastArrivalMillis = clock.millis();
+                trip.offer(fix, out);
+            }
+            break;
+        }
+        emit(out);
+    }
+
+    /**
+     * Releases buffered fixes, ends trips of vehicles that went quiet and forgets
+     * vehicles idle for an hour.
+     */
+    @Scheduled(fixedDelayString = "${tracking.trips.sweep-interval-ms:10000}")
+    public void sweep() {
+        long now = clock.millis();
+        List<Object> out = new ArrayList<>();
+        for (VehicleTrip trip : vehicles.values()) {
+            synchronized (trip) {
+                trip.releaseAll(out);
+                long quietMs = now - trip.lastArrivalMillis;
+                if (trip.inTrip() && quietMs >= stopAfterMs) {
+                    trip.end(trip.stopStart != null ? trip.stopStart : trip.last,
+                            trip.stopStart != null ? TripEndReason.TIMEOUT : TripEndReason.CONNECTION_LOST, out);
+                }
+                if (!trip.inTrip() && quietMs >= EVICT_AFTER_MS) {
+                    trip.evicted = true;
+                    vehicles.remove(trip.vehicleId, trip);
+                }
+            }
+        }
+        emit(out);
+    }
+
+    public int getTrackedVehicleCount() {
+        return vehicles.size();
+    }
+
+    public long getActiveTripCount() {
+        return vehicles.values().stream().filter(VehicleTrip::inTrip).count();
+    }
+
+    public long getDroppedFixCount() {
+        return droppedFixes.sum();
+    }
+
+    private void emit(List<Object> out) {
+        for (Object result : out) {
+            try {
+                if (result instanceof TripStartedEvent started) {
+                    vehicleStateStore.recordActiveTrip(started.getVehicleId(), started.getTripId());
+                    eventPublisher.publish(started);
+                } else if (result instanceof TripSummary summary) {
+                    vehicleStateStore.recordActiveTrip(summary.vehicleId(), null);
+                    vehicleService.saveTripSummary(summary);
+                    eventPublisher.publish(new TripEndedEvent(summary));
+                }
+            } catch (Exception e) {
+                logger.error("Failed to handle trip result {}", result, e);
+            }
+        }
+    }
+
+    private static long millis(LocationPoint fix) {
+        return fix.timestamp().toEpochMilli();
+    }
+
+    private final class VehicleTrip {
+        private final String vehicleId;
+        private final LocationPoint[] pending = new LocationPoint[REORDER_CAPACITY];
+        private int pendingCount;
+        private long lastProcessedMillis = Long.MIN_VALUE;
+        private long lastArrivalMillis;
+        private boolean evicted;
+        private LocationPoint last;
+
+        // Active trip, tripId == null when none
+        private String tripId;
+        private LocationPoint start;
+        private double distanceKm;
+        private float maxSpeedKmh;
+        private long idleMillis;
+        private RouteSampler route;
+        // Current stop, folded into the totals only if the vehicle moves again
+        private LocationPoint stopStart;
+        private double stopDistanceKm;
+        private long stopIdleMillis;
+
+        private VehicleTrip(String vehicleId) {
+            this.vehicleId = vehicleId;
+        }
+
+        private boolean inTrip() {
+            return tripId != null;
+        }
+
+        private void offer(LocationPoint fix, List<Object> out) {
+            if (pendingCount == REORDER_CAPACITY) {
+                releaseOldest(out);
+            }
+            long ts = millis(fix);
+            int i = pendingCount;
+            while (i > 0 && millis(pending[i - 1]) > ts) {
+                i--;
+            }
+            if (ts <= lastProcessedMillis || (i > 0 && millis(pending[i - 1]) == ts)) {
+                droppedFixes.increment();
+                return;
+            }
+            System.arraycopy(pending, i, pending, i + 1, pendingCount - i);
+            pending[i] = fix;
+            pendingCount++;
+
+            long releaseUpTo = millis(pending[pendingCount - 1]) - reorderWindowMs;
+            while (pendingCount > 0 && millis(pending[0]) <= releaseUpTo) {
+                releaseOldest(out);
+            }
+        }
+
+        private void releaseAll(List<Object> out) {
+            while (pendingCount > 0) {
+                releaseOldest(out);
+            }
+        }
+
+        private void releaseOldest(List<Object> out) {
+            LocationPoint fix = pending[0];
+            System.arraycopy(pending, 1, pending, 0, pendingCount - 1);
+            pending[--pendingCount] = null;
+            process(fix, out);
+        }
+
+        private void process(LocationPoint fix, List<Object> out) {
+            long ts = millis(fix);
+            lastProcessedMillis = ts;
+            if (!inTrip()) {
+                if (fix.speedKmh() >= startSpeedKmh) {
+                    begin(fix, out);
+                }
+                last = fix;
+                return;
+            }
+
+            long segmentMillis = ts - millis(last);
+            double segmentKm = last.distanceTo(fix);
+            if (segmentMillis > 0 && segmentKm / (segmentMillis / 3_600_000.0) > MAX_PLAUSIBLE_SPEED_KMH) {
+                segmentKm = 0;
+            }
+
+            if (fix.speedKmh() >= startSpeedKmh) {
+                if (stopStart != null) {
+                    distanceKm += stopDistanceKm;
+                    idleMillis += stopIdleMillis + segmentMillis;
+                    segmentKm = 0;
+                    stopStart = null;
+                    stopDistanceKm = 0;
+                    stopIdleMillis = 0;
+                }
+                distanceKm += segmentKm;
+                maxSpeedKmh = Math.max(maxSpeedKmh, fix.speedKmh());
+            } else if (stopStart == null) {
+                // The segment slowing down into the stop still counts as driving
+                stopStart = fix;
+                distanceKm += segmentKm;
+            } else {
+                stopDistanceKm += segmentKm;
+                stopIdleMillis += segmentMillis;
+            }
+            route.add(fix);
+            last = fix;
+
+            if (stopStart != null && ts - millis(stopStart) >= stopAfterMs) {
+                end(stopStart, TripEndReason.TIMEOUT, out);
+            }
+        }
+
+        private void begin(LocationPoint fix, List<Object> out) {
+            tripId = "TRIP_" + vehicleId + "_" + UUID.randomUUID().toString().substring(0, 8);
+            start = fix;
+            distanceKm = 0;
+            maxSpeedKmh = fix.speedKmh();
+            idleMillis = 0;
+            route = new RouteSampler(maxRoutePoints, routeSampleMs);
+            route.add(fix);
+            out.add(new TripStartedEvent(tripId, vehicleId, fix));
+        }
+
+        private void end(LocationPoint endFix, TripEndReason reason, List<Object> out) {
+            route.addFinal(endFix);
+            out.add(new TripSummary(tripId, vehicleId, start, endFix, (float) distanceKm, maxSpeedKmh,
+                    Duration.ofMillis(idleMillis), reason, route.toList()));
+            tripId = null;
+            start = null;
+            route = null;
+            stopStart = null;
+            stopDistanceKm = 0;
+            stopIdleMillis = 0;
+        }
+    }
+
+    /**
+     * Route points in parallel primitive arrays; when full, every other point is
+     * dropped and the sample interval doubles.
+     */
+    static final class RouteSampler {
+        private static final double SCALE = 1e7;
+
+        private final int[] latitudes;
+        private final int[] longitudes;
+        private final float[] speeds;
+        private final long[] times;
+        private int size;
+        private long intervalMs;
+
+        RouteSampler(int capacity, long intervalMs) {
+            this.latitudes = new int[capacity];
+            this.longitudes = new int[capacity];
+            this.speeds = new float[capacity];
+            this.times = new long[capacity];
+            this.intervalMs = Math.max(1, intervalMs);
+        }
+
+        void add(LocationPoint fix) {
+            if (size > 0 && millis(fix) - times[size - 1] < intervalMs) {
+                return;
+            }
+            if (size == times.length) {
+                decimate();
+            }
+            set(size++, fix);
+        }
+
+        void addFinal(LocationPoint fix) {
+            long ts = millis(fix);
+            while (size > 1 && times[size - 1] > ts) {
+                size--;
+            }
+            if (size > 0 && times[size - 1] == ts) {
+                return;
+            }
+            set(size == times.length ? size - 1 : size++, fix);
+        }
+
+        int size() {
+            return size;
+        }
+
+        List<LocationPoint> toList() {
+            List<LocationPoint> points = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                points.add(new LocationPoint(latitudes[i] / SCALE, longitudes[i] / SCALE, speeds[i],
+                        Instant.ofEpochMilli(times[i])));
+            }
+            return points;
+        }
+
+        private void decimate() {
+            int kept = 0;
+            for (int i = 0; i < size; i += 2) {
+                latitudes[kept] = latitudes[i];
+                longitudes[kept] = longitudes[i];
+                speeds[kept] = speeds[i];
+                times[kept] = times[i];
+                kept++;
+            }
+            size = kept;
+            intervalMs *= 2;
+        }
+
+        private void set(int i, LocationPoint fix) {
+            latitudes[i] = (int) Math.round(fix.latitude() * SCALE);
+            longitudes[i] = (int) Math.round(fix.longitude() * SCALE);
+            speeds[i] = fix.speedKmh();
+            times[i] = millis(fix);
+        }
+    }
+}
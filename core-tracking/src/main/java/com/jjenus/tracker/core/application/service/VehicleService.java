@@ -1,36 +1,60 @@
 package com.jjenus.tracker.core.application.service;
 
+import com.jjenus.tracker.core.domain.RouteSimplifier;
+import com.jjenus.tracker.core.domain.TripSummary;
 import com.jjenus.tracker.core.domain.entity.*;
 import com.jjenus.tracker.core.domain.enums.TripEndReason;
 import com.jjenus.tracker.core.domain.enums.TripStartReason;
+import com.jjenus.tracker.core.infrastructure.LocationHistoryStore;
 import com.jjenus.tracker.core.infrastructure.repository.*;
 import com.jjenus.tracker.shared.domain.LocationPoint;
+import com.jjenus.tracker.shared.events.TrackerAssignmentChangedEvent;
+import com.jjenus.tracker.shared.pubsub.AfterCommit;
+import com.jjenus.tracker.shared.pubsub.EventPublisher;
 import org.modelmapper.ModelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
 
 @Service
 public class VehicleService {
     
+    private static final Logger logger = LoggerFactory.getLogger(VehicleService.class);
+    
     private final VehicleRepository vehicleRepository;
     private final TrackerRepository trackerRepository;
     private final TripRepository tripRepository;
     private final TrackerLocationRepository locationRepository;
+    private final LocationHistoryStore historyStore;
     private final ModelMapper modelMapper;
+    private final VehicleStateStore vehicleStateStore;
+    private final EventPublisher eventPublisher;
+    private final LongAdder droppedTripSummaries = new LongAdder();
     
     public VehicleService(VehicleRepository vehicleRepository,
                           TrackerRepository trackerRepository,
                           TripRepository tripRepository,
-                          TrackerLocationRepository locationRepository, ModelMapper modelMapper) {
+                          TrackerLocationRepository locationRepository, LocationHistoryStore historyStore,
+                          ModelMapper modelMapper, VehicleStateStore vehicleStateStore,
+                          EventPublisher eventPublisher) {
         this.vehicleRepository = vehicleRepository;
         this.trackerRepository = trackerRepository;
         this.tripRepository = tripRepository;
         this.locationRepository = locationRepository;
+        this.historyStore = historyStore;
         this.modelMapper = modelMapper;
+        this.vehicleStateStore = vehicleStateStore;
+        this.eventPublisher = eventPublisher;
     }
     
     @Transactional
@@ -45,6 +69,7 @@ public class VehicleService {
         
         vehicle.updateAccStatus(accStatus, timestamp);
         vehicleRepository.save(vehicle);
+        vehicleStateStore.recordEngineState(vehicleId, vehicle.getEngineState());
     }
     
     @Transactional
@@ -91,7 +116,9 @@ public class VehicleService {
         vehicle.addTrip(trip);
         vehicleRepository.save(vehicle);
         
-        return tripRepository.save(trip);
+        Trip saved = tripRepository.save(trip);
+        vehicleStateStore.recordActiveTrip(vehicleId, saved.getTripId());
+        return saved;
     }
     
     @Transactional
@@ -105,6 +132,75 @@ public class VehicleService {
         
         trip.endTrip(reason, endLocation);
         tripRepository.save(trip);
+        vehicleStateStore.recordActiveTrip(trip.getVehicle().getVehicleId(), null);
+    }
+
+    /**
+     * Persists a trip finished by the trip detector. Start and end coordinates are the
+     * first and last route points; no per-fix rows are written. Trips of vehicles that do
+     * not exist are logged, counted and dropped.
+     */
+    @Transactional
+    public void saveTripSummary(TripSummary summary) {
+        if (!vehicleRepository.existsById(summary.vehicleId())) {
+            // Typically a tracker not assigned to a vehicle, reported as VEH_<deviceId>
+            droppedTripSummaries.increment();
+            logger.warn("Dropping trip {} of unknown vehicle {} ({} km)",
+                summary.tripId(), summary.vehicleId(), summary.distanceKm());
+            return;
+        }
+        Trip trip = new Trip();
+        trip.setTripId(summary.tripId());
+        trip.setVehicle(vehicleRepository.getReferenceById(summary.vehicleId()));
+        trip.setStartTime(summary.startLocation().timestamp());
+        trip.setEndTime(summary.endLocation().timestamp());
+        trip.setStartReason(TripStartReason.AUTO_DETECTED);
+        trip.setEndReason(summary.endReason());
+        trip.setTotalDistanceKm(summary.distanceKm());
+        trip.setMaxSpeedKmh(summary.maxSpeedKmh());
+        trip.setAverageSpeedKmh(summary.averageSpeedKmh());
+        trip.setIdleTimeMinutes((int) summary.idleTime().toMinutes());
+        trip.appendRoute(summary.route());
+        trip.computeRouteLevels();
+        trip.setIsActive(false);
+        tripRepository.save(trip);
+    }
+
+    /**
+     * Trip summaries dropped since start-up because their vehicle does not exist.
+     */
+    public long getDroppedTripSummaryCount() {
+        return droppedTripSummaries.sum();
+    }
+
+    @Transactional
+    public void assignTracker(String deviceId, String vehicleId) {
+        Tracker tracker = trackerRepository.findByDeviceId(deviceId)
+            .orElseThrow(() -> new IllegalArgumentException("Tracker not found"));
+        Vehicle vehicle = vehicleRepository.findById(vehicleId)
+            .orElseThrow(() -> new IllegalArgumentException("Vehicle not found"));
+
+        tracker.setVehicle(vehicle);
+        trackerRepository.save(tracker);
+        assignmentChanged(deviceId, vehicleId);
+    }
+
+    @Transactional
+    public void unassignTracker(String deviceId) {
+        Tracker tracker = trackerRepository.findByDeviceId(deviceId)
+            .orElseThrow(() -> new IllegalArgumentException("Tracker not found"));
+
+        tracker.setVehicle(null);
+        trackerRepository.save(tracker);
+        assignmentChanged(deviceId, null);
+    }
+
+    private void assignmentChanged(String deviceId, String vehicleId) {
+        // Once committed: local store first, the event brings the stores of other nodes along
+        AfterCommit.run(() -> {
+            vehicleStateStore.applyAssignment(deviceId, vehicleId);
+            eventPublisher.publish(new TrackerAssignmentChangedEvent(deviceId, vehicleId));
+        });
     }
     
     @Transactional(readOnly = true)
@@ -117,22 +213,83 @@ public class VehicleService {
         return vehicleRepository.findByDeviceId(deviceId);
     }
     
+    /**
+     * Route of the trip, decoded as the stream is consumed; empty when the trip is unknown.
+     */
+    @Transactional(readOnly = true)
+    public Stream<LocationPoint> getTripRoute(String tripId) {
+        return tripRepository.findById(tripId)
+            .map(Trip::streamRoute)
+            .orElseGet(Stream::empty);
+    }
+    
+    /**
+     * Route of the trip at a level of detail, empty when the trip is unknown.
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<LocationPoint>> getTripRoute(String tripId, int level) {
+        return tripRepository.findById(tripId).map(trip -> trip.getRoute(level));
+    }
+    
+    /**
+     * Route of the trip simplified to an arbitrary tolerance, empty when the trip is unknown.
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<LocationPoint>> getSimplifiedTripRoute(String tripId, double toleranceMeters) {
+        return tripRepository.findById(tripId)
+            .map(trip -> RouteSimplifier.simplify(trip.getRoute(0), toleranceMeters));
+    }
+    
+    /**
+     * Fixes of the tracker in [start, end], oldest first. Streamed fixes come from the
+     * history buckets; trip start/end and current-location rows are still kept in
+     * tracker_location_data and are merged in.
+     */
+    @Transactional(readOnly = true)
+    public List<LocationPoint> getLocationHistory(String trackerId, Instant start, Instant end) {
+        List<LocationPoint> history = new ArrayList<>(historyStore.findByTrackerAndTimeRange(trackerId, start, end));
+        List<TrackerLocation> kept = locationRepository.findByTrackerAndTimeRange(trackerId, start, end);
+        if (!kept.isEmpty()) {
+            kept.stream().map(VehicleService::toLocationPoint).filter(Objects::nonNull).forEach(history::add);
+            history.sort(Comparator.comparing(LocationPoint::timestamp));
+        }
+        return history;
+    }
+
+    /**
+     * Newest fix of the device from either the history buckets or tracker_location_data.
+     */
+    @Transactional(readOnly = true)
+    public Optional<LocationPoint> getLatestLocation(String deviceId) {
+        Optional<LocationPoint> streamed = historyStore.findLatestByDeviceId(deviceId);
+        Optional<LocationPoint> kept = Optional.ofNullable(locationRepository.findLatestByDeviceId(deviceId))
+            .map(VehicleService::toLocationPoint);
+        if (streamed.isEmpty() || kept.isEmpty()) {
+            return streamed.isPresent() ? streamed : kept;
+        }
+        return kept.get().timestamp().isAfter(streamed.get().timestamp()) ? kept : streamed;
+    }
+    
     @Transactional(readOnly = true)
     public Optional<Trip> getActiveTrip(String vehicleId) {
         return tripRepository.findByVehicleVehicleIdAndIsActive(vehicleId, true);
     }
 
-    public String findVehicleIdForDevice(String deviceId) {
-        try {
-            Tracker tracker = trackerRepository.findByDeviceId(deviceId).orElseThrow(()-> new IllegalArgumentException("Tracker Not found: "+deviceId));
+    private static LocationPoint toLocationPoint(TrackerLocation location) {
+        if (location.getLatitude() == null || location.getLongitude() == null || location.getRecordedAt() == null) {
+            return null;
+        }
+        return new LocationPoint(location.getLatitude(), location.getLongitude(),
+            location.getSpeedKmh() != null ? location.getSpeedKmh() : 0f, location.getRecordedAt());
+    }
 
-            if (tracker.getVehicle() == null) {
-                throw new RuntimeException(String.format("Tracker %s not assigned to a vehicle", deviceId));
-            }
-            return tracker.getVehicle().getVehicleId();
-        } catch (Exception e) {
+    public String findVehicleIdForDevice(String deviceId) {
+        // Served from the state store; the database is only read the first time a device is seen
+        String vehicleId = vehicleStateStore.findVehicleId(deviceId);
+        if (vehicleId == null) {
 //            return a dummy id
             return "VEH_"+deviceId;
         }
+        return vehicleId;
     }
 }
\ No newline at end of file
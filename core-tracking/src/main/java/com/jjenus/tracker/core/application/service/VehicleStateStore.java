@@ -0,0 +1,184 @@
+package com.jjenus.tracker.core.application.service;
+
+import com.jjenus.tracker.core.domain.enums.EngineState;
+import com.jjenus.tracker.core.infrastructure.repository.TrackerRepository;
+import com.jjenus.tracker.core.infrastructure.repository.TripRepository;
+import com.jjenus.tracker.core.infrastructure.repository.VehicleRepository;
+import com.jjenus.tracker.shared.domain.LocationPoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Resident device to vehicle index and live vehicle state, kept outside JPA so the
+ * location path does not touch the database. Warmed from projection queries at
+ * startup, kept coherent by assignment-change events and by the trip and engine
+ * updates made through {@link VehicleService}. A device seen for the first time is
+ * looked up once and the answer remembered; "not assigned" only for unassigned-ttl-ms,
+ * so a device assigned without an event (e.g. directly in the database) is picked up.
+ */
+@Component
+public class VehicleStateStore {
+    private static final Logger logger = LoggerFactory.getLogger(VehicleStateStore.class);
+
+    private static final EngineState[] ENGINE_STATES = EngineState.values();
+
+    private final TrackerRepository trackerRepository;
+    private final VehicleRepository vehicleRepository;
+    private final TripRepository tripRepository;
+    private final long unassignedTtlMs;
+    private final LongSupplier clock;
+
+    // A null vehicle id remembers "looked up, not assigned" so unassigned devices do not query on every fix
+    private final Map<String, Assignment> vehicleByDevice = new ConcurrentHashMap<>();
+    private final Map<String, State> states = new ConcurrentHashMap<>();
+
+    @Autowired
+    public VehicleStateStore(TrackerRepository trackerRepository,
+                             VehicleRepository vehicleRepository,
+                             TripRepository tripRepository,
+                             @Value("${tracking.vehicle-state.unassigned-ttl-ms:60000}") long unassignedTtlMs) {
+        this(trackerRepository, vehicleRepository, tripRepository, unassignedTtlMs, System::currentTimeMillis);
+    }
+
+    VehicleStateStore(TrackerRepository trackerRepository,
+                      VehicleRepository vehicleRepository,
+                      TripRepository tripRepository,
+                      long unassignedTtlMs,
+                      LongSupplier clock) {
+        this.trackerRepository = trackerRepository;
+        this.vehicleRepository = vehicleRepository;
+        this.tripRepository = tripRepository;
+        this.unassignedTtlMs = unassignedTtlMs;
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        for (Object[] row : trackerRepository.findDeviceVehicleAssignments()) {
+            vehicleByDevice.put((String) row[0], new Assignment((String) row[1], 0));
+        }
+        for (Object[] row : vehicleRepository.findEngineStates()) {
+            if (row[1] != null) {
+                stateOf((String) row[0]).engineState = (byte) ((EngineState) row[1]).ordinal();
+            }
+        }
+        for (Object[] row : tripRepository.findActiveTripIds()) {
+            stateOf((String) row[0]).activeTripId = (String) row[1];
+        }
+        logger.info("Vehicle state store warmed with {} device assignments and {} vehicles",
+                vehicleByDevice.size(), states.size());
+    }
+
+    /**
+     * Vehicle the device is assigned to, or null when it is unassigned or unknown.
+     */
+    public String findVehicleId(String deviceId) {
+        long now = clock.getAsLong();
+        Assignment assignment = vehicleByDevice.get(deviceId);
+        if (assignment == null || isStale(assignment, now)) {
+            assignment = load(deviceId, now);
+        }
+        return assignment != null ? assignment.vehicleId() : null;
+    }
+
+    public void applyAssignment(String deviceId, String vehicleId) {
+        vehicleByDevice.put(deviceId, new Assignment(vehicleId, clock.getAsLong()));
+        logger.debug("Device {} is now assigned to {}", deviceId, vehicleId);
+    }
+
+    /**
+     * Records a fix unless the vehicle already holds a newer one.
+     */
+    public void recordFix(String vehicleId, LocationPoint location) {
+        if (location == null || location.timestamp() == null) {
+            return;
+        }
+        State state = stateOf(vehicleId);
+        long fixMillis = location.timestamp().toEpochMilli();
+        synchronized (state) {
+            if (fixMillis >= state.fixMillis) {
+                state.fixMillis = fixMillis;
+                state.latitude = location.latitude();
+                state.longitude = location.longitude();
+                state.speedKmh = location.speedKmh();
+            }
+        }
+    }
+
+    public void recordEngineState(String vehicleId, EngineState engineState) {
+        stateOf(vehicleId).engineState = engineState != null ? (byte) engineState.ordinal() : -1;
+    }
+
+    public void recordActiveTrip(String vehicleId, String tripId) {
+        stateOf(vehicleId).activeTripId = tripId;
+    }
+
+    public Optional<VehicleSnapshot> getState(String vehicleId) {
+        State state = states.get(vehicleId);
+        return state != null ? Optional.of(state.snapshot(vehicleId)) : Optional.empty();
+    }
+
+    public int getDeviceCount() {
+        return vehicleByDevice.size();
+    }
+
+    private Assignment load(String deviceId, long now) {
+        try {
+            // compute so an assignment event arriving meanwhile is applied after, not lost
+            return vehicleByDevice.compute(deviceId, (id, current) -> current != null && !isStale(current, now)
+                    ? current
+                    : new Assignment(trackerRepository.findVehicleIdByDeviceId(id).orElse(null), now));
+        } catch (Exception e) {
+            logger.warn("Failed to look up vehicle for device {}", deviceId, e);
+            return null;
+        }
+    }
+
+    private boolean isStale(Assignment assignment, long now) {
+        return assignment.vehicleId() == null && now - assignment.checkedAtMillis() >= unassignedTtlMs;
+    }
+
+    private State stateOf(String vehicleId) {
+        return states.computeIfAbsent(vehicleId, id -> new State());
+    }
+
+    /**
+     * Point-in-time copy of a vehicle's live state; fields are null until first known.
+     */
+    public record VehicleSnapshot(
+        String vehicleId,
+        LocationPoint lastFix,
+        EngineState engineState,
+        String activeTripId
+    ) {}
+
+    private record Assignment(String vehicleId, long checkedAtMillis) {
+    }
+
+    private static final class State {
+        private long fixMillis = Long.MIN_VALUE;
+        private double latitude;
+        private double longitude;
+        private float speedKmh;
+        private volatile byte engineState = -1;
+        private volatile String activeTripId;
+
+        private synchronized VehicleSnapshot snapshot(String vehicleId) {
+            LocationPoint lastFix = fixMillis == Long.MIN_VALUE ? null
+                    : new LocationPoint(latitude, longitude, speedKmh, Instant.ofEpochMilli(fixMillis));
+            byte engine = engineState;
+            return new VehicleSnapshot(vehicleId, lastFix, engine >= 0 ? ENGINE_STATES[engine] : null, activeTripId);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.jjenus.tracker.core.domain;
+
+import com.jjenus.tracker.shared.domain.LocationPoint;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Packs route points into a byte blob: 6-8 bytes a point for fixes seconds apart, plus
+ * about 18 bytes for the absolute first point and header of each chunk, so points are
+ * best appended many at a time.
+ * <p>
+ * A blob is a sequence of chunks, so a route can be extended by appending a chunk
+ * without touching what is stored. Each chunk is a version byte, a varint point
+ * count and then the points. The first point of a chunk is absolute, every other one
+ * a delta from its predecessor. A point is four zigzag varints: latitude and
+ * longitude in micro-degrees, time in epoch millis and speed in 0.1 km/h.
+ */
+public final class RouteCodec {
+    static final int VERSION = 1;
+
+    private static final double DEGREE_SCALE = 1e6;
+    private static final float SPEED_SCALE = 10f;
+
+    private RouteCodec() {
+    }
+
+    public static byte[] encode(List<LocationPoint> points) {
+        return append(null, points);
+    }
+
+    /**
+     * Returns {@code route} followed by a chunk holding {@code points}.
+     */
+    public static byte[] append(byte[] route, List<LocationPoint> points) {
+        if (points.isEmpty()) {
+            return route != null ? route : new byte[0];
+        }
+        int existing = route != null ? route.length : 0;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(existing + 2 + points.size() * 9);
+        if (existing > 0) {
+            out.write(route, 0, existing);
+        }
+        out.write(VERSION);
+        writeVarint(out, points.size());
+        long lat = 0;
+        long lon = 0;
+        long time = 0;
+        long speed = 0;
+        for (LocationPoint point : points) {
+            long pointLat = Math.round(point.latitude() * DEGREE_SCALE);
+            long pointLon = Math.round(point.longitude() * DEGREE_SCALE);
+            long pointTime = point.timestamp().toEpochMilli();
+            long pointSpeed = Math.round(point.speedKmh() * SPEED_SCALE);
+            writeSigned(out, pointLat - lat);
+            writeSigned(out, pointLon - lon);
+            writeSigned(out, pointTime - time);
+            writeSigned(out, pointSpeed - speed);
+            lat = pointLat;
+            lon = pointLon;
+            time = pointTime;
+            speed = pointSpeed;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes points lazily, oldest chunk first.
+     */
+    public static Iterator<LocationPoint> iterator(byte[] route) {
+        return new Decoder(route != null ? route : new byte[0]);
+    }
+
+    public static Stream<LocationPoint> stream(byte[] route) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(route),
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE), false);
+    }
+
+    public static List<LocationPoint> decode(byte[] route) {
+        List<LocationPoint> points = new ArrayList<>();
+        iterator(route).forEachRemaining(points::add);
+        return points;
+    }
+
+    private static void writeSigned(ByteArrayOutputStream out, long value) {
+        writeVarint(out, (value << 1) ^ (value >> 63));
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static final class Decoder implements Iterator<LocationPoint> {
+        private final byte[] data;
+        private int position;
+        private long remainingInChunk;
+        private long lat;
+        private long lon;
+        private long time;
+        private long speed;
+
+        private Decoder(byte[] data) {
+            this.data = data;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (remainingInChunk == 0 && position < data.length) {
+                int version = data[position++] & 0xFF;
+                if (version != VERSION) {
+                    throw new IllegalArgumentException("Unsupported route chunk version " + version
+                            + " at byte " + (position - 1));
+                }
+                remainingInChunk = readVarint();
+                lat = 0;
+                lon = 0;
+                time = 0;
+                speed = 0;
+            }
+            return remainingInChunk > 0;
+        }
+
+        @Override
+        public LocationPoint next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lat += readSigned();
+            lon += readSigned();
+            time += readSigned();
+            speed += readSigned();
+            remainingInChunk--;
+            return new LocationPoint(lat / DEGREE_SCALE, lon / DEGREE_SCALE, speed / SPEED_SCALE,
+                    Instant.ofEpochMilli(time));
+        }
+
+        private long readSigned() {
+            long raw = readVarint();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        private long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= data.length) {
+                    throw new IllegalArgumentException("Route data truncated at byte " + position);
+                }
+                byte b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint ending at byte " + position);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.jjenus.tracker.core.domain;
+
+import com.jjenus.tracker.shared.domain.LocationPoint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Douglas-Peucker route simplification with precomputed level-of-detail tiers.
+ * <p>
+ * One pass records, for every point, the largest tolerance at which Douglas-Peucker
+ * would still keep it (its own split distance, capped by those of the ranges that
+ * contain it). Simplifying at any tolerance is then a filter, and the tiers nest:
+ * every point of a coarse tier is also in the finer ones. Distances are measured
+ * on a local equirectangular projection, which is accurate to well under a metre
+ * over the extent of a trip.
+ */
+public final class RouteSimplifier {
+    private static final double EARTH_RADIUS_METERS = 6_371_000;
+
+    // Level k keeps points that matter at TIER_TOLERANCES_METERS[k - 1]; level 0 is every point
+    private static final double[] TIER_TOLERANCES_METERS = {5, 25, 100, 500};
+
+    private RouteSimplifier() {
+    }
+
+    public static int maxLevel() {
+        return TIER_TOLERANCES_METERS.length;
+    }
+
+    public static double toleranceMeters(int level) {
+        return level == 0 ? 0 : TIER_TOLERANCES_METERS[level - 1];
+    }
+
+    public static List<LocationPoint> simplify(List<LocationPoint> points, double toleranceMeters) {
+        double[] significance = significance(points);
+        List<LocationPoint> kept = new ArrayList<>();
+        for (int i = 0; i < significance.length; i++) {
+            if (significance[i] > toleranceMeters) {
+                kept.add(points.get(i));
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * The coarsest level each point belongs to, one byte per point.
+     */
+    public static byte[] levels(List<LocationPoint> points) {
+        double[] significance = significance(points);
+        byte[] levels = new byte[significance.length];
+        for (int i = 0; i < significance.length; i++) {
+            int level = 0;
+            while (level < TIER_TOLERANCES_METERS.length && significance[i] > TIER_TOLERANCES_METERS[level]) {
+                level++;
+            }
+            levels[i] = (byte) level;
+        }
+        return levels;
+    }
+
+    public static List<LocationPoint> atLevel(List<LocationPoint> points, byte[] levels, int level) {
+        if (level < 0 || level > maxLevel()) {
+            throw new IllegalArgumentException("Level must be between 0 and " + maxLevel() + ", got " + level);
+        }
+        List<LocationPoint> kept = new ArrayList<>();
+        for (int i = 0; i < levels.length; i++) {
+            if (levels[i] >= level) {
+                kept.add(points.get(i));
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Tolerance in metres below which each point survives simplification; endpoints
+     * always survive.
+     */
+    static double[] significance(List<LocationPoint> points) {
+        int n = points.size();
+        double[] significance = new double[n];
+        if (n == 0) {
+            return significance;
+        }
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double cosLat = Math.cos(Math.toRadians(points.get(0).latitude()));
+        for (int i = 0; i < n; i++) {
+            LocationPoint point = points.get(i);
+            x[i] = Math.toRadians(point.longitude()) * cosLat * EARTH_RADIUS_METERS;
+            y[i] = Math.toRadians(point.latitude()) * EARTH_RADIUS_METERS;
+        }
+        significance[0] = Double.POSITIVE_INFINITY;
+        significance[n - 1] = Double.POSITIVE_INFINITY;
+
+        // Stack of ranges still to split: start/end pairs, and the cap inherited from the enclosing range
+        int[] ranges = new int[64];
+        double[] caps = new double[32];
+        int depth = 0;
+        ranges[0] = 0;
+        ranges[1] = n - 1;
+        caps[0] = Double.POSITIVE_INFINITY;
+        depth++;
+        while (depth > 0) {
+            depth--;
+            int start = ranges[2 * depth];
+            int end = ranges[2 * depth + 1];
+            double cap = caps[depth];
+            if (end - start < 2) {
+                continue;
+            }
+            int farthest = -1;
+            double maxDistance = -1;
+            for (int i = start + 1; i < end; i++) {
+                double distance = segmentDistanceSquared(x[i], y[i], x[start], y[start], x[end], y[end]);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    farthest = i;
+                }
+            }
+            double split = Math.min(Math.sqrt(maxDistance), cap);
+            significance[farthest] = split;
+            if (2 * (depth + 2) > ranges.length) {
+                ranges = Arrays.copyOf(ranges, ranges.length * 2);
+                caps = Arrays.copyOf(caps, caps.length * 2);
+            }
+            ranges[2 * depth] = start;
+            ranges[2 * depth + 1] = farthest;
+            caps[depth++] = split;
+            ranges[2 * depth] = farthest;
+            ranges[2 * depth + 1] = end;
+            caps[depth++] = split;
+        }
+        return significance;
+    }
+
+    private static double segmentDistanceSquared(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : ((px - ax) * dx + (py - ay) * dy) / lengthSquared;
+        t = Math.max(0, Math.min(1, t));
+        double ex = px - (ax + t * dx);
+        double ey = py - (ay + t * dy);
+        return ex * ex + ey * ey;
+    }
+}
@@ -69,6 +69,9 @@ public class Trip {
     public List<LocationPoint> getRoutePoints() {
         return Collections.unmodifiableList(routePoints);
     }
+    public List<LocationPoint> getSimplifiedRoute(double toleranceMeters) {
+        return RouteSimplifier.simplify(routePoints, toleranceMeters);
+    }
     public float getTotalDistance() { return totalDistance; }
     public boolean isActive() { return endTime == null; }
 
@@ -0,0 +1,38 @@
+package com.jjenus.tracker.core.domain;
+
+import com.jjenus.tracker.shared.domain.LocationPoint;
+import com.jjenus.tracker.shared.pubsub.DomainEvent;
+
+public class TripEndedEvent extends DomainEvent {
+    private final String tripId;
+    private final String vehicleId;
+    private final LocationPoint startLocation;
+    private final LocationPoint endLocation;
+    private final float distanceKm;
+    private final float maxSpeedKmh;
+    private final float averageSpeedKmh;
+    private final long idleSeconds;
+    private final String endReason;
+
+    public TripEndedEvent(TripSummary summary) {
+        this.tripId = summary.tripId();
+        this.vehicleId = summary.vehicleId();
+        this.startLocation = summary.startLocation();
+        this.endLocation = summary.endLocation();
+        this.distanceKm = summary.distanceKm();
+        this.maxSpeedKmh = summary.maxSpeedKmh();
+        this.averageSpeedKmh = summary.averageSpeedKmh();
+        this.idleSeconds = summary.idleTime().getSeconds();
+        this.endReason = summary.endReason().name();
+    }
+
+    public String getTripId() { return tripId; }
+    public String getVehicleId() { return vehicleId; }
+    public LocationPoint getStartLocation() { return startLocation; }
+    public LocationPoint getEndLocation() { return endLocation; }
+    public float getDistanceKm() { return distanceKm; }
+    public float getMaxSpeedKmh() { return maxSpeedKmh; }
+    public float getAverageSpeedKmh() { return averageSpeedKmh; }
+    public long getIdleSeconds() { return idleSeconds; }
+    public String getEndReason() { return endReason; }
+}
@@ -0,0 +1,20 @@
+package com.jjenus.tracker.core.domain;
+
+import com.jjenus.tracker.shared.domain.LocationPoint;
+import com.jjenus.tracker.shared.pubsub.DomainEvent;
+
+public class TripStartedEvent extends DomainEvent {
+    private final String tripId;
+    private final String vehicleId;
+    private final LocationPoint startLocation;
+
+    public TripStartedEvent(String tripId, String vehicleId, LocationPoint startLocation) {
+        this.tripId = tripId;
+        this.vehicleId = vehicleId;
+        this.startLocation = startLocation;
+    }
+
+    public String getTripId() { return tripId; }
+    public String getVehicleId() { return vehicleId; }
+    public LocationPoint getStartLocation() { return startLocation; }
+}
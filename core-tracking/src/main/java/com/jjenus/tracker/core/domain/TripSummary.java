@@ -0,0 +1,31 @@
+package com.jjenus.tracker.core.domain;
+
+import com.jjenus.tracker.core.domain.enums.TripEndReason;
+import com.jjenus.tracker.shared.domain.LocationPoint;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * A finished trip as produced by the trip detector: totals plus a down-sampled route.
+ */
+public record TripSummary(
+    String tripId,
+    String vehicleId,
+    LocationPoint startLocation,
+    LocationPoint endLocation,
+    float distanceKm,
+    float maxSpeedKmh,
+    Duration idleTime,
+    TripEndReason endReason,
+    List<LocationPoint> route
+) {
+    public Duration duration() {
+        return Duration.between(startLocation.timestamp(), endLocation.timestamp());
+    }
+
+    public float averageSpeedKmh() {
+        long millis = duration().toMillis();
+        return millis > 0 ? (float) (distanceKm / (millis / 3_600_000.0)) : 0.0f;
+    }
+}
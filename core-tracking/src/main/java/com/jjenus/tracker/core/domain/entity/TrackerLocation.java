@@ -6,9 +6,13 @@ import java.time.Instant;
 @Entity
 @Table(name = "tracker_location_data")
 public class TrackerLocation {
+    // Ids come in blocks so both JPA and the batch writer can insert without a round trip per row
+    public static final String ID_SEQUENCE = "tracker_location_seq";
+    public static final int ID_ALLOCATION_SIZE = 1000;
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     @Column(name = "location_id")
     private Long locationId;
     
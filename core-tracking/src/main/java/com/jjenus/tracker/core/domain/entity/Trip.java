@@ -1,17 +1,24 @@
 package com.jjenus.tracker.core.domain.entity;
 
+import com.jjenus.tracker.core.domain.RouteCodec;
+import com.jjenus.tracker.core.domain.RouteSimplifier;
 import com.jjenus.tracker.core.domain.enums.TripEndReason;
 import com.jjenus.tracker.core.domain.enums.TripStartReason;
+import com.jjenus.tracker.shared.domain.LocationPoint;
 import jakarta.persistence.*;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Entity
 @Table(name = "trips")
 public class Trip {
     
+    // Points buffered by addLocationPoint before they are appended as one chunk
+    private static final int ROUTE_CHUNK_POINTS = 64;
+    
     @Id
     @Column(name = "trip_id", length = 50)
     private String tripId;
@@ -63,6 +70,24 @@ public class Trip {
     @Column(name = "is_active")
     private Boolean isActive = true;
     
+    // Route points packed by RouteCodec, one chunk per append
+    @Column(name = "route_data", columnDefinition = "BYTEA")
+    private byte[] routeData;
+    
+    // Points added one at a time, appended to routeData as a chunk once enough are
+    // buffered and before the trip is saved
+    @Transient
+    private final List<LocationPoint> pendingRoute = new ArrayList<>();
+    
+    // Last point of the route, so extending it does not decode routeData
+    @Transient
+    private LocationPoint lastRoutePoint;
+    
+    // RouteSimplifier level per point of routeData; stale once points are appended
+    @Column(name = "route_levels", columnDefinition = "BYTEA")
+    private byte[] routeLevels;
+    
+    // Per-fix rows of trips recorded before route_data; new points only go to routeData
     @OneToMany(mappedBy = "trip", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("pointOrder ASC")
     private List<TripPoint> tripPoints = new ArrayList<>();
@@ -73,20 +98,29 @@ public class Trip {
     @Column(name = "updated_at")
     private Instant updatedAt = Instant.now();
     
+    @PrePersist
+    protected void onCreate() {
+        flushPendingRoute();
+    }
+    
     @PreUpdate
     protected void onUpdate() {
+        flushPendingRoute();
         this.updatedAt = Instant.now();
     }
     
     // Business methods
     public void addLocationPoint(TrackerLocation location, Float segmentDistance) {
-        TripPoint tripPoint = new TripPoint();
-        tripPoint.setTrip(this);
-        tripPoint.setLocation(location);
-        tripPoint.setPointOrder(tripPoints.size() + 1);
-        tripPoint.setSegmentDistanceKm(segmentDistance);
-        
-        tripPoints.add(tripPoint);
+        LocationPoint point = toPoint(location);
+        if (point != null) {
+            pendingRoute.add(point);
+            lastRoutePoint = point;
+            if (pendingRoute.size() >= ROUTE_CHUNK_POINTS) {
+                flushPendingRoute();
+            }
+            // Marks the trip dirty so the pre-update hook writes the buffered points
+            this.updatedAt = Instant.now();
+        }
         
         // Update total distance
         this.totalDistanceKm += segmentDistance;
@@ -98,6 +132,49 @@ public class Trip {
         }
     }
     
+    /**
+     * Appends the points to the encoded route as a single chunk.
+     */
+    public void appendRoute(List<LocationPoint> points) {
+        flushPendingRoute();
+        this.routeData = RouteCodec.append(routeData, points);
+        if (!points.isEmpty()) {
+            lastRoutePoint = points.get(points.size() - 1);
+        }
+    }
+    
+    /**
+     * Precomputes the level-of-detail tiers of the route as stored now.
+     */
+    public void computeRouteLevels() {
+        this.routeLevels = RouteSimplifier.levels(RouteCodec.decode(getRouteData()));
+    }
+    
+    /**
+     * Route at a RouteSimplifier level, 0 being every point. Levels are recomputed
+     * when points were appended since they were stored.
+     */
+    public List<LocationPoint> getRoute(int level) {
+        List<LocationPoint> points = RouteCodec.decode(getRouteData());
+        byte[] levels = routeLevels != null && routeLevels.length == points.size()
+            ? routeLevels : RouteSimplifier.levels(points);
+        return RouteSimplifier.atLevel(points, levels, level);
+    }
+    
+    /**
+     * Decodes the route lazily, for replay without materialising every point.
+     */
+    public Stream<LocationPoint> streamRoute() {
+        return RouteCodec.stream(getRouteData());
+    }
+    
+    private void flushPendingRoute() {
+        if (!pendingRoute.isEmpty()) {
+            this.routeData = RouteCodec.append(routeData, pendingRoute);
+            pendingRoute.clear();
+        }
+    }
+    
     public void endTrip(TripEndReason reason, TrackerLocation endLocation) {
         this.endTime = endLocation.getRecordedAt();
         this.endLocation = endLocation;
@@ -109,7 +186,7 @@ public class Trip {
         
         // Add final location point
         if (endLocation != null) {
-            TrackerLocation lastLocation = getLastLocationPoint();
+            LocationPoint lastLocation = getLastLocationPoint();
             if (lastLocation != null) {
                 Float segmentDistance = calculateDistance(lastLocation, endLocation);
                 addLocationPoint(endLocation, segmentDistance);
@@ -128,14 +205,25 @@ public class Trip {
         }
     }
     
-    private TrackerLocation getLastLocationPoint() {
-        return tripPoints.isEmpty() ? null : 
-               tripPoints.get(tripPoints.size() - 1).getLocation();
+    private LocationPoint getLastLocationPoint() {
+        if (lastRoutePoint == null && routeData != null) {
+            // Trip loaded from the database: decode once
+            lastRoutePoint = RouteCodec.stream(routeData).reduce((first, second) -> second).orElse(null);
+        }
+        return lastRoutePoint;
     }
     
-    private Float calculateDistance(TrackerLocation loc1, TrackerLocation loc2) {
-        // Simplified distance calculation (Haversine formula would be better)
-        return 0.0f; // Implement actual distance calculation
+    private Float calculateDistance(LocationPoint from, TrackerLocation to) {
+        LocationPoint point = toPoint(to);
+        return point != null ? (float) from.distanceTo(point) : 0.0f;
+    }
+    
+    private static LocationPoint toPoint(TrackerLocation location) {
+        if (location.getLatitude() == null || location.getLongitude() == null || location.getRecordedAt() == null) {
+            return null;
+        }
+        float speed = location.getSpeedKmh() != null ? location.getSpeedKmh() : 0.0f;
+        return new LocationPoint(location.getLatitude(), location.getLongitude(), speed, location.getRecordedAt());
     }
     
     public Duration getDuration() {
@@ -201,6 +289,19 @@ public class Trip {
     public Integer getIdleTimeMinutes() { return idleTimeMinutes; }
     public void setIdleTimeMinutes(Integer idleTimeMinutes) { this.idleTimeMinutes = idleTimeMinutes; }
     
+    public byte[] getRouteData() {
+        flushPendingRoute();
+        return routeData;
+    }
+    public void setRouteData(byte[] routeData) {
+        pendingRoute.clear();
+        this.routeData = routeData;
+        this.lastRoutePoint = null;
+    }
+    
+    public byte[] getRouteLevels() { return routeLevels; }
+    public void setRouteLevels(byte[] routeLevels) { this.routeLevels = routeLevels; }
+    
     public Float getFuelConsumedLiters() { return fuelConsumedLiters; }
     public void setFuelConsumedLiters(Float fuelConsumedLiters) { this.fuelConsumedLiters = fuelConsumedLiters; }
 }
\ No newline at end of file
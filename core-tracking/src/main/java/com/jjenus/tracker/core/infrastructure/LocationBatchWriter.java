@@ -0,0 +1,295 @@
+package com.jjenus.tracker.core.infrastructure;
+
+import com.jjenus.tracker.core.domain.entity.TrackerLocation;
+import com.jjenus.tracker.shared.domain.LocationPoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Persists location fixes to the {@link LocationHistoryStore} buckets with JDBC batch
+ * inserts instead of one JPA transaction per fix. Fixes are buffered and written by a single thread in
+ * batches of batch-size, or whatever arrived within max-delay-ms. Each batch is one
+ * transaction. While the database is unreachable a batch is retried until it commits;
+ * a batch the database keeps refusing is retried max-attempts times and then split in
+ * halves until the rows it refuses are isolated, logged and dropped. On shutdown the
+ * buffer is drained before the data source goes away. Enqueueing blocks for up to enqueue-timeout-ms
+ * when the buffer is full and then fails, so the caller's message is redelivered
+ * rather than dropped.
+ * <p>
+ * Ids are taken in blocks from the entity's sequence, the same way Hibernate's pooled
+ * optimizer does, so ids stay unique across tracker_location_data and the history
+ * buckets. The tracker is resolved by device id inside the insert; fixes from
+ * unregistered devices insert nothing, and fixes already past retention are skipped.
+ */
+@Component
+public class LocationBatchWriter implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(LocationBatchWriter.class);
+
+    static final String NEXT_ID_SQL = "SELECT nextval('" + TrackerLocation.ID_SEQUENCE + "')";
+
+    private static final long MAX_RETRY_DELAY_MS = 30_000;
+    private static final int SHUTDOWN_ATTEMPTS = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LocationHistoryStore historyStore;
+    private final TransactionOperations transactions;
+    private final BlockingQueue<PendingFix> buffer;
+    private final int batchSize;
+    private final long maxDelayMs;
+    private final long enqueueTimeoutMs;
+    private final int maxAttempts;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    // Current id block, only touched by the writer thread
+    private long nextId = 1;
+    private long lastId = 0;
+
+    @Autowired
+    public LocationBatchWriter(JdbcTemplate jdbcTemplate,
+                               LocationHistoryStore historyStore,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${tracking.locations.writer.batch-size:500}") int batchSize,
+                               @Value("${tracking.locations.writer.max-delay-ms:200}") long maxDelayMs,
+                               @Value("${tracking.locations.writer.buffer-capacity:100000}") int bufferCapacity,
+                               @Value("${tracking.locations.writer.enqueue-timeout-ms:1000}") long enqueueTimeoutMs,
+                               @Value("${tracking.locations.writer.max-attempts:5}") int maxAttempts) {
+        this(jdbcTemplate, historyStore, new TransactionTemplate(transactionManager),
+                batchSize, maxDelayMs, bufferCapacity, enqueueTimeoutMs, maxAttempts);
+    }
+
+    LocationBatchWriter(JdbcTemplate jdbcTemplate, LocationHistoryStore historyStore,
+                        TransactionOperations transactions, int batchSize, long maxDelayMs,
+                        int bufferCapacity, long enqueueTimeoutMs, int maxAttempts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.historyStore = historyStore;
+        this.transactions = transactions;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxDelayMs = Math.max(1, maxDelayMs);
+        this.enqueueTimeoutMs = enqueueTimeoutMs;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.buffer = new ArrayBlockingQueue<>(Math.max(this.batchSize, bufferCapacity));
+
+        this.writer = new Thread(this::run, "location-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Buffers a fix for writing; throws when the buffer stays full for enqueue-timeout-ms.
+     */
+    public void enqueue(String deviceId, LocationPoint location) {
+        if (deviceId == null || location == null || location.timestamp() == null) {
+            return;
+        }
+        boolean accepted;
+        try {
+            accepted = running && buffer.offer(new PendingFix(deviceId, location), enqueueTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if (!accepted) {
+            throw new IllegalStateException("Location buffer full, fix for device " + deviceId + " not accepted");
+        }
+    }
+
+    public int getBufferedCount() {
+        return buffer.size();
+    }
+
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    /**
+     * Fixes dropped because the database refused them on their own.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        if (!buffer.isEmpty()) {
+            logger.error("Shut down with {} location fixes not written", buffer.size());
+        }
+    }
+
+    private void run() {
+        List<PendingFix> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                PendingFix first = buffer.poll(maxDelayMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fill(batch);
+                writeWithRetry(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void fill(List<PendingFix> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        while (batch.size() < batchSize) {
+            buffer.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                return;
+            }
+            PendingFix next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void writeWithRetry(List<PendingFix> batch) throws InterruptedException {
+        // A row keeps the id it got first, so a rolled-back batch is retried with the same
+        // rows; bucket tables are looked up again on every attempt in case one was dropped
+        long[] ids = new long[batch.size()];
+        boolean[] done = new boolean[batch.size()];
+        long delayMs = 100;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                insert(batch, ids, done, 0, batch.size());
+                return;
+            } catch (RuntimeException e) {
+                if (!running && attempt >= SHUTDOWN_ATTEMPTS) {
+                    logger.error("Giving up on {} location fixes during shutdown", batch.size(), e);
+                    return;
+                }
+                if (!isUnavailable(e) && attempt >= maxAttempts) {
+                    logger.warn("Failed to write {} location fixes after {} attempts, isolating the rejected ones",
+                            batch.size(), attempt, e);
+                    try {
+                        isolate(batch, ids, done, 0, batch.size());
+                        return;
+                    } catch (RuntimeException unavailable) {
+                        // The database went away while splitting; retry what is left
+                        e = unavailable;
+                    }
+                }
+                logger.warn("Failed to write {} location fixes (attempt {}), retrying in {} ms",
+                        batch.size(), attempt, delayMs, e);
+                Thread.sleep(delayMs);
+                delayMs = Math.min(delayMs * 2, MAX_RETRY_DELAY_MS);
+            }
+        }
+    }
+
+    /**
+     * Writes the range in halves until the rows the database refuses are on their own, then
+     * drops those. Throws if the database becomes unreachable, leaving the rest undone.
+     */
+    private void isolate(List<PendingFix> batch, long[] ids, boolean[] done, int from, int to) {
+        try {
+            insert(batch, ids, done, from, to);
+        } catch (RuntimeException e) {
+            if (isUnavailable(e)) {
+                throw e;
+            }
+            if (to - from == 1) {
+                PendingFix fix = batch.get(from);
+                done[from] = true;
+                rejected.increment();
+                logger.error("Dropping location fix of device {} at {}: {}",
+                        fix.deviceId(), fix.location().timestamp(), e.getMessage());
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            isolate(batch, ids, done, from, mid);
+            isolate(batch, ids, done, mid, to);
+        }
+    }
+
+    private void insert(List<PendingFix> batch, long[] ids, boolean[] done, int from, int to) {
+        Map<String, List<Object[]>> byTable = toRows(batch, ids, done, from, to);
+        if (!byTable.isEmpty()) {
+            transactions.executeWithoutResult(status -> byTable.forEach((table, args) ->
+                    jdbcTemplate.batchUpdate(LocationHistoryStore.insertSql(table), args)));
+            byTable.values().forEach(args -> written.add(args.size()));
+        }
+        Arrays.fill(done, from, to, true);
+    }
+
+    private Map<String, List<Object[]>> toRows(List<PendingFix> batch, long[] ids, boolean[] done, int from, int to) {
+        // Bucket tables are created here, outside the insert transaction
+        Map<String, List<Object[]>> rows = new LinkedHashMap<>();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (int i = from; i < to; i++) {
+            if (done[i]) {
+                continue;
+            }
+            PendingFix fix = batch.get(i);
+            LocationPoint location = fix.location();
+            String table = historyStore.tableFor(location.timestamp());
+            if (table == null) {
+                logger.debug("Skipping fix of device {} at {}, past retention", fix.deviceId(), location.timestamp());
+                continue;
+            }
+            if (ids[i] == 0) {
+                ids[i] = allocateId();
+            }
+            rows.computeIfAbsent(table, t -> new ArrayList<>()).add(new Object[]{ids[i],
+                    location.latitude(), location.longitude(), location.speedKmh(),
+                    Timestamp.from(location.timestamp()), now, fix.deviceId()});
+        }
+        return rows;
+    }
+
+    private static boolean isUnavailable(RuntimeException e) {
+        return e instanceof DataAccessResourceFailureException
+                || e instanceof TransientDataAccessException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    private long allocateId() {
+        if (nextId > lastId) {
+            // Pooled semantics: sequence value v owns ids (v - allocationSize, v]
+            Long hi = jdbcTemplate.queryForObject(NEXT_ID_SQL, Long.class);
+            if (hi == null) {
+                throw new IllegalStateException("Sequence " + TrackerLocation.ID_SEQUENCE + " returned no value");
+            }
+            nextId = Math.max(1, hi - TrackerLocation.ID_ALLOCATION_SIZE + 1);
+            lastId = hi;
+        }
+        return nextId++;
+    }
+
+    private record PendingFix(String deviceId, LocationPoint location) {}
+}
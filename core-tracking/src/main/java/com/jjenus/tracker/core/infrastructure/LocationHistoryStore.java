@@ -0,0 +1,265 @@
+package com.jjenus.tracker.core.infrastructure;
+
+import com.jjenus.tracker.shared.domain.LocationPoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Location history split into one table per time bucket (bucket-days UTC days, so 1
+ * for daily and 7 for weekly buckets), e.g. tracker_location_history_20240101_1d.
+ * Within a bucket rows are indexed by (tracker_id, recorded_at), so a tracker's range
+ * is one index range scan. Range queries only touch the buckets they overlap, the
+ * latest fix is searched newest bucket first up to a bounded run of empty buckets,
+ * and retention drops whole tables instead of deleting rows.
+ * <p>
+ * Buckets are discovered from the catalog, so tables created by other nodes or with
+ * a different bucket size are still found; the retention job refreshes that view.
+ */
+@Component
+public class LocationHistoryStore {
+    private static final Logger logger = LoggerFactory.getLogger(LocationHistoryStore.class);
+
+    static final String TABLE_PREFIX = "tracker_location_history_";
+    private static final Pattern TABLE_NAME = Pattern.compile(TABLE_PREFIX + "(\\d{8})_(\\d+)d");
+    private static final DateTimeFormatter DAY = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static final String COLUMNS = "h.latitude, h.longitude, h.speed_kmh, h.recorded_at";
+    private static final RowMapper<LocationPoint> LOCATION_MAPPER = (rs, rowNum) -> new LocationPoint(
+            rs.getDouble("latitude"), rs.getDouble("longitude"), rs.getFloat("speed_kmh"),
+            rs.getTimestamp("recorded_at").toInstant());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int bucketDays;
+    private final int retentionDays;
+    private final int maxEmptyBuckets;
+    private final Clock clock;
+    private final NavigableMap<LocalDate, Bucket> buckets = new ConcurrentSkipListMap<>();
+    private volatile boolean discovered;
+
+    @Autowired
+    public LocationHistoryStore(JdbcTemplate jdbcTemplate,
+                                @Value("${tracking.locations.history.bucket-days:1}") int bucketDays,
+                                @Value("${tracking.locations.history.retention-days:90}") int retentionDays,
+                                @Value("${tracking.locations.history.latest-max-empty-buckets:14}") int maxEmptyBuckets) {
+        this(jdbcTemplate, bucketDays, retentionDays, maxEmptyBuckets, Clock.systemUTC());
+    }
+
+    LocationHistoryStore(JdbcTemplate jdbcTemplate, int bucketDays, int retentionDays, int maxEmptyBuckets,
+                         Clock clock) {
+        if (bucketDays < 1 || retentionDays < 1) {
+            throw new IllegalArgumentException("Bucket and retention must be at least one day, got "
+                    + bucketDays + " and " + retentionDays);
+        }
+        if (maxEmptyBuckets < 1) {
+            throw new IllegalArgumentException("Latest-fix search must cover at least one bucket, got "
+                    + maxEmptyBuckets);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.bucketDays = bucketDays;
+        this.retentionDays = retentionDays;
+        this.maxEmptyBuckets = maxEmptyBuckets;
+        this.clock = clock;
+    }
+
+    static String insertSql(String table) {
+        return "INSERT INTO " + table + " (location_id, tracker_id, latitude, longitude, speed_kmh, " +
+               "recorded_at, created_at) " +
+               "SELECT ?, t.tracker_id, ?, ?, ?, ?, ? FROM trackers t WHERE t.device_id = ?";
+    }
+
+    /**
+     * Table holding fixes recorded at {@code recordedAt}, created on first use. Returns
+     * null when the fix is already past retention.
+     */
+    public String tableFor(Instant recordedAt) {
+        LocalDate day = LocalDate.ofInstant(recordedAt, ZoneOffset.UTC);
+        if (!day.isAfter(retentionCutoff())) {
+            return null;
+        }
+        discover();
+        Bucket existing = bucketContaining(day);
+        if (existing != null) {
+            return existing.table();
+        }
+        LocalDate start = LocalDate.ofEpochDay(Math.floorDiv(day.toEpochDay(), bucketDays) * bucketDays);
+        return buckets.computeIfAbsent(start, this::createBucket).table();
+    }
+
+    /**
+     * Fixes of the tracker in [start, end], oldest first.
+     */
+    public List<LocationPoint> findByTrackerAndTimeRange(String trackerId, Instant start, Instant end) {
+        discover();
+        LocalDate lastDay = LocalDate.ofInstant(end, ZoneOffset.UTC);
+        List<LocationPoint> result = new ArrayList<>();
+        int touched = 0;
+        for (Bucket bucket : buckets.headMap(lastDay, true).values()) {
+            if (!bucket.end().isAfter(start)) {
+                continue;
+            }
+            touched++;
+            result.addAll(query(bucket,
+                    "SELECT " + COLUMNS + " FROM " + bucket.table() + " h " +
+                    "WHERE h.tracker_id = ? AND h.recorded_at BETWEEN ? AND ? ORDER BY h.recorded_at",
+                    trackerId, Timestamp.from(start), Timestamp.from(end)));
+        }
+        if (touched > 1) {
+            // Buckets of different sizes can overlap after a bucket-days change
+            result.sort(Comparator.comparing(LocationPoint::timestamp));
+        }
+        return result;
+    }
+
+    /**
+     * Newest fix of the device. The tracker is resolved once, then buckets are searched
+     * newest first. The search gives up after max-empty-buckets buckets in a row without
+     * a fix, so a silent device costs a bounded number of queries, not one per retained
+     * bucket.
+     */
+    public Optional<LocationPoint> findLatestByDeviceId(String deviceId) {
+        List<String> trackerIds = jdbcTemplate.queryForList(
+                "SELECT tracker_id FROM trackers WHERE device_id = ?", String.class, deviceId);
+        if (trackerIds.isEmpty()) {
+            return Optional.empty();
+        }
+        String trackerId = trackerIds.get(0);
+        discover();
+        int empty = 0;
+        for (Bucket bucket : buckets.descendingMap().values()) {
+            List<LocationPoint> latest = query(bucket,
+                    "SELECT " + COLUMNS + " FROM " + bucket.table() + " h " +
+                    "WHERE h.tracker_id = ? ORDER BY h.recorded_at DESC LIMIT 1",
+                    trackerId);
+            if (!latest.isEmpty()) {
+                return Optional.of(latest.get(0));
+            }
+            if (++empty >= maxEmptyBuckets) {
+                break;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Drops buckets that ended before the retention window and picks up buckets
+     * created elsewhere.
+     */
+    @Scheduled(fixedDelayString = "${tracking.locations.history.retention-check-interval-ms:3600000}")
+    public int dropExpiredBuckets() {
+        discovered = false;
+        discover();
+        LocalDate cutoff = retentionCutoff();
+        int dropped = 0;
+        for (Bucket bucket : buckets.values()) {
+            if (bucket.endDay().isAfter(cutoff.plusDays(1))) {
+                continue;
+            }
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + bucket.table());
+            buckets.remove(bucket.start());
+            dropped++;
+            logger.info("Dropped location history bucket {}", bucket.table());
+        }
+        return dropped;
+    }
+
+    public int getBucketCount() {
+        discover();
+        return buckets.size();
+    }
+
+    private LocalDate retentionCutoff() {
+        return LocalDate.now(clock).minusDays(retentionDays);
+    }
+
+    private Bucket bucketContaining(LocalDate day) {
+        Map.Entry<LocalDate, Bucket> floor = buckets.floorEntry(day);
+        return floor != null && floor.getValue().endDay().isAfter(day) ? floor.getValue() : null;
+    }
+
+    private Bucket createBucket(LocalDate start) {
+        Bucket bucket = new Bucket(start, bucketDays);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + bucket.table() + " (" +
+                "location_id BIGINT NOT NULL PRIMARY KEY, " +
+                "tracker_id VARCHAR(50) NOT NULL, " +
+                "latitude DOUBLE PRECISION, " +
+                "longitude DOUBLE PRECISION, " +
+                "speed_kmh REAL, " +
+                "recorded_at TIMESTAMP WITH TIME ZONE NOT NULL, " +
+                "created_at TIMESTAMP WITH TIME ZONE)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + bucket.table() + "_tracker_time ON "
+                + bucket.table() + " (tracker_id, recorded_at)");
+        logger.info("Created location history bucket {}", bucket.table());
+        return bucket;
+    }
+
+    private List<LocationPoint> query(Bucket bucket, String sql, Object... args) {
+        try {
+            return jdbcTemplate.query(sql, LOCATION_MAPPER, args);
+        } catch (DataAccessException e) {
+            // Most likely dropped by another node's retention job
+            logger.warn("Skipping location history bucket {}: {}", bucket.table(), e.getMessage());
+            buckets.remove(bucket.start(), bucket);
+            return List.of();
+        }
+    }
+
+    private void discover() {
+        if (discovered) {
+            return;
+        }
+        synchronized (this) {
+            if (discovered) {
+                return;
+            }
+            List<String> tables = jdbcTemplate.queryForList(
+                    "SELECT table_name FROM information_schema.tables WHERE LOWER(table_name) LIKE ?",
+                    String.class, TABLE_PREFIX + "%");
+            for (String table : tables) {
+                Matcher matcher = TABLE_NAME.matcher(table.toLowerCase(Locale.ROOT));
+                if (matcher.matches()) {
+                    Bucket bucket = new Bucket(LocalDate.parse(matcher.group(1), DAY), Integer.parseInt(matcher.group(2)));
+                    buckets.putIfAbsent(bucket.start(), bucket);
+                }
+            }
+            discovered = true;
+        }
+    }
+
+    record Bucket(LocalDate start, int days) {
+        String table() {
+            return TABLE_PREFIX + DAY.format(start) + "_" + days + "d";
+        }
+
+        LocalDate endDay() {
+            return start.plusDays(days);
+        }
+
+        Instant end() {
+            return endDay().atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+    }
+}
@@ -18,6 +18,8 @@ public interface TrackerLocationRepository extends JpaRepository<TrackerLocation
     
     Page<TrackerLocation> findByTrackerTrackerId(String trackerId, Pageable pageable);
     
+    // Only trip and current-location rows live here; streamed fixes are in LocationHistoryStore.
+    // Read through VehicleService#getLocationHistory and #getLatestLocation, which merge both
     @Query("SELECT tl FROM TrackerLocation tl WHERE tl.tracker.trackerId = :trackerId " +
            "AND tl.recordedAt BETWEEN :startTime AND :endTime " +
            "ORDER BY tl.recordedAt")
@@ -29,6 +29,13 @@ public interface TrackerRepository extends JpaRepository<Tracker, String> {
     List<Tracker> findTrackersWithLowBattery(@Param("threshold") float threshold);
     
     boolean existsByDeviceId(String deviceId);
+
+    // Projections for the vehicle state store; no entities are loaded
+    @Query("SELECT t.deviceId, t.vehicle.vehicleId FROM Tracker t WHERE t.vehicle IS NOT NULL")
+    List<Object[]> findDeviceVehicleAssignments();
+
+    @Query("SELECT t.vehicle.vehicleId FROM Tracker t WHERE t.deviceId = :deviceId")
+    Optional<String> findVehicleIdByDeviceId(@Param("deviceId") String deviceId);
     
 //    boolean existsByImei(String imei);
 }
\ No newline at end of file
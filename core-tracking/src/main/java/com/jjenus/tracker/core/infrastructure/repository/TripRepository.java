@@ -24,6 +24,9 @@ public interface TripRepository extends JpaRepository<Trip, String> {
         String vehicleId, Instant startTime, Instant endTime);
     
     List<Trip> findByIsActive(boolean isActive);
+
+    @Query("SELECT t.vehicle.vehicleId, t.tripId FROM Trip t WHERE t.isActive = true")
+    List<Object[]> findActiveTripIds();
     
     @Query("SELECT t FROM Trip t WHERE t.vehicle.vehicleId = :vehicleId " +
            "AND t.endReason = :endReason " +
@@ -28,6 +28,9 @@ public interface VehicleRepository extends JpaRepository<Vehicle, String> {
     @Query("SELECT v FROM Vehicle v WHERE v.fuelCutActive = true")
     List<Vehicle> findVehiclesWithActiveFuelCut();
     
+    @Query("SELECT v.vehicleId, v.engineState FROM Vehicle v")
+    List<Object[]> findEngineStates();
+
     boolean existsByDeviceId(String deviceId);
     
     boolean existsByLicensePlate(String licensePlate);
@@ -0,0 +1,114 @@
+package com.jjenus.tracker.core.application.service;
+
+import com.jjenus.tracker.core.application.service.LatestPositionCache.Position;
+import com.jjenus.tracker.shared.domain.LocationPoint;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LatestPositionCacheTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-01T10:00:00Z");
+
+    private final LatestPositionCache cache = new LatestPositionCache(null);
+
+    @Test
+    void update_newFix_isVisibleByDeviceAndVehicle() {
+        // given
+        LocationPoint fix = new LocationPoint(40.7128, -74.0060, 30.0f, NOW);
+
+        // when
+        cache.update("865205030330012", "VEH-001", fix);
+
+        // then
+        Position byDevice = cache.getByDevice("865205030330012").orElseThrow();
+        assertThat(byDevice).isEqualTo(cache.getByVehicle("VEH-001").orElseThrow());
+        assertThat(byDevice.latitude()).isEqualTo(40.7128);
+        assertThat(byDevice.timestampMillis()).isEqualTo(NOW.toEpochMilli());
+    }
+
+    @Test
+    void update_olderFix_keepsNewest() {
+        // given
+        cache.update("865205030330012", "VEH-001", new LocationPoint(40.7128, -74.0060, 30.0f, NOW));
+
+        // when
+        cache.update("865205030330012", "VEH-001", new LocationPoint(34.0522, -118.2437, 0.0f, NOW.minusSeconds(5)));
+
+        // then
+        assertThat(cache.getByVehicle("VEH-001").orElseThrow().latitude()).isEqualTo(40.7128);
+    }
+
+    @Test
+    void getByVehicles_bulkLookup_returnsKnownInRequestOrder() {
+        // given
+        for (int i = 0; i < 3000; i++) {
+            cache.update("DEV" + i, "VEH-" + i, new LocationPoint(1.0, 2.0, 0.0f, NOW));
+        }
+
+        // when
+        List<Position> positions = cache.getByVehicles(List.of("VEH-2999", "VEH-UNKNOWN", "VEH-7"));
+
+        // then
+        assertThat(positions).extracting(Position::vehicleId).containsExactly("VEH-2999", "VEH-7");
+    }
+
+    @Test
+    void decode_encodedPosition_restoresPosition() {
+        // given
+        Position position = new Position("865205030330012", "VEH-001", 22.675865, -113.972065, 18.5f, NOW.toEpochMilli());
+
+        // when / then
+        assertThat(Position.decode(position.encode())).isEqualTo(position);
+    }
+
+    @Test
+    void decode_encodedPosition_keepsIdsWithSeparators() {
+        // given
+        Position position = new Position("dev|1", "VEH|A|1", 40.7128, -74.0060, 30.5f, NOW.toEpochMilli());
+
+        // when
+        Position decoded = Position.decode(position.encode());
+
+        // then
+        assertThat(decoded).isEqualTo(position);
+    }
+
+    @Test
+    void decode_unknownFormat_returnsNull() {
+        // when
+        Position decoded = Position.decode("865205030330012|VEH-001|40.7128|-74.006|30.0|1704103200000");
+
+        // then
+        assertThat(decoded).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getByDevices_localAndRedisHits_returnedInRequestOrder() {
+        // given
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        HashOperations<String, Object, Object> hashOps = mock(HashOperations.class);
+        when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOps);
+        Position remote = new Position("DEV-REMOTE", "VEH-REMOTE", 1.0, 2.0, 0.0f, NOW.toEpochMilli());
+        when(hashOps.multiGet(LatestPositionCache.DEVICE_POSITIONS_KEY, List.of("DEV-REMOTE", "DEV-UNKNOWN")))
+            .thenReturn(Arrays.asList(remote.encode(), null));
+        LatestPositionCache mirrored = new LatestPositionCache(redisTemplate);
+        mirrored.update("DEV-LOCAL", "VEH-LOCAL", new LocationPoint(40.7128, -74.0060, 30.0f, NOW));
+
+        // when
+        List<Position> found = mirrored.getByDevices(List.of("DEV-REMOTE", "DEV-UNKNOWN", "DEV-LOCAL"));
+
+        // then
+        assertThat(found).extracting(Position::deviceId).containsExactly("DEV-REMOTE", "DEV-LOCAL");
+    }
+}
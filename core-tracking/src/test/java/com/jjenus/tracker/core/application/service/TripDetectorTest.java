@@ -0,0 +1,165 @@
+package com.jjenus.tracker.core.application.service;
+
+import com.jjenus.tracker.core.domain.TripEndedEvent;
+import com.jjenus.tracker.core.domain.TripStartedEvent;
+import com.jjenus.tracker.core.domain.TripSummary;
+import com.jjenus.tracker.core.domain.enums.TripEndReason;
+import com.jjenus.tracker.shared.domain.LocationPoint;
+import com.jjenus.tracker.shared.pubsub.EventPublisher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TripDetectorTest {
+
+    private static final String VEHICLE_ID = "VEH-001";
+    private static final Instant T0 = Instant.parse("2024-03-10T12:00:00Z");
+    private static final long STOP_AFTER_MS = 60_000;
+
+    @Mock
+    private VehicleService vehicleService;
+    @Mock
+    private VehicleStateStore vehicleStateStore;
+    @Mock
+    private EventPublisher eventPublisher;
+    @Mock
+    private Clock clock;
+
+    @Captor
+    private ArgumentCaptor<TripSummary> summaryCaptor;
+
+    @Test
+    void onFix_movingThenStopped_endsTripAtStop() {
+        // given
+        TripDetector detector = newDetector(0);
+
+        // when
+        detector.onFix(VEHICLE_ID, fix(0, 0.000, 0));
+        detector.onFix(VEHICLE_ID, fix(10, 0.000, 30));
+        detector.onFix(VEHICLE_ID, fix(20, 0.001, 40));
+        detector.onFix(VEHICLE_ID, fix(30, 0.002, 0));
+        detector.onFix(VEHICLE_ID, fix(60, 0.002, 0));
+        detector.onFix(VEHICLE_ID, fix(90, 0.002, 0));
+
+        // then
+        verify(eventPublisher).publish(any(TripStartedEvent.class));
+        verify(eventPublisher).publish(any(TripEndedEvent.class));
+        verify(vehicleService).saveTripSummary(summaryCaptor.capture());
+        TripSummary summary = summaryCaptor.getValue();
+        assertThat(summary.vehicleId()).isEqualTo(VEHICLE_ID);
+        assertThat(summary.endReason()).isEqualTo(TripEndReason.TIMEOUT);
+        assertThat(summary.startLocation().timestamp()).isEqualTo(T0.plusSeconds(10));
+        assertThat(summary.endLocation().timestamp()).isEqualTo(T0.plusSeconds(30));
+        assertThat(summary.distanceKm()).isCloseTo(0.222f, within(0.001f));
+        assertThat(summary.maxSpeedKmh()).isEqualTo(40);
+        assertThat(summary.idleTime()).isEqualTo(Duration.ZERO);
+        verify(vehicleStateStore).recordActiveTrip(VEHICLE_ID, summary.tripId());
+        verify(vehicleStateStore).recordActiveTrip(eq(VEHICLE_ID), isNull());
+        assertThat(detector.getActiveTripCount()).isZero();
+    }
+
+    @Test
+    void onFix_lateAndDuplicateFixes_areOrderedOrDropped() {
+        // given
+        TripDetector detector = newDetector(5_000);
+        when(clock.millis()).thenReturn(T0.toEpochMilli());
+
+        // when
+        detector.onFix(VEHICLE_ID, fix(0, 0.000, 30));
+        detector.onFix(VEHICLE_ID, fix(4, 0.002, 30));
+        detector.onFix(VEHICLE_ID, fix(2, 0.001, 30));
+        detector.onFix(VEHICLE_ID, fix(2, 0.001, 30));
+        when(clock.millis()).thenReturn(T0.toEpochMilli() + STOP_AFTER_MS);
+        detector.sweep();
+
+        // then
+        assertThat(detector.getDroppedFixCount()).isEqualTo(1);
+        verify(vehicleService).saveTripSummary(summaryCaptor.capture());
+        TripSummary summary = summaryCaptor.getValue();
+        // in order the route runs straight along the meridian, out of order it would double back
+        assertThat(summary.distanceKm()).isCloseTo(0.222f, within(0.001f));
+        assertThat(summary.endReason()).isEqualTo(TripEndReason.CONNECTION_LOST);
+    }
+
+    @Test
+    void onFix_shortStopThenMovingAgain_countsIdleTimeAndKeepsTrip() {
+        // given
+        TripDetector detector = newDetector(0);
+
+        // when
+        detector.onFix(VEHICLE_ID, fix(0, 0.000, 30));
+        detector.onFix(VEHICLE_ID, fix(10, 0.001, 0));
+        detector.onFix(VEHICLE_ID, fix(20, 0.001, 0));
+        detector.onFix(VEHICLE_ID, fix(30, 0.001, 30));
+        detector.onFix(VEHICLE_ID, fix(40, 0.002, 0));
+        detector.onFix(VEHICLE_ID, fix(100, 0.002, 0));
+
+        // then
+        verify(eventPublisher).publish(any(TripStartedEvent.class));
+        verify(vehicleService).saveTripSummary(summaryCaptor.capture());
+        TripSummary summary = summaryCaptor.getValue();
+        assertThat(summary.idleTime()).isEqualTo(Duration.ofSeconds(20));
+        assertThat(summary.endLocation().timestamp()).isEqualTo(T0.plusSeconds(40));
+        assertThat(summary.distanceKm()).isCloseTo(0.222f, within(0.001f));
+    }
+
+    @Test
+    void onFix_stationaryVehicle_startsNoTrip() {
+        // given
+        TripDetector detector = newDetector(0);
+
+        // when
+        detector.onFix(VEHICLE_ID, fix(0, 0.000, 0));
+        detector.onFix(VEHICLE_ID, fix(10, 0.000, 2));
+
+        // then
+        verify(eventPublisher, never()).publish(any());
+        assertThat(detector.getTrackedVehicleCount()).isEqualTo(1);
+    }
+
+    @Test
+    void routeSampler_manyPoints_staysWithinCapacity() {
+        // given
+        TripDetector.RouteSampler sampler = new TripDetector.RouteSampler(4, 1_000);
+
+        // when
+        for (int i = 0; i < 20; i++) {
+            sampler.add(fix(i, i * 0.0001, 30));
+        }
+        sampler.addFinal(fix(25, 0.0025, 0));
+
+        // then
+        List<LocationPoint> route = sampler.toList();
+        assertThat(route).hasSizeLessThanOrEqualTo(4);
+        assertThat(route.get(0).timestamp()).isEqualTo(T0);
+        assertThat(route.get(route.size() - 1).timestamp()).isEqualTo(T0.plusSeconds(25));
+        assertThat(route).extracting(LocationPoint::timestamp).isSorted();
+    }
+
+    private TripDetector newDetector(long reorderWindowMs) {
+        return new TripDetector(vehicleService, vehicleStateStore, eventPublisher, clock,
+            5, STOP_AFTER_MS, reorderWindowMs, 16, 1_000);
+    }
+
+    private static LocationPoint fix(int seconds, double latitude, float speedKmh) {
+        return new LocationPoint(latitude, 0.0, speedKmh, T0.plusSeconds(seconds));
+    }
+}
@@ -0,0 +1,129 @@
+package com.jjenus.tracker.core.application.service;
+
+import com.jjenus.tracker.core.domain.enums.EngineState;
+import com.jjenus.tracker.core.infrastructure.repository.TrackerRepository;
+import com.jjenus.tracker.core.infrastructure.repository.TripRepository;
+import com.jjenus.tracker.core.infrastructure.repository.VehicleRepository;
+import com.jjenus.tracker.shared.domain.LocationPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class VehicleStateStoreTest {
+
+    @Mock
+    private TrackerRepository trackerRepository;
+    @Mock
+    private VehicleRepository vehicleRepository;
+    @Mock
+    private TripRepository tripRepository;
+
+    private final AtomicLong clock = new AtomicLong(1_000);
+
+    private VehicleStateStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new VehicleStateStore(trackerRepository, vehicleRepository, tripRepository, 60_000, clock::get);
+    }
+
+    @Test
+    void findVehicleId_afterWarmUp_doesNotQueryDatabase() {
+        // given
+        when(trackerRepository.findDeviceVehicleAssignments())
+            .thenReturn(List.<Object[]>of(new Object[]{"865205030330012", "VEH-001"}));
+        when(vehicleRepository.findEngineStates())
+            .thenReturn(List.<Object[]>of(new Object[]{"VEH-001", EngineState.ON}));
+        when(tripRepository.findActiveTripIds())
+            .thenReturn(List.<Object[]>of(new Object[]{"VEH-001", "TRIP-1"}));
+        store.warmUp();
+
+        // when
+        String vehicleId = store.findVehicleId("865205030330012");
+
+        // then
+        assertThat(vehicleId).isEqualTo("VEH-001");
+        verify(trackerRepository, never()).findVehicleIdByDeviceId("865205030330012");
+        VehicleStateStore.VehicleSnapshot state = store.getState("VEH-001").orElseThrow();
+        assertThat(state.engineState()).isEqualTo(EngineState.ON);
+        assertThat(state.activeTripId()).isEqualTo("TRIP-1");
+        assertThat(state.lastFix()).isNull();
+    }
+
+    @Test
+    void findVehicleId_unassignedDevice_isLookedUpOnce() {
+        // given
+        when(trackerRepository.findVehicleIdByDeviceId("DEV001")).thenReturn(Optional.empty());
+
+        // when
+        String first = store.findVehicleId("DEV001");
+        String second = store.findVehicleId("DEV001");
+
+        // then
+        assertThat(first).isNull();
+        assertThat(second).isNull();
+        verify(trackerRepository, times(1)).findVehicleIdByDeviceId("DEV001");
+    }
+
+    @Test
+    void findVehicleId_unassignedAnswerExpired_looksUpAgain() {
+        // given
+        when(trackerRepository.findVehicleIdByDeviceId("DEV001"))
+            .thenReturn(Optional.empty(), Optional.of("VEH-001"));
+        store.findVehicleId("DEV001");
+
+        // when
+        clock.addAndGet(60_000);
+        String vehicleId = store.findVehicleId("DEV001");
+
+        // then
+        assertThat(vehicleId).isEqualTo("VEH-001");
+        verify(trackerRepository, times(2)).findVehicleIdByDeviceId("DEV001");
+    }
+
+    @Test
+    void applyAssignment_changesVehicleForDevice() {
+        // given
+        store.applyAssignment("DEV001", "VEH-001");
+
+        // when
+        store.applyAssignment("DEV001", "VEH-002");
+        String reassigned = store.findVehicleId("DEV001");
+        store.applyAssignment("DEV001", null);
+        String unassigned = store.findVehicleId("DEV001");
+
+        // then
+        assertThat(reassigned).isEqualTo("VEH-002");
+        assertThat(unassigned).isNull();
+        verify(trackerRepository, never()).findVehicleIdByDeviceId("DEV001");
+    }
+
+    @Test
+    void recordFix_olderFix_keepsNewest() {
+        // given
+        Instant now = Instant.parse("2024-01-01T10:00:00Z");
+        LocationPoint newer = new LocationPoint(40.7128, -74.0060, 30.0f, now);
+        LocationPoint older = new LocationPoint(34.0522, -118.2437, 0.0f, now.minusSeconds(10));
+
+        // when
+        store.recordFix("VEH-001", newer);
+        store.recordFix("VEH-001", older);
+
+        // then
+        assertThat(store.getState("VEH-001").orElseThrow().lastFix()).isEqualTo(newer);
+    }
+}
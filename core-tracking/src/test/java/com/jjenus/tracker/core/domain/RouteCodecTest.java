@@ -0,0 +1,95 @@
+package com.jjenus.tracker.core.domain;
+
+import com.jjenus.tracker.shared.domain.LocationPoint;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+
+class RouteCodecTest {
+
+    private static final Instant T0 = Instant.parse("2024-03-10T12:00:00Z");
+
+    @Test
+    void decode_encodedRoute_returnsSamePointsWithinPrecision() {
+        // given
+        List<LocationPoint> route = List.of(
+            new LocationPoint(40.712776, -74.005974, 42.5f, T0),
+            new LocationPoint(40.713100, -74.006300, 38.0f, T0.plusMillis(10_250)),
+            new LocationPoint(-33.868820, 151.209296, 0.0f, T0.plusSeconds(3600)));
+
+        // when
+        List<LocationPoint> decoded = RouteCodec.decode(RouteCodec.encode(route));
+
+        // then
+        assertThat(decoded).hasSize(3);
+        for (int i = 0; i < route.size(); i++) {
+            assertThat(decoded.get(i).latitude()).isCloseTo(route.get(i).latitude(), offset(1e-6));
+            assertThat(decoded.get(i).longitude()).isCloseTo(route.get(i).longitude(), offset(1e-6));
+            assertThat(decoded.get(i).speedKmh()).isEqualTo(route.get(i).speedKmh());
+            assertThat(decoded.get(i).timestamp()).isEqualTo(route.get(i).timestamp());
+        }
+    }
+
+    @Test
+    void encode_denseRoute_usesAFewBytesPerPoint() {
+        // given
+        List<LocationPoint> route = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            route.add(new LocationPoint(40.7128 + i * 0.0001, -74.0060 + i * 0.00005, 40.0f + i % 7, T0.plusSeconds(i * 5L)));
+        }
+
+        // when
+        byte[] encoded = RouteCodec.encode(route);
+
+        // then
+        assertThat(encoded.length).isLessThan(1000 * 9);
+        assertThat(RouteCodec.decode(encoded)).hasSize(1000);
+    }
+
+    @Test
+    void append_secondChunk_decodesBothChunksInOrder() {
+        // given
+        byte[] first = RouteCodec.encode(List.of(
+            new LocationPoint(1.0, 2.0, 10.0f, T0),
+            new LocationPoint(1.1, 2.1, 20.0f, T0.plusSeconds(10))));
+
+        // when
+        byte[] both = RouteCodec.append(first, List.of(new LocationPoint(1.2, 2.2, 30.0f, T0.plusSeconds(20))));
+
+        // then
+        assertThat(RouteCodec.decode(both)).extracting(LocationPoint::timestamp)
+            .containsExactly(T0, T0.plusSeconds(10), T0.plusSeconds(20));
+        assertThat(RouteCodec.decode(both).get(2).latitude()).isEqualTo(1.2);
+    }
+
+    @Test
+    void iterator_nullOrEmptyRoute_hasNoPoints() {
+        // when
+        Iterator<LocationPoint> fromNull = RouteCodec.iterator(null);
+        Iterator<LocationPoint> fromEmpty = RouteCodec.iterator(RouteCodec.encode(List.of()));
+
+        // then
+        assertThat(fromNull.hasNext()).isFalse();
+        assertThat(fromEmpty.hasNext()).isFalse();
+    }
+
+    @Test
+    void decode_truncatedRoute_throws() {
+        // given
+        byte[] encoded = RouteCodec.encode(List.of(new LocationPoint(1.0, 2.0, 10.0f, T0)));
+        byte[] truncated = Arrays.copyOf(encoded, encoded.length - 2);
+
+        // when / then
+        assertThatThrownBy(() -> RouteCodec.decode(truncated))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("truncated");
+    }
+}
@@ -0,0 +1,141 @@
+package com.jjenus.tracker.core.domain;
+
+import com.jjenus.tracker.shared.domain.LocationPoint;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RouteSimplifierTest {
+
+    private static final Instant T0 = Instant.parse("2024-03-10T12:00:00Z");
+
+    @Test
+    void simplify_straightLine_keepsOnlyEndpoints() {
+        // given
+        List<LocationPoint> route = new ArrayList<>();
+        for (int i = 0; i <= 100; i++) {
+            route.add(point(i, 40.0 + i * 0.0001, -74.0));
+        }
+
+        // when
+        List<LocationPoint> simplified = RouteSimplifier.simplify(route, 1);
+
+        // then
+        assertThat(simplified).containsExactly(route.get(0), route.get(100));
+    }
+
+    @Test
+    void simplify_cornerAboveTolerance_isKept() {
+        // given
+        // ~1.1 km north, then ~0.85 km east
+        List<LocationPoint> route = List.of(
+            point(0, 40.000, -74.000),
+            point(1, 40.005, -74.000),
+            point(2, 40.010, -74.000),
+            point(3, 40.010, -73.995),
+            point(4, 40.010, -73.990));
+
+        // when
+        List<LocationPoint> fine = RouteSimplifier.simplify(route, 10);
+        List<LocationPoint> coarse = RouteSimplifier.simplify(route, 1000);
+
+        // then
+        assertThat(fine).containsExactly(route.get(0), route.get(2), route.get(4));
+        assertThat(coarse).containsExactly(route.get(0), route.get(4));
+    }
+
+    @Test
+    void levels_randomWalk_tiersNestAndMatchSimplify() {
+        // given
+        List<LocationPoint> route = randomWalk(5_000);
+        byte[] levels = RouteSimplifier.levels(route);
+
+        // when / then
+        assertThat(RouteSimplifier.atLevel(route, levels, 0)).hasSize(route.size());
+        for (int level = 1; level <= RouteSimplifier.maxLevel(); level++) {
+            List<LocationPoint> tier = RouteSimplifier.atLevel(route, levels, level);
+            assertThat(tier).isEqualTo(RouteSimplifier.simplify(route, RouteSimplifier.toleranceMeters(level)));
+            assertThat(RouteSimplifier.atLevel(route, levels, level - 1)).containsAll(tier);
+        }
+    }
+
+    @Test
+    void simplify_longRoute_reducesPointCount() {
+        // given
+        List<LocationPoint> route = randomWalk(100_000);
+
+        // when
+        List<LocationPoint> simplified = RouteSimplifier.simplify(route, 25);
+
+        // then
+        assertThat(simplified.size()).isBetween(2, route.size() / 2);
+        assertThat(simplified.get(0)).isEqualTo(route.get(0));
+        assertThat(simplified.get(simplified.size() - 1)).isEqualTo(route.get(route.size() - 1));
+    }
+
+    @Test
+    void simplify_dayOfHistoryWithStops_keepsFewPoints() {
+        // given: one fix a second for a day, parked with GPS jitter except for three drives
+        Random random = new Random(7);
+        List<LocationPoint> day = new ArrayList<>(86_400);
+        double lat = 40.0;
+        double lon = -74.0;
+        double heading = 0;
+        for (int second = 0; second < 86_400; second++) {
+            boolean driving = (second / 3600) % 8 == 2 || (second / 3600) % 8 == 3 && second % 3600 < 1800;
+            if (driving) {
+                if (second % 60 == 0) {
+                    heading += (random.nextDouble() - 0.5) * 1.5;
+                }
+                lat += Math.cos(heading) * 0.0001;
+                lon += Math.sin(heading) * 0.0001;
+                day.add(point(second, lat, lon));
+            } else {
+                day.add(point(second, lat + random.nextGaussian() * 0.00001, lon + random.nextGaussian() * 0.00001));
+            }
+        }
+
+        // when
+        List<LocationPoint> simplified = RouteSimplifier.simplify(day, RouteSimplifier.toleranceMeters(2));
+
+        // then
+        assertThat(simplified.size()).isLessThan(day.size() / 100);
+        assertThat(simplified.get(simplified.size() - 1)).isEqualTo(day.get(day.size() - 1));
+    }
+
+    @Test
+    void atLevel_unknownLevel_throws() {
+        // given
+        List<LocationPoint> route = randomWalk(10);
+        byte[] levels = RouteSimplifier.levels(route);
+
+        // when / then
+        assertThatThrownBy(() -> RouteSimplifier.atLevel(route, levels, RouteSimplifier.maxLevel() + 1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<LocationPoint> randomWalk(int size) {
+        Random random = new Random(42);
+        List<LocationPoint> route = new ArrayList<>(size);
+        double lat = 40.0;
+        double lon = -74.0;
+        double heading = 0;
+        for (int i = 0; i < size; i++) {
+            heading += (random.nextDouble() - 0.5) * 0.6;
+            lat += Math.cos(heading) * 0.0001;
+            lon += Math.sin(heading) * 0.0001;
+            route.add(point(i, lat, lon));
+        }
+        return route;
+    }
+
+    private static LocationPoint point(int seconds, double latitude, double longitude) {
+        return new LocationPoint(latitude, longitude, 30.0f, T0.plusSeconds(seconds));
+    }
+}
@@ -0,0 +1,55 @@
+package com.jjenus.tracker.core.domain.entity;
+
+import com.jjenus.tracker.core.domain.RouteCodec;
+import com.jjenus.tracker.core.domain.enums.TripEndReason;
+import com.jjenus.tracker.shared.domain.LocationPoint;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TripTest {
+
+    private static final Instant T0 = Instant.parse("2024-03-10T12:00:00Z");
+
+    @Test
+    void addLocationPoint_manyPoints_storedInFewChunks() {
+        // given
+        Trip trip = new Trip();
+        Trip onePointChunks = new Trip();
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            trip.addLocationPoint(location(i), 0.1f);
+            onePointChunks.setRouteData(RouteCodec.append(onePointChunks.getRouteData(),
+                List.of(new LocationPoint(40.7128 + i * 0.0001, -74.0060, 40.0f, T0.plusSeconds(i * 5L)))));
+        }
+
+        // then
+        assertThat(RouteCodec.decode(trip.getRouteData())).hasSize(100);
+        assertThat(trip.getRouteData().length).isLessThan(onePointChunks.getRouteData().length / 2);
+    }
+
+    @Test
+    void endTrip_afterBufferedPoints_addsSegmentFromLastPoint() {
+        // given
+        Trip trip = new Trip();
+        trip.setStartTime(T0);
+        trip.addLocationPoint(location(0), 0.0f);
+        trip.addLocationPoint(location(1), 0.0f);
+
+        // when
+        trip.endTrip(TripEndReason.ACC_OFF, location(2));
+
+        // then
+        assertThat(trip.getTotalDistanceKm()).isGreaterThan(0.0f);
+        assertThat(trip.getRoute(0)).extracting(LocationPoint::timestamp)
+            .containsExactly(T0, T0.plusSeconds(5), T0.plusSeconds(10));
+    }
+
+    private static TrackerLocation location(int i) {
+        return new TrackerLocation(40.7128 + i * 0.0001, -74.0060, 40.0f, T0.plusSeconds(i * 5L));
+    }
+}
@@ -0,0 +1,165 @@
+package com.jjenus.tracker.core.infrastructure;
+
+import com.jjenus.tracker.shared.domain.LocationPoint;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LocationBatchWriterTest {
+
+    private static final String TABLE = "tracker_location_history_20240101_1d";
+    private static final String INSERT_SQL = LocationHistoryStore.insertSql(TABLE);
+    private static final LocationPoint FIX =
+        new LocationPoint(40.7128, -74.0060, 30.0f, Instant.parse("2024-01-01T10:00:00Z"));
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private LocationHistoryStore historyStore;
+
+    @Captor
+    private ArgumentCaptor<List<Object[]>> rowsCaptor;
+
+    @Test
+    void destroy_bufferedFixes_writesAllInBatches() throws Exception {
+        // given
+        when(jdbcTemplate.queryForObject(LocationBatchWriter.NEXT_ID_SQL, Long.class)).thenReturn(2000L);
+        when(historyStore.tableFor(FIX.timestamp())).thenReturn(TABLE);
+        LocationBatchWriter writer = newWriter(2);
+
+        // when
+        for (int i = 0; i < 5; i++) {
+            writer.enqueue("86520503033001" + i, FIX);
+        }
+        writer.destroy();
+
+        // then
+        verify(jdbcTemplate, atLeast(3))
+            .batchUpdate(eq(INSERT_SQL), rowsCaptor.capture());
+        List<Object[]> rows = rowsCaptor.getAllValues().stream().flatMap(List::stream).toList();
+        assertThat(rows).hasSize(5);
+        assertThat(rows).extracting(row -> row[0]).containsExactly(1001L, 1002L, 1003L, 1004L, 1005L);
+        assertThat(rows).extracting(row -> row[6]).containsExactly(
+            "865205030330010", "865205030330011", "865205030330012", "865205030330013", "865205030330014");
+        assertThat(writer.getWrittenCount()).isEqualTo(5);
+        assertThat(writer.getBufferedCount()).isZero();
+    }
+
+    @Test
+    void destroy_failedBatch_isRetriedWithSameIds() throws Exception {
+        // given
+        when(jdbcTemplate.queryForObject(LocationBatchWriter.NEXT_ID_SQL, Long.class)).thenReturn(1000L);
+        when(historyStore.tableFor(FIX.timestamp())).thenReturn(TABLE);
+        when(jdbcTemplate.batchUpdate(eq(INSERT_SQL), anyList()))
+            .thenThrow(new DataAccessResourceFailureException("connection lost"))
+            .thenReturn(new int[]{1});
+        LocationBatchWriter writer = newWriter(10);
+
+        // when
+        writer.enqueue("865205030330012", FIX);
+        writer.destroy();
+
+        // then
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(INSERT_SQL), rowsCaptor.capture());
+        assertThat(rowsCaptor.getAllValues().get(0).get(0)[0]).isEqualTo(1L);
+        assertThat(rowsCaptor.getAllValues().get(1).get(0)[0]).isEqualTo(1L);
+        assertThat(writer.getWrittenCount()).isEqualTo(1);
+    }
+
+    @Test
+    void destroy_batchWithRejectedRow_writesTheOthersAndDropsIt() throws Exception {
+        // given
+        when(jdbcTemplate.queryForObject(LocationBatchWriter.NEXT_ID_SQL, Long.class)).thenReturn(1000L);
+        when(historyStore.tableFor(FIX.timestamp())).thenReturn(TABLE);
+        when(jdbcTemplate.batchUpdate(eq(INSERT_SQL), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            if (rows.stream().anyMatch(row -> "bad-device".equals(row[6]))) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            return new int[rows.size()];
+        });
+        LocationBatchWriter writer = newWriter(10);
+
+        // when
+        writer.enqueue("865205030330010", FIX);
+        writer.enqueue("bad-device", FIX);
+        writer.enqueue("865205030330012", FIX);
+        writer.enqueue("865205030330013", FIX);
+        writer.destroy();
+
+        // then
+        assertThat(writer.getWrittenCount()).isEqualTo(3);
+        assertThat(writer.getRejectedCount()).isEqualTo(1);
+        assertThat(writer.getBufferedCount()).isZero();
+    }
+
+    @Test
+    void destroy_retriedBatch_looksUpBucketTableAgain() throws Exception {
+        // given
+        when(jdbcTemplate.queryForObject(LocationBatchWriter.NEXT_ID_SQL, Long.class)).thenReturn(1000L);
+        when(historyStore.tableFor(FIX.timestamp())).thenReturn(TABLE);
+        when(jdbcTemplate.batchUpdate(eq(INSERT_SQL), anyList()))
+            .thenThrow(new DataAccessResourceFailureException("connection lost"))
+            .thenReturn(new int[]{1});
+        LocationBatchWriter writer = newWriter(10);
+
+        // when
+        writer.enqueue("865205030330012", FIX);
+        writer.destroy();
+
+        // then
+        verify(historyStore, times(2)).tableFor(FIX.timestamp());
+    }
+
+    @Test
+    void enqueue_fixWithoutTimestamp_isIgnored() throws Exception {
+        // given
+        LocationBatchWriter writer = newWriter(10);
+
+        // when
+        writer.enqueue("865205030330012", new LocationPoint(1.0, 2.0, 0.0f, null));
+        writer.destroy();
+
+        // then
+        assertThat(writer.getWrittenCount()).isZero();
+    }
+
+    @Test
+    void destroy_fixPastRetention_isSkipped() throws Exception {
+        // given
+        when(historyStore.tableFor(FIX.timestamp())).thenReturn(null);
+        LocationBatchWriter writer = newWriter(10);
+
+        // when
+        writer.enqueue("865205030330012", FIX);
+        writer.destroy();
+
+        // then
+        verify(jdbcTemplate, never()).batchUpdate(eq(INSERT_SQL), anyList());
+    }
+
+    private LocationBatchWriter newWriter(int batchSize) {
+        return new LocationBatchWriter(jdbcTemplate, historyStore, TransactionOperations.withoutTransaction(),
+            batchSize, 50, 100, 1000, 2);
+    }
+}
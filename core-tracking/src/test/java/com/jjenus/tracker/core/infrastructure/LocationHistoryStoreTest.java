@@ -0,0 +1,183 @@
+package com.jjenus.tracker.core.infrastructure;
+
+import com.jjenus.tracker.shared.domain.LocationPoint;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LocationHistoryStoreTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-03-10T12:00:00Z"), ZoneOffset.UTC);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void tableFor_sameDay_createsOneDailyBucket() {
+        // given
+        givenExistingTables();
+        LocationHistoryStore store = new LocationHistoryStore(jdbcTemplate, 1, 30, 14, CLOCK);
+
+        // when
+        String morning = store.tableFor(Instant.parse("2024-03-09T06:00:00Z"));
+        String evening = store.tableFor(Instant.parse("2024-03-09T23:59:59Z"));
+
+        // then
+        assertThat(morning).isEqualTo("tracker_location_history_20240309_1d").isEqualTo(evening);
+        verify(jdbcTemplate, times(1)).execute(startsWith("CREATE TABLE IF NOT EXISTS tracker_location_history_20240309_1d"));
+    }
+
+    @Test
+    void tableFor_weeklyBuckets_alignsToBucketStart() {
+        // given
+        givenExistingTables();
+        LocationHistoryStore store = new LocationHistoryStore(jdbcTemplate, 7, 30, 14, CLOCK);
+
+        // when
+        String table = store.tableFor(Instant.parse("2024-03-09T06:00:00Z"));
+
+        // then
+        // 2024-03-07 is epoch day 19789, a multiple of 7
+        assertThat(table).isEqualTo("tracker_location_history_20240307_7d");
+    }
+
+    @Test
+    void tableFor_fixPastRetention_returnsNull() {
+        // given
+        LocationHistoryStore store = new LocationHistoryStore(jdbcTemplate, 1, 30, 14, CLOCK);
+
+        // when
+        String table = store.tableFor(Instant.parse("2024-02-01T00:00:00Z"));
+
+        // then
+        assertThat(table).isNull();
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void findByTrackerAndTimeRange_queriesOnlyOverlappingBuckets() {
+        // given
+        givenExistingTables("TRACKER_LOCATION_HISTORY_20240307_1D",
+            "TRACKER_LOCATION_HISTORY_20240308_1D",
+            "TRACKER_LOCATION_HISTORY_20240309_1D");
+        LocationHistoryStore store = new LocationHistoryStore(jdbcTemplate, 1, 30, 14, CLOCK);
+
+        // when
+        store.findByTrackerAndTimeRange("TRK-001",
+            Instant.parse("2024-03-08T10:00:00Z"), Instant.parse("2024-03-08T11:00:00Z"));
+
+        // then
+        verify(jdbcTemplate).query(contains("tracker_location_history_20240308_1d"), any(RowMapper.class),
+            eq("TRK-001"), any(), any());
+        verify(jdbcTemplate, never()).query(contains("tracker_location_history_20240307_1d"), any(RowMapper.class),
+            any(), any(), any());
+        verify(jdbcTemplate, never()).query(contains("tracker_location_history_20240309_1d"), any(RowMapper.class),
+            any(), any(), any());
+    }
+
+    @Test
+    void dropExpiredBuckets_dropsOnlyBucketsPastRetention() {
+        // given
+        givenExistingTables("tracker_location_history_20240201_1d",
+            "tracker_location_history_20240209_1d",
+            "tracker_location_history_20240210_1d");
+        LocationHistoryStore store = new LocationHistoryStore(jdbcTemplate, 1, 30, 14, CLOCK);
+
+        // when
+        int dropped = store.dropExpiredBuckets();
+
+        // then
+        // cutoff is 2024-02-09: fixes on that day are already rejected by tableFor
+        assertThat(dropped).isEqualTo(2);
+        verify(jdbcTemplate).execute("DROP TABLE IF EXISTS tracker_location_history_20240201_1d");
+        verify(jdbcTemplate).execute("DROP TABLE IF EXISTS tracker_location_history_20240209_1d");
+        assertThat(store.getBucketCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findLatestByDeviceId_resolvesTrackerOnceAndStopsAtNewestHit() {
+        // given
+        when(jdbcTemplate.queryForList(contains("information_schema"), eq(String.class), any()))
+            .thenReturn(List.of("tracker_location_history_20240308_1d", "tracker_location_history_20240309_1d",
+                "tracker_location_history_20240310_1d"));
+        when(jdbcTemplate.queryForList(contains("FROM trackers"), eq(String.class), eq("DEV-001")))
+            .thenReturn(List.of("TRK-001"));
+        LocationPoint fix = new LocationPoint(40.0, -74.0, 30f, Instant.parse("2024-03-09T18:00:00Z"));
+        when(jdbcTemplate.query(contains("tracker_location_history_20240310_1d"), any(RowMapper.class), eq("TRK-001")))
+            .thenReturn(List.of());
+        when(jdbcTemplate.query(contains("tracker_location_history_20240309_1d"), any(RowMapper.class), eq("TRK-001")))
+            .thenReturn(List.of(fix));
+        LocationHistoryStore store = new LocationHistoryStore(jdbcTemplate, 1, 30, 14, CLOCK);
+
+        // when
+        Optional<LocationPoint> latest = store.findLatestByDeviceId("DEV-001");
+
+        // then
+        assertThat(latest).contains(fix);
+        verify(jdbcTemplate, never()).query(contains("JOIN trackers"), any(RowMapper.class), any(Object[].class));
+        verify(jdbcTemplate, never()).query(contains("tracker_location_history_20240308_1d"), any(RowMapper.class),
+            any(Object[].class));
+    }
+
+    @Test
+    void findLatestByDeviceId_silentTracker_stopsAfterMaxEmptyBuckets() {
+        // given
+        when(jdbcTemplate.queryForList(contains("information_schema"), eq(String.class), any()))
+            .thenReturn(List.of("tracker_location_history_20240301_1d", "tracker_location_history_20240302_1d",
+                "tracker_location_history_20240303_1d", "tracker_location_history_20240304_1d",
+                "tracker_location_history_20240305_1d", "tracker_location_history_20240306_1d"));
+        when(jdbcTemplate.queryForList(contains("FROM trackers"), eq(String.class), eq("DEV-001")))
+            .thenReturn(List.of("TRK-001"));
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq("TRK-001"))).thenReturn(List.of());
+        LocationHistoryStore store = new LocationHistoryStore(jdbcTemplate, 1, 30, 3, CLOCK);
+
+        // when
+        Optional<LocationPoint> latest = store.findLatestByDeviceId("DEV-001");
+
+        // then
+        assertThat(latest).isEmpty();
+        verify(jdbcTemplate, times(3)).query(anyString(), any(RowMapper.class), eq("TRK-001"));
+        verify(jdbcTemplate, never()).query(contains("tracker_location_history_20240303_1d"), any(RowMapper.class),
+            any(Object[].class));
+    }
+
+    @Test
+    void findLatestByDeviceId_unknownDevice_queriesNoBucket() {
+        // given
+        when(jdbcTemplate.queryForList(contains("FROM trackers"), eq(String.class), eq("DEV-404")))
+            .thenReturn(List.of());
+        LocationHistoryStore store = new LocationHistoryStore(jdbcTemplate, 1, 30, 14, CLOCK);
+
+        // when
+        Optional<LocationPoint> latest = store.findLatestByDeviceId("DEV-404");
+
+        // then
+        assertThat(latest).isEmpty();
+        verify(jdbcTemplate, never()).query(anyString(), any(RowMapper.class), any(Object[].class));
+    }
+
+    private void givenExistingTables(String... tables) {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any())).thenReturn(List.of(tables));
+    }
+}
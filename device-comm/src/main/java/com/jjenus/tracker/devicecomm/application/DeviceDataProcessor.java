@@ -1,5 +1,6 @@
 package com.jjenus.tracker.devicecomm.application;
 
+import com.jjenus.tracker.devicecomm.domain.DeviceDataFrame;
 import com.jjenus.tracker.devicecomm.domain.DeviceDataPacket;
 import com.jjenus.tracker.devicecomm.domain.ITrackerProtocolParser;
 import com.jjenus.tracker.shared.events.LocationDataEvent;
@@ -21,7 +22,9 @@ public class DeviceDataProcessor {
 
     public void processDeviceData(DeviceDataPacket packet) {
         try {
-            ITrackerProtocolParser parser = parserFactory.getParser(packet.rawData());
+            ITrackerProtocolParser parser = packet.parser() != null
+                ? packet.parser()
+                : parserFactory.getParser(packet.rawData());
             LocationPoint location = parser.parse(packet.rawData());
 
             LocationDataEvent event = new LocationDataEvent(
@@ -42,4 +45,37 @@ public class DeviceDataProcessor {
             );
         }
     }
+
+    /**
+     * Zero-copy variant of {@link #processDeviceData(DeviceDataPacket)}: the parser
+     * reads the pooled frame directly and the frame is released once parsing is done,
+     * whatever the outcome.
+     */
+    public void processDeviceFrame(DeviceDataFrame frame) {
+        try {
+            ITrackerProtocolParser parser = frame.parser() != null
+                ? frame.parser()
+                : parserFactory.getFrameParser(frame.payload());
+            LocationPoint location = parser.parseFrame(frame.payload());
+
+            LocationDataEvent event = new LocationDataEvent(
+                frame.deviceId(),
+                location,
+                parser.getProtocolName()
+            );
+
+            eventPublisher.publish(event);
+
+        } catch (ProtocolException | DeviceException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new com.jjenus.tracker.shared.exception.InfrastructureException(
+                "DEVICE_DATA_PROCESS_ERROR",
+                "Failed to process device data for " + frame.deviceId(),
+                e
+            );
+        } finally {
+            frame.release();
+        }
+    }
 }
\ No newline at end of file
@@ -1,98 +1,248 @@
 package com.jjenus.tracker.devicecomm.application;
 
+import com.jjenus.tracker.devicecomm.domain.FrameSignature;
 import com.jjenus.tracker.devicecomm.domain.ITrackerProtocolParser;
 import com.jjenus.tracker.devicecomm.exception.ProtocolException;
+import io.netty.buffer.ByteBuf;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicReference;
-
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Routes frames to protocol parsers by {@link FrameSignature} instead of running
+ * every parser's canParse on every frame. The first frame of a given signature is
+ * resolved with a linear scan and the resulting {@link ParserRoute} is cached in an
+ * immutable lookup table, so routing cost stays flat as parsers are added.
+ * Callers that keep per-connection state pass the connection's previous route back
+ * in; a frame with the same signature then skips the table lookup entirely and the
+ * very same route instance is returned.
+ */
 @Component
 public class ParserFactory {
     private static final Logger log = LoggerFactory.getLogger(ParserFactory.class);
+    private static final int MAX_CACHED_SIGNATURES = 4096;
+
     private final List<ITrackerProtocolParser> parsers;
+    private final Map<ITrackerProtocolParser, RouteCounters> counters = new IdentityHashMap<>();
+    private final LongAdder unrouted = new LongAdder();
+    private volatile SignatureTable routes = SignatureTable.EMPTY;
 
     public ParserFactory(List<ITrackerProtocolParser> parsers) {
         this.parsers = parsers;
+        parsers.forEach(parser -> counters.put(parser, new RouteCounters(parser)));
     }
 
     public ITrackerProtocolParser getParser(String rawData) {
-        log.debug("getParser() called with data (length: {}): {}",
-                rawData.length(),
-                rawData);
+        return route(rawData, null).parser();
+    }
 
+    public ITrackerProtocolParser getFrameParser(ByteBuf frame) {
+        return routeFrame(frame, null).parser();
+    }
+
+    public ParserRoute route(String rawData, ParserRoute previous) {
         if (rawData == null || rawData.trim().isEmpty()) {
             log.error("Received null or empty raw data");
             throw ProtocolException.parserNotFound("null or empty data");
         }
 
-        log.debug("Total parsers available: {}", parsers.size());
-        parsers.forEach(parser ->
-                log.debug("Available parser: {}", parser.getProtocolName()));
+        ParserRoute route = route(FrameSignature.of(rawData), previous, p -> p.canParse(rawData));
+        if (route == null) {
+            throw notFound(rawData);
+        }
+        return route;
+    }
 
-        // AtomicBoolean to track if we found any parser
-        final AtomicBoolean parserFound = new AtomicBoolean(false);
-        final AtomicReference<String> selectedParserName = new AtomicReference<>("");
+    public ParserRoute routeFrame(ByteBuf frame, ParserRoute previous) {
+        if (frame == null || !frame.isReadable()) {
+            log.error("Received null or empty frame");
+            throw ProtocolException.parserNotFound("null or empty data");
+        }
 
-        ITrackerProtocolParser selectedParser = parsers.stream()
-                .filter(parser -> {
-                    boolean canParse = parser.canParse(rawData);
-                    String status = canParse ? "PASS" : "FAIL";
-                    log.debug("Testing parser '{}': {} for data: {}...",
-                            parser.getProtocolName(),
-                            status,
-                            rawData);
+        ParserRoute route = route(FrameSignature.of(frame), previous, p -> p.canParseFrame(frame));
+        if (route == null) {
+            throw notFound(frame.toString(StandardCharsets.US_ASCII));
+        }
+        return route;
+    }
 
-                    if (canParse && !parserFound.get()) {
-                        parserFound.set(true);
-                        selectedParserName.set(parser.getProtocolName());
-                    }
+    public Optional<ITrackerProtocolParser> getParserByName(String protocolName) {
+        return parsers.stream()
+            .filter(parser -> parser.getProtocolName().equalsIgnoreCase(protocolName))
+            .findFirst();
+    }
 
-                    return canParse;
-                })
-                .findFirst()
-                .orElseGet(() -> {
-                    // This block executes if no parser is found
-                    log.debug("No parser successfully parsed the data. Testing complete.");
+    /**
+     * Per-protocol routing counters. Hits were served from a cached route, misses
+     * needed a parser scan that then matched this protocol.
+     */
+    public Map<String, ProtocolRouteStats> getRouteStats() {
+        Map<String, ProtocolRouteStats> stats = new LinkedHashMap<>();
+        for (ITrackerProtocolParser parser : parsers) {
+            RouteCounters c = counters.get(parser);
+            stats.merge(parser.getProtocolName(),
+                    new ProtocolRouteStats(parser.getProtocolName(), c.hits.sum(), c.misses.sum()),
+                    (a, b) -> new ProtocolRouteStats(a.protocol(), a.hits() + b.hits(), a.misses() + b.misses()));
+        }
+        return stats;
+    }
 
-                    // Log detailed failure analysis
-                    log.error("Failed to find parser for data ({} chars): {}",
-                            rawData.length(),
-                            rawData.substring(0, Math.min(rawData.length(), 150)));
+    public long getUnroutedCount() {
+        return unrouted.sum();
+    }
 
-                    // Check if data has expected format
-                    if (!rawData.startsWith("*")) {
-                        log.error("Data doesn't start with '*'");
-                    }
-                    if (!rawData.endsWith("#")) {
-                        log.error("Data doesn't end with '#'");
-                    }
+    private ParserRoute route(long signature, ParserRoute previous, Predicate<ITrackerProtocolParser> canParse) {
+        if (signature != FrameSignature.UNCLASSIFIED) {
+            if (previous != null && previous.signature() == signature) {
+                counters.get(previous.parser()).hits.increment();
+                return previous;
+            }
+
+            ParserRoute cached = routes.get(signature);
+            if (cached != null) {
+                counters.get(cached.parser()).hits.increment();
+                return cached;
+            }
+        }
 
-                    String[] parts = rawData.substring(1, rawData.length() - 1).split(",");
-                    log.error("Data parts ({}): {}", parts.length, String.join("|", parts));
+        ITrackerProtocolParser matched = scan(previous != null ? previous.parser() : null, canParse);
+        if (matched == null) {
+            unrouted.increment();
+            return null;
+        }
 
-                    throw ProtocolException.parserNotFound(rawData);
-                });
+        RouteCounters matchedCounters = counters.get(matched);
+        matchedCounters.misses.increment();
+        if (signature == FrameSignature.UNCLASSIFIED) {
+            return matchedCounters.unclassified;
+        }
+        log.debug("Routed signature {} to parser '{}'", Long.toHexString(signature), matched.getProtocolName());
+        return cacheRoute(signature, matched);
+    }
 
-        if (selectedParser != null) {
-            log.info("Selected parser '{}' for data: {}",
-                    selectedParser.getProtocolName(),
-                    rawData);
+    private ITrackerProtocolParser scan(ITrackerProtocolParser preferred, Predicate<ITrackerProtocolParser> canParse) {
+        // The connection's previous parser is the most likely match for unclassified frames
+        if (preferred != null && canParse.test(preferred)) {
+            return preferred;
+        }
+        for (ITrackerProtocolParser parser : parsers) {
+            if (parser != preferred && canParse.test(parser)) {
+                return parser;
+            }
+        }
+        return null;
+    }
 
-            log.debug("Parser selection successful for protocol: {}",
-                    selectedParser.getProtocolName());
+    private synchronized ParserRoute cacheRoute(long signature, ITrackerProtocolParser parser) {
+        ParserRoute existing = routes.get(signature);
+        if (existing != null) {
+            return existing;
         }
+        ParserRoute route = new ParserRoute(signature, parser);
+        if (routes.size() < MAX_CACHED_SIGNATURES) {
+            routes = routes.with(route);
+        }
+        return route;
+    }
 
-        return selectedParser;
+    private ProtocolException notFound(String rawData) {
+        log.error("Failed to find parser for data ({} chars): {}",
+                rawData.length(),
+                rawData.substring(0, Math.min(rawData.length(), 150)));
+        return ProtocolException.parserNotFound(rawData);
     }
 
-    public Optional<ITrackerProtocolParser> getParserByName(String protocolName) {
-        return parsers.stream()
-            .filter(parser -> parser.getProtocolName().equalsIgnoreCase(protocolName))
-            .findFirst();
+    public record ProtocolRouteStats(String protocol, long hits, long misses) {
+    }
+
+    /**
+     * A routing decision: frames with this signature go to this parser. Instances are
+     * shared, so callers can detect a changed route with an identity check.
+     */
+    public record ParserRoute(long signature, ITrackerProtocolParser parser) {
+    }
+
+    private static final class RouteCounters {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final ParserRoute unclassified;
+
+        private RouteCounters(ITrackerProtocolParser parser) {
+            this.unclassified = new ParserRoute(FrameSignature.UNCLASSIFIED, parser);
+        }
+    }
+
+    /**
+     * Immutable open-addressing signature -> route table. Readers never lock; writers
+     * publish a new copy, which is fine because distinct signatures are few.
+     */
+    private static final class SignatureTable {
+        private static final SignatureTable EMPTY = new SignatureTable(new long[16], new ParserRoute[16], 0);
+
+        private final long[] keys;
+        private final ParserRoute[] values;
+        private final int size;
+
+        private SignatureTable(long[] keys, ParserRoute[] values, int size) {
+            this.keys = keys;
+            this.values = values;
+            this.size = size;
+        }
+
+        int size() {
+            return size;
+        }
+
+        ParserRoute get(long signature) {
+            int mask = keys.length - 1;
+            for (int i = slot(signature, mask); ; i = (i + 1) & mask) {
+                if (keys[i] == signature) {
+                    return values[i];
+                }
+                if (keys[i] == FrameSignature.UNCLASSIFIED) {
+                    return null;
+                }
+            }
+        }
+
+        SignatureTable with(ParserRoute route) {
+            int capacity = keys.length;
+            while ((size + 1) * 2 > capacity) {
+                capacity *= 2;
+            }
+            long[] newKeys = new long[capacity];
+            ParserRoute[] newValues = new ParserRoute[capacity];
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != FrameSignature.UNCLASSIFIED) {
+                    insert(newKeys, newValues, keys[i], values[i]);
+                }
+            }
+            insert(newKeys, newValues, route.signature(), route);
+            return new SignatureTable(newKeys, newValues, size + 1);
+        }
+
+        private static void insert(long[] keys, ParserRoute[] values, long key, ParserRoute value) {
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != FrameSignature.UNCLASSIFIED) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        private static int slot(long key, int mask) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
     }
 }
@@ -2,7 +2,9 @@ package com.jjenus.tracker.devicecomm.config;
 
 import com.jjenus.tracker.devicecomm.domain.ITrackerProtocolParser;
 import com.jjenus.tracker.devicecomm.infrastructure.AutoseekerProtocolParser;
+import com.jjenus.tracker.devicecomm.infrastructure.GT06CursorProtocolParser;
 import com.jjenus.tracker.devicecomm.infrastructure.GT06ProtocolParser;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -10,12 +12,22 @@ import java.util.List;
 
 @Configuration
 public class ProtocolParserConfig {
-    
+
+    // "regex" (default) or "cursor" - lets the two GT06 implementations be A/B compared
+    @Value("${tracking.protocol.gt06.parser:regex}")
+    private String gt06ParserImplementation;
+
     @Bean
     public List<ITrackerProtocolParser> protocolParsers() {
         return List.of(
-            new GT06ProtocolParser(),
+            gt06Parser(),
             new AutoseekerProtocolParser()
         );
     }
-}
\ No newline at end of file
+
+    private GT06ProtocolParser gt06Parser() {
+        return "cursor".equalsIgnoreCase(gt06ParserImplementation)
+            ? new GT06CursorProtocolParser()
+            : new GT06ProtocolParser();
+    }
+}
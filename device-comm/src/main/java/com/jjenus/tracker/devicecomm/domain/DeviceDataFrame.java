@@ -0,0 +1,24 @@
+package com.jjenus.tracker.devicecomm.domain;
+
+import io.netty.buffer.ByteBuf;
+
+import java.time.Instant;
+
+/**
+ * Zero-copy counterpart of {@link DeviceDataPacket}. The payload is a retained
+ * slice of the connection's inbound buffer (delimiter included); whoever
+ * consumes the frame is responsible for calling {@link #release()}.
+ */
+public record DeviceDataFrame(
+    String deviceId,
+    ByteBuf payload,
+    Instant receivedAt,
+    String sourceIp,
+    ITrackerProtocolParser parser
+) {
+    public void release() {
+        if (payload.refCnt() > 0) {
+            payload.release();
+        }
+    }
+}
@@ -2,9 +2,14 @@ package com.jjenus.tracker.devicecomm.domain;
 
 import java.time.Instant;
 
+/**
+ * A framed message from a device. {@code parser} is the parser the connection has
+ * already been routed to, or null to let the processor route the message itself.
+ */
 public record DeviceDataPacket(
     String deviceId,
     String rawData,
     Instant receivedAt,
-    String sourceIp
+    String sourceIp,
+    ITrackerProtocolParser parser
 ) {}
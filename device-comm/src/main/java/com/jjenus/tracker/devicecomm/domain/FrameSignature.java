@@ -0,0 +1,111 @@
+package com.jjenus.tracker.devicecomm.domain;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Cheap header fingerprint of a device frame, packed into a long:
+ * leading character, two upper-case vendor letters, IMEI digit count and the
+ * command token (V1, HTBT, S20, D1...) with the character that terminates it.
+ * Every header regex our parsers use only looks at these features, so two frames
+ * with the same signature are accepted by the same parser and the routing
+ * decision can be cached per signature.
+ * Frames that do not fit the "*XX,<digits>,<token>," shape are {@link #UNCLASSIFIED}.
+ */
+public final class FrameSignature {
+    public static final long UNCLASSIFIED = 0L;
+
+    private static final int MAX_IMEI_DIGITS = 63;
+    private static final int MAX_TOKEN_LENGTH = 5;
+
+    private FrameSignature() {
+    }
+
+    public static long of(CharSequence data) {
+        if (data == null || data.isEmpty()) {
+            return UNCLASSIFIED;
+        }
+        return classify(new CharSource(data), 0, data.length());
+    }
+
+    public static long of(ByteBuf frame) {
+        if (frame == null || !frame.isReadable()) {
+            return UNCLASSIFIED;
+        }
+        return classify(new ByteSource(frame), frame.readerIndex(), frame.writerIndex());
+    }
+
+    private static long classify(Source source, int pos, int end) {
+        if (end - pos < 6 || source.at(pos) != '*' || source.at(pos + 3) != ',') {
+            return UNCLASSIFIED;
+        }
+        char vendor1 = source.at(pos + 1);
+        char vendor2 = source.at(pos + 2);
+        if (vendor1 < 'A' || vendor1 > 'Z' || vendor2 < 'A' || vendor2 > 'Z') {
+            return UNCLASSIFIED;
+        }
+        pos += 4;
+
+        int imeiStart = pos;
+        while (pos < end && source.at(pos) >= '0' && source.at(pos) <= '9') {
+            pos++;
+        }
+        int imeiDigits = pos - imeiStart;
+        if (imeiDigits == 0 || imeiDigits > MAX_IMEI_DIGITS || pos >= end || source.at(pos) != ',') {
+            return UNCLASSIFIED;
+        }
+        pos++;
+
+        long token = 0;
+        int tokenLength = 0;
+        while (pos < end) {
+            char c = source.at(pos);
+            if (c == ',' || c == '#') {
+                break;
+            }
+            if (tokenLength == MAX_TOKEN_LENGTH || c > 0x7F) {
+                return UNCLASSIFIED;
+            }
+            token = (token << 7) | c;
+            tokenLength++;
+            pos++;
+        }
+        if (tokenLength == 0 || pos >= end) {
+            return UNCLASSIFIED;
+        }
+        long terminatedByComma = source.at(pos) == ',' ? 1L : 0L;
+
+        // [5 vendor2][5 vendor1][1 terminator][3 token length][35 token][6 imei digits][7 lead char], never 0
+        return ((long) (vendor2 - 'A') << 57)
+                | ((long) (vendor1 - 'A') << 52)
+                | (terminatedByComma << 51)
+                | ((long) tokenLength << 48)
+                | (token << 13)
+                | ((long) imeiDigits << 7)
+                | '*';
+    }
+
+    /**
+     * Number of IMEI digits encoded in a signature, 0 when unclassified.
+     */
+    public static int imeiDigits(long signature) {
+        return (int) ((signature >>> 7) & 0x3F);
+    }
+
+    private interface Source {
+        char at(int index);
+    }
+
+    private record CharSource(CharSequence data) implements Source {
+        @Override
+        public char at(int index) {
+            return data.charAt(index);
+        }
+    }
+
+    private record ByteSource(ByteBuf data) implements Source {
+        @Override
+        public char at(int index) {
+            return (char) (data.getByte(index) & 0xFF);
+        }
+    }
+}
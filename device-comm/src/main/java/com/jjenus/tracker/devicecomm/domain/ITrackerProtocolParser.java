@@ -2,6 +2,9 @@ package com.jjenus.tracker.devicecomm.domain;
 
 import com.jjenus.tracker.shared.domain.LocationPoint;
 import com.jjenus.tracker.devicecomm.exception.ProtocolParseException;
+import io.netty.buffer.ByteBuf;
+
+import java.nio.charset.StandardCharsets;
 
 public interface ITrackerProtocolParser {
     LocationPoint parse(String rawData) throws ProtocolParseException;
@@ -9,5 +12,18 @@ public interface ITrackerProtocolParser {
     String buildFuelCutCommand(String deviceId);
     String buildEngineOnCommand(String deviceId);
     String getProtocolName();
-}
 
+    /**
+     * Parses a frame straight from the inbound buffer. Implementations that can
+     * walk the bytes in place should override this; the default decodes the
+     * readable bytes once and delegates to {@link #parse(String)}.
+     * The frame's reader index is never moved.
+     */
+    default LocationPoint parseFrame(ByteBuf frame) throws ProtocolParseException {
+        return parse(frame.toString(StandardCharsets.US_ASCII));
+    }
+
+    default boolean canParseFrame(ByteBuf frame) {
+        return canParse(frame.toString(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,545 @@
+package com.jjenus.tracker.devicecomm.infrastructure;
+
+import com.jjenus.tracker.devicecomm.exception.ProtocolParseException;
+import com.jjenus.tracker.shared.domain.LocationPoint;
+import io.netty.buffer.ByteBuf;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+
+/**
+ * GT06 parser that walks the frame once with a cursor instead of regex + split.
+ * Accepts the same frames and produces the same {@link LocationPoint}s as
+ * {@link GT06ProtocolParser}, but works directly on a {@link CharSequence} or a
+ * {@link ByteBuf}: field offsets are indexed in a reusable per-thread table and
+ * coordinates, speed and ddMMyyHHmmss timestamps are parsed arithmetically, so the
+ * happy path builds no intermediate strings.
+ * Command building is inherited from {@link GT06ProtocolParser}.
+ */
+public class GT06CursorProtocolParser extends GT06ProtocolParser {
+    private static final int INITIAL_FIELD_CAPACITY = 32;
+    private static final int MIN_IMEI_DIGITS = 10;
+    private static final int MAX_IMEI_DIGITS = 20;
+    private static final int MAX_FRACTION_DIGITS = 15;
+    private static final float KNOTS_TO_KMH = 1.852f;
+    private static final double[] POWERS_OF_TEN = new double[MAX_FRACTION_DIGITS + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1.0;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10.0;
+        }
+    }
+
+    private static final ThreadLocal<Frame> FRAMES = ThreadLocal.withInitial(Frame::new);
+
+    private final ZoneId zoneId;
+    private final ZoneRules zoneRules;
+
+    public GT06CursorProtocolParser() {
+        this(ZoneId.systemDefault());
+    }
+
+    public GT06CursorProtocolParser(ZoneId zoneId) {
+        this.zoneId = zoneId;
+        this.zoneRules = zoneId.getRules();
+    }
+
+    @Override
+    public LocationPoint parse(String data) throws ProtocolParseException {
+        if (data == null) {
+            throw new ProtocolParseException("Failed to parse GT06 data: Not a valid GT06 protocol message");
+        }
+        Frame frame = FRAMES.get();
+        try {
+            frame.wrap(data, 0, data.length());
+            return parseFields(frame);
+        } finally {
+            frame.clear();
+        }
+    }
+
+    @Override
+    public LocationPoint parseFrame(ByteBuf data) throws ProtocolParseException {
+        Frame frame = FRAMES.get();
+        try {
+            frame.wrap(data);
+            return parseFields(frame);
+        } finally {
+            frame.clear();
+        }
+    }
+
+    @Override
+    public boolean canParse(String data) {
+        if (data == null || data.isEmpty()) {
+            return false;
+        }
+        Frame frame = FRAMES.get();
+        try {
+            frame.wrap(data, 0, data.length());
+            return matchesHeader(frame);
+        } finally {
+            frame.clear();
+        }
+    }
+
+    @Override
+    public boolean canParseFrame(ByteBuf data) {
+        if (data == null || !data.isReadable()) {
+            return false;
+        }
+        Frame frame = FRAMES.get();
+        try {
+            frame.wrap(data);
+            return matchesHeader(frame);
+        } finally {
+            frame.clear();
+        }
+    }
+
+    private LocationPoint parseFields(Frame frame) throws ProtocolParseException {
+        try {
+            if (!matchesHeader(frame)) {
+                throw new ProtocolParseException("Not a valid GT06 protocol message");
+            }
+
+            // Fields between '*' and the trailing '#'
+            frame.indexFields(frame.start + 1, frame.end - 1);
+
+            if (frame.fieldEquals(2, "V4") && frame.fieldCount >= 4 && frame.fieldEquals(3, "S20")) {
+                return parseCommandResponsePacket(frame);
+            }
+
+            if (frame.fieldEquals(2, "V0")) {
+                return new LocationPoint(0.0, 0.0, 0.0f, Instant.now());
+            }
+            if (frame.fieldEquals(2, "V1") || frame.fieldEquals(2, "V2") || frame.fieldEquals(2, "V4")) {
+                return parseGPSPacket(frame);
+            }
+            if (frame.fieldEquals(2, "V3")) {
+                return parseCellOrWifiPacket(frame, 9, "LBS");
+            }
+            if (frame.fieldEquals(2, "V5")) {
+                return parseCellOrWifiPacket(frame, 8, "WIFI");
+            }
+            if (frame.fieldEquals(2, "HTBT")) {
+                return new LocationPoint(0.0, 0.0, 0.0f, Instant.now());
+            }
+            throw new ProtocolParseException("Unknown protocol type: " + frame.fieldToString(2));
+
+        } catch (Exception e) {
+            throw new ProtocolParseException("Failed to parse GT06 data: " + e.getMessage());
+        }
+    }
+
+    private LocationPoint parseGPSPacket(Frame frame) throws ProtocolParseException {
+        // Format: *XX,IMEI,V1/V2/V4,HHMMSS,valid,latitude,N/S,longitude,E/W,speed,direction,DDMMYY,status#
+        if (frame.fieldCount < 12) {
+            throw new ProtocolParseException("Failed to parse GPS packet: Incomplete GPS packet");
+        }
+
+        double latitude = parseCoordinate(frame, 5, 6, 'S');
+        double longitude = parseCoordinate(frame, 7, 8, 'W');
+
+        double speedKnots = parseDecimal(frame, 9);
+        if (Double.isNaN(speedKnots)) {
+            throw new ProtocolParseException("Failed to parse GPS packet: For input string: \""
+                    + frame.fieldToString(9) + "\"");
+        }
+        float speedKmh = (float) speedKnots * KNOTS_TO_KMH;
+
+        Instant timestamp = parseDateTime(frame, 11, 3);
+
+        if (!frame.fieldEquals(4, "A")) {
+            speedKmh = 0.0f;
+        }
+
+        return new LocationPoint(latitude, longitude, speedKmh, timestamp);
+    }
+
+    private LocationPoint parseCommandResponsePacket(Frame frame) throws ProtocolParseException {
+        // *HQ,IMEI,V4,S20,DONE,HHMMSS,response_time,A,latitude,N,longitude,E,speed,direction,DDMMYY,status,...
+        if (frame.fieldCount < 17) {
+            throw new ProtocolParseException("Failed to parse command response packet: Incomplete command response packet");
+        }
+
+        double latitude = parseCoordinate(frame, 8, 9, 'S');
+        double longitude = parseCoordinate(frame, 10, 11, 'W');
+
+        double speedKnots = parseDecimal(frame, 12);
+        float speedKmh = Double.isNaN(speedKnots) ? 0.0f : (float) speedKnots * KNOTS_TO_KMH;
+
+        // The date field may carry status bytes after DDMMYY (e.g. 160716F7FFBBFF)
+        Instant timestamp;
+        if (frame.hasDigitRun(14, 6)) {
+            timestamp = parseDateTimeAt(frame, frame.fieldStart(14), 6);
+        } else {
+            LocalDate today = LocalDate.now(zoneId);
+            timestamp = toInstant(today.getYear() % 100, today.getMonthValue(), today.getDayOfMonth(), frame, 6);
+        }
+
+        if (!frame.fieldEquals(7, "A")) {
+            speedKmh = 0.0f;
+        }
+
+        return new LocationPoint(latitude, longitude, speedKmh, timestamp);
+    }
+
+    private LocationPoint parseCellOrWifiPacket(Frame frame, int minFields, String packetName)
+            throws ProtocolParseException {
+        // Neither LBS nor WIFI packets carry GPS coordinates; only the timestamp is used
+        if (frame.fieldCount < minFields) {
+            throw new ProtocolParseException("Failed to parse " + packetName + " packet: Incomplete "
+                    + packetName + " packet");
+        }
+        Instant timestamp = parseDateTime(frame, frame.fieldCount - 2, 3);
+        return new LocationPoint(0.0, 0.0, 0.0f, timestamp);
+    }
+
+    // ---------------------------------------------------------------- header
+
+    private static boolean matchesHeader(Frame frame) {
+        // Equivalent of ^\*[A-Z]{2},[0-9]{10,20},(V[0-5]|HTBT|S20|D[0-9]+),.*#
+        int pos = frame.start;
+        int end = frame.end;
+        if (end - pos < 5 || frame.charAt(pos) != '*'
+                || !isUpper(frame.charAt(pos + 1)) || !isUpper(frame.charAt(pos + 2))
+                || frame.charAt(pos + 3) != ',') {
+            return false;
+        }
+        pos += 4;
+
+        int digitsStart = pos;
+        while (pos < end && isDigit(frame.charAt(pos))) {
+            pos++;
+        }
+        int digits = pos - digitsStart;
+        if (digits < MIN_IMEI_DIGITS || digits > MAX_IMEI_DIGITS || pos >= end || frame.charAt(pos) != ',') {
+            return false;
+        }
+        pos++;
+
+        pos = matchCommandToken(frame, pos, end);
+        if (pos < 0 || pos >= end || frame.charAt(pos) != ',') {
+            return false;
+        }
+        pos++;
+
+        if (pos >= end || frame.charAt(end - 1) != '#') {
+            return false;
+        }
+        for (int i = pos; i < end - 1; i++) {
+            if (isLineTerminator(frame.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int matchCommandToken(Frame frame, int pos, int end) {
+        if (pos >= end) {
+            return -1;
+        }
+        char c = frame.charAt(pos);
+        if (c == 'V') {
+            return pos + 1 < end && frame.charAt(pos + 1) >= '0' && frame.charAt(pos + 1) <= '5' ? pos + 2 : -1;
+        }
+        if (c == 'D') {
+            int i = pos + 1;
+            while (i < end && isDigit(frame.charAt(i))) {
+                i++;
+            }
+            return i > pos + 1 ? i : -1;
+        }
+        if (c == 'H') {
+            return frame.regionEquals(pos, end, "HTBT") ? pos + 4 : -1;
+        }
+        if (c == 'S') {
+            return frame.regionEquals(pos, end, "S20") ? pos + 3 : -1;
+        }
+        return -1;
+    }
+
+    // ---------------------------------------------------------------- numbers
+
+    private static double parseCoordinate(Frame frame, int valueField, int directionField, char negativeDirection) {
+        // DDMM.MMMM / DDDMM.MMMM -> decimal degrees; malformed values fall back to 0.0
+        double value = parseDecimal(frame, valueField);
+        if (Double.isNaN(value)) {
+            value = 0.0;
+        }
+        double magnitude = Math.abs(value);
+        int degrees = (int) (magnitude / 100);
+        double minutes = magnitude - (degrees * 100);
+        double decimal = degrees + (minutes / 60.0);
+        if (value < 0) {
+            decimal = -decimal;
+        }
+        if (frame.fieldLength(directionField) == 1
+                && frame.charAt(frame.fieldStart(directionField)) == negativeDirection) {
+            decimal = -decimal;
+        }
+        return decimal;
+    }
+
+    /**
+     * Parses [-+]digits[.digits] as a fixed-point value. Returns NaN when the field
+     * is empty or malformed.
+     */
+    private static double parseDecimal(Frame frame, int field) {
+        int pos = frame.fieldStart(field);
+        int end = frame.fieldEnd(field);
+        if (pos >= end) {
+            return Double.NaN;
+        }
+
+        boolean negative = false;
+        char first = frame.charAt(pos);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            pos++;
+        }
+
+        long integerPart = 0;
+        long fraction = 0;
+        int fractionDigits = 0;
+        boolean seenDigit = false;
+        boolean seenPoint = false;
+        for (; pos < end; pos++) {
+            char c = frame.charAt(pos);
+            if (isDigit(c)) {
+                seenDigit = true;
+                if (seenPoint) {
+                    if (fractionDigits < MAX_FRACTION_DIGITS) {
+                        fraction = fraction * 10 + (c - '0');
+                        fractionDigits++;
+                    }
+                } else {
+                    integerPart = integerPart * 10 + (c - '0');
+                }
+            } else if (c == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (!seenDigit) {
+            return Double.NaN;
+        }
+
+        double value = integerPart + fraction / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    private Instant parseDateTime(Frame frame, int dateField, int timeField) {
+        // DDMMYY + HHMMSS; anything unparseable falls back to now, like the regex parser
+        if (frame.fieldLength(dateField) != 6) {
+            return Instant.now();
+        }
+        return parseDateTimeAt(frame, frame.fieldStart(dateField), timeField);
+    }
+
+    private Instant parseDateTimeAt(Frame frame, int date, int timeField) {
+        if (!frame.allDigits(date, date + 6)) {
+            return Instant.now();
+        }
+        return toInstant(frame.twoDigits(date + 4), frame.twoDigits(date + 2), frame.twoDigits(date), frame, timeField);
+    }
+
+    private Instant toInstant(int yearOfCentury, int month, int day, Frame frame, int timeField) {
+        int time = frame.fieldStart(timeField);
+        if (frame.fieldLength(timeField) != 6 || !frame.allDigits(time, time + 6)) {
+            return Instant.now();
+        }
+        int hour = frame.twoDigits(time);
+        int minute = frame.twoDigits(time + 2);
+        int second = frame.twoDigits(time + 4);
+        int year = 2000 + yearOfCentury;
+
+        if (month < 1 || month > 12 || day < 1 || day > 31
+                || hour > 23 || minute > 59 || second > 59) {
+            return Instant.now();
+        }
+        // DateTimeFormatter's SMART resolver clamps e.g. 31/04 to the last day of the month
+        day = Math.min(day, lengthOfMonth(year, month));
+
+        long localEpochSecond = epochDay(year, month, day) * 86_400L + hour * 3_600L + minute * 60L + second;
+        int offsetSeconds = zoneRules.isFixedOffset()
+                ? zoneRules.getOffset(Instant.EPOCH).getTotalSeconds()
+                : zoneRules.getOffset(LocalDateTime.ofEpochSecond(localEpochSecond, 0, ZoneOffset.UTC)).getTotalSeconds();
+        return Instant.ofEpochSecond(localEpochSecond - offsetSeconds);
+    }
+
+    private static long epochDay(int year, int month, int day) {
+        // Days since 1970-01-01 in the proleptic Gregorian calendar
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097L + dayOfEra - 719_468L;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isUpper(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    /**
+     * Read-only view over either a CharSequence or a ByteBuf plus the field offset
+     * table. One instance per thread, cleared after every call so no frame is retained.
+     */
+    private static final class Frame {
+        private CharSequence chars;
+        private ByteBuf bytes;
+        private int start;
+        private int end;
+        private int[] fieldStarts = new int[INITIAL_FIELD_CAPACITY];
+        private int[] fieldEnds = new int[INITIAL_FIELD_CAPACITY];
+        private int fieldCount;
+
+        void wrap(CharSequence data, int start, int end) {
+            this.chars = data;
+            this.bytes = null;
+            this.start = start;
+            this.end = end;
+            this.fieldCount = 0;
+        }
+
+        void wrap(ByteBuf data) {
+            this.chars = null;
+            this.bytes = data;
+            this.start = data.readerIndex();
+            this.end = data.writerIndex();
+            this.fieldCount = 0;
+        }
+
+        void clear() {
+            chars = null;
+            bytes = null;
+            fieldCount = 0;
+        }
+
+        char charAt(int index) {
+            return bytes != null ? (char) (bytes.getByte(index) & 0xFF) : chars.charAt(index);
+        }
+
+        /**
+         * Splits [from, to) on ',' the way String.split(",") does, including
+         * dropping trailing empty fields.
+         */
+        void indexFields(int from, int to) {
+            fieldCount = 0;
+            int fieldStart = from;
+            for (int i = from; i <= to; i++) {
+                if (i == to || charAt(i) == ',') {
+                    if (fieldCount == fieldStarts.length) {
+                        fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+                        fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+                    }
+                    fieldStarts[fieldCount] = fieldStart;
+                    fieldEnds[fieldCount] = i;
+                    fieldCount++;
+                    fieldStart = i + 1;
+                }
+            }
+            while (fieldCount > 0 && fieldStarts[fieldCount - 1] == fieldEnds[fieldCount - 1]) {
+                fieldCount--;
+            }
+        }
+
+        int fieldStart(int field) {
+            return field < fieldCount ? fieldStarts[field] : end;
+        }
+
+        int fieldEnd(int field) {
+            return field < fieldCount ? fieldEnds[field] : end;
+        }
+
+        int fieldLength(int field) {
+            return fieldEnd(field) - fieldStart(field);
+        }
+
+        boolean fieldEquals(int field, String expected) {
+            if (field >= fieldCount || fieldLength(field) != expected.length()) {
+                return false;
+            }
+            int pos = fieldStarts[field];
+            for (int i = 0; i < expected.length(); i++) {
+                if (charAt(pos + i) != expected.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean regionEquals(int pos, int limit, String expected) {
+            if (limit - pos < expected.length()) {
+                return false;
+            }
+            for (int i = 0; i < expected.length(); i++) {
+                if (charAt(pos + i) != expected.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean allDigits(int from, int to) {
+            for (int i = from; i < to; i++) {
+                if (!isDigit(charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * True when the field starts a 6-digit date somewhere, mirroring the
+         * regex parser's ".*[0-9]{6}.*" check before it takes the first 6 chars.
+         */
+        boolean hasDigitRun(int field, int runLength) {
+            int run = 0;
+            for (int i = fieldStart(field); i < fieldEnd(field); i++) {
+                run = isDigit(charAt(i)) ? run + 1 : 0;
+                if (run >= runLength) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int twoDigits(int pos) {
+            return (charAt(pos) - '0') * 10 + (charAt(pos + 1) - '0');
+        }
+
+        String fieldToString(int field) {
+            StringBuilder sb = new StringBuilder(fieldLength(field));
+            for (int i = fieldStart(field); i < fieldEnd(field); i++) {
+                sb.append(charAt(i));
+            }
+            return sb.toString();
+        }
+    }
+}
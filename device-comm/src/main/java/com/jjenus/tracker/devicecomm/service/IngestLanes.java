@@ -0,0 +1,208 @@
+package com.jjenus.tracker.devicecomm.service;
+
+import io.netty.channel.Channel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ingest stage between the Netty event loops and {@link com.jjenus.tracker.devicecomm.application.DeviceDataProcessor}.
+ * Work is hashed by device key onto one of N lanes; each lane is a bounded queue
+ * drained by a single thread, so packets of one device are processed in arrival order.
+ * When a lane reaches its high watermark the submitting channel stops reading
+ * (autoRead off) and is resumed once the lane drains below the low watermark, which
+ * pushes back on the device's TCP window instead of queueing without bound.
+ * <p>
+ * In virtual-thread mode (Java 21+) lanes are cheap, so many more of them can be
+ * configured; how many run the blocking processor at once is then capped by a
+ * semaphore instead of by the number of lane threads.
+ */
+@Component
+public class IngestLanes implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(IngestLanes.class);
+
+    private final Lane[] lanes;
+    private final Semaphore permits;
+    private final LongAdder processed = new LongAdder();
+    private volatile boolean running = true;
+
+    public IngestLanes(int laneCount, int laneCapacity) {
+        this(laneCount, laneCapacity, false, 0);
+    }
+
+    @Autowired
+    public IngestLanes(@Value("${tracking.ingest.lanes:8}") int laneCount,
+                       @Value("${tracking.ingest.lane-capacity:1024}") int laneCapacity,
+                       @Value("${tracking.execution.virtual-threads:false}") boolean virtualThreads,
+                       @Value("${tracking.execution.ingest.max-concurrency:0}") int maxConcurrency) {
+        if (laneCount < 1 || laneCapacity < 4) {
+            throw new IllegalArgumentException("Ingest needs at least 1 lane with capacity 4, got "
+                    + laneCount + " x " + laneCapacity);
+        }
+        // 0 means one permit per lane, i.e. no limit beyond the lanes themselves
+        this.permits = maxConcurrency > 0 && maxConcurrency < laneCount ? new Semaphore(maxConcurrency) : null;
+
+        ThreadFactory threads = virtualThreads
+                ? new VirtualThreadTaskExecutor("ingest-lane-").getVirtualThreadFactory()
+                : task -> {
+                    Thread thread = new Thread(task);
+                    thread.setDaemon(true);
+                    return thread;
+                };
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane(i, laneCapacity, threads);
+            lanes[i].thread.start();
+        }
+        logger.info("Started {} {} ingest lanes with capacity {}, max concurrency {}",
+                laneCount, virtualThreads ? "virtual" : "platform", laneCapacity,
+                permits != null ? maxConcurrency : laneCount);
+    }
+
+    /**
+     * Queues the task on the lane owning {@code deviceKey}. Returns false when the
+     * lane is full or shutting down; the caller still owns whatever the task holds.
+     */
+    public boolean submit(String deviceKey, Channel channel, Runnable task) {
+        Lane lane = lanes[laneIndex(deviceKey)];
+        if (!running || !lane.queue.offer(task)) {
+            lane.rejected.increment();
+            return false;
+        }
+        if (channel != null && lane.queue.size() >= lane.highWatermark) {
+            lane.pause(channel);
+        }
+        return true;
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    public int getQueueDepth(int lane) {
+        return lanes[lane].queue.size();
+    }
+
+    public int getTotalQueueDepth() {
+        int depth = 0;
+        for (Lane lane : lanes) {
+            depth += lane.queue.size();
+        }
+        return depth;
+    }
+
+    public long getProcessedCount() {
+        return processed.sum();
+    }
+
+    public long getRejectedCount() {
+        long rejected = 0;
+        for (Lane lane : lanes) {
+            rejected += lane.rejected.sum();
+        }
+        return rejected;
+    }
+
+    public int getPausedChannelCount() {
+        int paused = 0;
+        for (Lane lane : lanes) {
+            paused += lane.paused.size();
+        }
+        return paused;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        for (Lane lane : lanes) {
+            lane.thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private int laneIndex(String deviceKey) {
+        int h = deviceKey.hashCode() * 0x9E3779B9;
+        return ((h ^ (h >>> 16)) & Integer.MAX_VALUE) % lanes.length;
+    }
+
+    private final class Lane implements Runnable {
+        private final BlockingQueue<Runnable> queue;
+        private final int highWatermark;
+        private final int lowWatermark;
+        private final Set<Channel> paused = ConcurrentHashMap.newKeySet();
+        private final LongAdder rejected = new LongAdder();
+        private final Thread thread;
+
+        private Lane(int index, int capacity, ThreadFactory threads) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            // Leave headroom for frames already decoded from the read that triggered the pause
+            this.highWatermark = capacity * 3 / 4;
+            this.lowWatermark = capacity / 4;
+            this.thread = threads.newThread(this);
+            this.thread.setName("ingest-lane-" + index);
+        }
+
+        private void pause(Channel channel) {
+            if (paused.add(channel)) {
+                channel.config().setAutoRead(false);
+                logger.debug("Paused reads on {} while {} drains", channel, thread.getName());
+            }
+        }
+
+        private void resumeAll() {
+            for (Channel channel : paused) {
+                paused.remove(channel);
+                if (channel.isActive()) {
+                    channel.config().setAutoRead(true);
+                }
+            }
+        }
+
+        private void runLimited(Runnable task) throws InterruptedException {
+            if (permits == null) {
+                task.run();
+            } else {
+                permits.acquire();
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            }
+            processed.increment();
+        }
+
+        @Override
+        public void run() {
+            while (running || !queue.isEmpty()) {
+                try {
+                    Runnable task = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (task != null) {
+                        runLimited(task);
+                    }
+                    if (!paused.isEmpty() && queue.size() <= lowWatermark) {
+                        resumeAll();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Throwable t) {
+                    logger.error("Ingest task failed on {}", thread.getName(), t);
+                }
+            }
+            resumeAll();
+        }
+    }
+}
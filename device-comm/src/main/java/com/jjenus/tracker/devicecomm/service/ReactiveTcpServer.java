@@ -1,14 +1,22 @@
 package com.jjenus.tracker.devicecomm.service;
 
 import com.jjenus.tracker.devicecomm.application.DeviceDataProcessor;
+import com.jjenus.tracker.devicecomm.application.ParserFactory;
+import com.jjenus.tracker.devicecomm.application.ParserFactory.ParserRoute;
+import com.jjenus.tracker.devicecomm.domain.DeviceDataFrame;
 import com.jjenus.tracker.devicecomm.domain.DeviceDataPacket;
+import com.jjenus.tracker.devicecomm.domain.ITrackerProtocolParser;
 import com.jjenus.tracker.shared.domain.ConnectionInfo;
 import com.jjenus.tracker.shared.redis.RedisConnectionTracker;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelOption;
+import io.netty.handler.codec.DelimiterBasedFrameDecoder;
 import io.netty.handler.logging.LogLevel;
 import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.util.AttributeKey;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -34,15 +42,19 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class ReactiveTcpServer {
     private static final Logger logger = LoggerFactory.getLogger(ReactiveTcpServer.class);
-    private static final AtomicInteger CONNECTION_COUNTER = new AtomicInteger(0);
+
+    // Learned once per connection; Redis is only touched when the device identity changes
+    private static final AttributeKey<String> DEVICE_ID = AttributeKey.valueOf("tracker.deviceId");
+    private static final AttributeKey<ParserRoute> PARSER_ROUTE = AttributeKey.valueOf("tracker.parserRoute");
 
     private final DeviceDataProcessor deviceDataProcessor;
+    private final ParserFactory parserFactory;
     private final RedisConnectionTracker connectionTracker;
+    private final IngestLanes ingestLanes;
 
     @Value("${tracking.tcp.server.port:8888}")
     private int tcpPort;
@@ -56,13 +68,21 @@ public class ReactiveTcpServer {
     @Value("${tracking.tcp.server.read-timeout:300}")
     private int readTimeoutSeconds;
 
+    // Frame on the Netty pipeline and hand parsers retained ByteBuf slices instead of Strings
+    @Value("${tracking.tcp.server.zero-copy-framing:false}")
+    private boolean zeroCopyFraming;
+
     private DisposableServer server;
     private volatile boolean running = false;
 
     public ReactiveTcpServer(DeviceDataProcessor deviceDataProcessor,
-                             RedisConnectionTracker connectionTracker) {
+                             ParserFactory parserFactory,
+                             RedisConnectionTracker connectionTracker,
+                             IngestLanes ingestLanes) {
         this.deviceDataProcessor = deviceDataProcessor;
+        this.parserFactory = parserFactory;
         this.connectionTracker = connectionTracker;
+        this.ingestLanes = ingestLanes;
     }
 
     @EventListener(ApplicationReadyEvent.class)
@@ -87,7 +107,7 @@ public class ReactiveTcpServer {
                     .doOnUnbound(unbound -> logger.info("TCP Server unbound"))
                     .wiretap("reactor.netty.tcp.TcpServer", LogLevel.DEBUG)
                     .handle((inbound, outbound) -> {
-                        String connectionId = "conn-" + CONNECTION_COUNTER.incrementAndGet();
+                        String connectionId = connectionTracker.newConnectionId();
 
                         final String[] clientIp = new String[]{"unknown"};
                         final Connection[] nettyConnection = new Connection[1];
@@ -109,11 +129,22 @@ public class ReactiveTcpServer {
                             logger.info("Connection {} established from {}", connectionId, clientIp[0]);
                         });
 
+                        if (zeroCopyFraming) {
+                            // Frames are already split by the pipeline decoder; retain them
+                            // so they survive the hand-off to the processing scheduler
+                            return inbound.receive()
+                                    .retain()
+                                    .doOnNext(frame -> processFrame(frame, nettyConnection[0], connectionId, clientIp[0]))
+                                    .doOnError(error -> handleConnectionError(error, connectionId))
+                                    .doFinally(signal -> cleanupConnection(connectionId))
+                                    .then();
+                        }
+
                         // Process incoming data with proper framing
                         return inbound.receive()
                                 .asByteArray()
                                 .transform(this::frameWithDelimiter)
-                                .doOnNext(message -> processRawMessage(message, connectionId, clientIp[0]))
+                                .doOnNext(message -> processRawMessage(message, nettyConnection[0], connectionId, clientIp[0]))
                                 .doOnError(error -> handleConnectionError(error, connectionId))
                                 .doFinally(signal -> cleanupConnection(connectionId))
                                 .then();
@@ -136,6 +167,14 @@ public class ReactiveTcpServer {
 
         logger.debug("New TCP connection from {}:{}", clientIp, clientPort);
 
+        if (zeroCopyFraming) {
+            // Slices each '#'-terminated frame out of the pooled cumulation buffer (delimiter kept)
+            connection.addHandlerLast("frameDecoder", new DelimiterBasedFrameDecoder(
+                    maxMessageLength,
+                    false,
+                    Unpooled.copiedBuffer(messageDelimiter, StandardCharsets.US_ASCII)));
+        }
+
         connection.onDispose(() -> {
             logger.debug("Connection from {}:{} closed", clientIp, clientPort);
         });
@@ -204,7 +243,7 @@ public class ReactiveTcpServer {
                 }, FluxSink.OverflowStrategy.BUFFER));
     }
 
-    private void processRawMessage(String rawMessage, String connectionId, String clientIp) {
+    private void processRawMessage(String rawMessage, Connection connection, String connectionId, String clientIp) {
         try {
             if (rawMessage == null || rawMessage.trim().isEmpty()) {
                 logger.warn("Empty message from connection {}", connectionId);
@@ -222,38 +261,32 @@ public class ReactiveTcpServer {
                 logger.debug("Added missing delimiter to message from connection {}", connectionId);
             }
 
-            // Extract device ID
-            String deviceId = extractDeviceIdFromRawMessage(messageForParser);
-
-            // Update connection tracker
-            if (!"unknown".equals(deviceId)) {
-                connectionTracker.updateConnectionDevice(connectionId, deviceId);
-                logger.debug("Updated connection {} with device ID {}", connectionId, deviceId);
-            }
+            Channel channel = connection.channel();
+            String deviceId = resolveDeviceId(channel, messageForParser, connectionId);
+            ITrackerProtocolParser parser = resolveParser(channel,
+                    parserFactory.route(messageForParser, channel.attr(PARSER_ROUTE).get()));
 
             // Create and process packet
             DeviceDataPacket packet = new DeviceDataPacket(
                     deviceId,
                     messageForParser,
                     Instant.now(),
-                    clientIp
+                    clientIp,
+                    parser
             );
 
-            // Process asynchronously
-            Mono.fromRunnable(() -> {
-                        try {
-                            deviceDataProcessor.processDeviceData(packet);
-                        } catch (Exception e) {
-                            logger.error("Error in device data processor for connection {}",
-                                    connectionId, e);
-                        }
-                    })
-                    .subscribeOn(Schedulers.boundedElastic())
-                    .subscribe(
-                            null,
-                            error -> logger.error("Subscription error for connection {}",
-                                    connectionId, error)
-                    );
+            // Process on the device's ingest lane, in arrival order
+            boolean accepted = ingestLanes.submit(laneKey(deviceId, connectionId), channel, () -> {
+                try {
+                    deviceDataProcessor.processDeviceData(packet);
+                } catch (Exception e) {
+                    logger.error("Error in device data processor for connection {}",
+                            connectionId, e);
+                }
+            });
+            if (!accepted) {
+                logger.warn("Ingest lane full, dropped message from connection {}", connectionId);
+            }
 
             // Update last seen
             connectionTracker.updateLastSeen(connectionId);
@@ -264,29 +297,142 @@ public class ReactiveTcpServer {
         }
     }
 
-    private String extractDeviceIdFromRawMessage(String rawMessage) {
+    private void processFrame(ByteBuf frame, Connection connection, String connectionId, String clientIp) {
+        boolean handedOff = false;
         try {
-            if (rawMessage != null && rawMessage.startsWith("*")) {
-                // Remove the delimiter for parsing
-                String cleanMessage = rawMessage;
-                if (cleanMessage.endsWith(messageDelimiter)) {
-                    cleanMessage = cleanMessage.substring(0, cleanMessage.length() - 1);
-                }
+            if (!frame.isReadable()) {
+                logger.warn("Empty frame from connection {}", connectionId);
+                return;
+            }
+
+            logger.debug("Received frame ({} bytes) from connection {}",
+                    frame.readableBytes(), connectionId);
+
+            Channel channel = connection.channel();
+            String deviceId = resolveDeviceId(channel, frame, connectionId);
+            ITrackerProtocolParser parser = resolveParser(channel,
+                    parserFactory.routeFrame(frame, channel.attr(PARSER_ROUTE).get()));
+
+            DeviceDataFrame dataFrame = new DeviceDataFrame(
+                    deviceId,
+                    frame,
+                    Instant.now(),
+                    clientIp,
+                    parser
+            );
 
-                String[] parts = cleanMessage.split(",", 3);
-                if (parts.length >= 2) {
-                    String deviceId = parts[1].trim();
-                    // Validate device ID format (IMEI-like)
-                    if (deviceId.matches("[0-9]{10,15}")) {
-                        return deviceId;
-                    }
+            // Process on the device's ingest lane; the processor releases the frame
+            handedOff = ingestLanes.submit(laneKey(deviceId, connectionId), channel, () -> {
+                try {
+                    deviceDataProcessor.processDeviceFrame(dataFrame);
+                } catch (Exception e) {
+                    logger.error("Error in device data processor for connection {}",
+                            connectionId, e);
                 }
+            });
+            if (!handedOff) {
+                logger.warn("Ingest lane full, dropped frame from connection {}", connectionId);
             }
+
+            connectionTracker.updateLastSeen(connectionId);
+
         } catch (Exception e) {
-            logger.warn("Failed to extract device ID from message: {}",
-                    rawMessage != null ? rawMessage.substring(0, Math.min(rawMessage.length(), 100)) : "null");
+            logger.error("Error processing frame from connection {}: {}",
+                    connectionId, e.getMessage());
+        } finally {
+            if (!handedOff && frame.refCnt() > 0) {
+                frame.release();
+            }
+        }
+    }
+
+    private static String laneKey(String deviceId, String connectionId) {
+        // Unidentified devices are still ordered per connection
+        return "unknown".equals(deviceId) ? connectionId : deviceId;
+    }
+
+    private ITrackerProtocolParser resolveParser(Channel channel, ParserRoute route) {
+        if (channel.attr(PARSER_ROUTE).get() != route) {
+            channel.attr(PARSER_ROUTE).set(route);
+        }
+        return route.parser();
+    }
+
+    private String resolveDeviceId(Channel channel, String rawMessage, String connectionId) {
+        // "*XX,<10-15 digits>,..." - frames without an IMEI keep the connection's identity
+        String known = channel.attr(DEVICE_ID).get();
+        if (!rawMessage.startsWith("*")) {
+            return known != null ? known : "unknown";
+        }
+
+        int idStart = rawMessage.indexOf(',') + 1;
+        int idEnd = idStart > 0 ? rawMessage.indexOf(',', idStart) : -1;
+        if (idStart > 0 && idEnd < 0) {
+            idEnd = rawMessage.endsWith(messageDelimiter) ? rawMessage.length() - 1 : rawMessage.length();
+        }
+        int length = idEnd - idStart;
+        if (idStart <= 0 || length < 10 || length > 15) {
+            return known != null ? known : "unknown";
+        }
+
+        if (known != null && known.length() == length && rawMessage.startsWith(known, idStart)) {
+            return known;
+        }
+        for (int i = idStart; i < idEnd; i++) {
+            char c = rawMessage.charAt(i);
+            if (c < '0' || c > '9') {
+                return known != null ? known : "unknown";
+            }
+        }
+        return learnDeviceId(channel, connectionId, rawMessage.substring(idStart, idEnd));
+    }
+
+    private String resolveDeviceId(Channel channel, ByteBuf frame, String connectionId) {
+        // Same rules as the String variant, read in place
+        String known = channel.attr(DEVICE_ID).get();
+        int start = frame.readerIndex();
+        int end = frame.writerIndex();
+        if (frame.getByte(start) != '*') {
+            return known != null ? known : "unknown";
+        }
+
+        int firstComma = frame.indexOf(start, end, (byte) ',');
+        if (firstComma < 0) {
+            return known != null ? known : "unknown";
+        }
+        int idStart = firstComma + 1;
+        int idEnd = frame.indexOf(idStart, end, (byte) ',');
+        if (idEnd < 0) {
+            idEnd = frame.getByte(end - 1) == messageDelimiter.charAt(0) ? end - 1 : end;
+        }
+        int length = idEnd - idStart;
+        if (length < 10 || length > 15) {
+            return known != null ? known : "unknown";
+        }
+
+        boolean sameAsKnown = known != null && known.length() == length;
+        for (int i = idStart; i < idEnd; i++) {
+            byte b = frame.getByte(i);
+            if (b < '0' || b > '9') {
+                return known != null ? known : "unknown";
+            }
+            sameAsKnown = sameAsKnown && known.charAt(i - idStart) == b;
+        }
+        if (sameAsKnown) {
+            return known;
+        }
+        return learnDeviceId(channel, connectionId, frame.toString(idStart, length, StandardCharsets.US_ASCII));
+    }
+
+    private String learnDeviceId(Channel channel, String connectionId, String deviceId) {
+        String previous = channel.attr(DEVICE_ID).getAndSet(deviceId);
+        connectionTracker.updateConnectionDevice(connectionId, deviceId);
+        if (previous == null) {
+            logger.debug("Connection {} identified as device {}", connectionId, deviceId);
+        } else {
+            logger.info("Connection {} switched from device {} to {}", connectionId, previous, deviceId);
         }
-        return "unknown";
+        return deviceId;
     }
 
     private void handleConnectionError(Throwable error, String connectionId) {
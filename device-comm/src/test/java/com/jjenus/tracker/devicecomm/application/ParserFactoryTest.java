@@ -2,9 +2,14 @@ package com.jjenus.tracker.devicecomm.application;
 
 import com.jjenus.tracker.devicecomm.domain.ITrackerProtocolParser;
 import com.jjenus.tracker.devicecomm.exception.ProtocolException;
+import com.jjenus.tracker.shared.domain.LocationPoint;
 import com.jjenus.tracker.devicecomm.infrastructure.AutoseekerProtocolParser;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
@@ -82,4 +87,107 @@ class ParserFactoryTest {
 
         assertEquals("PROTOCOL_PARSER_NOT_FOUND", exception.getErrorCode());
     }
+
+    @Test
+    void testGetFrameParserForByteBufFrame() {
+        ByteBuf frame = Unpooled.copiedBuffer(
+            "*HQ,8168000008,V1,043602,A,2234.9273,N,11354.3980,E,000.06,000,100715,FBFBBFF,460,00,10342,4283,10,25,128#",
+            StandardCharsets.US_ASCII);
+        int readerIndex = frame.readerIndex();
+
+        ITrackerProtocolParser parser = parserFactory.getFrameParser(frame);
+
+        assertTrue(parser instanceof AutoseekerProtocolParser);
+        assertEquals(readerIndex, frame.readerIndex());
+        frame.release();
+    }
+
+    @Test
+    void testGetFrameParserForEmptyByteBufFrame() {
+        ProtocolException exception = assertThrows(ProtocolException.class,
+            () -> parserFactory.getFrameParser(Unpooled.EMPTY_BUFFER));
+
+        assertEquals("PROTOCOL_PARSER_NOT_FOUND", exception.getErrorCode());
+    }
+
+    @Test
+    void testRoutingCostStaysFlatAsParsersGrow() {
+        String data = "*HQ,8168000008,V1,043602,A,2234.9273,N,11354.3980,E,000.06,000,100715,FBFBBFF,460,00,10342,4283,10,25,128#";
+        List<CountingParser> decoys = new ArrayList<>();
+        List<ITrackerProtocolParser> parsers = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            CountingParser decoy = new CountingParser("Decoy" + i);
+            decoys.add(decoy);
+            parsers.add(decoy);
+        }
+        parsers.add(autoseekerParser);
+        ParserFactory factory = new ParserFactory(parsers);
+
+        for (int i = 0; i < 100; i++) {
+            assertSame(autoseekerParser, factory.getParser(data));
+        }
+
+        // Only the first frame of the signature scanned the decoys
+        decoys.forEach(decoy -> assertEquals(1, decoy.canParseCalls));
+        assertEquals(99, factory.getRouteStats().get("Autoseeker").hits());
+        assertEquals(1, factory.getRouteStats().get("Autoseeker").misses());
+    }
+
+    @Test
+    void testPreviousRouteIsReusedForSameSignature() {
+        String data = "*HQ,8168000008,V1,043602,A,2234.9273,N,11354.3980,E,000.06,000,100715,FBFBBFF,460,00,10342,4283,10,25,128#";
+        String heartbeat = "*HQ,8168000008,V4,S20,DONE,061158,061116,A,2235.0086,N,11354.3668,E,010.50,000,160716F7FFBBFF,460,00#";
+
+        ParserFactory.ParserRoute first = parserFactory.route(data, null);
+        ParserFactory.ParserRoute second = parserFactory.route(data, first);
+        ParserFactory.ParserRoute other = parserFactory.route(heartbeat, second);
+
+        assertSame(first, second);
+        assertNotSame(first, other);
+        assertSame(autoseekerParser, first.parser());
+        assertEquals(1, parserFactory.getRouteStats().get("Autoseeker").hits());
+        assertEquals(2, parserFactory.getRouteStats().get("Autoseeker").misses());
+    }
+
+    @Test
+    void testUnroutedFramesAreCounted() {
+        assertThrows(ProtocolException.class, () -> parserFactory.getParser("*HQ,8168000008,ZZ9,1#"));
+
+        assertEquals(1, parserFactory.getUnroutedCount());
+    }
+
+    private static class CountingParser implements ITrackerProtocolParser {
+        private final String name;
+        private int canParseCalls;
+
+        CountingParser(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public LocationPoint parse(String rawData) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean canParse(String rawData) {
+            canParseCalls++;
+            return false;
+        }
+
+        @Override
+        public String buildFuelCutCommand(String deviceId) {
+            return null;
+        }
+
+        @Override
+        public String buildEngineOnCommand(String deviceId) {
+            return null;
+        }
+
+        @Override
+        public String getProtocolName() {
+            return name;
+        }
+    }
 }
@@ -0,0 +1,78 @@
+package com.jjenus.tracker.devicecomm.domain;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FrameSignatureTest {
+
+    @Test
+    void of_sameHeaderDifferentPayload_returnsSameSignature() {
+        // given
+        String first = "*HQ,865205030330012,V1,145452,A,2240.55181,N,11358.32389,E,0.00,0,100815,FFFFFBFF#";
+        String second = "*HQ,865205030330099,V1,010101,V,0000.00000,S,00000.00000,W,9.99,0,010120,FFFFFBFF#";
+
+        // when
+        long firstSignature = FrameSignature.of(first);
+        long secondSignature = FrameSignature.of(second);
+
+        // then
+        assertThat(firstSignature).isEqualTo(secondSignature).isNotEqualTo(FrameSignature.UNCLASSIFIED);
+        assertThat(FrameSignature.imeiDigits(firstSignature)).isEqualTo(15);
+    }
+
+    @Test
+    void of_differentVendorCommandOrImeiLength_returnsDifferentSignatures() {
+        // given
+        long gps = FrameSignature.of("*HQ,865205030330012,V1,145452#");
+        long heartbeat = FrameSignature.of("*HQ,865205030330012,HTBT,100#");
+        long shortImei = FrameSignature.of("*HQ,8168000008,V1,145452#");
+        long unterminatedToken = FrameSignature.of("*HQ,865205030330012,V1#");
+        long otherVendor = FrameSignature.of("*HX,865205030330012,V1,145452#");
+
+        // then
+        assertThat(gps).isNotEqualTo(heartbeat);
+        assertThat(gps).isNotEqualTo(shortImei);
+        assertThat(gps).isNotEqualTo(unterminatedToken);
+        assertThat(gps).isNotEqualTo(otherVendor);
+        assertThat(FrameSignature.imeiDigits(otherVendor)).isEqualTo(15);
+    }
+
+    @Test
+    void of_byteBuf_matchesCharSequenceAndKeepsReaderIndex() {
+        // given
+        String data = "*HQ,8168000005,V4,S20,DONE,061158#";
+        ByteBuf frame = Unpooled.copiedBuffer(data, StandardCharsets.US_ASCII);
+
+        // when
+        long signature = FrameSignature.of(frame);
+
+        // then
+        assertThat(signature).isEqualTo(FrameSignature.of(data));
+        assertThat(frame.readerIndex()).isZero();
+        frame.release();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "",
+        "$POS,DEV001,40.7128,-74.0060,55.5,1700000000,1#",
+        "*hq,865205030330012,V1,145452#",
+        "*HQ,,V1,145452#",
+        "*HQ,865205030330012,LONGTOKEN,1#",
+        "*HQ,865205030330012,V1"
+    })
+    void of_unexpectedShape_returnsUnclassified(String data) {
+        // when
+        long signature = FrameSignature.of(data);
+
+        // then
+        assertThat(signature).isEqualTo(FrameSignature.UNCLASSIFIED);
+    }
+}
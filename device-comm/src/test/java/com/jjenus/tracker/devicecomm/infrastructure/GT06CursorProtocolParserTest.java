@@ -0,0 +1,165 @@
+package com.jjenus.tracker.devicecomm.infrastructure;
+
+import com.jjenus.tracker.devicecomm.exception.ProtocolParseException;
+import com.jjenus.tracker.shared.domain.LocationPoint;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class GT06CursorProtocolParserTest {
+
+    private static final String GPS_PACKET =
+        "*HQ,865205030330012,V1,145452,A,2240.55181,N,11358.32389,E,0.00,0,100815,FFFFFBFF#";
+
+    private GT06ProtocolParser regexParser;
+    private GT06CursorProtocolParser cursorParser;
+
+    @BeforeEach
+    void setUp() {
+        regexParser = new GT06ProtocolParser();
+        cursorParser = new GT06CursorProtocolParser(ZoneId.systemDefault());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        GPS_PACKET,
+        "*HQ,865205030330012,V2,010203,A,3348.1234,S,15112.5678,W,12.50,90,311299,FFFFFBFF#",
+        "*HQ,865205030330012,V4,235959,V,0130.5000,N,00010.2500,E,45.00,180,290224,FFFFFBFF#",
+        "*HQ,8168000005,V4,S20,DONE,061158,061116,A,2235.0086,N,11354.3668,E,010.50,000,160716F7FFBBFF,460,00#",
+        "*HQ,865205030330012,V3,120000,46000,07,0FA1,1234,150320,FFFFFBFF#"
+    })
+    void parse_validPacket_matchesRegexParser(String data) throws ProtocolParseException {
+        // given
+        LocationPoint expected = regexParser.parse(data);
+
+        // when
+        LocationPoint result = cursorParser.parse(data);
+
+        // then
+        assertThat(result.latitude()).isCloseTo(expected.latitude(), within(1e-9));
+        assertThat(result.longitude()).isCloseTo(expected.longitude(), within(1e-9));
+        assertThat(result.speedKmh()).isCloseTo(expected.speedKmh(), within(1e-4f));
+        assertThat(result.timestamp()).isEqualTo(expected.timestamp());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        GPS_PACKET,
+        "*HQ,865205030330012,D12,1#",
+        "*HQ,865205030330012,HTBT,100#",
+        "*HQ,865205030330012,HTBT#",
+        "*HQ,123456789,V1,145452,A#",
+        "*hq,865205030330012,V1,145452,A#",
+        "*HQ,865205030330012,V6,145452,A#",
+        "*HQ,865205030330012,V1,145452\n,A#",
+        "*HQ,865205030330012,V1,145452,A",
+        "$POS,DEV001,40.7128,-74.0060,55.5,1700000000,1#",
+        "#"
+    })
+    void canParse_anyFrame_matchesRegexParser(String data) {
+        // given
+        boolean expected = regexParser.canParse(data);
+
+        // when
+        boolean result = cursorParser.canParse(data);
+
+        // then
+        assertThat(result).isEqualTo(expected);
+    }
+
+    @Test
+    void parse_byteBufFrame_returnsSameLocationWithoutConsumingBuffer() throws ProtocolParseException {
+        // given
+        ByteBuf frame = Unpooled.copiedBuffer("\r\n" + GPS_PACKET, StandardCharsets.US_ASCII);
+        frame.skipBytes(2);
+        LocationPoint expected = cursorParser.parse(GPS_PACKET);
+
+        // when
+        LocationPoint result = cursorParser.parseFrame(frame);
+
+        // then
+        assertThat(result).isEqualTo(expected);
+        assertThat(frame.readerIndex()).isEqualTo(2);
+        frame.release();
+    }
+
+    @Test
+    void parse_gpsPacket_convertsCoordinatesAndKnots() throws ProtocolParseException {
+        // given
+        String data = "*HQ,865205030330012,V1,145452,A,2240.55181,S,11358.32389,W,10.00,0,100815,FFFFFBFF#";
+
+        // when
+        LocationPoint result = cursorParser.parse(data);
+
+        // then
+        assertThat(result.latitude()).isCloseTo(-(22 + 40.55181 / 60), within(1e-9));
+        assertThat(result.longitude()).isCloseTo(-(113 + 58.32389 / 60), within(1e-9));
+        assertThat(result.speedKmh()).isCloseTo(18.52f, within(1e-4f));
+    }
+
+    @Test
+    void parse_utcZone_buildsTimestampFromDateAndTimeFields() throws ProtocolParseException {
+        // given
+        GT06CursorProtocolParser parser = new GT06CursorProtocolParser(ZoneId.of("UTC"));
+
+        // when
+        LocationPoint result = parser.parse(GPS_PACKET);
+
+        // then
+        assertThat(result.timestamp()).isEqualTo(Instant.parse("2015-08-10T14:54:52Z"));
+    }
+
+    @Test
+    void parse_malformedSpeed_throwsProtocolParseException() {
+        // given
+        String data = "*HQ,865205030330012,V1,145452,A,2240.55181,N,11358.32389,E,fast,0,100815,FFFFFBFF#";
+
+        // when / then
+        assertThatThrownBy(() -> cursorParser.parse(data))
+            .isInstanceOf(ProtocolParseException.class)
+            .hasMessageContaining("Failed to parse GT06 data")
+            .hasMessageContaining("GPS packet");
+    }
+
+    @Test
+    void parse_incompleteGpsPacket_throwsProtocolParseException() {
+        // given
+        String data = "*HQ,865205030330012,V1,145452,A,2240.55181#";
+
+        // when / then
+        assertThatThrownBy(() -> cursorParser.parse(data))
+            .isInstanceOf(ProtocolParseException.class)
+            .hasMessageContaining("Incomplete GPS packet");
+    }
+
+    @Test
+    void parse_invalidHeader_throwsProtocolParseException() {
+        // given
+        String data = "$POS,DEV001,40.7128,-74.0060,55.5,1700000000,1#";
+
+        // when / then
+        assertThatThrownBy(() -> cursorParser.parse(data))
+            .isInstanceOf(ProtocolParseException.class)
+            .hasMessageContaining("Not a valid GT06 protocol message");
+    }
+
+    @Test
+    void getProtocolName_always_reportsGt06() {
+        // when
+        String name = cursorParser.getProtocolName();
+
+        // then
+        assertThat(name).isEqualTo(regexParser.getProtocolName());
+    }
+}
@@ -0,0 +1,108 @@
+package com.jjenus.tracker.devicecomm.service;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IngestLanesTest {
+
+    private IngestLanes ingestLanes;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (ingestLanes != null) {
+            ingestLanes.destroy();
+        }
+    }
+
+    @Test
+    void submit_sameDevice_runsTasksInArrivalOrder() throws InterruptedException {
+        // given
+        ingestLanes = new IngestLanes(4, 256);
+        List<Integer> processed = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(100);
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            int sequence = i;
+            ingestLanes.submit("865205030330012", null, () -> {
+                processed.add(sequence);
+                done.countDown();
+            });
+        }
+
+        // then
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(processed).isSorted().hasSize(100);
+    }
+
+    @Test
+    void submit_laneAboveHighWatermark_pausesChannelUntilDrained() throws InterruptedException {
+        // given
+        ingestLanes = new IngestLanes(1, 8);
+        EmbeddedChannel channel = new EmbeddedChannel();
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        ingestLanes.submit("device", channel, () -> {
+            started.countDown();
+            awaitQuietly(blocker);
+        });
+        started.await(5, TimeUnit.SECONDS);
+
+        // when
+        for (int i = 0; i < 6; i++) {
+            ingestLanes.submit("device", channel, () -> { });
+        }
+
+        // then
+        assertThat(channel.config().isAutoRead()).isFalse();
+        assertThat(ingestLanes.getPausedChannelCount()).isEqualTo(1);
+
+        blocker.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!channel.config().isAutoRead() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(channel.config().isAutoRead()).isTrue();
+        assertThat(ingestLanes.getTotalQueueDepth()).isZero();
+    }
+
+    @Test
+    void submit_laneFull_rejectsAndCounts() throws InterruptedException {
+        // given
+        ingestLanes = new IngestLanes(1, 4);
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        ingestLanes.submit("device", null, () -> {
+            started.countDown();
+            awaitQuietly(blocker);
+        });
+        started.await(5, TimeUnit.SECONDS);
+        for (int i = 0; i < 4; i++) {
+            ingestLanes.submit("device", null, () -> { });
+        }
+
+        // when
+        boolean accepted = ingestLanes.submit("device", null, () -> { });
+
+        // then
+        assertThat(accepted).isFalse();
+        assertThat(ingestLanes.getRejectedCount()).isEqualTo(1);
+        blocker.countDown();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
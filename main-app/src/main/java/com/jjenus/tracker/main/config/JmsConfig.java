@@ -1,9 +1,12 @@
 package com.jjenus.tracker.main.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jjenus.tracker.shared.pubsub.EventMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.jms.DefaultJmsListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.jms.annotation.EnableJms;
 import org.springframework.jms.config.DefaultJmsListenerContainerFactory;
 import org.springframework.jms.config.JmsListenerContainerFactory;
@@ -14,10 +17,48 @@ import org.springframework.jms.support.converter.MessageType;
 
 import jakarta.jms.ConnectionFactory;
 
+import java.util.Map;
+
 @Configuration
 @EnableJms
 public class JmsConfig {
 
+    // Topic destinations grouped into stages that get their own listener concurrency limit
+    private static final Map<String, String> STAGE_BY_DESTINATION = Map.of(
+            "tracking.events.locationdataevent", "locations",
+            "tracking.events.vehicleupdatedevent", "vehicle-updates",
+            "tracking.events.alertevent", "alerts",
+            "tracking.events.alertsuppressedevent", "alerts",
+            "tracking.events.alertraisedevent", "alerts",
+            "tracking.events.alertruleschangedevent", "control",
+            "tracking.events.alertrulemodifiedevent", "control",
+            "tracking.events.geofencemodifiedevent", "control",
+            "tracking.events.trackerassignmentchangedevent", "control");
+
+    @Value("${tracking.execution.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    // Upper bounds on topic listener invocations running at once per stage, across the
+    // stage's containers, when listeners run on virtual threads
+    @Value("${tracking.execution.jms.locations.max-concurrency:16}")
+    private int locationsMaxConcurrency;
+
+    @Value("${tracking.execution.jms.vehicle-updates.max-concurrency:16}")
+    private int vehicleUpdatesMaxConcurrency;
+
+    @Value("${tracking.execution.jms.alerts.max-concurrency:8}")
+    private int alertsMaxConcurrency;
+
+    @Value("${tracking.execution.jms.control.max-concurrency:4}")
+    private int controlMaxConcurrency;
+
+    @Value("${tracking.execution.jms.max-concurrency:32}")
+    private int defaultMaxConcurrency;
+
+    // json | binary - binary applies to location events only, see EventMessageConverter
+    @Value("${tracking.events.codec:json}")
+    private String eventCodec;
+
     @Bean
     public JmsTemplate topicJmsTemplate(
             ConnectionFactory connectionFactory,
@@ -30,19 +71,47 @@ public class JmsConfig {
         return template;
     }
 
+    @Bean
+    public JmsTemplate topicBatchJmsTemplate(
+            ConnectionFactory connectionFactory,
+            MessageConverter messageConverter
+    ) {
+        // Locally transacted so a batch of events is sent with one commit
+        JmsTemplate template = new JmsTemplate(connectionFactory);
+        template.setPubSubDomain(true);
+        template.setMessageConverter(messageConverter);
+        template.setSessionTransacted(true);
+        return template;
+    }
+
     @Bean
     public JmsListenerContainerFactory<?> topicJmsListenerContainerFactory(
             ConnectionFactory connectionFactory,
             DefaultJmsListenerContainerFactoryConfigurer configurer
     ) {
-        DefaultJmsListenerContainerFactory factory =
-                new DefaultJmsListenerContainerFactory();
+        DefaultJmsListenerContainerFactory factory = virtualThreads
+                ? new ThrottledJmsListenerContainerFactory(STAGE_BY_DESTINATION, Map.of(
+                        "locations", locationsMaxConcurrency,
+                        "vehicle-updates", vehicleUpdatesMaxConcurrency,
+                        "alerts", alertsMaxConcurrency,
+                        "control", controlMaxConcurrency,
+                        ThrottledJmsListenerContainerFactory.DEFAULT_STAGE, defaultMaxConcurrency))
+                : new DefaultJmsListenerContainerFactory();
 
         factory.setPubSubDomain(true);            // CRITICAL
         factory.setConcurrency("3-10");
 
         configurer.configure(factory, connectionFactory);
 
+        if (virtualThreads) {
+            // Blocking listeners (JPA, Redis, JMS sends) park a virtual thread instead of a
+            // pooled one. Each consumer holds its thread for the container's lifetime, so
+            // the executor must not limit them; the factory's per-stage semaphores cap invocations
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("jms-listener-");
+            executor.setVirtualThreads(true);
+            factory.setTaskExecutor(executor);
+        }
+
         factory.setErrorHandler(t ->
                 System.err.println("JMS listener error: " + t.getMessage())
         );
@@ -57,7 +126,7 @@ public class JmsConfig {
         converter.setTargetType(MessageType.TEXT);
         converter.setTypeIdPropertyName("_type");
         converter.setObjectMapper(objectMapper);
-        return converter;
+        return new EventMessageConverter(converter, "binary".equalsIgnoreCase(eventCodec), "_type");
     }
 }
 
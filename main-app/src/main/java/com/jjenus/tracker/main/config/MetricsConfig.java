@@ -0,0 +1,85 @@
+package com.jjenus.tracker.main.config;
+
+import com.jjenus.tracker.alerting.infrastructure.cache.NearCache;
+import com.jjenus.tracker.alerting.infrastructure.cache.NearCacheManager;
+import com.jjenus.tracker.core.application.service.VehicleService;
+import com.jjenus.tracker.core.infrastructure.LocationBatchWriter;
+import com.jjenus.tracker.devicecomm.service.IngestLanes;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder ingestLaneMetrics(IngestLanes ingestLanes) {
+        return registry -> {
+            for (int i = 0; i < ingestLanes.getLaneCount(); i++) {
+                int lane = i;
+                Gauge.builder("tracking.ingest.queue.depth", ingestLanes, lanes -> lanes.getQueueDepth(lane))
+                        .tag("lane", String.valueOf(lane))
+                        .description("Packets waiting on an ingest lane")
+                        .register(registry);
+            }
+            Gauge.builder("tracking.ingest.paused.channels", ingestLanes, IngestLanes::getPausedChannelCount)
+                    .description("Connections with reads paused by ingest backpressure")
+                    .register(registry);
+            FunctionCounter.builder("tracking.ingest.processed", ingestLanes, IngestLanes::getProcessedCount)
+                    .description("Packets handed to the device data processor")
+                    .register(registry);
+            FunctionCounter.builder("tracking.ingest.rejected", ingestLanes, IngestLanes::getRejectedCount)
+                    .description("Packets dropped because their ingest lane was full")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder locationWriterMetrics(LocationBatchWriter locationBatchWriter) {
+        return registry -> {
+            Gauge.builder("tracking.locations.buffered", locationBatchWriter, LocationBatchWriter::getBufferedCount)
+                    .description("Location fixes waiting to be written")
+                    .register(registry);
+            FunctionCounter.builder("tracking.locations.written", locationBatchWriter, LocationBatchWriter::getWrittenCount)
+                    .description("Location fixes committed by the batch writer")
+                    .register(registry);
+            FunctionCounter.builder("tracking.locations.rejected", locationBatchWriter, LocationBatchWriter::getRejectedCount)
+                    .description("Location fixes dropped because the database refused them")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder tripMetrics(VehicleService vehicleService) {
+        return registry -> FunctionCounter.builder("tracking.trips.dropped", vehicleService,
+                        VehicleService::getDroppedTripSummaryCount)
+                .description("Detected trips not saved because their vehicle does not exist")
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder nearCacheMetrics(NearCacheManager nearCacheManager) {
+        // Near caches are created by the services using them, possibly after binding
+        return registry -> nearCacheManager.forEachCache(cache -> {
+            String name = cache.getName();
+            FunctionCounter.builder("tracking.alerting.near-cache.hits", cache, c -> c.getStats().hits())
+                    .tag("cache", name)
+                    .description("Reads served from the near cache")
+                    .register(registry);
+            FunctionCounter.builder("tracking.alerting.near-cache.misses", cache, c -> c.getStats().misses())
+                    .tag("cache", name)
+                    .description("Reads that went to Redis")
+                    .register(registry);
+            FunctionCounter.builder("tracking.alerting.near-cache.evictions", cache, c -> c.getStats().evictions())
+                    .tag("cache", name)
+                    .description("Entries evicted to make room")
+                    .register(registry);
+            Gauge.builder("tracking.alerting.near-cache.size", cache, NearCache::size)
+                    .tag("cache", name)
+                    .description("Entries held in the near cache")
+                    .register(registry);
+        });
+    }
+}
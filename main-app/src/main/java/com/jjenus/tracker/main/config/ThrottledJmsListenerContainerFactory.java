@@ -0,0 +1,67 @@
+package com.jjenus.tracker.main.config;
+
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.Session;
+import org.springframework.jms.config.DefaultJmsListenerContainerFactory;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Listener container factory that caps concurrent listener invocations per stage. Each
+ * destination belongs to a stage and the containers of one stage share a semaphore, so
+ * a burst on one stage (e.g. locations) cannot take the permits another (e.g. cache
+ * invalidation) needs. Consumers themselves are not limited: each one is a long-running
+ * task, and capping their threads would block container start-up once the cap is reached.
+ */
+class ThrottledJmsListenerContainerFactory extends DefaultJmsListenerContainerFactory {
+    static final String DEFAULT_STAGE = "default";
+
+    private final Map<String, String> stageByDestination;
+    private final Map<String, Semaphore> permitsByStage = new HashMap<>();
+
+    /**
+     * @param maxConcurrencyByStage permits per stage; must include {@link #DEFAULT_STAGE},
+     *                              used for destinations not mapped to a stage
+     */
+    ThrottledJmsListenerContainerFactory(Map<String, String> stageByDestination,
+                                         Map<String, Integer> maxConcurrencyByStage) {
+        this.stageByDestination = Map.copyOf(stageByDestination);
+        maxConcurrencyByStage.forEach((stage, max) -> permitsByStage.put(stage, new Semaphore(Math.max(1, max))));
+        if (!permitsByStage.containsKey(DEFAULT_STAGE)) {
+            throw new IllegalArgumentException("No concurrency limit for the default stage");
+        }
+    }
+
+    Semaphore permitsFor(String destination) {
+        String stage = destination != null ? stageByDestination.getOrDefault(destination, DEFAULT_STAGE) : DEFAULT_STAGE;
+        return permitsByStage.getOrDefault(stage, permitsByStage.get(DEFAULT_STAGE));
+    }
+
+    @Override
+    protected DefaultMessageListenerContainer createContainerInstance() {
+        return new DefaultMessageListenerContainer() {
+            // Resolved once the endpoint has set the destination
+            private Semaphore permits;
+
+            @Override
+            public void initialize() {
+                permits = permitsFor(getDestinationName());
+                super.initialize();
+            }
+
+            @Override
+            protected void invokeListener(Session session, Message message) throws JMSException {
+                permits.acquireUninterruptibly();
+                try {
+                    super.invokeListener(session, message);
+                } finally {
+                    permits.release();
+                }
+            }
+        };
+    }
+}
@@ -4,6 +4,7 @@ import com.jjenus.tracker.shared.domain.LocationPoint;
 import com.jjenus.tracker.shared.pubsub.DomainEvent;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.Instant;
 import java.util.Map;
 import java.util.HashMap;
 
@@ -31,6 +32,16 @@ public class LocationDataEvent extends DomainEvent {
         this(deviceId, location, protocol, new HashMap<>());
     }
 
+    // Decoded event, keeping the original id and time
+    public LocationDataEvent(String eventId, Instant occurredOn, String deviceId,
+                             LocationPoint location, String protocol) {
+        super(eventId, occurredOn);
+        this.deviceId = deviceId;
+        this.location = location;
+        this.protocol = protocol;
+        this.metaData = new HashMap<>();
+    }
+
     // Getters
     public String getDeviceId() { return deviceId; }
     public LocationPoint getLocation() { return location; }
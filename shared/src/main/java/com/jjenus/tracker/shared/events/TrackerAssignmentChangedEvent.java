@@ -0,0 +1,23 @@
+package com.jjenus.tracker.shared.events;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.jjenus.tracker.shared.pubsub.DomainEvent;
+
+/**
+ * A tracker was assigned to a vehicle, or unassigned when {@code vehicleId} is null.
+ */
+public class TrackerAssignmentChangedEvent extends DomainEvent {
+    private final String deviceId;
+    private final String vehicleId;
+
+    @JsonCreator
+    public TrackerAssignmentChangedEvent(@JsonProperty("deviceId") String deviceId,
+                                         @JsonProperty("vehicleId") String vehicleId) {
+        this.deviceId = deviceId;
+        this.vehicleId = vehicleId;
+    }
+
+    public String getDeviceId() { return deviceId; }
+    public String getVehicleId() { return vehicleId; }
+}
@@ -5,6 +5,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.jjenus.tracker.shared.pubsub.DomainEvent;
 import com.jjenus.tracker.shared.domain.LocationPoint;
 
+import java.time.Instant;
+import java.util.HashMap;
 import java.util.Map;
 
 public class VehicleUpdatedEvent extends DomainEvent {
@@ -20,6 +22,14 @@ public class VehicleUpdatedEvent extends DomainEvent {
         this.metaData = metaData;
     }
 
+    // Decoded event, keeping the original id and time
+    public VehicleUpdatedEvent(String eventId, Instant occurredOn, String vehicleId, LocationPoint newLocation) {
+        super(eventId, occurredOn);
+        this.vehicleId = vehicleId;
+        this.newLocation = newLocation;
+        this.metaData = new HashMap<>();
+    }
+
     public String getVehicleId() {
         return vehicleId;
     }
@@ -1,50 +1,201 @@
 package com.jjenus.tracker.shared.pubsub;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.jms.DeliveryMode;
+import jakarta.jms.Destination;
+import jakarta.jms.JMSException;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.support.converter.MessageConverter;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes domain events to "tracking.events.&lt;event class&gt;" topics. Each event is
+ * serialized exactly once, by the template's message converter.
+ * <p>
+ * With batching enabled, events are buffered per destination and sent in one
+ * transacted session commit once the batch holds max-size events or max-delay-ms
+ * has passed, whichever comes first. A full batch is sent on the publishing thread,
+ * so publishers slow down when the broker does. A batch that fails to send is kept
+ * and retried by the flusher; once max-pending events are waiting for a destination,
+ * publishing to it fails instead of buffering more. Unbatched destinations (alerts by
+ * default) are always sent one by one on the publishing thread, so a failure reaches
+ * the publisher. Destinations listed as non-persistent are sent with NON_PERSISTENT
+ * delivery; everything else, alerts included, stays persistent.
+ */
 @Component
-public class ArtemisEventPublisher implements EventPublisher {
+public class ArtemisEventPublisher implements EventPublisher, DisposableBean {
     private static final Logger logger = LoggerFactory.getLogger(ArtemisEventPublisher.class);
 
     private final JmsTemplate jmsTemplate;
-    private final ObjectMapper objectMapper;
+    private final JmsTemplate batchJmsTemplate;
+    private final Map<Class<?>, String> destinations = new ConcurrentHashMap<>();
+    private final Map<String, Batch> batches = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    private final boolean batchingEnabled;
+    private final int batchMaxSize;
+    private final int batchMaxPending;
+    private final Set<String> unbatchedDestinations;
+    private final Set<String> nonPersistentDestinations;
 
-    public ArtemisEventPublisher(@Qualifier("topicJmsTemplate") JmsTemplate jmsTemplate, ObjectMapper objectMapper) {
+    public ArtemisEventPublisher(@Qualifier("topicJmsTemplate") JmsTemplate jmsTemplate,
+                                 @Qualifier("topicBatchJmsTemplate") JmsTemplate batchJmsTemplate,
+                                 @Value("${tracking.events.batch.enabled:false}") boolean batchingEnabled,
+                                 @Value("${tracking.events.batch.max-size:100}") int batchMaxSize,
+                                 @Value("${tracking.events.batch.max-delay-ms:20}") long batchMaxDelayMs,
+                                 @Value("${tracking.events.batch.max-pending:10000}") int batchMaxPending,
+                                 @Value("${tracking.events.batch.unbatched-destinations:"
+                                         + "tracking.events.alertdetectedevent,tracking.events.alertraisedevent}")
+                                 Set<String> unbatchedDestinations,
+                                 @Value("${tracking.events.non-persistent-destinations:}") Set<String> nonPersistentDestinations) {
         this.jmsTemplate = jmsTemplate;
-        this.objectMapper = objectMapper;
+        this.batchJmsTemplate = batchJmsTemplate;
+        this.batchingEnabled = batchingEnabled;
+        this.batchMaxSize = Math.max(1, batchMaxSize);
+        this.batchMaxPending = Math.max(this.batchMaxSize, batchMaxPending);
+        this.unbatchedDestinations = unbatchedDestinations;
+        this.nonPersistentDestinations = nonPersistentDestinations;
+
+        if (batchingEnabled) {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "event-batch-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flushAll, batchMaxDelayMs, batchMaxDelayMs, TimeUnit.MILLISECONDS);
+        } else {
+            this.flusher = null;
+        }
     }
 
     @Override
     public void publish(DomainEvent event) {
+        String destination = destinationFor(event);
         try {
-            String destination = "tracking.events." + event.getClass().getSimpleName().toLowerCase();
+            if (batchingEnabled && !unbatchedDestinations.contains(destination)) {
+                batches.computeIfAbsent(destination, Batch::new).add(event);
+            } else {
+                send(jmsTemplate, destination, List.of(event));
+            }
+            logger.debug("Published event {} to {}", event.getEventId(), destination);
+
+        } catch (Exception e) {
+            logger.error("Failed to publish event {} to {}", event.getEventId(), destination, e);
+            throw new RuntimeException("Failed to publish event", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (flusher != null) {
+            flusher.shutdown();
+            flushAll();
+            batches.values().forEach(Batch::logUnsent);
+        }
+    }
 
-            logger.info("🟢 PUBLISHING to destination: {}", destination);
-            logger.info("🟢 Event class: {}", event.getClass().getName());
+    private String destinationFor(DomainEvent event) {
+        return destinations.computeIfAbsent(event.getClass(),
+                type -> "tracking.events." + type.getSimpleName().toLowerCase());
+    }
 
-            // TRY to serialize - log any errors
-            String json = null;
+    private void flushAll() {
+        batches.values().forEach(Batch::flush);
+    }
+
+    private void send(JmsTemplate template, String destinationName, List<DomainEvent> events) {
+        MessageConverter converter = template.getMessageConverter();
+        boolean persistent = !nonPersistentDestinations.contains(destinationName);
+
+        template.execute((Session session) -> {
+            Destination destination = template.getDestinationResolver()
+                    .resolveDestinationName(session, destinationName, template.isPubSubDomain());
+            MessageProducer producer = session.createProducer(destination);
             try {
-                json = objectMapper.writeValueAsString(event);
-                logger.info("🟢 JSON: {}", json);
-            } catch (Exception e) {
-                logger.error("🔴 FAILED to serialize event to JSON", e);
-                logger.error("🔴 Event details: {}", event);
-                throw e; // Re-throw
+                producer.setDeliveryMode(persistent ? DeliveryMode.PERSISTENT : DeliveryMode.NON_PERSISTENT);
+                for (DomainEvent event : events) {
+                    producer.send(converter.toMessage(event, session));
+                }
+                if (session.getTransacted()) {
+                    session.commit();
+                }
+            } catch (JMSException | RuntimeException e) {
+                if (session.getTransacted()) {
+                    session.rollback();
+                }
+                throw e;
+            } finally {
+                producer.close();
             }
+            return null;
+        }, false);
+    }
 
-            // Publish
-            jmsTemplate.convertAndSend(destination, event);
-            logger.info("🟢✅ Published event {} to {}", event.getEventId(), destination);
+    private final class Batch {
+        private final String destination;
+        private final List<DomainEvent> events = new ArrayList<>();
+        // Set while the last send failed; only the flusher retries until one succeeds
+        private boolean failing;
 
-        } catch (Exception e) {
-            logger.error("🔴 FAILED to publish event {}", event != null ? event.getEventId() : "null", e);
-            throw new RuntimeException("Failed to publish event", e);
+        private Batch(String destination) {
+            this.destination = destination;
+        }
+
+        synchronized void add(DomainEvent event) {
+            if (events.size() >= batchMaxPending) {
+                throw new IllegalStateException(events.size() + " events waiting for " + destination
+                        + ", not accepting more until the broker takes them");
+            }
+            events.add(event);
+            if (events.size() >= batchMaxSize && !failing) {
+                flush();
+            }
+        }
+
+        /**
+         * Sends what is buffered in chunks of max-size; a chunk that fails stays at the head
+         * of the buffer, so events still go out in order on the next attempt.
+         */
+        synchronized void flush() {
+            while (!events.isEmpty()) {
+                List<DomainEvent> chunk = events.subList(0, Math.min(events.size(), batchMaxSize));
+                try {
+                    send(batchJmsTemplate, destination, chunk);
+                } catch (RuntimeException e) {
+                    if (!failing) {
+                        logger.error("Failed to publish batch of {} events to {}, will retry",
+                                chunk.size(), destination, e);
+                        failing = true;
+                    }
+                    return;
+                }
+                chunk.clear();
+                if (failing) {
+                    logger.info("Publishing to {} recovered", destination);
+                    failing = false;
+                }
+            }
+        }
+
+        synchronized void logUnsent() {
+            if (!events.isEmpty()) {
+                logger.error("Shut down with {} events for {} not published", events.size(), destination);
+            }
         }
     }
-}
\ No newline at end of file
+}
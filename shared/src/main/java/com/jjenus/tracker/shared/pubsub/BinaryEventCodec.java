@@ -0,0 +1,184 @@
+package com.jjenus.tracker.shared.pubsub;
+
+import com.jjenus.tracker.shared.domain.LocationPoint;
+import com.jjenus.tracker.shared.events.LocationDataEvent;
+import com.jjenus.tracker.shared.events.VehicleUpdatedEvent;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Fixed-layout binary encoding of the high-volume location events.
+ * <pre>
+ * common:   type(1) eventId(16, UUID) occurredOn(8, epoch millis)
+ * location: latitude(4, deg * 1e7) longitude(4, deg * 1e7) speed(2, unsigned km/h * 100) timestamp(8, epoch millis)
+ * LocationDataEvent:   common, imei(8) imeiDigits(1), location, protocol(1 + ASCII)
+ * VehicleUpdatedEvent: common, vehicleId(2 + UTF-8), location
+ * </pre>
+ * Coordinates keep 1e-7 degrees (about 1 cm) and speed 0.01 km/h. Events the layout
+ * cannot carry - metadata, non-numeric device ids, out-of-range values - are not
+ * encoded ({@link #encode} returns null) and travel as JSON instead.
+ */
+public final class BinaryEventCodec {
+    private static final byte LOCATION_DATA = 1;
+    private static final byte VEHICLE_UPDATED = 2;
+
+    private static final double COORDINATE_SCALE = 1e7;
+    private static final int SPEED_SCALE = 100;
+    private static final int MAX_SPEED = 0xFFFF;
+    private static final int MAX_IMEI_DIGITS = 18;
+    private static final int COMMON_SIZE = 1 + 16 + 8;
+    private static final int LOCATION_SIZE = 4 + 4 + 2 + 8;
+
+    private BinaryEventCodec() {
+    }
+
+    /**
+     * Encodes the event, or returns null when it has to be sent as JSON.
+     */
+    public static byte[] encode(DomainEvent event) {
+        if (event instanceof LocationDataEvent location) {
+            return encodeLocationData(location);
+        }
+        if (event instanceof VehicleUpdatedEvent vehicle) {
+            return encodeVehicleUpdated(vehicle);
+        }
+        return null;
+    }
+
+    public static DomainEvent decode(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        try {
+            byte type = buffer.get();
+            String eventId = new UUID(buffer.getLong(), buffer.getLong()).toString();
+            Instant occurredOn = Instant.ofEpochMilli(buffer.getLong());
+
+            return switch (type) {
+                case LOCATION_DATA -> {
+                    String deviceId = imeiToString(buffer.getLong(), buffer.get());
+                    LocationPoint location = readLocation(buffer);
+                    byte[] protocol = new byte[buffer.get() & 0xFF];
+                    buffer.get(protocol);
+                    yield new LocationDataEvent(eventId, occurredOn, deviceId, location,
+                            new String(protocol, StandardCharsets.US_ASCII));
+                }
+                case VEHICLE_UPDATED -> {
+                    byte[] vehicleId = new byte[buffer.getShort() & 0xFFFF];
+                    buffer.get(vehicleId);
+                    yield new VehicleUpdatedEvent(eventId, occurredOn,
+                            new String(vehicleId, StandardCharsets.UTF_8), readLocation(buffer));
+                }
+                default -> throw new IllegalArgumentException("Unknown binary event type " + type);
+            };
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated binary event of " + bytes.length + " bytes", e);
+        }
+    }
+
+    private static byte[] encodeLocationData(LocationDataEvent event) {
+        String deviceId = event.getDeviceId();
+        String protocol = event.getProtocol() != null ? event.getProtocol() : "";
+        if (!isEmpty(event.getMetaData()) || !isImei(deviceId) || !isEncodable(event.getLocation())
+                || protocol.length() > 0xFF || !StandardCharsets.US_ASCII.newEncoder().canEncode(protocol)) {
+            return null;
+        }
+        UUID eventId = parseUuid(event.getEventId());
+        if (eventId == null) {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(COMMON_SIZE + 9 + LOCATION_SIZE + 1 + protocol.length());
+        writeCommon(buffer, LOCATION_DATA, eventId, event.getOccurredOn());
+        buffer.putLong(Long.parseLong(deviceId));
+        buffer.put((byte) deviceId.length());
+        writeLocation(buffer, event.getLocation());
+        buffer.put((byte) protocol.length());
+        buffer.put(protocol.getBytes(StandardCharsets.US_ASCII));
+        return buffer.array();
+    }
+
+    private static byte[] encodeVehicleUpdated(VehicleUpdatedEvent event) {
+        if (!isEmpty(event.getMetaData()) || event.getVehicleId() == null || !isEncodable(event.getNewLocation())) {
+            return null;
+        }
+        byte[] vehicleId = event.getVehicleId().getBytes(StandardCharsets.UTF_8);
+        UUID eventId = parseUuid(event.getEventId());
+        if (vehicleId.length > 0xFFFF || eventId == null) {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(COMMON_SIZE + 2 + vehicleId.length + LOCATION_SIZE);
+        writeCommon(buffer, VEHICLE_UPDATED, eventId, event.getOccurredOn());
+        buffer.putShort((short) vehicleId.length);
+        buffer.put(vehicleId);
+        writeLocation(buffer, event.getNewLocation());
+        return buffer.array();
+    }
+
+    private static void writeCommon(ByteBuffer buffer, byte type, UUID eventId, Instant occurredOn) {
+        buffer.put(type);
+        buffer.putLong(eventId.getMostSignificantBits());
+        buffer.putLong(eventId.getLeastSignificantBits());
+        buffer.putLong(occurredOn.toEpochMilli());
+    }
+
+    private static void writeLocation(ByteBuffer buffer, LocationPoint location) {
+        buffer.putInt((int) Math.round(location.latitude() * COORDINATE_SCALE));
+        buffer.putInt((int) Math.round(location.longitude() * COORDINATE_SCALE));
+        buffer.putShort((short) Math.round(location.speedKmh() * SPEED_SCALE));
+        buffer.putLong(location.timestamp().toEpochMilli());
+    }
+
+    private static LocationPoint readLocation(ByteBuffer buffer) {
+        double latitude = buffer.getInt() / COORDINATE_SCALE;
+        double longitude = buffer.getInt() / COORDINATE_SCALE;
+        float speedKmh = (buffer.getShort() & 0xFFFF) / (float) SPEED_SCALE;
+        return new LocationPoint(latitude, longitude, speedKmh, Instant.ofEpochMilli(buffer.getLong()));
+    }
+
+    private static boolean isEncodable(LocationPoint location) {
+        return location != null
+                && location.timestamp() != null
+                && Math.abs(location.latitude()) <= 90
+                && Math.abs(location.longitude()) <= 180
+                && location.speedKmh() >= 0
+                && Math.round(location.speedKmh() * SPEED_SCALE) <= MAX_SPEED;
+    }
+
+    private static boolean isImei(String deviceId) {
+        if (deviceId == null || deviceId.isEmpty() || deviceId.length() > MAX_IMEI_DIGITS) {
+            return false;
+        }
+        for (int i = 0; i < deviceId.length(); i++) {
+            char c = deviceId.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String imeiToString(long imei, int digits) {
+        // Restores leading zeros dropped by the numeric encoding
+        String value = Long.toString(imei);
+        return value.length() >= digits ? value : "0".repeat(digits - value.length()) + value;
+    }
+
+    private static boolean isEmpty(Map<String, Object> metaData) {
+        return metaData == null || metaData.isEmpty();
+    }
+
+    private static UUID parseUuid(String eventId) {
+        try {
+            UUID uuid = UUID.fromString(eventId);
+            // fromString is lenient about leading zeros; only accept ids that round-trip
+            return uuid.toString().equals(eventId) ? uuid : null;
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return null;
+        }
+    }
+}
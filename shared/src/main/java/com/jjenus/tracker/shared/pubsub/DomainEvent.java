@@ -14,6 +14,12 @@ public abstract class DomainEvent {
         this.occurredOn = Instant.now();
     }
 
+    // Restores identity of an event decoded from the wire
+    protected DomainEvent(String eventId, Instant occurredOn) {
+        this.eventId = eventId;
+        this.occurredOn = occurredOn;
+    }
+
     public String getEventId() { return eventId; }
     public Instant getOccurredOn() { return occurredOn; }
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.jjenus.tracker.shared.pubsub;
+
+import jakarta.jms.BytesMessage;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.Session;
+import org.springframework.jms.support.converter.MessageConversionException;
+import org.springframework.jms.support.converter.MessageConverter;
+
+/**
+ * JMS converter that sends location events with {@link BinaryEventCodec} when binary
+ * encoding is enabled and everything else through the delegate (JSON).
+ * Binary messages are tagged with the {@value #CODEC_PROPERTY} property; on receive
+ * the property decides how the body is read, so a consumer using this converter
+ * accepts both encodings. Enable binary on producers only once all consumers of the
+ * location destinations use this converter.
+ */
+public class EventMessageConverter implements MessageConverter {
+    public static final String CODEC_PROPERTY = "eventCodec";
+    public static final String BINARY_CODEC = "binary-v1";
+
+    private final MessageConverter delegate;
+    private final boolean binaryEnabled;
+    private final String typeIdPropertyName;
+
+    public EventMessageConverter(MessageConverter delegate, boolean binaryEnabled, String typeIdPropertyName) {
+        this.delegate = delegate;
+        this.binaryEnabled = binaryEnabled;
+        this.typeIdPropertyName = typeIdPropertyName;
+    }
+
+    @Override
+    public Message toMessage(Object object, Session session) throws JMSException, MessageConversionException {
+        if (binaryEnabled && object instanceof DomainEvent event) {
+            byte[] body = BinaryEventCodec.encode(event);
+            if (body != null) {
+                BytesMessage message = session.createBytesMessage();
+                message.writeBytes(body);
+                message.setStringProperty(CODEC_PROPERTY, BINARY_CODEC);
+                message.setStringProperty(typeIdPropertyName, event.getClass().getName());
+                return message;
+            }
+        }
+        return delegate.toMessage(object, session);
+    }
+
+    @Override
+    public Object fromMessage(Message message) throws JMSException, MessageConversionException {
+        if (message instanceof BytesMessage bytesMessage
+                && BINARY_CODEC.equals(message.getStringProperty(CODEC_PROPERTY))) {
+            byte[] body = new byte[(int) bytesMessage.getBodyLength()];
+            bytesMessage.readBytes(body);
+            try {
+                return BinaryEventCodec.decode(body);
+            } catch (IllegalArgumentException e) {
+                throw new MessageConversionException("Failed to decode binary event", e);
+            }
+        }
+        return delegate.fromMessage(message);
+    }
+}
@@ -0,0 +1,167 @@
+package com.jjenus.tracker.shared.redis;
+
+import java.util.Arrays;
+
+/**
+ * Dirty last-seen timestamps waiting to be flushed to Redis.
+ * Open-addressing tables with parallel hash / id / epoch-millis arrays, split into
+ * lock stripes, so recording a packet neither boxes nor allocates an entry.
+ * Repeated updates for the same connection coalesce into one slot that keeps the
+ * newest timestamp.
+ */
+final class LastSeenBuffer {
+    private static final int STRIPES = 16;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    LastSeenBuffer() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    void record(String connectionId, long epochMillis) {
+        int hash = spread(connectionId.hashCode());
+        stripes[hash & (STRIPES - 1)].put(connectionId, hash, epochMillis);
+    }
+
+    void remove(String connectionId) {
+        int hash = spread(connectionId.hashCode());
+        stripes[hash & (STRIPES - 1)].remove(connectionId, hash);
+    }
+
+    /**
+     * Hands every dirty entry to the consumer and clears it. Each stripe is
+     * drained under its own lock, so concurrent records land in the next flush.
+     */
+    int drain(DirtyEntryConsumer consumer) {
+        int drained = 0;
+        for (Stripe stripe : stripes) {
+            drained += stripe.drain(consumer);
+        }
+        return drained;
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private static int spread(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    @FunctionalInterface
+    interface DirtyEntryConsumer {
+        void accept(String connectionId, long epochMillis);
+    }
+
+    private static final class Stripe {
+        private int[] hashes = new int[INITIAL_CAPACITY];
+        private String[] ids = new String[INITIAL_CAPACITY];
+        private long[] values = new long[INITIAL_CAPACITY];
+        private int size;
+
+        synchronized void put(String id, int hash, long value) {
+            int mask = ids.length - 1;
+            int i = (hash >>> 4) & mask;
+            while (ids[i] != null) {
+                if (hashes[i] == hash && ids[i].equals(id)) {
+                    values[i] = Math.max(values[i], value);
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            hashes[i] = hash;
+            ids[i] = id;
+            values[i] = value;
+            if (++size * 2 > ids.length) {
+                resize(ids.length * 2);
+            }
+        }
+
+        synchronized void remove(String id, int hash) {
+            int mask = ids.length - 1;
+            int i = (hash >>> 4) & mask;
+            while (ids[i] != null) {
+                if (hashes[i] == hash && ids[i].equals(id)) {
+                    ids[i] = null;
+                    size--;
+                    reinsertFollowing(i);
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+        }
+
+        synchronized int drain(DirtyEntryConsumer consumer) {
+            if (size == 0) {
+                return 0;
+            }
+            int drained = size;
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] != null) {
+                    consumer.accept(ids[i], values[i]);
+                }
+            }
+            // Shrink back after a burst of connections instead of keeping the peak
+            if (ids.length > INITIAL_CAPACITY && drained * 8 < ids.length) {
+                hashes = new int[INITIAL_CAPACITY];
+                ids = new String[INITIAL_CAPACITY];
+                values = new long[INITIAL_CAPACITY];
+            } else {
+                Arrays.fill(ids, null);
+            }
+            size = 0;
+            return drained;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        private void reinsertFollowing(int removed) {
+            // Linear probing: re-place the rest of the cluster so lookups don't stop early
+            int mask = ids.length - 1;
+            for (int i = (removed + 1) & mask; ids[i] != null; i = (i + 1) & mask) {
+                String id = ids[i];
+                int hash = hashes[i];
+                long value = values[i];
+                ids[i] = null;
+                int j = (hash >>> 4) & mask;
+                while (ids[j] != null) {
+                    j = (j + 1) & mask;
+                }
+                hashes[j] = hash;
+                ids[j] = id;
+                values[j] = value;
+            }
+        }
+
+        private void resize(int capacity) {
+            int[] oldHashes = hashes;
+            String[] oldIds = ids;
+            long[] oldValues = values;
+            hashes = new int[capacity];
+            ids = new String[capacity];
+            values = new long[capacity];
+            int mask = capacity - 1;
+            for (int i = 0; i < oldIds.length; i++) {
+                if (oldIds[i] != null) {
+                    int j = (oldHashes[i] >>> 4) & mask;
+                    while (ids[j] != null) {
+                        j = (j + 1) & mask;
+                    }
+                    hashes[j] = oldHashes[i];
+                    ids[j] = oldIds[i];
+                    values[j] = oldValues[i];
+                }
+            }
+        }
+    }
+}
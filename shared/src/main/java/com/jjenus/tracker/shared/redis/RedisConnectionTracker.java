@@ -4,29 +4,100 @@ import com.jjenus.tracker.shared.domain.ConnectionInfo;
 import com.jjenus.tracker.shared.domain.ConnectionMetadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.SetOperations;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import reactor.netty.Connection;
 
+/**
+ * Connection metadata lives in one key per connection. Alongside it the tracker
+ * maintains indexes so nothing needs KEYS:
+ * <ul>
+ *   <li>{@code tracker:connections:last-seen} - sorted set of all connections scored by
+ *       last-seen epoch millis (count, listing and stale range queries)</li>
+ *   <li>{@code tracker:node:<nodeId>:connections} - connections owned by one instance</li>
+ *   <li>{@code tracker:nodes} - instances that have registered connections</li>
+ * </ul>
+ * The last-seen index is the authoritative last-seen time. Packets only move its score
+ * (ZADD XX, so a removed connection is not brought back) and refresh key TTLs; the
+ * metadata value is rewritten only when the connection itself changes, so a last-seen
+ * update can never overwrite a concurrent device change.
+ * <p>
+ * Connection ids are {@code <nodeId>:<start>-<counter>}, unique across instances and
+ * restarts, so one node only ever deletes keys of connections it created or that
+ * expired. A device's reverse lookup is deleted only while it still points at the
+ * connection being removed, since the device may have reconnected elsewhere.
+ */
 @Component
-public class RedisConnectionTracker {
+public class RedisConnectionTracker implements DisposableBean {
     private static final Logger logger = LoggerFactory.getLogger(RedisConnectionTracker.class);
+    private static final Duration CONNECTION_TTL = Duration.ofHours(1);
+    private static final int MAX_FLUSH_BATCH = 1000;
+    private static final String LAST_SEEN_INDEX_KEY = "tracker:connections:last-seen";
+    private static final String NODES_KEY = "tracker:nodes";
+    // Deletes a device's reverse lookup only while it still points at the given connection
+    private static final RedisScript<Long> DELETE_IF_EQUALS = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) end return 0",
+            Long.class);
 
     private final RedisTemplate<String, Object> redisTemplate;
     private final ValueOperations<String, Object> valueOps;
+    private final ZSetOperations<String, Object> zSetOps;
+    private final SetOperations<String, Object> setOps;
+
+    // Distinguishes this run of the node from earlier ones in connection ids
+    private final String startToken = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong connectionCounter = new AtomicLong();
 
     // In-memory storage for live Netty connections
     private final Map<String, Connection> liveConnections = new ConcurrentHashMap<>();
 
+    // Dirty last-seen timestamps, flushed to Redis in batches when write-behind is on
+    private final LastSeenBuffer pendingLastSeen = new LastSeenBuffer();
+
+    @Value("${tracking.redis.last-seen.write-behind:false}")
+    private boolean lastSeenWriteBehind;
+
+    @Value("${tracking.redis.node-id:${HOSTNAME:local}}")
+    private String nodeId;
+
     public RedisConnectionTracker(RedisTemplate<String, Object> redisTemplate) {
         this.redisTemplate = redisTemplate;
         this.valueOps = redisTemplate.opsForValue();
+        this.zSetOps = redisTemplate.opsForZSet();
+        this.setOps = redisTemplate.opsForSet();
+    }
+
+    /**
+     * A new connection id owned by this node.
+     */
+    public String newConnectionId() {
+        return nodeId + ":" + startToken + "-" + connectionCounter.incrementAndGet();
     }
 
     public void registerConnection(String connectionId, String deviceId, String clientIp,
@@ -50,6 +121,11 @@ public class RedisConnectionTracker {
             valueOps.set(deviceKey, connectionId, Duration.ofHours(1));
         }
 
+        // Index by last-seen and by owning node
+        zSetOps.add(LAST_SEEN_INDEX_KEY, connectionId, metadata.getLastSeen().toEpochMilli());
+        setOps.add(getNodeConnectionsKey(nodeId), connectionId);
+        setOps.add(NODES_KEY, nodeId);
+
         // Store live connection in memory
         liveConnections.put(connectionId, nettyConnection);
 
@@ -75,23 +151,23 @@ public class RedisConnectionTracker {
             // Update reverse lookup
             String deviceKey = getDeviceConnectionKey(deviceId);
             valueOps.set(deviceKey, connectionId, Duration.ofHours(1));
+            zSetOps.add(LAST_SEEN_INDEX_KEY, connectionId, metadata.getLastSeen().toEpochMilli());
 
             logger.info("Updated connection {} with device ID {}", connectionId, deviceId);
         }
     }
 
     public void updateLastSeen(String connectionId) {
-        ConnectionMetadata metadata = getConnectionMetadata(connectionId);
-        if (metadata != null) {
-            metadata.setLastSeen(Instant.now());
-
-            // Update Redis
-            String key = getConnectionKey(connectionId);
-            valueOps.set(key, metadata, Duration.ofHours(1));
+        if (lastSeenWriteBehind) {
+            pendingLastSeen.record(connectionId, System.currentTimeMillis());
+            return;
         }
+        flushBatch(List.of(connectionId), List.of(System.currentTimeMillis()));
     }
 
     public void removeConnection(String connectionId) {
+        pendingLastSeen.remove(connectionId);
+
         // Get metadata before removing
         ConnectionMetadata metadata = getConnectionMetadata(connectionId);
 
@@ -100,11 +176,11 @@ public class RedisConnectionTracker {
         redisTemplate.delete(key);
 
         // Remove reverse lookup if we have device ID
-        if (metadata != null && metadata.getDeviceId() != null &&
-                !"unknown".equals(metadata.getDeviceId())) {
-            String deviceKey = getDeviceConnectionKey(metadata.getDeviceId());
-            redisTemplate.delete(deviceKey);
+        if (metadata != null) {
+            deleteDeviceLookup(metadata.getDeviceId(), connectionId);
         }
+        zSetOps.remove(LAST_SEEN_INDEX_KEY, connectionId);
+        setOps.remove(getNodeConnectionsKey(nodeId), connectionId);
 
         // Remove live connection
         Connection liveConnection = liveConnections.remove(connectionId);
@@ -115,6 +191,44 @@ public class RedisConnectionTracker {
         logger.info("Removed connection {}", connectionId);
     }
 
+    /**
+     * Writes buffered last-seen timestamps to Redis: one MGET plus one pipeline per
+     * batch of up to 1000 connections, however many packets arrived in between.
+     */
+    @Scheduled(fixedDelayString = "${tracking.redis.last-seen.flush-interval-ms:1000}")
+    public void flushLastSeen() {
+        if (pendingLastSeen.size() == 0) {
+            return;
+        }
+
+        List<String> connectionIds = new ArrayList<>();
+        List<Long> lastSeen = new ArrayList<>();
+        pendingLastSeen.drain((connectionId, epochMillis) -> {
+            connectionIds.add(connectionId);
+            lastSeen.add(epochMillis);
+        });
+
+        for (int from = 0; from < connectionIds.size(); from += MAX_FLUSH_BATCH) {
+            int to = Math.min(from + MAX_FLUSH_BATCH, connectionIds.size());
+            List<String> batchIds = connectionIds.subList(from, to);
+            List<Long> batchLastSeen = lastSeen.subList(from, to);
+            try {
+                flushBatch(batchIds, batchLastSeen);
+            } catch (DataAccessException e) {
+                // Keep the timestamps for the next flush rather than losing them
+                for (int i = 0; i < batchIds.size(); i++) {
+                    pendingLastSeen.record(batchIds.get(i), batchLastSeen.get(i));
+                }
+                logger.warn("Failed to flush last-seen for {} connections: {}", batchIds.size(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        flushLastSeen();
+    }
+
     public ConnectionInfo getConnectionInfo(String connectionId) {
         // Get metadata from Redis
         ConnectionMetadata metadata = getConnectionMetadata(connectionId);
@@ -131,7 +245,7 @@ public class RedisConnectionTracker {
                 metadata.getDeviceId(),
                 metadata.getClientIp(),
                 metadata.getConnectedAt(),
-                metadata.getLastSeen(),
+                lastSeen(metadata, zSetOps.score(LAST_SEEN_INDEX_KEY, connectionId)),
                 nettyConnection
         );
     }
@@ -154,8 +268,12 @@ public class RedisConnectionTracker {
 
     public int getActiveConnectionCount() {
         // Count from Redis for accuracy across instances
-        String pattern = getConnectionKey("*");
-        Long count = redisTemplate.countExistingKeys(redisTemplate.keys(pattern));
+        Long count = zSetOps.zCard(LAST_SEEN_INDEX_KEY);
+        return count != null ? count.intValue() : 0;
+    }
+
+    public int getNodeConnectionCount() {
+        Long count = setOps.size(getNodeConnectionsKey(nodeId));
         return count != null ? count.intValue() : 0;
     }
 
@@ -166,44 +284,124 @@ public class RedisConnectionTracker {
     public Map<String, ConnectionInfo> getAllConnections() {
         Map<String, ConnectionInfo> connections = new ConcurrentHashMap<>();
 
-        String pattern = getConnectionKey("*");
-        redisTemplate.keys(pattern).forEach(key -> {
-            Object value = valueOps.get(key);
-            if (value instanceof ConnectionMetadata metadata) {
-                Connection nettyConnection = liveConnections.get(metadata.getConnectionId());
-                ConnectionInfo info = new ConnectionInfo(
-                        metadata.getConnectionId(),
-                        metadata.getDeviceId(),
-                        metadata.getClientIp(),
-                        metadata.getConnectedAt(),
-                        metadata.getLastSeen(),
-                        nettyConnection
-                );
-                connections.put(metadata.getConnectionId(), info);
+        List<String> batch = new ArrayList<>(MAX_FLUSH_BATCH);
+        Map<String, Double> scores = new HashMap<>();
+        ScanOptions options = ScanOptions.scanOptions().count(MAX_FLUSH_BATCH).build();
+        try (Cursor<ZSetOperations.TypedTuple<Object>> cursor = zSetOps.scan(LAST_SEEN_INDEX_KEY, options)) {
+            while (cursor.hasNext()) {
+                ZSetOperations.TypedTuple<Object> entry = cursor.next();
+                if (entry.getValue() instanceof String connectionId) {
+                    batch.add(connectionId);
+                    scores.put(connectionId, entry.getScore());
+                }
+                if (batch.size() == MAX_FLUSH_BATCH || !cursor.hasNext()) {
+                    for (ConnectionMetadata metadata : getConnectionMetadata(batch)) {
+                        connections.put(metadata.getConnectionId(),
+                                toConnectionInfo(metadata, scores.get(metadata.getConnectionId())));
+                    }
+                    batch.clear();
+                    scores.clear();
+                }
             }
-        });
+        }
 
         return connections;
     }
 
+    /**
+     * Removes index entries and keys of connections that are gone: connections this
+     * node registered but no longer holds live, and connections on any node not seen
+     * for longer than the key TTL (their instance most likely died).
+     */
+    @Scheduled(fixedDelayString = "${tracking.redis.stale-cleanup-interval-ms:300000}")
     public void cleanupStaleConnections() {
-        // Clean up connections where Redis entry exists but no live connection
-        String pattern = getConnectionKey("*");
-        redisTemplate.keys(pattern).forEach(key -> {
-            Object value = valueOps.get(key);
-            if (value instanceof ConnectionMetadata metadata) {
-                String connectionId = metadata.getConnectionId();
-                if (!liveConnections.containsKey(connectionId)) {
-                    // Connection is stale, remove from Redis
-                    redisTemplate.delete(key);
-                    logger.info("Cleaned up stale connection: {}", connectionId);
-
-                    // Clean up reverse lookup if needed
-                    String deviceKey = getDeviceConnectionKey(metadata.getDeviceId());
-                    redisTemplate.delete(deviceKey);
+        // Connections owned by this node but no longer live here
+        List<String> orphaned = new ArrayList<>();
+        ScanOptions options = ScanOptions.scanOptions().count(MAX_FLUSH_BATCH).build();
+        try (Cursor<Object> cursor = setOps.scan(getNodeConnectionsKey(nodeId), options)) {
+            while (cursor.hasNext()) {
+                if (cursor.next() instanceof String connectionId && !liveConnections.containsKey(connectionId)) {
+                    orphaned.add(connectionId);
+                }
+            }
+        }
+        for (int from = 0; from < orphaned.size(); from += MAX_FLUSH_BATCH) {
+            purgeConnections(orphaned.subList(from, Math.min(from + MAX_FLUSH_BATCH, orphaned.size())), true);
+        }
+
+        // Connections on any node whose last-seen is older than the key TTL
+        long cutoff = Instant.now().minus(CONNECTION_TTL).toEpochMilli();
+        Set<Object> expired;
+        do {
+            expired = zSetOps.rangeByScore(LAST_SEEN_INDEX_KEY, Double.NEGATIVE_INFINITY, cutoff, 0, MAX_FLUSH_BATCH);
+            if (expired == null || expired.isEmpty()) {
+                break;
+            }
+            List<String> connectionIds = new ArrayList<>(expired.size());
+            expired.forEach(member -> connectionIds.add(String.valueOf(member)));
+            purgeConnections(connectionIds, false);
+        } while (expired.size() == MAX_FLUSH_BATCH);
+    }
+
+    /**
+     * Deletes the keys and index entries of the connections. Orphans of this node are only
+     * removed from its own set; expired connections from their owner's set, or from every
+     * node's set for ids without an owner.
+     */
+    private void purgeConnections(List<String> connectionIds, boolean ownOrphans) {
+        List<ConnectionMetadata> metadata = getConnectionMetadata(connectionIds);
+        Map<String, List<Object>> membersByNode = new HashMap<>();
+        Set<Object> allNodes = null;
+        for (String connectionId : connectionIds) {
+            String owner = ownOrphans ? nodeId : ownerOf(connectionId);
+            if (owner != null) {
+                membersByNode.computeIfAbsent(owner, node -> new ArrayList<>()).add(connectionId);
+                continue;
+            }
+            if (allNodes == null) {
+                allNodes = setOps.members(NODES_KEY);
+            }
+            if (allNodes != null) {
+                for (Object node : allNodes) {
+                    membersByNode.computeIfAbsent(String.valueOf(node), key -> new ArrayList<>()).add(connectionId);
+                }
+            }
+        }
+        Object[] members = connectionIds.toArray();
+
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                for (String connectionId : connectionIds) {
+                    ops.delete(getConnectionKey(connectionId));
                 }
+                ops.opsForZSet().remove(LAST_SEEN_INDEX_KEY, members);
+                membersByNode.forEach((node, nodeMembers) ->
+                        ops.opsForSet().remove(getNodeConnectionsKey(node), nodeMembers.toArray()));
+                return null;
             }
         });
+        for (ConnectionMetadata entry : metadata) {
+            deleteDeviceLookup(entry.getDeviceId(), entry.getConnectionId());
+        }
+
+        connectionIds.forEach(connectionId -> logger.info("Cleaned up stale connection: {}", connectionId));
+    }
+
+    private void deleteDeviceLookup(String deviceId, String connectionId) {
+        if (deviceId != null && !"unknown".equals(deviceId)) {
+            redisTemplate.execute(DELETE_IF_EQUALS, List.of(getDeviceConnectionKey(deviceId)), connectionId);
+        }
+    }
+
+    /**
+     * The node that created the connection, or null for ids from before ids named their node.
+     */
+    static String ownerOf(String connectionId) {
+        int separator = connectionId.lastIndexOf(':');
+        return separator > 0 ? connectionId.substring(0, separator) : null;
     }
 
     private String getConnectionKey(String connectionId) {
@@ -214,6 +412,73 @@ public class RedisConnectionTracker {
         return "tracker:device:connection:" + deviceId;
     }
 
+    private String getNodeConnectionsKey(String node) {
+        return "tracker:node:" + node + ":connections";
+    }
+
+    private ConnectionInfo toConnectionInfo(ConnectionMetadata metadata, Double lastSeenScore) {
+        return new ConnectionInfo(
+                metadata.getConnectionId(),
+                metadata.getDeviceId(),
+                metadata.getClientIp(),
+                metadata.getConnectedAt(),
+                lastSeen(metadata, lastSeenScore),
+                liveConnections.get(metadata.getConnectionId())
+        );
+    }
+
+    private static Instant lastSeen(ConnectionMetadata metadata, Double lastSeenScore) {
+        if (lastSeenScore == null) {
+            return metadata.getLastSeen();
+        }
+        Instant indexed = Instant.ofEpochMilli(lastSeenScore.longValue());
+        return metadata.getLastSeen() == null || indexed.isAfter(metadata.getLastSeen())
+                ? indexed : metadata.getLastSeen();
+    }
+
+    private List<ConnectionMetadata> getConnectionMetadata(List<String> connectionIds) {
+        if (connectionIds.isEmpty()) {
+            return List.of();
+        }
+        List<Object> values = valueOps.multiGet(connectionIds.stream().map(this::getConnectionKey).toList());
+        List<ConnectionMetadata> metadata = new ArrayList<>(connectionIds.size());
+        if (values != null) {
+            for (Object value : values) {
+                if (value instanceof ConnectionMetadata entry) {
+                    metadata.add(entry);
+                }
+            }
+        }
+        return metadata;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void flushBatch(List<String> connectionIds, List<Long> lastSeen) {
+        // Read only for the device ids whose reverse lookup TTL is refreshed
+        List<ConnectionMetadata> current = getConnectionMetadata(connectionIds);
+        RedisSerializer<String> keySerializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        byte[] indexKey = keySerializer.serialize(LAST_SEEN_INDEX_KEY);
+        long ttlSeconds = CONNECTION_TTL.toSeconds();
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < connectionIds.size(); i++) {
+                String connectionId = connectionIds.get(i);
+                // XX: a connection removed since it was buffered stays removed
+                connection.zSetCommands().zAdd(indexKey, lastSeen.get(i), valueSerializer.serialize(connectionId),
+                        RedisZSetCommands.ZAddArgs.ifExists());
+                connection.keyCommands().expire(keySerializer.serialize(getConnectionKey(connectionId)), ttlSeconds);
+            }
+            for (ConnectionMetadata metadata : current) {
+                if (metadata.getDeviceId() != null && !"unknown".equals(metadata.getDeviceId())) {
+                    connection.keyCommands().expire(
+                            keySerializer.serialize(getDeviceConnectionKey(metadata.getDeviceId())), ttlSeconds);
+                }
+            }
+            return null;
+        });
+    }
+
     private ConnectionMetadata getConnectionMetadata(String connectionId) {
         String key = getConnectionKey(connectionId);
         Object value = valueOps.get(key);
@@ -0,0 +1,63 @@
+package com.jjenus.tracker.shared.pubsub;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AfterCommitTest {
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void run_withoutTransaction_runsAtOnce() {
+        // given
+        AtomicInteger runs = new AtomicInteger();
+
+        // when
+        AfterCommit.run(runs::incrementAndGet);
+
+        // then
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void run_insideTransaction_waitsForCommit() {
+        // given
+        AtomicInteger runs = new AtomicInteger();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // when
+        AfterCommit.run(runs::incrementAndGet);
+
+        // then
+        assertThat(runs).hasValue(0);
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void run_rolledBack_neverRuns() {
+        // given
+        AtomicInteger runs = new AtomicInteger();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // when
+        AfterCommit.run(runs::incrementAndGet);
+        TransactionSynchronizationUtils.invokeAfterCompletion(
+                TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // then
+        assertThat(runs).hasValue(0);
+    }
+}
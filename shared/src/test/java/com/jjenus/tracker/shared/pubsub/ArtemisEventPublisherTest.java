@@ -0,0 +1,89 @@
+package com.jjenus.tracker.shared.pubsub;
+
+import com.jjenus.tracker.shared.events.AlertRaisedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jms.UncategorizedJmsException;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.core.SessionCallback;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ArtemisEventPublisherTest {
+
+    private static final String ALERT_DESTINATION = "tracking.events.alertraisedevent";
+
+    @Mock
+    private JmsTemplate jmsTemplate;
+
+    @Mock
+    private JmsTemplate batchJmsTemplate;
+
+    @Test
+    void publish_batchFailsToSend_keepsItForTheNextFlush() {
+        // given
+        when(batchJmsTemplate.execute(any(SessionCallback.class), anyBoolean()))
+                .thenThrow(new UncategorizedJmsException("broker down"))
+                .thenReturn(null);
+        ArtemisEventPublisher publisher = newPublisher(2, 10);
+
+        // when
+        publisher.publish(new TestEvent());
+        publisher.publish(new TestEvent());
+        publisher.destroy();
+
+        // then
+        verify(batchJmsTemplate, times(2)).execute(any(SessionCallback.class), anyBoolean());
+    }
+
+    @Test
+    void publish_tooManyEventsWaiting_fails() {
+        // given
+        when(batchJmsTemplate.execute(any(SessionCallback.class), anyBoolean()))
+                .thenThrow(new UncategorizedJmsException("broker down"));
+        ArtemisEventPublisher publisher = newPublisher(2, 4);
+        for (int i = 0; i < 4; i++) {
+            publisher.publish(new TestEvent());
+        }
+
+        // when / then
+        assertThatThrownBy(() -> publisher.publish(new TestEvent())).isInstanceOf(RuntimeException.class);
+        verify(batchJmsTemplate, times(1)).execute(any(SessionCallback.class), anyBoolean());
+    }
+
+    @Test
+    void publish_alertDestination_isSentUnbatched() {
+        // given
+        ArtemisEventPublisher publisher = newPublisher(100, 1000);
+
+        // when
+        publisher.publish(new AlertRaisedEvent("1", "rule", "vehicle-001", "SPEED", "WARNING", "Too fast",
+                Instant.now(), 1.0, 2.0, 90.0, Map.of()));
+
+        // then
+        verify(jmsTemplate).execute(any(SessionCallback.class), anyBoolean());
+        verify(batchJmsTemplate, never()).execute(any(SessionCallback.class), anyBoolean());
+    }
+
+    private ArtemisEventPublisher newPublisher(int maxSize, int maxPending) {
+        // A long delay keeps the scheduled flusher out of the way; destroy() flushes
+        return new ArtemisEventPublisher(jmsTemplate, batchJmsTemplate, true, maxSize, 60_000, maxPending,
+                Set.of(ALERT_DESTINATION), Set.of());
+    }
+
+    static class TestEvent extends DomainEvent {
+    }
+}
@@ -0,0 +1,126 @@
+package com.jjenus.tracker.shared.pubsub;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.jjenus.tracker.shared.domain.LocationPoint;
+import com.jjenus.tracker.shared.events.LocationDataEvent;
+import com.jjenus.tracker.shared.events.VehicleUpdatedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class BinaryEventCodecTest {
+
+    private static final LocationPoint LOCATION =
+        new LocationPoint(22.675865312, -113.972065871, 18.52f, Instant.parse("2015-08-10T14:54:52.123Z"));
+
+    @Test
+    void decode_encodedLocationDataEvent_restoresEvent() {
+        // given
+        LocationDataEvent event = new LocationDataEvent("865205030330012", LOCATION, "GT06");
+
+        // when
+        DomainEvent decoded = BinaryEventCodec.decode(BinaryEventCodec.encode(event));
+
+        // then
+        assertThat(decoded).isInstanceOf(LocationDataEvent.class);
+        LocationDataEvent result = (LocationDataEvent) decoded;
+        assertThat(result.getEventId()).isEqualTo(event.getEventId());
+        assertThat(result.getOccurredOn()).isEqualTo(event.getOccurredOn().truncatedTo(ChronoUnit.MILLIS));
+        assertThat(result.getDeviceId()).isEqualTo("865205030330012");
+        assertThat(result.getProtocol()).isEqualTo("GT06");
+        assertLocationClose(result.getLocation());
+    }
+
+    @Test
+    void decode_encodedVehicleUpdatedEvent_restoresEvent() {
+        // given
+        VehicleUpdatedEvent event = new VehicleUpdatedEvent("VEH_865205030330012", LOCATION, new HashMap<>());
+
+        // when
+        DomainEvent decoded = BinaryEventCodec.decode(BinaryEventCodec.encode(event));
+
+        // then
+        assertThat(decoded).isInstanceOf(VehicleUpdatedEvent.class);
+        VehicleUpdatedEvent result = (VehicleUpdatedEvent) decoded;
+        assertThat(result.getEventId()).isEqualTo(event.getEventId());
+        assertThat(result.getVehicleId()).isEqualTo("VEH_865205030330012");
+        assertThat(result.getMetaData()).isEmpty();
+        assertLocationClose(result.getNewLocation());
+    }
+
+    @Test
+    void decode_imeiWithLeadingZeros_keepsDigits() {
+        // given
+        LocationDataEvent event = new LocationDataEvent("0081680000", LOCATION, "Autoseeker");
+
+        // when
+        LocationDataEvent result = (LocationDataEvent) BinaryEventCodec.decode(BinaryEventCodec.encode(event));
+
+        // then
+        assertThat(result.getDeviceId()).isEqualTo("0081680000");
+    }
+
+    @Test
+    void encode_unsupportedContent_returnsNullForJsonFallback() {
+        // given
+        LocationDataEvent withMetaData = new LocationDataEvent("865205030330012", LOCATION, "GT06",
+            new HashMap<>(Map.of("battery", 80)));
+        LocationDataEvent namedDevice = new LocationDataEvent("DEV001", LOCATION, "Autoseeker");
+        LocationDataEvent noTimestamp = new LocationDataEvent("865205030330012",
+            new LocationPoint(1.0, 2.0, 0.0f, null), "GT06");
+
+        // then
+        assertThat(BinaryEventCodec.encode(withMetaData)).isNull();
+        assertThat(BinaryEventCodec.encode(namedDevice)).isNull();
+        assertThat(BinaryEventCodec.encode(noTimestamp)).isNull();
+    }
+
+    @Test
+    void encode_locationDataEvent_isMuchSmallerThanTypedJson() throws Exception {
+        // given
+        ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        mapper.activateDefaultTyping(mapper.getPolymorphicTypeValidator(),
+            ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+        LocationDataEvent event = new LocationDataEvent("865205030330012", LOCATION, "GT06");
+
+        // when
+        int binarySize = BinaryEventCodec.encode(event).length;
+        int jsonSize = mapper.writeValueAsBytes(event).length;
+
+        // then
+        assertThat(binarySize).isEqualTo(57);
+        assertThat(binarySize * 4).isLessThan(jsonSize);
+    }
+
+    @Test
+    void decode_truncatedBytes_throwsIllegalArgumentException() {
+        // given
+        byte[] encoded = BinaryEventCodec.encode(new LocationDataEvent("865205030330012", LOCATION, "GT06"));
+        byte[] truncated = Arrays.copyOf(encoded, encoded.length - 10);
+
+        // when / then
+        assertThatThrownBy(() -> BinaryEventCodec.decode(truncated))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Truncated");
+    }
+
+    private static void assertLocationClose(LocationPoint result) {
+        assertThat(result.latitude()).isCloseTo(LOCATION.latitude(), within(1e-7));
+        assertThat(result.longitude()).isCloseTo(LOCATION.longitude(), within(1e-7));
+        assertThat(result.speedKmh()).isCloseTo(LOCATION.speedKmh(), within(0.01f));
+        assertThat(result.timestamp()).isEqualTo(LOCATION.timestamp());
+    }
+}
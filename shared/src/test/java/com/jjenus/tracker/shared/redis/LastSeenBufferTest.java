@@ -0,0 +1,69 @@
+package com.jjenus.tracker.shared.redis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LastSeenBufferTest {
+
+    @Test
+    void record_sameConnectionManyTimes_coalescesToNewestTimestamp() {
+        // given
+        LastSeenBuffer buffer = new LastSeenBuffer();
+
+        // when
+        buffer.record("conn-1", 100L);
+        buffer.record("conn-1", 300L);
+        buffer.record("conn-1", 200L);
+
+        // then
+        assertThat(drain(buffer)).containsExactly(Map.entry("conn-1", 300L));
+    }
+
+    @Test
+    void drain_afterDrain_returnsOnlyNewRecords() {
+        // given
+        LastSeenBuffer buffer = new LastSeenBuffer();
+        buffer.record("conn-1", 100L);
+        drain(buffer);
+
+        // when
+        buffer.record("conn-2", 200L);
+
+        // then
+        assertThat(drain(buffer)).containsOnlyKeys("conn-2");
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void remove_manyConnections_keepsRemainingEntriesReachable() {
+        // given
+        LastSeenBuffer buffer = new LastSeenBuffer();
+        for (int i = 0; i < 5_000; i++) {
+            buffer.record("conn-" + i, i);
+        }
+
+        // when
+        for (int i = 0; i < 5_000; i += 2) {
+            buffer.remove("conn-" + i);
+        }
+        for (int i = 1; i < 5_000; i += 2) {
+            buffer.record("conn-" + i, i + 1L);
+        }
+
+        // then
+        Map<String, Long> drained = drain(buffer);
+        assertThat(drained).hasSize(2_500);
+        assertThat(drained).containsEntry("conn-1", 2L).containsEntry("conn-4999", 5_000L);
+        assertThat(drained).doesNotContainKey("conn-0");
+    }
+
+    private static Map<String, Long> drain(LastSeenBuffer buffer) {
+        Map<String, Long> drained = new HashMap<>();
+        buffer.drain(drained::put);
+        return drained;
+    }
+}
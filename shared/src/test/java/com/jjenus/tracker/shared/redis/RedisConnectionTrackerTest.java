@@ -0,0 +1,80 @@
+package com.jjenus.tracker.shared.redis;
+
+import com.jjenus.tracker.shared.domain.ConnectionMetadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RedisConnectionTrackerTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOps;
+
+    @Mock
+    private ZSetOperations<String, Object> zSetOps;
+
+    @Mock
+    private SetOperations<String, Object> setOps;
+
+    private RedisConnectionTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOps);
+        when(redisTemplate.opsForSet()).thenReturn(setOps);
+        tracker = new RedisConnectionTracker(redisTemplate);
+        ReflectionTestUtils.setField(tracker, "nodeId", "node-a");
+    }
+
+    @Test
+    void newConnectionId_namesThisNode() {
+        // when
+        String first = tracker.newConnectionId();
+        String second = tracker.newConnectionId();
+
+        // then
+        assertThat(first).isNotEqualTo(second).startsWith("node-a:");
+        assertThat(RedisConnectionTracker.ownerOf(first)).isEqualTo("node-a");
+        assertThat(RedisConnectionTracker.ownerOf("conn-7")).isNull();
+    }
+
+    @Test
+    void removeConnection_deviceLookupDeletedOnlyIfStillPointingHere() {
+        // given
+        String connectionId = tracker.newConnectionId();
+        when(valueOps.get("tracker:connection:" + connectionId)).thenReturn(
+                new ConnectionMetadata(connectionId, "865205030330012", "10.0.0.1", Instant.now(), Instant.now()));
+
+        // when
+        tracker.removeConnection(connectionId);
+
+        // then
+        verify(redisTemplate).execute(any(RedisScript.class),
+                eq(List.of("tracker:device:connection:865205030330012")), eq(connectionId));
+        verify(redisTemplate, never()).delete("tracker:device:connection:865205030330012");
+        verify(setOps).remove("tracker:node:node-a:connections", connectionId);
+    }
+}
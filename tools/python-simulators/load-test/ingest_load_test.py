@@ -0,0 +1,174 @@
+"""
+Ingest load test: many simulated GT06 devices against the TCP server.
+
+Opens N device connections, sends V0 login and then V1 GPS packets at a fixed
+rate per device, and reads the server's ingest meters from the actuator
+metrics endpoint before and after the run. The result line reports offered
+and processed throughput, rejected packets and the peak queue depth.
+
+Comparing platform vs virtual threads:
+
+    # platform threads (default build, Java 17+)
+    INGEST_LANES=8 mvn -pl main-app spring-boot:run
+    python ingest_load_test.py --devices 2000 --rate 2 --label platform --csv results.csv
+
+    # virtual threads (Java 21)
+    mvn -Pjava21 install
+    VIRTUAL_THREADS=true INGEST_LANES=256 INGEST_MAX_CONCURRENCY=64 mvn -Pjava21 -pl main-app spring-boot:run
+    python ingest_load_test.py --devices 2000 --rate 2 --label virtual --csv results.csv
+
+Run both against the same broker/Redis setup; results.csv then holds one row
+per configuration.
+"""
+import argparse
+import asyncio
+import csv
+import json
+import os
+import random
+import time
+import urllib.request
+from datetime import datetime, timezone
+
+
+def metric_value(actuator, name, statistic):
+    """Read one statistic of an actuator meter, None when the meter is missing"""
+    try:
+        with urllib.request.urlopen(f"{actuator}/actuator/metrics/{name}", timeout=5) as response:
+            body = json.load(response)
+    except Exception:
+        return None
+    for measurement in body.get("measurements", []):
+        if measurement.get("statistic") == statistic:
+            return measurement.get("value")
+    return None
+
+
+def gps_packet(imei, lat, lon, speed):
+    now = datetime.now(timezone.utc)
+    lat_deg = int(lat)
+    lon_deg = int(lon)
+    lat_str = f"{lat_deg:02d}{(lat - lat_deg) * 60:07.4f}"
+    lon_str = f"{lon_deg:03d}{(lon - lon_deg) * 60:07.4f}"
+    return (f"*HQ,{imei},V1,{now.strftime('%H%M%S')},A,{lat_str},N,{lon_str},E,"
+            f"{speed:05.2f},{random.randint(0, 359):03d},{now.strftime('%d%m%y')},FFFFFBFF#")
+
+
+async def run_device(index, args, deadline, stats):
+    imei = f"86520503{index:07d}"
+    try:
+        reader, writer = await asyncio.open_connection(args.host, args.port)
+    except OSError as e:
+        stats["failed"] += 1
+        if stats["failed"] <= 5:
+            print(f"[-] Device {imei} failed to connect: {e}")
+        return
+
+    stats["connected"] += 1
+    lat = 22.675865 + random.uniform(-0.5, 0.5)
+    lon = 113.972065 + random.uniform(-0.5, 0.5)
+    interval = 1.0 / args.rate
+    # Spread devices over the first interval so packets don't arrive in lock-step
+    await asyncio.sleep(random.uniform(0, interval))
+    try:
+        writer.write(f"*HQ,{imei},V0#".encode())
+        next_send = time.monotonic()
+        while time.monotonic() < deadline:
+            lat += random.uniform(-0.0005, 0.0005)
+            lon += random.uniform(-0.0005, 0.0005)
+            writer.write(gps_packet(imei, lat, lon, random.uniform(0, 60)).encode())
+            await writer.drain()
+            stats["sent"] += 1
+            next_send += interval
+            await asyncio.sleep(max(0.0, next_send - time.monotonic()))
+    except (ConnectionError, OSError):
+        stats["dropped"] += 1
+    finally:
+        writer.close()
+
+
+async def sample_queue_depth(args, deadline, stats):
+    while time.monotonic() < deadline:
+        depth = await asyncio.to_thread(metric_value, args.actuator, "tracking.ingest.queue.depth", "VALUE")
+        if depth is not None:
+            stats["peak_depth"] = max(stats["peak_depth"], depth)
+        await asyncio.sleep(1)
+
+
+async def main_async(args):
+    stats = {"connected": 0, "failed": 0, "dropped": 0, "sent": 0, "peak_depth": 0}
+
+    processed_before = metric_value(args.actuator, "tracking.ingest.processed", "COUNT")
+    rejected_before = metric_value(args.actuator, "tracking.ingest.rejected", "COUNT")
+    if processed_before is None:
+        print(f"[!] No ingest meters at {args.actuator}; only client-side numbers will be reported")
+
+    start = time.monotonic()
+    deadline = start + args.ramp_up + args.duration
+    devices = []
+    for i in range(args.devices):
+        devices.append(asyncio.create_task(run_device(i, args, deadline, stats)))
+        if args.ramp_up > 0:
+            await asyncio.sleep(args.ramp_up / args.devices)
+    print(f"[+] {stats['connected']} devices connected, {stats['failed']} failed")
+
+    await asyncio.gather(sample_queue_depth(args, deadline, stats), *devices)
+    # Let the server drain what is still queued before reading the counters
+    await asyncio.sleep(args.drain)
+    elapsed = time.monotonic() - start
+
+    processed_after = metric_value(args.actuator, "tracking.ingest.processed", "COUNT")
+    rejected_after = metric_value(args.actuator, "tracking.ingest.rejected", "COUNT")
+    processed = (processed_after - processed_before) if processed_before is not None and processed_after is not None else None
+    rejected = (rejected_after - rejected_before) if rejected_before is not None and rejected_after is not None else None
+
+    result = {
+        "label": args.label,
+        "devices": args.devices,
+        "rate_per_device": args.rate,
+        "duration_s": round(elapsed, 1),
+        "sent": stats["sent"],
+        "offered_per_s": round(stats["sent"] / elapsed, 1),
+        "processed": processed,
+        "processed_per_s": round(processed / elapsed, 1) if processed is not None else None,
+        "rejected": rejected,
+        "peak_queue_depth": stats["peak_depth"],
+        "connect_failures": stats["failed"],
+        "dropped_connections": stats["dropped"],
+    }
+
+    print("\n" + "=" * 50)
+    print(f"INGEST LOAD TEST: {args.label}")
+    print("=" * 50)
+    for key, value in result.items():
+        print(f"{key:>22}: {value}")
+
+    if args.csv:
+        new_file = not os.path.exists(args.csv)
+        with open(args.csv, "a", newline="") as f:
+            writer = csv.DictWriter(f, fieldnames=list(result.keys()))
+            if new_file:
+                writer.writeheader()
+            writer.writerow(result)
+        print(f"[+] Appended result to {args.csv}")
+
+
+def main():
+    parser = argparse.ArgumentParser(description="GT06 ingest load test")
+    parser.add_argument("--host", default="localhost")
+    parser.add_argument("--port", type=int, default=8888)
+    parser.add_argument("--actuator", default="http://localhost:8080", help="base URL of the management endpoints")
+    parser.add_argument("--devices", type=int, default=500)
+    parser.add_argument("--rate", type=float, default=1.0, help="packets per second per device")
+    parser.add_argument("--duration", type=float, default=60, help="seconds of steady load")
+    parser.add_argument("--ramp-up", type=float, default=10, help="seconds to open all connections")
+    parser.add_argument("--drain", type=float, default=5, help="seconds to wait before reading counters")
+    parser.add_argument("--label", default="run", help="name of the server configuration under test")
+    parser.add_argument("--csv", help="append the result row to this CSV file")
+    args = parser.parse_args()
+
+    asyncio.run(main_async(args))
+
+
+if __name__ == "__main__":
+    main()